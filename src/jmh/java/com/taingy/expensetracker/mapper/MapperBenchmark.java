@@ -0,0 +1,102 @@
+package com.taingy.expensetracker.mapper;
+
+import com.taingy.expensetracker.dto.AuditLogResponse;
+import com.taingy.expensetracker.dto.ExpenseResponse;
+import com.taingy.expensetracker.model.AuditLog;
+import com.taingy.expensetracker.model.Category;
+import com.taingy.expensetracker.model.Expense;
+import com.taingy.expensetracker.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of mapping one page of entities to response DTOs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MapperBenchmark {
+
+    @Param({"20", "100", "1000"})
+    public int size;
+
+    private final ExpenseMapper expenseMapper = new ExpenseMapper();
+    private final AuditLogMapper auditLogMapper = new AuditLogMapper();
+
+    private List<Expense> expenses;
+    private List<AuditLog> auditLogs;
+
+    @Setup
+    public void setUp() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setEmail("john.doe@example.com");
+
+        Category category = new Category();
+        category.setId(UUID.randomUUID());
+        category.setName("Food");
+
+        expenses = new ArrayList<>(size);
+        auditLogs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Expense expense = new Expense();
+            expense.setId(UUID.randomUUID());
+            expense.setTitle("Expense " + i);
+            expense.setDescription("Benchmark expense " + i);
+            expense.setAmount(BigDecimal.valueOf(1000 + i, 2));
+            expense.setExpenseDate(LocalDate.now().minusDays(i % 365));
+            expense.setUser(user);
+            expense.setCategory(category);
+            expense.setCreatedAt(LocalDateTime.now());
+            expense.setUpdatedAt(LocalDateTime.now());
+            expenses.add(expense);
+
+            auditLogs.add(AuditLog.builder()
+                    .id(UUID.randomUUID())
+                    .action("UPDATE")
+                    .entityType("EXPENSE")
+                    .entityId(expense.getId().toString())
+                    .user(user)
+                    .userEmail(user.getEmail())
+                    .details("{\"amount\":\"" + expense.getAmount() + "\"}")
+                    .ipAddress("127.0.0.1")
+                    .userAgent("jmh")
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<ExpenseResponse> expenseToDto() {
+        List<ExpenseResponse> responses = new ArrayList<>(size);
+        for (Expense expense : expenses) {
+            responses.add(expenseMapper.toDto(expense));
+        }
+        return responses;
+    }
+
+    @Benchmark
+    public List<AuditLogResponse> auditLogToDto() {
+        List<AuditLogResponse> responses = new ArrayList<>(size);
+        for (AuditLog auditLog : auditLogs) {
+            responses.add(auditLogMapper.toDto(auditLog));
+        }
+        return responses;
+    }
+}
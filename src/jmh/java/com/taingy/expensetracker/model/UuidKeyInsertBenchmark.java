@@ -0,0 +1,128 @@
+package com.taingy.expensetracker.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput into a table keyed like {@code expenses}, with random (version 4) or
+ * time-ordered ({@link UuidV7Generator}) primary keys. The score is rows per second; at the end of
+ * each trial the size of the primary key index, and on PostgreSQL the WAL written, are printed.
+ * <p>
+ * By default this runs against a file-based H2 database in a temporary directory. The effect of
+ * random keys on page splits and WAL is best seen on PostgreSQL, for example:
+ * <pre>
+ * java -jar build/libs/expense-tracker-0.0.1-SNAPSHOT-jmh.jar UuidKeyInsertBenchmark \
+ *     -p jdbcUrl=jdbc:postgresql://localhost:5432/bench -p user=bench -p password=bench
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class UuidKeyInsertBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Param({"random", "v7"})
+    public String keys;
+
+    /**
+     * Empty for a temporary H2 database.
+     */
+    @Param({""})
+    public String jdbcUrl;
+
+    @Param({"sa"})
+    public String user;
+
+    @Param({""})
+    public String password;
+
+    private Connection connection;
+    private PreparedStatement insert;
+    private boolean postgres;
+    private long walStart;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final UUID userId = UUID.randomUUID();
+
+    @Setup
+    public void setUp() throws Exception {
+        String url = jdbcUrl.isEmpty()
+                ? "jdbc:h2:" + Files.createTempDirectory("uuid-keys").resolve("bench")
+                : jdbcUrl;
+        connection = DriverManager.getConnection(url, user, password);
+        connection.setAutoCommit(false);
+        postgres = connection.getMetaData().getDatabaseProductName().equals("PostgreSQL");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS uuid_key_bench");
+            statement.execute("CREATE TABLE uuid_key_bench (id uuid PRIMARY KEY, user_id uuid NOT NULL, "
+                    + "title varchar(150) NOT NULL, amount numeric(10, 2) NOT NULL, created_at timestamp NOT NULL)");
+        }
+        connection.commit();
+        walStart = postgres ? queryLong("SELECT pg_current_wal_lsn() - '0/0'") : 0;
+        insert = connection.prepareStatement(
+                "INSERT INTO uuid_key_bench (id, user_id, title, amount, created_at) VALUES (?, ?, ?, ?, ?)");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        long rows = queryLong("SELECT COUNT(*) FROM uuid_key_bench");
+        if (postgres) {
+            long indexBytes = queryLong("SELECT pg_relation_size('uuid_key_bench_pkey')");
+            long walBytes = queryLong("SELECT pg_current_wal_lsn() - '0/0'") - walStart;
+            System.out.printf("%n%s keys: %d rows, primary key %d KiB (%.1f bytes/row), WAL %.1f bytes/row%n",
+                    keys, rows, indexBytes / 1024, (double) indexBytes / rows, (double) walBytes / rows);
+        } else {
+            // H2 only reports the table together with its indexes
+            long bytes = queryLong("SELECT DISK_SPACE_USED('UUID_KEY_BENCH')");
+            System.out.printf("%n%s keys: %d rows, table and indexes %d KiB (%.1f bytes/row)%n",
+                    keys, rows, bytes / 1024, (double) bytes / rows);
+        }
+        insert.close();
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void insertBatch() throws SQLException {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int i = 0; i < BATCH; i++) {
+            insert.setObject(1, keys.equals("v7") ? UuidV7Generator.next() : UUID.randomUUID());
+            insert.setObject(2, userId);
+            insert.setString(3, "Lunch");
+            insert.setBigDecimal(4, BigDecimal.valueOf(100 + random.nextInt(100_000), 2));
+            insert.setTimestamp(5, now);
+            insert.addBatch();
+        }
+        insert.executeBatch();
+        connection.commit();
+    }
+
+    private long queryLong(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.taingy.expensetracker.repository;
+
+import com.taingy.expensetracker.model.Category;
+import com.taingy.expensetracker.model.Expense;
+import com.taingy.expensetracker.model.Role;
+import com.taingy.expensetracker.model.User;
+import com.taingy.expensetracker.repository.projection.ExpenseListItem;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceConfiguration;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the filtered expense search in {@link ExpenseRepositoryCustomImpl}, against an in-memory
+ * H2 database seeded with {@code rows} expenses.
+ * <p>
+ * {@code buildQuery} isolates the Criteria construction and Hibernate's translation of it, which
+ * is paid on every call because Criteria queries are not cached like named JPQL queries.
+ * {@code findExpensesWithFilters} is the full page plus count query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExpenseCriteriaBenchmark {
+
+    private static final int USERS = 20;
+    private static final int CATEGORIES = 10;
+
+    @Param({"1000", "10000"})
+    public int rows;
+
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private ExpenseRepositoryCustomImpl repository;
+    private UUID userId;
+    private Pageable pageable;
+
+    @Setup
+    public void setUp() {
+        entityManagerFactory = new PersistenceConfiguration("expense-criteria-benchmark")
+                .managedClass(Role.class)
+                .managedClass(User.class)
+                .managedClass(Category.class)
+                .managedClass(Expense.class)
+                .property(PersistenceConfiguration.JDBC_URL, "jdbc:h2:mem:criteria-" + rows + ";DB_CLOSE_DELAY=-1")
+                .property(PersistenceConfiguration.JDBC_USER, "sa")
+                .property(PersistenceConfiguration.SCHEMAGEN_DATABASE_ACTION, "drop-and-create")
+                .createEntityManagerFactory();
+        entityManager = entityManagerFactory.createEntityManager();
+        seed();
+
+        repository = new ExpenseRepositoryCustomImpl();
+        Field field = ReflectionUtils.findField(ExpenseRepositoryCustomImpl.class, "entityManager");
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, repository, entityManager);
+
+        pageable = PageRequest.of(0, 20, Sort.by("expenseDate").descending());
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        entityManagerFactory.close();
+    }
+
+    @Benchmark
+    public TypedQuery<ExpenseListItem> buildQuery() {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ExpenseListItem> query = cb.createQuery(ExpenseListItem.class);
+        Root<Expense> expense = query.from(Expense.class);
+        Join<Expense, User> user = expense.join("user");
+        Join<Expense, Category> category = expense.join("category");
+        query.select(cb.construct(ExpenseListItem.class, expense.get("id"), expense.get("expenseDate"),
+                expense.get("title"), expense.get("description"), expense.get("amount"), category.get("name"),
+                user.get("id"), user.get("email"), user.get("firstName"), user.get("lastName"),
+                expense.get("createdAt"), expense.get("updatedAt")));
+
+        List<Predicate> predicates = ExpenseRepositoryCustomImpl.buildPredicates(cb, expense, userId, null,
+                "lunch", LocalDate.now().minusDays(90), LocalDate.now(), BigDecimal.ONE, null);
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(cb.desc(expense.get("expenseDate")));
+        return entityManager.createQuery(query);
+    }
+
+    @Benchmark
+    public Page<ExpenseListItem> findExpensesWithFilters() {
+        return repository.findExpensesWithFilters(userId, null, "lunch",
+                LocalDate.now().minusDays(90), LocalDate.now(), BigDecimal.ONE, null, pageable);
+    }
+
+    private void seed() {
+        Random random = new Random(42);
+        entityManager.getTransaction().begin();
+
+        Role role = new Role();
+        role.setId(1);
+        role.setName("USER");
+        entityManager.persist(role);
+
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setFirstName("User");
+            user.setLastName(String.valueOf(i));
+            user.setEmail("user" + i + "@example.com");
+            user.setPassword("password");
+            user.setRole(role);
+            entityManager.persist(user);
+            users.add(user);
+        }
+
+        List<Category> categories = new ArrayList<>(CATEGORIES);
+        for (int i = 0; i < CATEGORIES; i++) {
+            Category category = new Category();
+            category.setName("Category " + i);
+            entityManager.persist(category);
+            categories.add(category);
+        }
+
+        String[] titles = {"Lunch", "Dinner", "Taxi", "Groceries", "Team lunch"};
+        for (int i = 0; i < rows; i++) {
+            Expense expense = new Expense();
+            expense.setTitle(titles[random.nextInt(titles.length)]);
+            expense.setAmount(BigDecimal.valueOf(100 + random.nextInt(100_000), 2));
+            expense.setExpenseDate(LocalDate.now().minusDays(random.nextInt(365)));
+            expense.setUser(users.get(random.nextInt(USERS)));
+            expense.setCategory(categories.get(random.nextInt(CATEGORIES)));
+            entityManager.persist(expense);
+            if (i % 500 == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+        userId = users.get(0).getId();
+    }
+}
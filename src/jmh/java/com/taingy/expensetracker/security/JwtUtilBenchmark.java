@@ -0,0 +1,59 @@
+package com.taingy.expensetracker.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of validating a bearer token, which runs on every authenticated request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-at-least-256-bits-long";
+
+    /**
+     * valid: a freshly issued token; tampered: same token with a corrupted signature.
+     */
+    @Param({"valid", "tampered"})
+    public String token;
+
+    private JwtUtil jwtUtil;
+    private String jwt;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(new SimpleMeterRegistry());
+        setField("SECRET_KEY", SECRET);
+        setField("expirationMs", TimeUnit.HOURS.toMillis(1));
+
+        jwt = jwtUtil.generateToken("john.doe@example.com", "USER");
+        if ("tampered".equals(token)) {
+            char last = jwt.charAt(jwt.length() - 1);
+            jwt = jwt.substring(0, jwt.length() - 1) + (last == 'A' ? 'B' : 'A');
+        }
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(jwt);
+    }
+
+    private void setField(String name, Object value) {
+        Field field = ReflectionUtils.findField(JwtUtil.class, name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, jwtUtil, value);
+    }
+}
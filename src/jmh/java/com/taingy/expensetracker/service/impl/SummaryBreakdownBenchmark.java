@@ -0,0 +1,67 @@
+package com.taingy.expensetracker.service.impl;
+
+import com.taingy.expensetracker.dto.ExpenseSummary;
+import com.taingy.expensetracker.repository.projection.CategoryTotal;
+import com.taingy.expensetracker.repository.projection.MonthlyTotal;
+import com.taingy.expensetracker.repository.projection.UserTotal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning the aggregated rows into the summary breakdowns. {@code rows} is the number of
+ * groups the database returned (categories, months or users).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SummaryBreakdownBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int rows;
+
+    private List<CategoryTotal> categoryTotals;
+    private List<MonthlyTotal> monthlyTotals;
+    private List<UserTotal> userTotals;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        categoryTotals = new ArrayList<>(rows);
+        monthlyTotals = new ArrayList<>(rows);
+        userTotals = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            BigDecimal amount = BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+            long count = 1 + random.nextInt(500);
+            categoryTotals.add(new CategoryTotal(i == 0 ? null : "Category " + i, amount, count));
+            monthlyTotals.add(new MonthlyTotal(2000 + i / 12, 1 + i % 12, amount, count));
+            userTotals.add(new UserTotal("User", String.valueOf(i), "user" + i + "@example.com", amount, count));
+        }
+    }
+
+    @Benchmark
+    public List<ExpenseSummary.CategorySummary> categoryBreakdown() {
+        return ExpenseSummaryCalculator.calculateCategoryBreakdown(categoryTotals);
+    }
+
+    @Benchmark
+    public List<ExpenseSummary.MonthlySummary> monthlyBreakdown() {
+        return ExpenseSummaryCalculator.calculateMonthlyBreakdown(monthlyTotals);
+    }
+
+    @Benchmark
+    public List<ExpenseSummary.UserSummary> userBreakdown() {
+        return ExpenseSummaryCalculator.calculateUserBreakdown(userTotals);
+    }
+}
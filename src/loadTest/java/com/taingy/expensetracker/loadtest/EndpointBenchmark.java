@@ -0,0 +1,189 @@
+package com.taingy.expensetracker.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Drives the main read endpoints of a server started with the {@code bench} profile and reports
+ * throughput and latency percentiles per endpoint.
+ * <p>
+ * The harness logs in as the seeded admin and as a sample of seeded users: the most active
+ * ({@code bench-user1..}) plus a random spread from the long tail, so per-user endpoints see the
+ * same skew as the data. Start the server, wait for the seeder to finish, then run for example:
+ * <pre>
+ * ./gradlew endpointBenchmark -Pbench.clients=64 -Pbench.durationSeconds=30
+ * </pre>
+ * Scenarios run one after another; select a subset with
+ * {@code -Pbench.scenarios=expenses,summary}.
+ */
+public class EndpointBenchmark {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("bench.baseUrl", "http://localhost:8080");
+        String password = System.getProperty("bench.password", "bench-password");
+        int seededUsers = Integer.getInteger("bench.users", 10000);
+        int powerUsers = Integer.getInteger("bench.powerUsers", 5);
+        int tailUsers = Integer.getInteger("bench.tailUsers", 45);
+        int clients = Integer.getInteger("bench.clients", 64);
+        Duration warmup = Duration.ofSeconds(Long.getLong("bench.warmupSeconds", 10L));
+        Duration duration = Duration.ofSeconds(Long.getLong("bench.durationSeconds", 30L));
+        List<String> selected = Arrays.asList(
+                System.getProperty("bench.scenarios", "expenses,summary,admin-summary,users,audit-logs").split(","));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(Duration.ofSeconds(10))
+                     .executor(executor)
+                     .build()) {
+            String adminToken = login(client, baseUrl, "bench-admin@example.com", password);
+            List<String> userTokens = new ArrayList<>();
+            for (String email : sampleUsers(seededUsers, powerUsers, tailUsers)) {
+                userTokens.add(login(client, baseUrl, email, password));
+            }
+
+            Map<String, List<HttpRequest>> scenarios = new LinkedHashMap<>();
+            scenarios.put("expenses", requests(baseUrl + "/api/expenses?page=0&size=20", userTokens));
+            scenarios.put("summary", requests(baseUrl + "/api/expenses/summary", userTokens));
+            scenarios.put("admin-summary", requests(baseUrl + "/api/expenses/summary", List.of(adminToken)));
+            scenarios.put("users", requests(baseUrl + "/api/users?page=0&size=20", List.of(adminToken)));
+            scenarios.put("audit-logs", requests(baseUrl + "/api/audit-logs?page=0&size=20", List.of(adminToken)));
+
+            System.out.printf("%d clients, %d user tokens, %ds warm-up, %ds measured per scenario%n",
+                    clients, userTokens.size(), warmup.toSeconds(), duration.toSeconds());
+            System.out.printf("%-14s %12s %10s %10s %10s %10s %8s%n",
+                    "scenario", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+
+            for (Map.Entry<String, List<HttpRequest>> scenario : scenarios.entrySet()) {
+                if (!selected.contains(scenario.getKey())) {
+                    continue;
+                }
+                run(executor, client, scenario.getValue(), clients, warmup);
+                LatencyResult result = run(executor, client, scenario.getValue(), clients, duration);
+                System.out.printf("%-14s %12.1f %10.2f %10.2f %10.2f %10.2f %8d%n",
+                        scenario.getKey(), result.throughput(), result.percentileMillis(50),
+                        result.percentileMillis(99), result.percentileMillis(99.9),
+                        result.percentileMillis(100), result.errors());
+            }
+        }
+    }
+
+    private static List<String> sampleUsers(int seededUsers, int powerUsers, int tailUsers) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<String> emails = new ArrayList<>();
+        int regularUsers = seededUsers - 1;
+        for (int i = 1; i <= Math.min(powerUsers, regularUsers); i++) {
+            emails.add("bench-user" + i + "@example.com");
+        }
+        for (int i = 0; i < tailUsers && regularUsers > powerUsers; i++) {
+            emails.add("bench-user" + (powerUsers + 1 + random.nextInt(regularUsers - powerUsers)) + "@example.com");
+        }
+        return emails;
+    }
+
+    private static String login(HttpClient client, String baseUrl, String email, String password) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}"))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = TOKEN.matcher(response.body());
+        if (response.statusCode() != 200 || !matcher.find()) {
+            throw new IllegalStateException("Login failed for " + email + " (HTTP " + response.statusCode()
+                    + "); is the server running with the bench profile and done seeding?");
+        }
+        return matcher.group(1);
+    }
+
+    private static List<HttpRequest> requests(String url, List<String> tokens) {
+        List<HttpRequest> requests = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            requests.add(HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Authorization", "Bearer " + token)
+                    .GET()
+                    .build());
+        }
+        return requests;
+    }
+
+    private static LatencyResult run(ExecutorService executor, HttpClient client, List<HttpRequest> requests,
+                                     int clients, Duration duration) throws Exception {
+        LongAdder errors = new LongAdder();
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        List<Future<long[]>> workers = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            int offset = i;
+            workers.add(executor.submit(() -> drive(client, requests, offset, deadline, errors)));
+        }
+
+        List<long[]> perClient = new ArrayList<>(clients);
+        int total = 0;
+        for (Future<long[]> worker : workers) {
+            long[] samples = worker.get();
+            perClient.add(samples);
+            total += samples.length;
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (long[] samples : perClient) {
+            System.arraycopy(samples, 0, latencies, offset, samples.length);
+            offset += samples.length;
+        }
+        Arrays.sort(latencies);
+        return new LatencyResult(latencies, elapsedSeconds, errors.sum());
+    }
+
+    private static long[] drive(HttpClient client, List<HttpRequest> requests, int offset, long deadline,
+                                LongAdder errors) {
+        long[] samples = new long[256];
+        int count = 0;
+        int next = offset;
+        while (System.nanoTime() < deadline) {
+            // Rotate through the sampled users so each client does not hammer a single account
+            HttpRequest request = requests.get(next++ % requests.size());
+            long sent = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() >= 400) {
+                    errors.increment();
+                    continue;
+                }
+            } catch (Exception ex) {
+                errors.increment();
+                if (ex instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                continue;
+            }
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = System.nanoTime() - sent;
+        }
+        return Arrays.copyOf(samples, count);
+    }
+}
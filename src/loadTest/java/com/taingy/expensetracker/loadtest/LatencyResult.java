@@ -0,0 +1,19 @@
+package com.taingy.expensetracker.loadtest;
+
+/**
+ * Latencies recorded during one measured run, sorted ascending, in nanoseconds.
+ */
+record LatencyResult(long[] sortedLatencies, double elapsedSeconds, long errors) {
+
+    double throughput() {
+        return sortedLatencies.length / elapsedSeconds;
+    }
+
+    double percentileMillis(double percentile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))] / 1e6;
+    }
+}
@@ -0,0 +1,353 @@
+package com.taingy.expensetracker.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop, mixed-workload load test against a running instance, typically one started with
+ * the {@code bench} profile.
+ * <p>
+ * Each client is a virtual thread logged in as its own seeded user through
+ * {@code /api/auth/login}. It issues one request at a time on a fixed schedule of
+ * {@code bench.ratePerClient} requests per second, picking list, search, create, update or
+ * summary calls according to {@code bench.mix}.
+ * <p>
+ * Two latencies are recorded per endpoint in HdrHistograms:
+ * <ul>
+ *     <li><b>service time</b>, from sending the request to receiving the response;</li>
+ *     <li><b>response time</b>, from when the request was scheduled to be sent. When the server
+ *     stalls, a closed-loop client stops sending, and service time alone would hide the requests
+ *     that were never issued (coordinated omission). Response time still counts that wait.</li>
+ * </ul>
+ * A large gap between the two, or clients falling behind their schedule, is reported as
+ * coordinated omission: the offered rate was not sustained and the service-time figures are
+ * optimistic. Full percentile distributions are written as {@code .hgrm} files for plotting.
+ * <pre>
+ * ./gradlew mixedWorkloadLoadTest -Pbench.clients=100 -Pbench.ratePerClient=5 \
+ *     -Pbench.mix=list=35,search=20,create=10,update=10,summary=25
+ * </pre>
+ */
+public class MixedWorkloadLoadTest {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*\"([0-9a-fA-F-]{36})\"");
+    private static final String[] SEARCH_TERMS = {"lunch", "coffee", "taxi", "hotel", "books"};
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    enum Operation { LIST, SEARCH, CREATE, UPDATE, SUMMARY }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("bench.baseUrl", "http://localhost:8080");
+        String password = System.getProperty("bench.password", "bench-password");
+        int seededUsers = Integer.getInteger("bench.users", 10000);
+        int clients = Integer.getInteger("bench.clients", 50);
+        double ratePerClient = Double.parseDouble(System.getProperty("bench.ratePerClient", "5"));
+        Duration warmup = Duration.ofSeconds(Long.getLong("bench.warmupSeconds", 15L));
+        Duration duration = Duration.ofSeconds(Long.getLong("bench.durationSeconds", 60L));
+        Mix mix = Mix.parse(System.getProperty("bench.mix", "list=35,search=20,create=10,update=10,summary=25"));
+        Path outputDir = Path.of(System.getProperty("bench.outputDir", "build/results/loadtest"));
+
+        if (ratePerClient <= 0) {
+            throw new IllegalArgumentException("bench.ratePerClient must be positive");
+        }
+        if (clients > seededUsers - 1) {
+            throw new IllegalArgumentException("bench.clients cannot exceed the number of seeded users");
+        }
+
+        LongAdder lateSends = new LongAdder();
+        Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(Duration.ofSeconds(10))
+                     .executor(executor)
+                     .build()) {
+            Api api = new Api(client, baseUrl);
+            List<String> tokens = new ArrayList<>(clients);
+            for (int i = 1; i <= clients; i++) {
+                tokens.add(api.login("bench-user" + i + "@example.com", password));
+            }
+            List<String> categoryIds = api.categoryIds(tokens.get(0));
+            if (categoryIds.isEmpty()) {
+                throw new IllegalStateException("No categories found; seed the database first");
+            }
+
+            System.out.printf("%d clients at %.1f req/s each (%.0f req/s offered), %ds warm-up, %ds measured%n",
+                    clients, ratePerClient, clients * ratePerClient, warmup.toSeconds(), duration.toSeconds());
+
+            long intervalNanos = (long) (1e9 / ratePerClient);
+            long start = System.nanoTime();
+            long measureFrom = start + warmup.toNanos();
+            long end = measureFrom + duration.toNanos();
+            List<Future<?>> workers = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                // Stagger the schedules so clients do not fire in lockstep
+                long firstSend = start + intervalNanos * i / clients;
+                Client worker = new Client(api, tokens.get(i), categoryIds, mix, stats, lateSends,
+                        new SplittableRandom(i), firstSend, intervalNanos, measureFrom, end);
+                workers.add(executor.submit(worker::run));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+
+        report(stats, lateSends.sum(), duration, outputDir);
+    }
+
+    private static void report(Map<Operation, Stats> stats, long lateSends, Duration duration, Path outputDir)
+            throws IOException {
+        Files.createDirectories(outputDir);
+        System.out.printf("%-8s %9s %7s | %-28s | %-28s%n", "", "", "",
+                "service time (ms)", "response time (ms)");
+        System.out.printf("%-8s %9s %7s | %8s %8s %10s | %8s %8s %10s%n", "endpoint", "req/s", "errors",
+                "p50", "p99", "max", "p50", "p99", "max");
+
+        boolean omission = lateSends > 0;
+        for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+            Stats s = entry.getValue();
+            Histogram service = s.serviceTime;
+            Histogram response = s.responseTime;
+            if (response.getTotalCount() == 0 && s.errors.sum() == 0) {
+                continue;
+            }
+            System.out.printf("%-8s %9.1f %7d | %8.2f %8.2f %10.2f | %8.2f %8.2f %10.2f%n",
+                    entry.getKey().name().toLowerCase(), service.getTotalCount() / (double) duration.toSeconds(),
+                    s.errors.sum(),
+                    millis(service.getValueAtPercentile(50)), millis(service.getValueAtPercentile(99)),
+                    millis(service.getMaxValue()),
+                    millis(response.getValueAtPercentile(50)), millis(response.getValueAtPercentile(99)),
+                    millis(response.getMaxValue()));
+
+            // Response-time p99 well above service-time p99 means requests queued behind stalls
+            if (response.getValueAtPercentile(99) > 2 * Math.max(service.getValueAtPercentile(99), 1000)) {
+                omission = true;
+            }
+
+            String name = entry.getKey().name().toLowerCase();
+            writeDistribution(outputDir.resolve(name + "-service.hgrm"), service);
+            writeDistribution(outputDir.resolve(name + "-response.hgrm"), response);
+        }
+
+        if (omission) {
+            System.out.println("Coordinated omission detected (" + lateSends + " sends more than one interval late): "
+                    + "the offered rate was not sustained. Use response-time percentiles; service-time "
+                    + "percentiles are optimistic.");
+        }
+        System.out.println("Percentile distributions written to " + outputDir.toAbsolutePath());
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            // Values are recorded in microseconds; scale the output to milliseconds
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static final class Stats {
+        final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final Histogram responseTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        final LongAdder errors = new LongAdder();
+    }
+
+    /**
+     * One simulated user issuing requests on a fixed schedule.
+     */
+    private record Client(Api api, String token, List<String> categoryIds, Mix mix, Map<Operation, Stats> stats,
+                          LongAdder lateSends, SplittableRandom random, long firstSend, long intervalNanos, long measureFrom, long end) {
+
+        void run() {
+            List<String> createdIds = new ArrayList<>();
+            long intended = firstSend;
+            while (intended < end) {
+                long now = System.nanoTime();
+                if (now < intended) {
+                    LockSupport.parkNanos(intended - now);
+                } else if (now - intended > intervalNanos && intended >= measureFrom) {
+                    // Already a full interval behind: the server has been slower than our schedule
+                    lateSends.increment();
+                }
+
+                Operation operation = mix.pick(random);
+                if (operation == Operation.UPDATE && createdIds.isEmpty()) {
+                    operation = Operation.CREATE;
+                }
+
+                long sent = System.nanoTime();
+                boolean ok;
+                try {
+                    ok = execute(operation, createdIds);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception ex) {
+                    ok = false;
+                }
+                long done = System.nanoTime();
+
+                if (intended >= measureFrom) {
+                    Stats s = stats.get(operation);
+                    if (ok) {
+                        s.serviceTime.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, (done - sent) / 1000));
+                        s.responseTime.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, (done - intended) / 1000));
+                    } else {
+                        s.errors.increment();
+                    }
+                }
+                intended += intervalNanos;
+            }
+        }
+
+        private boolean execute(Operation operation, List<String> createdIds) throws Exception {
+            return switch (operation) {
+                case LIST -> api.get("/api/expenses?page=" + random.nextInt(5) + "&size=20", token);
+                case SEARCH -> api.get("/api/expenses?size=20&searchTerm="
+                        + SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)] + "&minAmount=" + random.nextInt(20), token);
+                case SUMMARY -> api.get("/api/expenses/summary", token);
+                case CREATE -> {
+                    String id = api.send("POST", "/api/expenses", token, expenseJson());
+                    if (id != null) {
+                        createdIds.add(id);
+                    }
+                    yield id != null;
+                }
+                case UPDATE -> api.send("PUT", "/api/expenses/" + createdIds.get(random.nextInt(createdIds.size())),
+                        token, expenseJson()) != null;
+            };
+        }
+
+        private String expenseJson() {
+            BigDecimal amount = BigDecimal.valueOf(100 + random.nextInt(20_000), 2);
+            return "{\"title\":\"Load test expense\",\"amount\":" + amount
+                    + ",\"categoryId\":\"" + categoryIds.get(random.nextInt(categoryIds.size()))
+                    + "\",\"description\":\"mixed workload\",\"expenseDate\":\""
+                    + LocalDate.now().minusDays(random.nextInt(60)) + "\"}";
+        }
+    }
+
+    /**
+     * Weighted choice between operations.
+     */
+    private record Mix(Operation[] operations, int[] cumulativeWeights) {
+
+        static Mix parse(String value) {
+            List<Operation> operations = new ArrayList<>();
+            List<Integer> cumulative = new ArrayList<>();
+            int total = 0;
+            for (String entry : value.split(",")) {
+                String[] parts = entry.trim().split("=", 2);
+                int weight = Integer.parseInt(parts[1].trim());
+                if (weight <= 0) {
+                    continue;
+                }
+                total += weight;
+                operations.add(Operation.valueOf(parts[0].trim().toUpperCase()));
+                cumulative.add(total);
+            }
+            if (operations.isEmpty()) {
+                throw new IllegalArgumentException("bench.mix must give at least one operation a positive weight");
+            }
+            return new Mix(operations.toArray(new Operation[0]),
+                    cumulative.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        Operation pick(SplittableRandom random) {
+            int roll = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            for (int i = 0; i < cumulativeWeights.length; i++) {
+                if (roll < cumulativeWeights[i]) {
+                    return operations[i];
+                }
+            }
+            return operations[operations.length - 1];
+        }
+    }
+
+    private record Api(HttpClient client, String baseUrl) {
+
+        String login(String email, String password) throws Exception {
+            HttpResponse<String> response = client.send(request("/api/auth/login", null)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}"))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            Matcher matcher = TOKEN.matcher(response.body());
+            if (response.statusCode() != 200 || !matcher.find()) {
+                throw new IllegalStateException("Login failed for " + email + " (HTTP " + response.statusCode() + ")");
+            }
+            return matcher.group(1);
+        }
+
+        List<String> categoryIds(String token) throws Exception {
+            HttpResponse<String> response = client.send(request("/api/categories", token).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            List<String> ids = new ArrayList<>();
+            Matcher matcher = ID.matcher(response.body());
+            while (matcher.find()) {
+                ids.add(matcher.group(1));
+            }
+            return ids;
+        }
+
+        boolean get(String path, String token) throws Exception {
+            HttpResponse<Void> response = client.send(request(path, token).GET().build(),
+                    HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() < 400;
+        }
+
+        /**
+         * Sends a JSON body and returns the id of the expense in the response, or null on failure.
+         */
+        String send(String method, String path, String token, String json) throws Exception {
+            HttpResponse<String> response = client.send(request(path, token)
+                    .header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(json))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() >= 400) {
+                return null;
+            }
+            Matcher matcher = ID.matcher(response.body());
+            return matcher.find() ? matcher.group(1) : null;
+        }
+
+        private HttpRequest.Builder request(String path, String token) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+            if (token != null) {
+                builder.header("Authorization", "Bearer " + token);
+            }
+            return builder;
+        }
+    }
+}
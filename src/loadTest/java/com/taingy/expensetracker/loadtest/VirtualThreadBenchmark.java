@@ -0,0 +1,134 @@
+package com.taingy.expensetracker.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives one or more running servers with a fixed number of concurrent clients and reports
+ * throughput and latency percentiles for each, so the platform-thread and virtual-thread modes
+ * can be compared on the same workload.
+ * <p>
+ * Start the application twice, once with {@code spring.threads.virtual.enabled=false} and once
+ * with {@code true}, then run for example:
+ * <pre>
+ * ./gradlew virtualThreadBenchmark \
+ *     -Pbench.targets=platform=http://localhost:8080,virtual=http://localhost:8081 \
+ *     -Pbench.token=&lt;JWT&gt; -Pbench.path=/api/expenses/summary -Pbench.clients=2000
+ * </pre>
+ * Each client is a virtual thread issuing one request at a time, so the offered concurrency is
+ * exactly {@code bench.clients}.
+ */
+public class VirtualThreadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> targets = parseTargets(System.getProperty("bench.targets", "server=http://localhost:8080"));
+        String path = System.getProperty("bench.path", "/api/expenses/summary");
+        String token = System.getProperty("bench.token", "");
+        int clients = Integer.getInteger("bench.clients", 2000);
+        Duration warmup = Duration.ofSeconds(Long.getLong("bench.warmupSeconds", 10L));
+        Duration duration = Duration.ofSeconds(Long.getLong("bench.durationSeconds", 30L));
+
+        System.out.printf("%d clients, GET %s, %ds warm-up, %ds measured%n",
+                clients, path, warmup.toSeconds(), duration.toSeconds());
+        System.out.printf("%-12s %12s %10s %10s %10s %10s %8s%n",
+                "target", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+
+        for (Map.Entry<String, String> target : targets.entrySet()) {
+            URI uri = URI.create(target.getValue() + path);
+            run(uri, token, clients, warmup);
+            LatencyResult result = run(uri, token, clients, duration);
+            System.out.printf("%-12s %12.1f %10.2f %10.2f %10.2f %10.2f %8d%n",
+                    target.getKey(), result.throughput(), result.percentileMillis(50),
+                    result.percentileMillis(99), result.percentileMillis(99.9),
+                    result.percentileMillis(100), result.errors());
+        }
+    }
+
+    private static LatencyResult run(URI uri, String token, int clients, Duration duration) throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(Duration.ofSeconds(10))
+                     .executor(executor)
+                     .build()) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET();
+            if (!token.isEmpty()) {
+                builder.header("Authorization", "Bearer " + token);
+            }
+            HttpRequest request = builder.build();
+
+            LongAdder errors = new LongAdder();
+            long start = System.nanoTime();
+            long deadline = start + duration.toNanos();
+            List<Future<long[]>> workers = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                workers.add(executor.submit(() -> drive(client, request, deadline, errors)));
+            }
+
+            long[][] perClient = new long[clients][];
+            int total = 0;
+            for (int i = 0; i < clients; i++) {
+                perClient[i] = workers.get(i).get();
+                total += perClient[i].length;
+            }
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+            long[] latencies = new long[total];
+            int offset = 0;
+            for (long[] samples : perClient) {
+                System.arraycopy(samples, 0, latencies, offset, samples.length);
+                offset += samples.length;
+            }
+            Arrays.sort(latencies);
+            return new LatencyResult(latencies, elapsedSeconds, errors.sum());
+        }
+    }
+
+    private static long[] drive(HttpClient client, HttpRequest request, long deadline, LongAdder errors) {
+        long[] samples = new long[256];
+        int count = 0;
+        while (System.nanoTime() < deadline) {
+            long sent = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() >= 400) {
+                    errors.increment();
+                    continue;
+                }
+            } catch (Exception ex) {
+                errors.increment();
+                if (ex instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                continue;
+            }
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = System.nanoTime() - sent;
+        }
+        return Arrays.copyOf(samples, count);
+    }
+
+    private static Map<String, String> parseTargets(String value) {
+        Map<String, String> targets = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split("=", 2);
+            targets.put(parts[0], parts.length == 2 ? parts[1] : parts[0]);
+        }
+        return targets;
+    }
+}
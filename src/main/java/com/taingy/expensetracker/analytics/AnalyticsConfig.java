@@ -0,0 +1,48 @@
+package com.taingy.expensetracker.analytics;
+
+import com.taingy.expensetracker.repository.CategoryRepository;
+import com.taingy.expensetracker.repository.JpaExpenseStore;
+import com.taingy.expensetracker.repository.UserRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Serves the admin-wide totals from an in-memory copy of the expenses when
+ * {@code app.analytics.enabled} is set. The copy takes about 50 bytes of heap per expense. It
+ * loads from the main database, so it cannot be combined with {@code app.sharding} or
+ * {@code app.archive}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.analytics.enabled", havingValue = "true")
+public class AnalyticsConfig {
+
+    @Bean
+    public ExpenseAnalytics expenseAnalytics(JdbcTemplate jdbcTemplate,
+                                             PlatformTransactionManager transactionManager,
+                                             @Value("${app.analytics.fetch-size:10000}") int fetchSize) {
+        // Not read-only: the replica routing would send the load to a replica, which can miss writes
+        // committed before the load started capturing them
+        return new ExpenseAnalytics(jdbcTemplate, new TransactionTemplate(transactionManager), fetchSize);
+    }
+
+    @Bean
+    @Primary
+    public AnalyticsExpenseStore analyticsExpenseStore(ObjectProvider<JpaExpenseStore> jpaExpenseStore,
+                                                       ExpenseAnalytics expenseAnalytics,
+                                                       UserRepository userRepository,
+                                                       CategoryRepository categoryRepository,
+                                                       @Value("${app.archive.enabled:false}") boolean archive) {
+        JpaExpenseStore database = jpaExpenseStore.getIfAvailable();
+        if (database == null || archive) {
+            throw new IllegalStateException("app.analytics cannot be combined with app.sharding or app.archive");
+        }
+        return new AnalyticsExpenseStore(database, expenseAnalytics, userRepository, categoryRepository);
+    }
+}
@@ -0,0 +1,181 @@
+package com.taingy.expensetracker.analytics;
+
+import com.taingy.expensetracker.dto.ExpenseVersion;
+import com.taingy.expensetracker.model.Category;
+import com.taingy.expensetracker.model.Expense;
+import com.taingy.expensetracker.model.User;
+import com.taingy.expensetracker.repository.CategoryRepository;
+import com.taingy.expensetracker.repository.ExpenseStore;
+import com.taingy.expensetracker.repository.ReferenceLookup;
+import com.taingy.expensetracker.repository.UserRepository;
+import com.taingy.expensetracker.repository.projection.CategoryTotal;
+import com.taingy.expensetracker.repository.projection.ExpenseListItem;
+import com.taingy.expensetracker.repository.projection.ExpenseTotals;
+import com.taingy.expensetracker.repository.projection.MonthlyTotal;
+import com.taingy.expensetracker.repository.projection.UserTotal;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Answers the totals over all users from {@link ExpenseAnalytics} once it has loaded, and
+ * everything else, including the per-user totals that the database serves from an index, from
+ * the database.
+ */
+public class AnalyticsExpenseStore implements ExpenseStore {
+
+    private final ExpenseStore database;
+    private final ExpenseAnalytics analytics;
+    private final ReferenceLookup references;
+
+    public AnalyticsExpenseStore(ExpenseStore database, ExpenseAnalytics analytics,
+                                 UserRepository userRepository, CategoryRepository categoryRepository) {
+        this.database = database;
+        this.analytics = analytics;
+        this.references = new ReferenceLookup(userRepository, categoryRepository);
+    }
+
+    @Override
+    public Optional<Expense> findById(UUID id) {
+        return database.findById(id);
+    }
+
+    @Override
+    public Optional<ExpenseVersion> findVersionById(UUID id) {
+        return database.findVersionById(id);
+    }
+
+    @Override
+    public Page<ExpenseListItem> findExpensesWithFilters(UUID userId, UUID categoryId, String searchTerm,
+                                                         LocalDate startDate, LocalDate endDate,
+                                                         BigDecimal minAmount, BigDecimal maxAmount,
+                                                         Pageable pageable) {
+        return database.findExpensesWithFilters(userId, categoryId, searchTerm, startDate, endDate,
+                minAmount, maxAmount, pageable);
+    }
+
+    @Override
+    public List<Expense> findChangesByUserId(UUID userId, LocalDateTime since, UUID afterId, LocalDateTime upTo,
+                                             Pageable pageable) {
+        return database.findChangesByUserId(userId, since, afterId, upTo, pageable);
+    }
+
+    @Override
+    public Expense save(Expense expense) {
+        return database.save(expense);
+    }
+
+    @Override
+    public void delete(Expense expense) {
+        database.delete(expense);
+    }
+
+    @Override
+    public boolean existsByUserId(UUID userId) {
+        return database.existsByUserId(userId);
+    }
+
+    @Override
+    public boolean existsByCategoryId(UUID categoryId) {
+        return database.existsByCategoryId(categoryId);
+    }
+
+    @Override
+    public ExpenseTotals getTotalsByUserId(UUID userId) {
+        return database.getTotalsByUserId(userId);
+    }
+
+    @Override
+    public ExpenseTotals getTotals() {
+        return analytics.query(ExpenseColumns::totals)
+                .map(AnalyticsExpenseStore::toTotals)
+                .orElseGet(database::getTotals);
+    }
+
+    @Override
+    public List<CategoryTotal> getCategoryTotalsByUserId(UUID userId) {
+        return database.getCategoryTotalsByUserId(userId);
+    }
+
+    @Override
+    public List<CategoryTotal> getCategoryTotals() {
+        return analytics.query(ExpenseColumns::sumByCategory)
+                .map(this::toCategoryTotals)
+                .orElseGet(database::getCategoryTotals);
+    }
+
+    @Override
+    public List<MonthlyTotal> getMonthlyTotalsByUserId(UUID userId) {
+        return database.getMonthlyTotalsByUserId(userId);
+    }
+
+    @Override
+    public List<MonthlyTotal> getMonthlyTotals() {
+        return analytics.query(ExpenseColumns::sumByMonth)
+                .map(AnalyticsExpenseStore::toMonthlyTotals)
+                .orElseGet(database::getMonthlyTotals);
+    }
+
+    @Override
+    public List<UserTotal> getUserTotals() {
+        return analytics.query(ExpenseColumns::sumByUser)
+                .map(this::toUserTotals)
+                .orElseGet(database::getUserTotals);
+    }
+
+    private static ExpenseTotals toTotals(ExpenseColumns.Totals totals) {
+        if (totals.count() == 0) {
+            return new ExpenseTotals(null, 0L, null, null, null);
+        }
+        BigDecimal amount = toAmount(totals.sum());
+        return new ExpenseTotals(amount, totals.count(), amount.doubleValue() / totals.count(),
+                toAmount(totals.max()), toAmount(totals.min()));
+    }
+
+    private List<CategoryTotal> toCategoryTotals(Map<UUID, long[]> sums) {
+        // Grouped by name like the database query, so categories that no longer exist fall together
+        Map<UUID, Category> categories = references.categoriesById(sums.keySet());
+        Map<String, long[]> byName = new LinkedHashMap<>();
+        sums.forEach((categoryId, sum) -> {
+            Category category = categories.get(categoryId);
+            long[] named = byName.computeIfAbsent(category != null ? category.getName() : null, name -> new long[2]);
+            named[0] += sum[0];
+            named[1] += sum[1];
+        });
+        List<CategoryTotal> totals = new ArrayList<>(byName.size());
+        byName.forEach((name, sum) -> totals.add(new CategoryTotal(name, toAmount(sum[0]), sum[1])));
+        return totals;
+    }
+
+    private static List<MonthlyTotal> toMonthlyTotals(Map<Integer, long[]> sums) {
+        List<MonthlyTotal> totals = new ArrayList<>(sums.size());
+        sums.forEach((month, sum) -> totals.add(new MonthlyTotal(month / 12, month % 12 + 1, toAmount(sum[0]), sum[1])));
+        return totals;
+    }
+
+    private List<UserTotal> toUserTotals(Map<UUID, long[]> sums) {
+        Map<UUID, User> users = references.usersById(sums.keySet());
+        List<UserTotal> totals = new ArrayList<>(sums.size());
+        sums.forEach((userId, sum) -> {
+            User user = users.get(userId);
+            if (user != null) {
+                totals.add(new UserTotal(user.getFirstName(), user.getLastName(), user.getEmail(),
+                        toAmount(sum[0]), sum[1]));
+            }
+        });
+        return totals;
+    }
+
+    private static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
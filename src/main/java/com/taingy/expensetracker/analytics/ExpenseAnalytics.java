@@ -0,0 +1,155 @@
+package com.taingy.expensetracker.analytics;
+
+import com.taingy.expensetracker.event.ExpenseWrittenEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Keeps a copy of all expenses in {@link ExpenseColumns} for the admin-wide totals.
+ * <p>
+ * The copy is loaded from the database in the background after startup and reloaded every
+ * {@code app.analytics.reload-interval-ms}; until the first load finishes, {@link #query} returns
+ * nothing and callers use the database. In between, expenses written through the expense service
+ * are applied as their transactions commit. Writes that bypass the service, or are made by other
+ * instances, show up with the next reload. Writes committed while a load is running are applied
+ * again to the loaded copy before it replaces the old one, so none are lost.
+ */
+public class ExpenseAnalytics {
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseAnalytics.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean loading = new AtomicBoolean();
+
+    // Guarded by lock
+    private ExpenseColumns columns;
+    private List<ExpenseWrittenEvent> writtenDuringLoad;
+
+    /**
+     * {@code transactionTemplate} must run the load on the primary: a replica may not have the
+     * writes committed before it started, which the load does not apply again.
+     */
+    public ExpenseAnalytics(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        // Streams the rows instead of holding the whole result; PostgreSQL needs a transaction for that
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Runs the scan over the loaded expenses, or returns empty if they are not loaded yet.
+     */
+    <T> Optional<T> query(Function<ExpenseColumns, T> scan) {
+        lock.readLock().lock();
+        try {
+            return columns != null ? Optional.of(scan.apply(columns)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpenseWritten(ExpenseWrittenEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (columns != null) {
+                apply(columns, event);
+            }
+            if (writtenDuringLoad != null) {
+                writtenDuringLoad.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Starts a reload on a background thread unless one is running.
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.reload-interval-ms:3600000}")
+    public void reloadInBackground() {
+        if (loading.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("expense-analytics-load").start(() -> {
+                try {
+                    load();
+                } catch (RuntimeException ex) {
+                    logger.error("Could not load expenses for analytics", ex);
+                } finally {
+                    loading.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Reads all expenses into a new copy and swaps it in.
+     */
+    public void load() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            writtenDuringLoad = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        ExpenseColumns loaded;
+        try {
+            loaded = transactionTemplate.execute(status -> {
+                Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses", Long.class);
+                // Leave room for growth so the first writes do not copy every column
+                ExpenseColumns fresh = new ExpenseColumns(Math.toIntExact(count + count / 8));
+                jdbcTemplate.query("SELECT id, user_id, category_id, expense_date, amount FROM expenses",
+                        (RowCallbackHandler) rs -> fresh.upsert(rs.getObject(1, UUID.class),
+                                rs.getObject(2, UUID.class), rs.getObject(3, UUID.class),
+                                rs.getObject(4, LocalDate.class), rs.getBigDecimal(5)));
+                return fresh;
+            });
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                writtenDuringLoad = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw ex;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (ExpenseWrittenEvent event : writtenDuringLoad) {
+                apply(loaded, event);
+            }
+            writtenDuringLoad = null;
+            columns = loaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Loaded {} expense(s) for analytics in {} ms", loaded.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void apply(ExpenseColumns columns, ExpenseWrittenEvent event) {
+        if (event.deleted()) {
+            columns.remove(event.expenseId());
+        } else {
+            columns.upsert(event.expenseId(), event.userId(), event.categoryId(), event.expenseDate(), event.amount());
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.taingy.expensetracker.analytics;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Expenses held column by column in primitive arrays: the amount in cents, the date as an epoch
+ * day, and the category and user as ordinals into dictionaries of their ids. Totals and
+ * breakdowns are single passes over the arrays without a branch per row, which the JIT compiles
+ * to unrolled and, for the plain sums, vectorized loops.
+ * <p>
+ * Rows are kept dense: removing one moves the last row into its place. An open-addressing index
+ * over the id columns finds the row of an id without a boxed entry per expense. Not thread-safe;
+ * {@link ExpenseAnalytics} guards it with a lock.
+ */
+final class ExpenseColumns {
+
+    private static final int NO_CATEGORY = 0;
+
+    private long[] idHigh;
+    private long[] idLow;
+    private long[] amounts;
+    private int[] days;
+    private int[] categories;
+    private int[] users;
+    private int size;
+
+    // Row + 1 of the expense hashed to each slot, 0 for an empty slot
+    private int[] index;
+
+    private final Map<UUID, Integer> categoryOrdinals = new HashMap<>();
+    private final List<UUID> categoryIds = new ArrayList<>();
+    private final Map<UUID, Integer> userOrdinals = new HashMap<>();
+    private final List<UUID> userIds = new ArrayList<>();
+
+    // Bounds of the dates seen, not narrowed when rows are removed
+    private int minDay = Integer.MAX_VALUE;
+    private int maxDay = Integer.MIN_VALUE;
+
+    ExpenseColumns(int capacity) {
+        int rows = Math.max(16, capacity);
+        idHigh = new long[rows];
+        idLow = new long[rows];
+        amounts = new long[rows];
+        days = new int[rows];
+        categories = new int[rows];
+        users = new int[rows];
+        index = new int[Integer.highestOneBit(rows * 2 - 1) << 1];
+        categoryIds.add(null);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Adds the expense, or replaces the values of the expense with the same id.
+     */
+    void upsert(UUID id, UUID userId, UUID categoryId, LocalDate expenseDate, BigDecimal amount) {
+        int slot = slotOf(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        int row;
+        if (slot >= 0) {
+            row = index[slot] - 1;
+        } else {
+            if (size == amounts.length) {
+                grow();
+            }
+            row = size++;
+            idHigh[row] = id.getMostSignificantBits();
+            idLow[row] = id.getLeastSignificantBits();
+            if (size * 2 > index.length) {
+                rehash(index.length * 2);
+            } else {
+                index[freeSlot(idHigh[row], idLow[row])] = row + 1;
+            }
+        }
+        int day = Math.toIntExact(expenseDate.toEpochDay());
+        amounts[row] = toCents(amount);
+        days[row] = day;
+        categories[row] = categoryId != null ? ordinal(categoryId, categoryOrdinals, categoryIds) : NO_CATEGORY;
+        users[row] = ordinal(userId, userOrdinals, userIds);
+        minDay = Math.min(minDay, day);
+        maxDay = Math.max(maxDay, day);
+    }
+
+    /**
+     * Removes the expense with the id, if there is one.
+     */
+    boolean remove(UUID id) {
+        int slot = slotOf(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        if (slot < 0) {
+            return false;
+        }
+        int row = index[slot] - 1;
+        clearSlot(slot);
+        int last = --size;
+        if (row != last) {
+            idHigh[row] = idHigh[last];
+            idLow[row] = idLow[last];
+            amounts[row] = amounts[last];
+            days[row] = days[last];
+            categories[row] = categories[last];
+            users[row] = users[last];
+            index[slotOf(idHigh[row], idLow[row], last)] = row + 1;
+        }
+        return true;
+    }
+
+    /**
+     * Sum, count, maximum and minimum of all amounts in cents.
+     */
+    Totals totals() {
+        long[] amounts = this.amounts;
+        int size = this.size;
+        long sum = 0;
+        long max = Long.MIN_VALUE;
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            long amount = amounts[i];
+            sum += amount;
+            max = Math.max(max, amount);
+            min = Math.min(min, amount);
+        }
+        return new Totals(sum, size, max, min);
+    }
+
+    /**
+     * Cents and count per category id; expenses without a category are under the null key.
+     */
+    Map<UUID, long[]> sumByCategory() {
+        return groups(categories, categoryIds);
+    }
+
+    /**
+     * Cents and count per user id.
+     */
+    Map<UUID, long[]> sumByUser() {
+        return groups(users, userIds);
+    }
+
+    /**
+     * Cents and count per month, keyed by {@code year * 12 + month - 1}.
+     */
+    Map<Integer, long[]> sumByMonth() {
+        Map<Integer, long[]> months = new HashMap<>();
+        if (size == 0) {
+            return months;
+        }
+        // Map each day in range to a month ordinal once, so the scan is a lookup per row
+        LocalDate first = LocalDate.ofEpochDay(minDay);
+        int firstMonth = monthKey(first);
+        int[] dayToMonth = new int[maxDay - minDay + 1];
+        for (int day = 0; day < dayToMonth.length; day++) {
+            dayToMonth[day] = monthKey(first.plusDays(day)) - firstMonth;
+        }
+        int monthCount = dayToMonth[dayToMonth.length - 1] + 1;
+        long[] sums = new long[monthCount];
+        long[] counts = new long[monthCount];
+
+        long[] amounts = this.amounts;
+        int[] days = this.days;
+        int minDay = this.minDay;
+        for (int i = 0; i < size; i++) {
+            int month = dayToMonth[days[i] - minDay];
+            sums[month] += amounts[i];
+            counts[month]++;
+        }
+        for (int month = 0; month < monthCount; month++) {
+            if (counts[month] > 0) {
+                months.put(firstMonth + month, new long[]{sums[month], counts[month]});
+            }
+        }
+        return months;
+    }
+
+    private Map<UUID, long[]> groups(int[] ordinals, List<UUID> ids) {
+        long[] sums = new long[ids.size()];
+        long[] counts = new long[ids.size()];
+        long[] amounts = this.amounts;
+        for (int i = 0; i < size; i++) {
+            int ordinal = ordinals[i];
+            sums[ordinal] += amounts[i];
+            counts[ordinal]++;
+        }
+        Map<UUID, long[]> groups = new HashMap<>();
+        for (int ordinal = 0; ordinal < ids.size(); ordinal++) {
+            if (counts[ordinal] > 0) {
+                groups.put(ids.get(ordinal), new long[]{sums[ordinal], counts[ordinal]});
+            }
+        }
+        return groups;
+    }
+
+    private static int ordinal(UUID id, Map<UUID, Integer> ordinals, List<UUID> ids) {
+        Integer ordinal = ordinals.get(id);
+        if (ordinal == null) {
+            ordinal = ids.size();
+            ids.add(id);
+            ordinals.put(id, ordinal);
+        }
+        return ordinal;
+    }
+
+    private static int monthKey(LocalDate date) {
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private void grow() {
+        int capacity = amounts.length + (amounts.length >> 1);
+        idHigh = Arrays.copyOf(idHigh, capacity);
+        idLow = Arrays.copyOf(idLow, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        days = Arrays.copyOf(days, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        users = Arrays.copyOf(users, capacity);
+    }
+
+    private void rehash(int slots) {
+        index = new int[slots];
+        for (int row = 0; row < size; row++) {
+            index[freeSlot(idHigh[row], idLow[row])] = row + 1;
+        }
+    }
+
+    private int slotOf(long high, long low) {
+        return slotOf(high, low, -1);
+    }
+
+    /**
+     * The slot holding the id, or -1. With {@code row} set, the slot pointing at that row.
+     */
+    private int slotOf(long high, long low, int row) {
+        int mask = index.length - 1;
+        for (int slot = home(high, low, mask); index[slot] != 0; slot = (slot + 1) & mask) {
+            int candidate = index[slot] - 1;
+            if (row >= 0 ? candidate == row : idHigh[candidate] == high && idLow[candidate] == low) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int freeSlot(long high, long low) {
+        int mask = index.length - 1;
+        int slot = home(high, low, mask);
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Empties the slot and shifts back the entries after it that would no longer be found.
+     */
+    private void clearSlot(int slot) {
+        int mask = index.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; index[next] != 0; next = (next + 1) & mask) {
+            int row = index[next] - 1;
+            int home = home(idHigh[row], idLow[row], mask);
+            // The entry can fill the hole unless its home lies cyclically in (hole, next]
+            boolean reachable = hole <= next ? home > hole && home <= next : home > hole || home <= next;
+            if (!reachable) {
+                index[hole] = index[next];
+                hole = next;
+            }
+        }
+        index[hole] = 0;
+    }
+
+    private static int home(long high, long low, int mask) {
+        long hash = (high ^ low) * 0x9E3779B97F4A7C15L;
+        hash ^= hash >>> 32;
+        return (int) hash & mask;
+    }
+
+    /**
+     * Amounts in cents.
+     */
+    record Totals(long sum, long count, long max, long min) {
+    }
+}
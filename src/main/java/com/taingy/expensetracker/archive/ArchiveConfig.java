@@ -0,0 +1,57 @@
+package com.taingy.expensetracker.archive;
+
+import com.taingy.expensetracker.repository.CategoryRepository;
+import com.taingy.expensetracker.repository.JpaExpenseStore;
+import com.taingy.expensetracker.repository.UserRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+
+/**
+ * Moves old expenses out of the database into the archive under {@code app.archive.directory}
+ * when {@code app.archive.enabled} is set, and reads them back through
+ * {@link ArchivingExpenseStore}. The directory must be shared by all instances, and the archive
+ * only works with expenses in the main database, not with {@code app.sharding}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.archive.enabled", havingValue = "true")
+public class ArchiveConfig {
+
+    @Bean
+    public ExpenseArchive expenseArchive(@Value("${app.archive.directory:archive}") Path directory,
+                                         @Value("${app.archive.user-buckets:64}") int userBuckets) {
+        return new ExpenseArchive(directory, userBuckets);
+    }
+
+    @Bean
+    public ExpenseArchiver expenseArchiver(ExpenseArchive expenseArchive,
+                                           JdbcTemplate jdbcTemplate,
+                                           PlatformTransactionManager transactionManager,
+                                           @Value("${app.archive.min-age-days:730}") int minAgeDays,
+                                           @Value("${app.archive.chunk-size:20000}") int chunkSize,
+                                           @Value("${app.archive.delete-batch-size:500}") int deleteBatchSize) {
+        return new ExpenseArchiver(expenseArchive, jdbcTemplate, new TransactionTemplate(transactionManager),
+                minAgeDays, chunkSize, deleteBatchSize);
+    }
+
+    @Bean
+    @Primary
+    public ArchivingExpenseStore archivingExpenseStore(ObjectProvider<JpaExpenseStore> jpaExpenseStore,
+                                                       ExpenseArchive expenseArchive,
+                                                       UserRepository userRepository,
+                                                       CategoryRepository categoryRepository) {
+        JpaExpenseStore database = jpaExpenseStore.getIfAvailable();
+        if (database == null) {
+            throw new IllegalStateException("app.archive cannot be combined with app.sharding");
+        }
+        return new ArchivingExpenseStore(database, expenseArchive, userRepository, categoryRepository);
+    }
+}
@@ -0,0 +1,286 @@
+package com.taingy.expensetracker.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * One archive file, holding the archived expenses of one user bucket and year column by column.
+ * <p>
+ * The file is a header (magic, row count, column count), a directory with the offset,
+ * compressed length and raw length of each column, then the columns, each compressed with
+ * Deflate on its own. Reading maps the file and inflates only the columns asked for, so summing
+ * amounts per user never touches titles or descriptions. Amounts are stored as cents, dates as
+ * epoch days and timestamps as microseconds; a missing id is stored as the nil UUID.
+ */
+final class ArchiveSegment {
+
+    enum Column {
+        ID, USER_ID, CATEGORY_ID, EXPENSE_DATE, AMOUNT, CREATED_AT, UPDATED_AT, TITLE, DESCRIPTION
+    }
+
+    private static final long MAGIC = 0x4558504152433031L; // "EXPARC01"
+    private static final int HEADER_BYTES = Long.BYTES + 2 * Integer.BYTES;
+    private static final int DIRECTORY_ENTRY_BYTES = Long.BYTES + 2 * Integer.BYTES;
+    static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+    private static final UUID NIL = new UUID(0, 0);
+
+    private final ByteBuffer file;
+    private final int rows;
+
+    private ArchiveSegment(ByteBuffer file) {
+        this.file = file;
+        if (file.capacity() < HEADER_BYTES || file.getLong(0) != MAGIC) {
+            throw new IllegalStateException("Not an expense archive segment");
+        }
+        this.rows = file.getInt(Long.BYTES);
+        int columns = file.getInt(Long.BYTES + Integer.BYTES);
+        if (columns != Column.values().length) {
+            throw new IllegalStateException("Unsupported archive segment with " + columns + " columns");
+        }
+    }
+
+    /**
+     * Maps the segment at {@code path}. The mapping outlives the channel and is released when
+     * the segment is garbage collected.
+     */
+    static ArchiveSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new ArchiveSegment(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes the expenses to {@code path}, replacing any previous segment atomically so that
+     * concurrent readers see either the old or the new file.
+     */
+    static void write(Path path, List<ArchivedExpense> expenses) throws IOException {
+        Column[] columns = Column.values();
+        List<byte[]> compressed = new ArrayList<>(columns.length);
+        int[] rawLengths = new int[columns.length];
+        for (Column column : columns) {
+            byte[] raw = encode(column, expenses);
+            rawLengths[column.ordinal()] = raw.length;
+            compressed.add(deflate(raw));
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + DIRECTORY_ENTRY_BYTES * columns.length);
+        header.putLong(MAGIC).putInt(expenses.size()).putInt(columns.length);
+        long offset = header.capacity();
+        for (Column column : columns) {
+            byte[] block = compressed.get(column.ordinal());
+            header.putLong(offset).putInt(block.length).putInt(rawLengths[column.ordinal()]);
+            offset += block.length;
+        }
+        header.flip();
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, header);
+            for (byte[] block : compressed) {
+                writeFully(channel, ByteBuffer.wrap(block));
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    UUID[] uuids(Column column) {
+        ByteBuffer data = inflate(column);
+        UUID[] values = new UUID[rows];
+        for (int i = 0; i < rows; i++) {
+            UUID value = new UUID(data.getLong(), data.getLong());
+            values[i] = NIL.equals(value) ? null : value;
+        }
+        return values;
+    }
+
+    int[] ints(Column column) {
+        int[] values = new int[rows];
+        inflate(column).asIntBuffer().get(values);
+        return values;
+    }
+
+    long[] longs(Column column) {
+        long[] values = new long[rows];
+        inflate(column).asLongBuffer().get(values);
+        return values;
+    }
+
+    String[] strings(Column column) {
+        ByteBuffer data = inflate(column);
+        String[] values = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            int length = data.getInt();
+            if (length >= 0) {
+                values[i] = new String(data.array(), data.arrayOffset() + data.position(), length, StandardCharsets.UTF_8);
+                data.position(data.position() + length);
+            }
+        }
+        return values;
+    }
+
+    List<ArchivedExpense> readAll() {
+        return read(null);
+    }
+
+    /**
+     * Reads the rows at the given positions, or every row if {@code positions} is null.
+     */
+    List<ArchivedExpense> read(int[] positions) {
+        UUID[] ids = uuids(Column.ID);
+        UUID[] users = uuids(Column.USER_ID);
+        UUID[] categories = uuids(Column.CATEGORY_ID);
+        int[] dates = ints(Column.EXPENSE_DATE);
+        long[] amounts = longs(Column.AMOUNT);
+        long[] created = longs(Column.CREATED_AT);
+        long[] updated = longs(Column.UPDATED_AT);
+        String[] titles = strings(Column.TITLE);
+        String[] descriptions = strings(Column.DESCRIPTION);
+
+        int count = positions != null ? positions.length : rows;
+        List<ArchivedExpense> expenses = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            int i = positions != null ? positions[n] : n;
+            expenses.add(new ArchivedExpense(ids[i], users[i], categories[i], titles[i], descriptions[i],
+                    LocalDate.ofEpochDay(dates[i]), toAmount(amounts[i]), toDateTime(created[i]),
+                    toDateTime(updated[i])));
+        }
+        return expenses;
+    }
+
+    static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static LocalDateTime toDateTime(long micros) {
+        if (micros == NULL_TIMESTAMP) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC);
+    }
+
+    static long toMicros(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return NULL_TIMESTAMP;
+        }
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1000;
+    }
+
+    private static byte[] encode(Column column, List<ArchivedExpense> expenses) {
+        int rows = expenses.size();
+        return switch (column) {
+            case ID, USER_ID, CATEGORY_ID -> {
+                ByteBuffer data = ByteBuffer.allocate(rows * 2 * Long.BYTES);
+                for (ArchivedExpense expense : expenses) {
+                    UUID value = switch (column) {
+                        case ID -> expense.id();
+                        case USER_ID -> expense.userId();
+                        default -> expense.categoryId();
+                    };
+                    value = value != null ? value : NIL;
+                    data.putLong(value.getMostSignificantBits()).putLong(value.getLeastSignificantBits());
+                }
+                yield data.array();
+            }
+            case EXPENSE_DATE -> {
+                ByteBuffer data = ByteBuffer.allocate(rows * Integer.BYTES);
+                expenses.forEach(expense -> data.putInt(Math.toIntExact(expense.expenseDate().toEpochDay())));
+                yield data.array();
+            }
+            case AMOUNT, CREATED_AT, UPDATED_AT -> {
+                ByteBuffer data = ByteBuffer.allocate(rows * Long.BYTES);
+                for (ArchivedExpense expense : expenses) {
+                    data.putLong(switch (column) {
+                        case AMOUNT -> expense.amount().setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+                        case CREATED_AT -> toMicros(expense.createdAt());
+                        default -> toMicros(expense.updatedAt());
+                    });
+                }
+                yield data.array();
+            }
+            case TITLE, DESCRIPTION -> {
+                ByteArrayOutputStream data = new ByteArrayOutputStream(rows * 32);
+                ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+                for (ArchivedExpense expense : expenses) {
+                    String value = column == Column.TITLE ? expense.title() : expense.description();
+                    byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+                    data.write(length.clear().putInt(bytes != null ? bytes.length : -1).array(), 0, Integer.BYTES);
+                    if (bytes != null) {
+                        data.write(bytes, 0, bytes.length);
+                    }
+                }
+                yield data.toByteArray();
+            }
+        };
+    }
+
+    private ByteBuffer inflate(Column column) {
+        int entry = HEADER_BYTES + DIRECTORY_ENTRY_BYTES * column.ordinal();
+        long offset = file.getLong(entry);
+        int compressedLength = file.getInt(entry + Long.BYTES);
+        int rawLength = file.getInt(entry + Long.BYTES + Integer.BYTES);
+
+        ByteBuffer data = ByteBuffer.allocate(rawLength);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(file.slice(Math.toIntExact(offset), compressedLength));
+            while (data.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(data) == 0 && inflater.needsInput()) {
+                    throw new IllegalStateException("Truncated " + column + " column in archive segment");
+                }
+            }
+        } catch (DataFormatException ex) {
+            throw new IllegalStateException("Corrupt " + column + " column in archive segment", ex);
+        } finally {
+            inflater.end();
+        }
+        return data.flip();
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                compressed.write(buffer, 0, length);
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
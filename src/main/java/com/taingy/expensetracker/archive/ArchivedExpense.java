@@ -0,0 +1,14 @@
+package com.taingy.expensetracker.archive;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An expense as stored in the archive, with plain user and category ids.
+ */
+public record ArchivedExpense(UUID id, UUID userId, UUID categoryId, String title, String description,
+                              LocalDate expenseDate, BigDecimal amount, LocalDateTime createdAt,
+                              LocalDateTime updatedAt) {
+}
@@ -0,0 +1,302 @@
+package com.taingy.expensetracker.archive;
+
+import com.taingy.expensetracker.dto.ExpenseVersion;
+import com.taingy.expensetracker.model.Category;
+import com.taingy.expensetracker.model.Expense;
+import com.taingy.expensetracker.model.User;
+import com.taingy.expensetracker.repository.CategoryRepository;
+import com.taingy.expensetracker.repository.ExpenseOrder;
+import com.taingy.expensetracker.repository.ExpenseStore;
+import com.taingy.expensetracker.repository.ReferenceLookup;
+import com.taingy.expensetracker.repository.UserRepository;
+import com.taingy.expensetracker.repository.projection.CategoryTotal;
+import com.taingy.expensetracker.repository.projection.ExpenseListItem;
+import com.taingy.expensetracker.repository.projection.ExpenseTotals;
+import com.taingy.expensetracker.repository.projection.MonthlyTotal;
+import com.taingy.expensetracker.repository.projection.UserTotal;
+import com.taingy.expensetracker.timing.RequestTiming;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Adds the {@link ExpenseArchive} to the expenses of the database: searches whose date range
+ * reaches back past the archive horizon, and all the totals, include archived expenses.
+ * <p>
+ * Archived expenses are read-only. Looking one up by id finds nothing, so it cannot be edited or
+ * deleted. Delta sync reports them by their last update like any other expense, so a full resync
+ * still delivers them, while a client that already has one is not sent it again: archiving is
+ * not a change.
+ */
+public class ArchivingExpenseStore implements ExpenseStore {
+
+    private final ExpenseStore database;
+    private final ExpenseArchive archive;
+    private final ReferenceLookup references;
+
+    public ArchivingExpenseStore(ExpenseStore database, ExpenseArchive archive,
+                                 UserRepository userRepository, CategoryRepository categoryRepository) {
+        this.database = database;
+        this.archive = archive;
+        this.references = new ReferenceLookup(userRepository, categoryRepository);
+    }
+
+    @Override
+    public Optional<Expense> findById(UUID id) {
+        return database.findById(id);
+    }
+
+    @Override
+    public Optional<ExpenseVersion> findVersionById(UUID id) {
+        return database.findVersionById(id);
+    }
+
+    @Override
+    public Page<ExpenseListItem> findExpensesWithFilters(UUID userId, UUID categoryId, String searchTerm,
+                                                         LocalDate startDate, LocalDate endDate,
+                                                         BigDecimal minAmount, BigDecimal maxAmount,
+                                                         Pageable pageable) {
+        if (!archive.reaches(startDate)) {
+            return database.findExpensesWithFilters(userId, categoryId, searchTerm, startDate, endDate,
+                    minAmount, maxAmount, pageable);
+        }
+
+        // The page is somewhere in the first offset + size rows of either source
+        Pageable head = pageable.isPaged()
+                ? PageRequest.of(0, Math.toIntExact(pageable.getOffset() + pageable.getPageSize()), pageable.getSort())
+                : pageable;
+        Page<ExpenseListItem> fromDatabase = database.findExpensesWithFilters(userId, categoryId, searchTerm,
+                startDate, endDate, minAmount, maxAmount, head);
+        List<ExpenseListItem> databaseRows = fromDatabase.getContent();
+        int limit = head.isPaged() ? head.getPageSize() : Integer.MAX_VALUE;
+        // With a full head page, only archived rows sorting before its last row can make the page
+        ArchivedExpense bound = head.isPaged() && databaseRows.size() == limit
+                ? toArchived(databaseRows.get(databaseRows.size() - 1))
+                : null;
+        ExpenseArchive.SearchResult fromArchive;
+        try (RequestTiming.Phase ignored = RequestTiming.start("archive-scan")) {
+            fromArchive = archive.search(userId, categoryId, searchTerm, startDate, endDate, minAmount, maxAmount,
+                    pageable.getSort(), limit, bound);
+        }
+
+        Comparator<ExpenseListItem> order = Comparator.comparing(ArchivingExpenseStore::toArchived,
+                ExpenseArchive.comparator(pageable.getSort()));
+        long total = fromDatabase.getTotalElements() + fromArchive.count();
+        List<ExpenseListItem> merged = new ArrayList<>(databaseRows);
+        merged.addAll(withNames(fromArchive.rows()));
+        merged.sort(order);
+        List<ExpenseListItem> page = pageable.isPaged()
+                ? merged.subList((int) Math.min(pageable.getOffset(), merged.size()),
+                        Math.min(head.getPageSize(), merged.size()))
+                : merged;
+        return new PageImpl<>(new ArrayList<>(page), pageable, total);
+    }
+
+    /**
+     * Merges the changes of the database and the archive in cursor order. An expense caught
+     * between being archived and being deleted from the database is reported once.
+     */
+    @Override
+    public List<Expense> findChangesByUserId(UUID userId, LocalDateTime since, UUID afterId, LocalDateTime upTo,
+                                             Pageable pageable) {
+        if (!archive.reaches(null)) {
+            return database.findChangesByUserId(userId, since, afterId, upTo, pageable);
+        }
+        int limit = Math.toIntExact(pageable.getOffset() + pageable.getPageSize());
+        List<Expense> fromDatabase = database.findChangesByUserId(userId, since, afterId, upTo,
+                PageRequest.of(0, limit, pageable.getSort()));
+        List<ArchivedExpense> fromArchive;
+        try (RequestTiming.Phase ignored = RequestTiming.start("archive-scan")) {
+            fromArchive = archive.findChangesByUserId(userId, since, afterId, upTo, limit);
+        }
+        if (fromArchive.isEmpty()) {
+            return fromDatabase.subList((int) Math.min(pageable.getOffset(), fromDatabase.size()), fromDatabase.size());
+        }
+
+        Map<UUID, Expense> byId = new LinkedHashMap<>();
+        fromDatabase.forEach(expense -> byId.put(expense.getId(), expense));
+        toExpenses(fromArchive).forEach(expense -> byId.putIfAbsent(expense.getId(), expense));
+        List<Expense> merged = new ArrayList<>(byId.values());
+        merged.sort(Comparator.comparing(Expense::getUpdatedAt).thenComparing(Expense::getId, ExpenseOrder.UUIDS));
+        return new ArrayList<>(merged.subList((int) Math.min(pageable.getOffset(), merged.size()),
+                Math.min(limit, merged.size())));
+    }
+
+    @Override
+    public Expense save(Expense expense) {
+        return database.save(expense);
+    }
+
+    @Override
+    public void delete(Expense expense) {
+        database.delete(expense);
+    }
+
+    @Override
+    public boolean existsByUserId(UUID userId) {
+        return database.existsByUserId(userId) || archive.totals(userId).count() > 0;
+    }
+
+    @Override
+    public boolean existsByCategoryId(UUID categoryId) {
+        return database.existsByCategoryId(categoryId) || archive.sumByCategory(null).containsKey(categoryId);
+    }
+
+    @Override
+    public ExpenseTotals getTotalsByUserId(UUID userId) {
+        return plus(database.getTotalsByUserId(userId), archive.totals(userId));
+    }
+
+    @Override
+    public ExpenseTotals getTotals() {
+        return plus(database.getTotals(), archive.totals(null));
+    }
+
+    @Override
+    public List<CategoryTotal> getCategoryTotalsByUserId(UUID userId) {
+        return plusCategories(database.getCategoryTotalsByUserId(userId), archive.sumByCategory(userId));
+    }
+
+    @Override
+    public List<CategoryTotal> getCategoryTotals() {
+        return plusCategories(database.getCategoryTotals(), archive.sumByCategory(null));
+    }
+
+    @Override
+    public List<MonthlyTotal> getMonthlyTotalsByUserId(UUID userId) {
+        return plusMonths(database.getMonthlyTotalsByUserId(userId), archive.sumByMonth(userId));
+    }
+
+    @Override
+    public List<MonthlyTotal> getMonthlyTotals() {
+        return plusMonths(database.getMonthlyTotals(), archive.sumByMonth(null));
+    }
+
+    @Override
+    public List<UserTotal> getUserTotals() {
+        Map<UUID, long[]> archived = archive.sumByUser();
+        if (archived.isEmpty()) {
+            return database.getUserTotals();
+        }
+        // Emails are unique, so they identify the user in the database totals
+        Map<String, UserTotal> byEmail = new LinkedHashMap<>();
+        database.getUserTotals().forEach(total -> byEmail.put(total.email(), total));
+        Map<UUID, User> users = references.usersById(archived.keySet());
+        archived.forEach((userId, sum) -> {
+            User user = users.get(userId);
+            if (user != null) {
+                byEmail.merge(user.getEmail(),
+                        new UserTotal(user.getFirstName(), user.getLastName(), user.getEmail(),
+                                ArchiveSegment.toAmount(sum[0]), sum[1]),
+                        (a, b) -> new UserTotal(a.firstName(), a.lastName(), a.email(),
+                                a.totalAmount().add(b.totalAmount()), a.count() + b.count()));
+            }
+        });
+        return new ArrayList<>(byEmail.values());
+    }
+
+    private static ExpenseTotals plus(ExpenseTotals database, ExpenseArchive.Totals archived) {
+        if (archived.count() == 0) {
+            return database;
+        }
+        BigDecimal amount = ArchiveSegment.toAmount(archived.sum());
+        BigDecimal max = ArchiveSegment.toAmount(archived.max());
+        BigDecimal min = ArchiveSegment.toAmount(archived.min());
+        long count = archived.count();
+        if (database.count() != null && database.count() > 0) {
+            amount = amount.add(database.totalAmount());
+            max = max.max(database.maxAmount());
+            min = min.min(database.minAmount());
+            count += database.count();
+        }
+        return new ExpenseTotals(amount, count, amount.doubleValue() / count, max, min);
+    }
+
+    private List<CategoryTotal> plusCategories(List<CategoryTotal> database, Map<UUID, long[]> archived) {
+        if (archived.isEmpty()) {
+            return database;
+        }
+        // Grouped by name like the database totals
+        Map<String, CategoryTotal> byName = new LinkedHashMap<>();
+        database.forEach(total -> byName.put(total.categoryName(), total));
+        Map<UUID, Category> categories = references.categoriesById(archived.keySet());
+        archived.forEach((categoryId, sum) -> {
+            Category category = categories.get(categoryId);
+            String name = category != null ? category.getName() : null;
+            byName.merge(name, new CategoryTotal(name, ArchiveSegment.toAmount(sum[0]), sum[1]),
+                    (a, b) -> new CategoryTotal(name, a.totalAmount().add(b.totalAmount()), a.count() + b.count()));
+        });
+        return new ArrayList<>(byName.values());
+    }
+
+    private static List<MonthlyTotal> plusMonths(List<MonthlyTotal> database, Map<Integer, long[]> archived) {
+        if (archived.isEmpty()) {
+            return database;
+        }
+        Map<Integer, MonthlyTotal> byMonth = new LinkedHashMap<>();
+        database.forEach(total -> byMonth.put(total.year() * 12 + total.month() - 1, total));
+        archived.forEach((month, sum) -> byMonth.merge(month,
+                new MonthlyTotal(month / 12, month % 12 + 1, ArchiveSegment.toAmount(sum[0]), sum[1]),
+                (a, b) -> new MonthlyTotal(a.year(), a.month(), a.totalAmount().add(b.totalAmount()),
+                        a.count() + b.count())));
+        return new ArrayList<>(byMonth.values());
+    }
+
+    private List<ExpenseListItem> withNames(List<ArchivedExpense> expenses) {
+        Map<UUID, User> users = references.usersById(
+                expenses.stream().map(ArchivedExpense::userId).collect(Collectors.toSet()));
+        Map<UUID, Category> categories = references.categoriesById(
+                expenses.stream().map(ArchivedExpense::categoryId).collect(Collectors.toSet()));
+        return expenses.stream().map(expense -> {
+            User user = users.get(expense.userId());
+            Category category = categories.get(expense.categoryId());
+            return new ExpenseListItem(expense.id(), expense.expenseDate(), expense.title(), expense.description(),
+                    expense.amount(), category != null ? category.getName() : null, expense.userId(),
+                    user != null ? user.getEmail() : null,
+                    user != null ? user.getFirstName() : null,
+                    user != null ? user.getLastName() : null,
+                    expense.createdAt(), expense.updatedAt());
+        }).toList();
+    }
+
+    private List<Expense> toExpenses(List<ArchivedExpense> expenses) {
+        Map<UUID, User> users = references.usersById(
+                expenses.stream().map(ArchivedExpense::userId).collect(Collectors.toSet()));
+        Map<UUID, Category> categories = references.categoriesById(
+                expenses.stream().map(ArchivedExpense::categoryId).collect(Collectors.toSet()));
+        return expenses.stream().map(archived -> {
+            Expense expense = new Expense();
+            expense.setId(archived.id());
+            expense.setUser(users.get(archived.userId()));
+            expense.setCategory(categories.get(archived.categoryId()));
+            expense.setTitle(archived.title());
+            expense.setDescription(archived.description());
+            expense.setExpenseDate(archived.expenseDate());
+            expense.setAmount(archived.amount());
+            expense.setCreatedAt(archived.createdAt());
+            expense.setUpdatedAt(archived.updatedAt());
+            return expense;
+        }).toList();
+    }
+
+    /**
+     * The sort columns of a list item, to order it among archived expenses.
+     */
+    private static ArchivedExpense toArchived(ExpenseListItem item) {
+        return new ArchivedExpense(item.id(), item.userId(), null, item.title(), item.description(),
+                item.expenseDate(), item.amount(), item.createdAt(), item.updatedAt());
+    }
+}
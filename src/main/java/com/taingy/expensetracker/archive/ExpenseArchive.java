@@ -0,0 +1,630 @@
+package com.taingy.expensetracker.archive;
+
+import com.taingy.expensetracker.archive.ArchiveSegment.Column;
+import com.taingy.expensetracker.repository.ExpenseOrder;
+import com.taingy.expensetracker.repository.shard.ShardRouter;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Expenses moved out of the database into {@link ArchiveSegment} files on local disk, one per
+ * user bucket and month: {@code bucket-007/2021-03.exparc}. A user's expenses all fall into the
+ * same bucket, so per-user reads open one directory, and a date range only opens the years it
+ * covers.
+ * <p>
+ * The horizon, kept in {@code archive.properties}, is the date before which expenses may have
+ * been archived; anything dated from the horizon on is only in the database. Reads ignore
+ * archived rows dated after it, which a run that stopped before moving the horizon leaves
+ * behind while they are still in the database. Every read checks whether the file changed, so
+ * instances sharing the directory see a horizon moved by another one straight away.
+ */
+public class ExpenseArchive {
+
+    private static final String SUFFIX = ".exparc";
+    private static final String MANIFEST = "archive.properties";
+    private static final String HORIZON = "horizon";
+    private static final Set<String> SORT_PROPERTIES =
+            Set.of("id", "title", "description", "expenseDate", "amount", "createdAt", "updatedAt");
+
+    private final Path directory;
+    private final Path manifestPath;
+    private final ShardRouter buckets;
+    private volatile Manifest manifest = new Manifest(null, null);
+
+    public ExpenseArchive(Path directory, int buckets) {
+        this.directory = directory;
+        this.manifestPath = directory.resolve(MANIFEST);
+        this.buckets = new ShardRouter(buckets);
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot open expense archive in " + directory, ex);
+        }
+        horizon();
+    }
+
+    /**
+     * The date before which expenses may be archived, or null if nothing has been.
+     */
+    public LocalDate horizon() {
+        try {
+            Object version = version();
+            Manifest current = manifest;
+            if (!Objects.equals(version, current.version())) {
+                // Read after the version, so a file replaced in between is read again next time
+                current = new Manifest(version, version != null ? readHorizon() : null);
+                manifest = current;
+            }
+            return current.horizon();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read expense archive manifest in " + directory, ex);
+        }
+    }
+
+    /**
+     * Whether a search for expenses dated from {@code startDate} on, or without a start date,
+     * needs to look at the archive.
+     */
+    public boolean reaches(LocalDate startDate) {
+        LocalDate current = horizon();
+        return current != null && (startDate == null || startDate.isBefore(current));
+    }
+
+    /**
+     * Moves the horizon forward to {@code archivedBefore}; it never moves back.
+     */
+    public synchronized void advanceHorizon(LocalDate archivedBefore) throws IOException {
+        LocalDate current = horizon();
+        if (current != null && !archivedBefore.isAfter(current)) {
+            return;
+        }
+        Properties properties = new Properties();
+        properties.setProperty(HORIZON, archivedBefore.toString());
+        Path temporary = directory.resolve(MANIFEST + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporary)) {
+            properties.store(writer, "Expenses dated before the horizon may be archived");
+        }
+        Files.move(temporary, manifestPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        manifest = new Manifest(version(), archivedBefore);
+    }
+
+    public int bucketFor(UUID userId) {
+        return buckets.shardFor(userId);
+    }
+
+    /**
+     * Adds expenses of one month to the archive, grouped by bucket. Segments are immutable, so a
+     * bucket that already has a segment for the month gets a new one with the old and new rows;
+     * a row archived twice, say by a run that stopped before deleting it from the database,
+     * is kept once.
+     */
+    public synchronized void append(YearMonth month, Map<Integer, List<ArchivedExpense>> byBucket) throws IOException {
+        for (Map.Entry<Integer, List<ArchivedExpense>> bucket : byBucket.entrySet()) {
+            for (ArchivedExpense expense : bucket.getValue()) {
+                if (!YearMonth.from(expense.expenseDate()).equals(month)) {
+                    throw new IllegalArgumentException("Expense " + expense.id() + " is not dated in " + month);
+                }
+            }
+            Path path = segmentPath(bucket.getKey(), month);
+            Files.createDirectories(path.getParent());
+            Map<UUID, ArchivedExpense> rows = new LinkedHashMap<>();
+            if (Files.exists(path)) {
+                ArchiveSegment.open(path).readAll().forEach(expense -> rows.put(expense.id(), expense));
+            }
+            bucket.getValue().forEach(expense -> rows.put(expense.id(), expense));
+            ArchiveSegment.write(path, new ArrayList<>(rows.values()));
+        }
+    }
+
+    /**
+     * Removes archived rows dated from the horizon on. Only a run that failed before moving the
+     * horizon leaves them behind, and they are still in the database; once a later run moved the
+     * horizon past them they would be counted twice. Only the segments of the horizon's year and
+     * later are opened.
+     */
+    public synchronized void discardPastHorizon() throws IOException {
+        LocalDate current = horizon();
+        long visibleUntil = visibleUntil(current);
+        int fromYear = current != null ? current.getYear() : Integer.MIN_VALUE;
+        List<Path> files;
+        try (Stream<Path> all = Files.list(directory).filter(Files::isDirectory)
+                .flatMap(ExpenseArchive::listSegments)) {
+            files = all.filter(file -> yearOf(file) >= fromYear).toList();
+        }
+        for (Path file : files) {
+            ArchiveSegment segment = ArchiveSegment.open(file);
+            int[] dates = segment.ints(Column.EXPENSE_DATE);
+            int[] visible = IntStream.range(0, dates.length).filter(i -> dates[i] <= visibleUntil).toArray();
+            if (visible.length == 0) {
+                Files.delete(file);
+            } else if (visible.length < dates.length) {
+                ArchiveSegment.write(file, segment.read(visible));
+            }
+        }
+    }
+
+    /**
+     * Archived expenses matching the same filters as the expense search; any filter may be null.
+     */
+    public List<ArchivedExpense> find(UUID userId, UUID categoryId, String searchTerm,
+                                      LocalDate startDate, LocalDate endDate,
+                                      BigDecimal minAmount, BigDecimal maxAmount) {
+        LocalDate current = horizon();
+        Criteria criteria = Criteria.of(userId, categoryId, searchTerm, startDate, endDate, minAmount, maxAmount,
+                visibleUntil(current));
+        List<ArchivedExpense> found = new ArrayList<>();
+        for (SegmentFile file : segments(userId, startDate, endDate, current)) {
+            ArchiveSegment segment = file.open();
+            int[] matches = criteria.matches(segment, file.year());
+            if (matches.length > 0) {
+                found.addAll(segment.read(matches));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * How many archived expenses match the search filters, and the first {@code limit} of them
+     * in {@code sort} order that sort before {@code bound}, if given. Only those rows are read;
+     * the rest are counted from the filtered columns, or from the segment header where no filter
+     * applies. A caller merging with {@code limit} database rows passes the last of them as the
+     * bound. When the sort starts with the expense date, years that cannot hold such rows are
+     * only counted, so a newest-first listing whose page is filled from the database reads no
+     * archived rows at all.
+     */
+    public SearchResult search(UUID userId, UUID categoryId, String searchTerm,
+                               LocalDate startDate, LocalDate endDate,
+                               BigDecimal minAmount, BigDecimal maxAmount,
+                               Sort sort, int limit, ArchivedExpense bound) {
+        LocalDate current = horizon();
+        long visibleUntil = visibleUntil(current);
+        Criteria criteria = Criteria.of(userId, categoryId, searchTerm, startDate, endDate, minAmount, maxAmount,
+                visibleUntil);
+        Comparator<ArchivedExpense> order = comparator(sort);
+        Sort.Order first = sort.stream().findFirst().orElse(null);
+        Sort.Direction byDate = first != null && first.getProperty().equals("expenseDate") ? first.getDirection() : null;
+
+        List<SegmentFile> files = segments(userId, startDate, endDate, current);
+        if (byDate != null) {
+            // Best years first, so later ones can be skipped once the page is full
+            Comparator<SegmentFile> byYear = Comparator.comparingInt(SegmentFile::year);
+            files.sort(byDate.isDescending() ? byYear.reversed() : byYear);
+        }
+
+        // Worst kept row on top
+        PriorityQueue<ArchivedExpense> top = new PriorityQueue<>(Math.min(limit, 256) + 1, order.reversed());
+        long count = 0;
+        for (SegmentFile file : files) {
+            ArchiveSegment segment = file.open();
+            ArchivedExpense worst = worst(top, limit, bound);
+            boolean wanted = limit > 0 && (byDate == null || worst == null
+                    || (byDate.isDescending() ? file.year() >= worst.expenseDate().getYear()
+                            : file.year() <= worst.expenseDate().getYear()));
+            if (!wanted && criteria.keepsAll(segment, file.year())) {
+                count += segment.rows();
+                continue;
+            }
+            int[] matches = criteria.matches(segment, file.year());
+            count += matches.length;
+            if (!wanted || matches.length == 0) {
+                continue;
+            }
+            if (byDate != null && worst != null) {
+                matches = notBefore(segment, matches, worst.expenseDate(), byDate);
+            }
+            for (ArchivedExpense expense : segment.read(matches)) {
+                worst = worst(top, limit, bound);
+                if (worst == null || order.compare(expense, worst) < 0) {
+                    top.add(expense);
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            }
+        }
+        List<ArchivedExpense> rows = new ArrayList<>(top);
+        rows.sort(order);
+        return new SearchResult(rows, count);
+    }
+
+    /**
+     * The archived expenses of the user last updated after the (updatedAt, id) cursor and no
+     * later than {@code upTo}, at most {@code limit} of them in cursor order, like
+     * {@link com.taingy.expensetracker.repository.ExpenseRepository#findChangesByUserId}.
+     * Archiving does not change an expense, so a client already holding one does not get it again.
+     */
+    public List<ArchivedExpense> findChangesByUserId(UUID userId, LocalDateTime since, UUID afterId,
+                                                     LocalDateTime upTo, int limit) {
+        LocalDate current = horizon();
+        long visibleUntil = visibleUntil(current);
+        long sinceMicros = ArchiveSegment.toMicros(since);
+        long upToMicros = ArchiveSegment.toMicros(upTo);
+        Comparator<ArchivedExpense> order = Comparator.comparing(ArchivedExpense::updatedAt)
+                .thenComparing(ArchivedExpense::id, ExpenseOrder.UUIDS);
+        PriorityQueue<ArchivedExpense> first = new PriorityQueue<>(Math.min(limit, 256) + 1, order.reversed());
+        for (SegmentFile file : segments(userId, null, null, current)) {
+            ArchiveSegment segment = file.open();
+            UUID[] users = segment.uuids(Column.USER_ID);
+            UUID[] ids = segment.uuids(Column.ID);
+            int[] dates = segment.ints(Column.EXPENSE_DATE);
+            long[] updated = segment.longs(Column.UPDATED_AT);
+            List<Integer> candidates = new ArrayList<>();
+            for (int i = 0; i < segment.rows(); i++) {
+                if (userId.equals(users[i]) && dates[i] <= visibleUntil
+                        && updated[i] != ArchiveSegment.NULL_TIMESTAMP && updated[i] <= upToMicros
+                        && (updated[i] > sinceMicros
+                                || (updated[i] == sinceMicros && ExpenseOrder.UUIDS.compare(ids[i], afterId) > 0))) {
+                    candidates.add(i);
+                }
+            }
+            // Only the first rows of each segment in cursor order can be among the first overall
+            candidates.sort(Comparator.<Integer>comparingLong(i -> updated[i])
+                    .thenComparing(i -> ids[i], ExpenseOrder.UUIDS));
+            int[] positions = candidates.stream().limit(limit).mapToInt(Integer::intValue).toArray();
+            for (ArchivedExpense expense : segment.read(positions)) {
+                first.add(expense);
+                if (first.size() > limit) {
+                    first.poll();
+                }
+            }
+        }
+        List<ArchivedExpense> rows = new ArrayList<>(first);
+        rows.sort(order);
+        return rows;
+    }
+
+    /**
+     * Amount in cents, count, maximum and minimum of the archived expenses of one user, or of
+     * everyone if {@code userId} is null.
+     */
+    public Totals totals(UUID userId) {
+        LocalDate current = horizon();
+        long visibleUntil = visibleUntil(current);
+        long sum = 0;
+        long count = 0;
+        long max = Long.MIN_VALUE;
+        long min = Long.MAX_VALUE;
+        for (SegmentFile file : segments(userId, null, null, current)) {
+            ArchiveSegment segment = file.open();
+            UUID[] users = userId != null ? segment.uuids(Column.USER_ID) : null;
+            int[] dates = segment.ints(Column.EXPENSE_DATE);
+            long[] amounts = segment.longs(Column.AMOUNT);
+            for (int i = 0; i < amounts.length; i++) {
+                if ((users == null || userId.equals(users[i])) && dates[i] <= visibleUntil) {
+                    sum += amounts[i];
+                    count++;
+                    max = Math.max(max, amounts[i]);
+                    min = Math.min(min, amounts[i]);
+                }
+            }
+        }
+        return new Totals(sum, count, max, min);
+    }
+
+    /**
+     * Cents and count per category, for one user or everyone.
+     */
+    public Map<UUID, long[]> sumByCategory(UUID userId) {
+        LocalDate current = horizon();
+        long visibleUntil = visibleUntil(current);
+        Map<UUID, long[]> sums = new HashMap<>();
+        for (SegmentFile file : segments(userId, null, null, current)) {
+            ArchiveSegment segment = file.open();
+            UUID[] users = userId != null ? segment.uuids(Column.USER_ID) : null;
+            UUID[] categories = segment.uuids(Column.CATEGORY_ID);
+            int[] dates = segment.ints(Column.EXPENSE_DATE);
+            long[] amounts = segment.longs(Column.AMOUNT);
+            for (int i = 0; i < amounts.length; i++) {
+                if ((users == null || userId.equals(users[i])) && dates[i] <= visibleUntil) {
+                    add(sums.computeIfAbsent(categories[i], key -> new long[2]), amounts[i]);
+                }
+            }
+        }
+        return sums;
+    }
+
+    /**
+     * Cents and count per month, keyed by {@code year * 12 + month - 1}, for one user or
+     * everyone.
+     */
+    public Map<Integer, long[]> sumByMonth(UUID userId) {
+        LocalDate current = horizon();
+        long visibleUntil = visibleUntil(current);
+        Map<Integer, long[]> sums = new HashMap<>();
+        for (SegmentFile file : segments(userId, null, null, current)) {
+            ArchiveSegment segment = file.open();
+            UUID[] users = userId != null ? segment.uuids(Column.USER_ID) : null;
+            int[] dates = segment.ints(Column.EXPENSE_DATE);
+            long[] amounts = segment.longs(Column.AMOUNT);
+            for (int i = 0; i < amounts.length; i++) {
+                if ((users == null || userId.equals(users[i])) && dates[i] <= visibleUntil) {
+                    LocalDate date = LocalDate.ofEpochDay(dates[i]);
+                    add(sums.computeIfAbsent(date.getYear() * 12 + date.getMonthValue() - 1, key -> new long[2]), amounts[i]);
+                }
+            }
+        }
+        return sums;
+    }
+
+    /**
+     * Cents and count per user.
+     */
+    public Map<UUID, long[]> sumByUser() {
+        LocalDate current = horizon();
+        long visibleUntil = visibleUntil(current);
+        Map<UUID, long[]> sums = new HashMap<>();
+        for (SegmentFile file : segments(null, null, null, current)) {
+            ArchiveSegment segment = file.open();
+            UUID[] users = segment.uuids(Column.USER_ID);
+            int[] dates = segment.ints(Column.EXPENSE_DATE);
+            long[] amounts = segment.longs(Column.AMOUNT);
+            for (int i = 0; i < amounts.length; i++) {
+                if (dates[i] <= visibleUntil) {
+                    add(sums.computeIfAbsent(users[i], key -> new long[2]), amounts[i]);
+                }
+            }
+        }
+        return sums;
+    }
+
+    /**
+     * The last epoch day readers see, the day before the horizon.
+     */
+    private static long visibleUntil(LocalDate horizon) {
+        return horizon != null ? horizon.toEpochDay() - 1 : Long.MIN_VALUE;
+    }
+
+    private static void add(long[] sum, long cents) {
+        sum[0] += cents;
+        sum[1]++;
+    }
+
+    private static ArchivedExpense worst(PriorityQueue<ArchivedExpense> top, int limit, ArchivedExpense bound) {
+        return top.size() >= limit ? top.peek() : bound;
+    }
+
+    /**
+     * The matches dated no worse than {@code date} in the date order; only those can sort before
+     * a row of that date.
+     */
+    private static int[] notBefore(ArchiveSegment segment, int[] matches, LocalDate date, Sort.Direction byDate) {
+        int[] dates = segment.ints(Column.EXPENSE_DATE);
+        long day = date.toEpochDay();
+        return Arrays.stream(matches)
+                .filter(i -> byDate.isDescending() ? dates[i] >= day : dates[i] <= day)
+                .toArray();
+    }
+
+    /**
+     * Orders archived expenses by the requested sort in {@link ExpenseOrder}, with the id as a
+     * final tie-breaker, like the database orders a sorted page. Without a sort all rows are
+     * equal.
+     */
+    static Comparator<ArchivedExpense> comparator(Sort sort) {
+        if (sort.isUnsorted()) {
+            return (a, b) -> 0;
+        }
+        Comparator<ArchivedExpense> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            String property = order.getProperty();
+            if (!SORT_PROPERTIES.contains(property)) {
+                throw new IllegalArgumentException("Cannot sort expenses by " + property);
+            }
+            Comparator<ArchivedExpense> byProperty =
+                    (a, b) -> ExpenseOrder.compareNullsLast(value(a, property), value(b, property));
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator.thenComparing(ArchivedExpense::id, ExpenseOrder.UUIDS);
+    }
+
+    private static Object value(ArchivedExpense expense, String property) {
+        return switch (property) {
+            case "id" -> expense.id();
+            case "title" -> expense.title();
+            case "description" -> expense.description();
+            case "expenseDate" -> expense.expenseDate();
+            case "amount" -> expense.amount();
+            case "createdAt" -> expense.createdAt();
+            case "updatedAt" -> expense.updatedAt();
+            default -> throw new IllegalArgumentException("Cannot sort expenses by " + property);
+        };
+    }
+
+    /**
+     * The segment files of the user's bucket, or of every bucket, for the years between the dates
+     * that the horizon makes visible.
+     */
+    private List<SegmentFile> segments(UUID userId, LocalDate startDate, LocalDate endDate, LocalDate horizon) {
+        if (horizon == null) {
+            return new ArrayList<>();
+        }
+        int fromYear = startDate != null ? startDate.getYear() : Integer.MIN_VALUE;
+        int toYear = Math.min(endDate != null ? endDate.getYear() : Integer.MAX_VALUE, horizon.minusDays(1).getYear());
+        List<SegmentFile> segments = new ArrayList<>();
+        try (Stream<Path> files = userId != null
+                ? listSegments(directory.resolve(bucketDirectory(bucketFor(userId))))
+                : Files.list(directory).filter(Files::isDirectory).flatMap(ExpenseArchive::listSegments)) {
+            for (Path file : files.sorted().toList()) {
+                int year = yearOf(file);
+                if (year >= fromYear && year <= toYear) {
+                    segments.add(new SegmentFile(year, file));
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot read expense archive in " + directory, ex);
+        }
+        return segments;
+    }
+
+    /**
+     * Identifies the manifest file as written: every write replaces it with a new file, so the
+     * file key tells apart two writes within the resolution of the modification time.
+     */
+    private Object version() throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(manifestPath, BasicFileAttributes.class);
+            return Arrays.asList(attributes.lastModifiedTime(), attributes.fileKey());
+        } catch (NoSuchFileException ex) {
+            return null;
+        }
+    }
+
+    private LocalDate readHorizon() throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(manifestPath)) {
+            properties.load(reader);
+        }
+        String value = properties.getProperty(HORIZON);
+        return value != null ? LocalDate.parse(value) : null;
+    }
+
+    private static Stream<Path> listSegments(Path bucket) {
+        if (!Files.isDirectory(bucket)) {
+            return Stream.empty();
+        }
+        try {
+            return Files.list(bucket).filter(file -> file.getFileName().toString().endsWith(SUFFIX));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private Path segmentPath(int bucket, YearMonth month) {
+        return directory.resolve(bucketDirectory(bucket)).resolve(month + SUFFIX);
+    }
+
+    private static int yearOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return YearMonth.parse(name.substring(0, name.length() - SUFFIX.length())).getYear();
+    }
+
+    private static String bucketDirectory(int bucket) {
+        return String.format("bucket-%03d", bucket);
+    }
+
+    /**
+     * Archived amounts in cents.
+     */
+    public record Totals(long sum, long count, long max, long min) {
+    }
+
+    /**
+     * The first rows of a {@link #search} and how many rows matched in all.
+     */
+    public record SearchResult(List<ArchivedExpense> rows, long count) {
+    }
+
+    /**
+     * The horizon as last read, and the version of the manifest it was read from.
+     */
+    private record Manifest(Object version, LocalDate horizon) {
+    }
+
+    private record SegmentFile(int year, Path path) {
+
+        ArchiveSegment open() {
+            try {
+                return ArchiveSegment.open(path);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Cannot read expense archive segment " + path, ex);
+            }
+        }
+    }
+
+    /**
+     * The filters of a search, with amounts in cents and dates in epoch days, the end date
+     * clamped to the horizon.
+     */
+    private record Criteria(UUID userId, UUID categoryId, String search, long minCents, long maxCents,
+                            long fromDay, long toDay) {
+
+        static Criteria of(UUID userId, UUID categoryId, String searchTerm, LocalDate startDate, LocalDate endDate,
+                           BigDecimal minAmount, BigDecimal maxAmount, long visibleUntil) {
+            String search = searchTerm != null && !searchTerm.trim().isEmpty() ? searchTerm.toLowerCase() : null;
+            long minCents = minAmount != null ? minAmount.movePointRight(2).setScale(0, RoundingMode.CEILING).longValueExact() : Long.MIN_VALUE;
+            long maxCents = maxAmount != null ? maxAmount.movePointRight(2).setScale(0, RoundingMode.FLOOR).longValueExact() : Long.MAX_VALUE;
+            long fromDay = startDate != null ? startDate.toEpochDay() : Long.MIN_VALUE;
+            long toDay = Math.min(endDate != null ? endDate.toEpochDay() : Long.MAX_VALUE, visibleUntil);
+            return new Criteria(userId, categoryId, search, minCents, maxCents, fromDay, toDay);
+        }
+
+        /**
+         * Whether every row of the segment, which holds one year, matches without looking at it.
+         */
+        boolean keepsAll(ArchiveSegment segment, int year) {
+            return userId == null && categoryId == null && search == null
+                    && minCents == Long.MIN_VALUE && maxCents == Long.MAX_VALUE
+                    && fromDay <= LocalDate.ofYearDay(year, 1).toEpochDay()
+                    && toDay >= LocalDate.of(year, 12, 31).toEpochDay();
+        }
+
+        /**
+         * The positions of the matching rows. Filters on the fixed-width columns first; text is
+         * only decoded when searching.
+         */
+        int[] matches(ArchiveSegment segment, int year) {
+            int rows = segment.rows();
+            if (keepsAll(segment, year)) {
+                int[] all = new int[rows];
+                Arrays.setAll(all, i -> i);
+                return all;
+            }
+            UUID[] users = userId != null ? segment.uuids(Column.USER_ID) : null;
+            UUID[] categories = categoryId != null ? segment.uuids(Column.CATEGORY_ID) : null;
+            int[] dates = segment.ints(Column.EXPENSE_DATE);
+            long[] amounts = minCents != Long.MIN_VALUE || maxCents != Long.MAX_VALUE ? segment.longs(Column.AMOUNT) : null;
+            int[] matches = new int[rows];
+            int count = 0;
+            for (int i = 0; i < rows; i++) {
+                if ((users == null || userId.equals(users[i]))
+                        && (categories == null || categoryId.equals(categories[i]))
+                        && dates[i] >= fromDay && dates[i] <= toDay
+                        && (amounts == null || (amounts[i] >= minCents && amounts[i] <= maxCents))) {
+                    matches[count++] = i;
+                }
+            }
+            if (count > 0 && search != null) {
+                String[] titles = segment.strings(Column.TITLE);
+                String[] descriptions = segment.strings(Column.DESCRIPTION);
+                int kept = 0;
+                for (int n = 0; n < count; n++) {
+                    int i = matches[n];
+                    if ((titles[i] != null && titles[i].toLowerCase().contains(search))
+                            || (descriptions[i] != null && descriptions[i].toLowerCase().contains(search))) {
+                        matches[kept++] = i;
+                    }
+                }
+                count = kept;
+            }
+            return Arrays.copyOf(matches, count);
+        }
+    }
+}
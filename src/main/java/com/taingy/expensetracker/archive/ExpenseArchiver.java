@@ -0,0 +1,205 @@
+package com.taingy.expensetracker.archive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Moves expenses dated more than {@code app.archive.min-age-days} ago from the database into the
+ * {@link ExpenseArchive}, in chunks of whole days holding about {@code app.archive.chunk-size}
+ * rows, oldest first. A chunk never spans two months, so it only rewrites that month's segments.
+ * <p>
+ * Each chunk is one transaction: its rows are locked, written to the archive files, deleted, and
+ * the horizon is moved to the end of the chunk just before the commit, so a run holds no more
+ * than one chunk's rows in memory or under lock, and readers never miss rows already deleted.
+ * If a chunk fails before the horizon moved, its rows stay in the database and their copies in
+ * the files, being dated after the horizon, stay out of sight until the next run removes them.
+ * Rows are only counted twice when the commit fails after the horizon moved, or while a chunk
+ * holds an expense entered with a date already behind the horizon, until the next run or the
+ * commit respectively.
+ * <p>
+ * On PostgreSQL a run holds a session advisory lock, so of several instances sharing the
+ * database and the archive directory only one archives at a time; the others skip the run.
+ */
+public class ExpenseArchiver {
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseArchiver.class);
+
+    // Arbitrary, shared by every instance: the bytes of "exparchv"
+    private static final long LOCK_KEY = 0x6578706172636876L;
+
+    private static final RowMapper<ArchivedExpense> ROW_MAPPER = (rs, rowNum) -> new ArchivedExpense(
+            rs.getObject("id", UUID.class),
+            rs.getObject("user_id", UUID.class),
+            rs.getObject("category_id", UUID.class),
+            rs.getString("title"),
+            rs.getString("description"),
+            rs.getObject("expense_date", LocalDate.class),
+            rs.getBigDecimal("amount"),
+            rs.getObject("created_at", LocalDateTime.class),
+            rs.getObject("updated_at", LocalDateTime.class));
+
+    private final ExpenseArchive archive;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int minAgeDays;
+    private final int chunkSize;
+    private final int deleteBatchSize;
+
+    public ExpenseArchiver(ExpenseArchive archive, JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                           int minAgeDays, int chunkSize, int deleteBatchSize) {
+        if (minAgeDays < 1) {
+            throw new IllegalArgumentException("app.archive.min-age-days must be at least 1");
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("app.archive.chunk-size must be at least 1");
+        }
+        this.archive = archive;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.minAgeDays = minAgeDays;
+        this.chunkSize = chunkSize;
+        this.deleteBatchSize = deleteBatchSize;
+    }
+
+    @Scheduled(cron = "${app.archive.cron:0 0 4 * * *}")
+    public int archive() {
+        return archiveBefore(LocalDate.now().minusDays(minAgeDays));
+    }
+
+    /**
+     * Archives every expense dated before {@code cutoff} and returns how many were moved, or 0
+     * if another instance is archiving.
+     */
+    public int archiveBefore(LocalDate cutoff) {
+        // The lock belongs to the connection, which stays open for the run; the chunks use others
+        Integer archived = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            boolean postgres = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+            if (postgres && !advisoryLock(connection, "pg_try_advisory_lock")) {
+                logger.info("Skipping the archive run, another instance is archiving");
+                return 0;
+            }
+            try {
+                return archiveChunks(cutoff);
+            } finally {
+                if (postgres) {
+                    advisoryLock(connection, "pg_advisory_unlock");
+                }
+            }
+        });
+        return archived != null ? archived : 0;
+    }
+
+    private int archiveChunks(LocalDate cutoff) {
+        try {
+            archive.discardPastHorizon();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not clean up the expense archive", ex);
+        }
+        int total = 0;
+        for (Chunk chunk : chunks(cutoff)) {
+            total += archiveChunk(chunk);
+        }
+        if (total > 0) {
+            logger.info("Archived {} expense(s) dated before {}", total, cutoff);
+        }
+        return total;
+    }
+
+    /**
+     * Splits the days before {@code cutoff} that have expenses into consecutive chunks of about
+     * {@code chunkSize} rows; a day with more rows than that is a chunk of its own.
+     */
+    private List<Chunk> chunks(LocalDate cutoff) {
+        List<DayCount> days = jdbcTemplate.query(
+                "SELECT expense_date, COUNT(*) FROM expenses WHERE expense_date < ? "
+                        + "GROUP BY expense_date ORDER BY expense_date",
+                (rs, rowNum) -> new DayCount(rs.getObject(1, LocalDate.class), rs.getLong(2)), cutoff);
+        List<Chunk> chunks = new ArrayList<>();
+        LocalDate from = null;
+        long rows = 0;
+        for (DayCount day : days) {
+            if (from != null && !YearMonth.from(day.date()).equals(YearMonth.from(from))) {
+                chunks.add(new Chunk(from, nextMonth(from)));
+                from = null;
+            } else if (from != null && rows + day.rows() > chunkSize) {
+                chunks.add(new Chunk(from, day.date()));
+                from = day.date();
+                rows = 0;
+            }
+            if (from == null) {
+                from = day.date().withDayOfMonth(1);
+                rows = 0;
+            }
+            rows += day.rows();
+        }
+        if (from != null) {
+            LocalDate end = nextMonth(from);
+            chunks.add(new Chunk(from, end.isBefore(cutoff) ? end : cutoff));
+        }
+        return chunks;
+    }
+
+    private int archiveChunk(Chunk chunk) {
+        Integer archived = transactionTemplate.execute(status -> {
+            List<ArchivedExpense> rows = jdbcTemplate.query(
+                    "SELECT id, user_id, category_id, title, description, expense_date, amount, created_at, updated_at "
+                            + "FROM expenses WHERE expense_date >= ? AND expense_date < ? FOR UPDATE",
+                    ROW_MAPPER, chunk.from(), chunk.to());
+            Map<Integer, List<ArchivedExpense>> byBucket = new HashMap<>();
+            for (ArchivedExpense row : rows) {
+                byBucket.computeIfAbsent(archive.bucketFor(row.userId()), bucket -> new ArrayList<>()).add(row);
+            }
+            try {
+                archive.append(YearMonth.from(chunk.from()), byBucket);
+                jdbcTemplate.batchUpdate("DELETE FROM expenses WHERE id = ?", rows, deleteBatchSize,
+                        (ps, row) -> ps.setObject(1, row.id()));
+                archive.advanceHorizon(chunk.to());
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not archive expenses dated from " + chunk.from(), ex);
+            }
+            return rows.size();
+        });
+        return archived != null ? archived : 0;
+    }
+
+    private static boolean advisoryLock(Connection connection, String function) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT " + function + "(?)")) {
+            statement.setLong(1, LOCK_KEY);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private static LocalDate nextMonth(LocalDate date) {
+        return date.withDayOfMonth(1).plusMonths(1);
+    }
+
+    /**
+     * The expenses dated from {@code from} up to, not including, {@code to}.
+     */
+    private record Chunk(LocalDate from, LocalDate to) {
+    }
+
+    private record DayCount(LocalDate date, long rows) {
+    }
+}
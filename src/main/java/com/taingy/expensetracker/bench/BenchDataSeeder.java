@@ -0,0 +1,284 @@
+package com.taingy.expensetracker.bench;
+
+import com.taingy.expensetracker.model.UuidV7Generator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Fills the database with synthetic users, expenses and audit logs for the {@code bench} profile.
+ * <p>
+ * Rows are written with batched JDBC inserts rather than through JPA, so millions of rows take
+ * seconds to minutes instead of hours. Activity is Zipf-distributed over users and categories:
+ * a few power users own most of the expenses and audit logs, and most users have only a handful.
+ * All users share one password ({@code bench.seed.password}); the admin is
+ * {@code bench-admin@example.com} and users are {@code bench-user<n>@example.com}, where a lower
+ * {@code n} means a more active user.
+ * <p>
+ * Seeding is skipped when the users table already holds the requested number of users, so a local
+ * Postgres can be seeded once and reused.
+ */
+@Component
+@Profile("bench")
+public class BenchDataSeeder implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(BenchDataSeeder.class);
+
+    private static final String ADMIN_EMAIL = "bench-admin@example.com";
+
+    private static final String[] CATEGORIES = {
+            "Food", "Transport", "Groceries", "Rent", "Utilities", "Entertainment", "Health", "Travel",
+            "Shopping", "Education", "Insurance", "Gifts", "Subscriptions", "Pets", "Sports",
+            "Home", "Childcare", "Taxes", "Charity", "Other"
+    };
+    private static final String[] TITLES = {
+            "Lunch", "Dinner", "Coffee", "Taxi", "Bus pass", "Supermarket", "Electricity bill",
+            "Cinema", "Pharmacy", "Flight", "Hotel", "Books", "Gym membership", "Streaming"
+    };
+    private static final String[] AUDIT_ACTIONS = {"CREATE", "UPDATE", "DELETE", "LOGIN", "VIEW"};
+    private static final String[] AUDIT_ENTITIES = {"EXPENSE", "CATEGORY", "USER"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+
+    @Value("${bench.seed.enabled:true}")
+    private boolean enabled;
+
+    @Value("${bench.seed.users:10000}")
+    private int userCount;
+
+    @Value("${bench.seed.expenses:1000000}")
+    private int expenseCount;
+
+    @Value("${bench.seed.audit-logs:1000000}")
+    private int auditLogCount;
+
+    @Value("${bench.seed.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${bench.seed.skew:1.1}")
+    private double skew;
+
+    @Value("${bench.seed.history-days:730}")
+    private int historyDays;
+
+    @Value("${bench.seed.random-seed:42}")
+    private long randomSeed;
+
+    @Value("${bench.seed.password:bench-password}")
+    private String password;
+
+    @Autowired
+    public BenchDataSeeder(JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        if (userCount < 2) {
+            throw new IllegalArgumentException("bench.seed.users must be at least 2");
+        }
+        Long existingUsers = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        if (existingUsers != null && existingUsers >= userCount) {
+            logger.info("Bench data already present ({} users), skipping seeding", existingUsers);
+            return;
+        }
+
+        long start = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(randomSeed);
+        int adminRoleId = ensureRole("ADMIN", "Administrator");
+        int userRoleId = ensureRole("USER", "Regular user");
+        UUID[] categoryIds = seedCategories();
+        UUID[] userIds = seedUsers(adminRoleId, userRoleId);
+
+        // Rank 0 is bench-user1; the admin (index 0) owns no synthetic activity
+        ZipfSampler users = new ZipfSampler(userIds.length - 1, skew);
+        ZipfSampler categories = new ZipfSampler(categoryIds.length, skew);
+        seedExpenses(random, userIds, users, categoryIds, categories);
+        seedAuditLogs(random, userIds, users);
+
+        // Refresh planner statistics after the bulk load (supported by both Postgres and H2)
+        jdbcTemplate.execute("ANALYZE");
+        logger.info("Seeded {} users, {} expenses and {} audit logs in {} s",
+                userIds.length, expenseCount, auditLogCount, (System.nanoTime() - start) / 1_000_000_000);
+    }
+
+    private int ensureRole(String name, String description) {
+        List<Integer> ids = jdbcTemplate.queryForList("SELECT id FROM roles WHERE name = ?", Integer.class, name);
+        if (!ids.isEmpty()) {
+            return ids.get(0);
+        }
+        Integer maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM roles", Integer.class);
+        int id = maxId + 1;
+        jdbcTemplate.update("INSERT INTO roles (id, name, description) VALUES (?, ?, ?)", id, name, description);
+        return id;
+    }
+
+    private UUID[] seedCategories() {
+        UUID[] ids = new UUID[CATEGORIES.length];
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            List<UUID> existing = jdbcTemplate.queryForList("SELECT id FROM categories WHERE name = ?", UUID.class, CATEGORIES[i]);
+            if (!existing.isEmpty()) {
+                ids[i] = existing.get(0);
+                continue;
+            }
+            ids[i] = UUID.randomUUID();
+            jdbcTemplate.update("INSERT INTO categories (id, name, description, is_active) VALUES (?, ?, ?, ?)",
+                    ids[i], CATEGORIES[i], CATEGORIES[i] + " expenses", true);
+        }
+        return ids;
+    }
+
+    private UUID[] seedUsers(int adminRoleId, int userRoleId) {
+        // One hash for everyone; encoding millions of bcrypt hashes would dominate the run
+        String passwordHash = passwordEncoder.encode(password);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        UUID[] ids = new UUID[userCount];
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < userCount; i++) {
+            ids[i] = UuidV7Generator.next();
+            boolean admin = i == 0;
+            batch.add(new Object[]{
+                    ids[i], admin ? "Bench" : "User", admin ? "Admin" : String.valueOf(i),
+                    admin ? ADMIN_EMAIL : "bench-user" + i + "@example.com", passwordHash,
+                    admin ? adminRoleId : userRoleId, true, true, now, now
+            });
+            if (batch.size() == batchSize) {
+                insertUsers(batch);
+            }
+        }
+        insertUsers(batch);
+        logger.info("Seeded {} users", userCount);
+        return ids;
+    }
+
+    private void insertUsers(List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, first_name, last_name, email, password, role_id, "
+                + "is_active, is_verified, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+        batch.clear();
+    }
+
+    private void seedExpenses(SplittableRandom random, UUID[] userIds, ZipfSampler users,
+                              UUID[] categoryIds, ZipfSampler categories) {
+        LocalDate today = LocalDate.now();
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < expenseCount; i++) {
+            LocalDate expenseDate = today.minusDays(recentBiasedDays(random));
+            Timestamp createdAt = Timestamp.valueOf(expenseDate.atTime(random.nextInt(24), random.nextInt(60)));
+            String title = TITLES[random.nextInt(TITLES.length)];
+            batch.add(new Object[]{
+                    UuidV7Generator.next(), userIds[1 + users.sample(random)], categoryIds[categories.sample(random)],
+                    title, random.nextInt(4) == 0 ? null : title + " #" + i,
+                    Date.valueOf(expenseDate), amount(random), createdAt, createdAt
+            });
+            if (batch.size() == batchSize) {
+                insertExpenses(batch);
+                logProgress("expenses", i + 1, expenseCount);
+            }
+        }
+        insertExpenses(batch);
+    }
+
+    private void insertExpenses(List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("INSERT INTO expenses (id, user_id, category_id, title, description, expense_date, "
+                + "amount, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+        batch.clear();
+    }
+
+    private void seedAuditLogs(SplittableRandom random, UUID[] userIds, ZipfSampler users) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < auditLogCount; i++) {
+            int user = 1 + users.sample(random);
+            String email = "bench-user" + user + "@example.com";
+            boolean success = random.nextInt(50) != 0;
+            batch.add(new Object[]{
+                    UuidV7Generator.next(), AUDIT_ACTIONS[random.nextInt(AUDIT_ACTIONS.length)],
+                    AUDIT_ENTITIES[random.nextInt(AUDIT_ENTITIES.length)], UUID.randomUUID().toString(),
+                    userIds[user], email, "{\"source\":\"bench\"}", "10.0." + random.nextInt(256) + "." + random.nextInt(256),
+                    "bench-seeder", success, success ? null : "Simulated failure",
+                    Timestamp.valueOf(now.minusMinutes(random.nextLong((long) historyDays * 24 * 60)))
+            });
+            if (batch.size() == batchSize) {
+                insertAuditLogs(batch);
+                logProgress("audit logs", i + 1, auditLogCount);
+            }
+        }
+        insertAuditLogs(batch);
+    }
+
+    private void insertAuditLogs(List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("INSERT INTO audit_logs (id, action, entity_type, entity_id, user_id, user_email, "
+                + "details, ip_address, user_agent, success, error_message, created_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+        batch.clear();
+    }
+
+    /**
+     * Days before today, weighted towards the recent past like real spending history.
+     */
+    private int recentBiasedDays(SplittableRandom random) {
+        double u = random.nextDouble();
+        return (int) (u * u * historyDays);
+    }
+
+    /**
+     * Log-normal amount: mostly small purchases with an occasional large one.
+     */
+    private static BigDecimal amount(SplittableRandom random) {
+        double gaussian = Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+        double value = Math.min(99_999_999.0, Math.exp(3.0 + 1.2 * gaussian));
+        return BigDecimal.valueOf(Math.max(1, Math.round(value * 100)), 2);
+    }
+
+    private void logProgress(String table, int done, int total) {
+        if (done % (batchSize * 20) == 0) {
+            logger.info("Seeded {}/{} {}", done, total, table);
+        }
+    }
+
+    /**
+     * Samples ranks 0..n-1 with probability proportional to 1 / (rank + 1)^skew.
+     */
+    static final class ZipfSampler {
+        private final double[] cumulative;
+
+        ZipfSampler(int n, double skew) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1.0 / Math.pow(i + 1, skew);
+                cumulative[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.taingy.expensetracker.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.taingy.expensetracker.dto.ExpenseSummary;
+import com.taingy.expensetracker.event.CategoryChangedEvent;
+import com.taingy.expensetracker.event.ExpenseChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Caches expense summaries so that dashboards polling the summary endpoint do not recompute it
+ * on every request.
+ * <p>
+ * Every user has their own entry. It is dropped as soon as one of their expenses changes, and
+ * concurrent misses for the same user share a single computation. The admin summary covers all
+ * users and would be invalidated constantly, so it is versioned instead. Any change marks it
+ * stale, the stale value keeps being served, and a single background refresh replaces it. Only
+ * the very first admin request waits for a computation.
+ */
+@Component
+public class ExpenseSummaryCache implements MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseSummaryCache.class);
+
+    private final AsyncCache<UUID, ExpenseSummary> userSummaries;
+    private final Executor refreshExecutor;
+
+    private final AtomicLong globalVersion = new AtomicLong();
+    private final AtomicReference<GlobalEntry> globalEntry = new AtomicReference<>();
+    private final AtomicBoolean globalRefreshing = new AtomicBoolean();
+    private final ReentrantLock globalLoadLock = new ReentrantLock();
+
+    @Autowired
+    public ExpenseSummaryCache(@Qualifier("summaryRefreshExecutor") Executor refreshExecutor,
+                               @Value("${expense.summary-cache.maximum-size:10000}") long maximumSize,
+                               @Value("${expense.summary-cache.expire-after-write-minutes:10}") long expireAfterWriteMinutes) {
+        this.refreshExecutor = refreshExecutor;
+        this.userSummaries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMinutes(expireAfterWriteMinutes))
+                .recordStats()
+                .buildAsync();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, userSummaries.synchronous(), "expenseSummaries");
+        Gauge.builder("expense.summary.global.stale", this,
+                        cache -> {
+                            GlobalEntry entry = cache.globalEntry.get();
+                            return entry != null && entry.version() != cache.globalVersion.get() ? 1 : 0;
+                        })
+                .description("1 while the cached admin summary is stale and being refreshed")
+                .register(registry);
+    }
+
+    public ExpenseSummary getUserSummary(UUID userId, Supplier<ExpenseSummary> loader) {
+        CompletableFuture<ExpenseSummary> pending = new CompletableFuture<>();
+        CompletableFuture<ExpenseSummary> future = userSummaries.get(userId, (key, executor) -> pending);
+        if (future == pending) {
+            // The caller that registered the entry computes it on its own thread, so the
+            // loader runs with the caller's transaction and security context. Caffeine
+            // drops the entry again if the computation fails.
+            try {
+                ExpenseSummary summary = loader.get();
+                if (summary.isPartial()) {
+                    // Hand the partial result to anyone already waiting, but never keep it
+                    userSummaries.asMap().remove(userId, pending);
+                }
+                pending.complete(summary);
+            } catch (RuntimeException ex) {
+                pending.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+        return join(future);
+    }
+
+    public ExpenseSummary getGlobalSummary(Supplier<ExpenseSummary> loader) {
+        GlobalEntry entry = globalEntry.get();
+        if (entry == null) {
+            entry = loadGlobal(loader);
+        }
+        if (entry.version() != globalVersion.get()) {
+            refreshGlobal(loader);
+        }
+        return entry.summary();
+    }
+
+    /**
+     * Returns the version of the admin summary if {@code summary} is the value currently cached,
+     * so that an ETag always describes the value actually served, even while it is stale.
+     */
+    public OptionalLong globalVersionOf(ExpenseSummary summary) {
+        GlobalEntry entry = globalEntry.get();
+        return entry != null && entry.summary() == summary ? OptionalLong.of(entry.version()) : OptionalLong.empty();
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        if (event.userId() != null) {
+            userSummaries.synchronous().invalidate(event.userId());
+        }
+        globalVersion.incrementAndGet();
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        invalidateAll();
+    }
+
+    public void invalidateAll() {
+        userSummaries.synchronous().invalidateAll();
+        globalVersion.incrementAndGet();
+    }
+
+    private GlobalEntry loadGlobal(Supplier<ExpenseSummary> loader) {
+        globalLoadLock.lock();
+        try {
+            GlobalEntry entry = globalEntry.get();
+            if (entry == null) {
+                long version = globalVersion.get();
+                entry = new GlobalEntry(loader.get(), version);
+                if (!entry.summary().isPartial()) {
+                    globalEntry.set(entry);
+                }
+            }
+            return entry;
+        } finally {
+            globalLoadLock.unlock();
+        }
+    }
+
+    private void refreshGlobal(Supplier<ExpenseSummary> loader) {
+        if (!globalRefreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    // Read the version before loading so that a change made during the
+                    // computation leaves the new entry stale and triggers another refresh
+                    long version = globalVersion.get();
+                    GlobalEntry fresh = new GlobalEntry(loader.get(), version);
+                    if (fresh.summary().isPartial()) {
+                        // Keep serving the complete, if stale, summary; the next read retries
+                        return;
+                    }
+                    globalEntry.accumulateAndGet(fresh,
+                            (current, candidate) -> current == null || candidate.version() >= current.version()
+                                    ? candidate : current);
+                } catch (RuntimeException ex) {
+                    logger.warn("Failed to refresh the admin expense summary", ex);
+                } finally {
+                    globalRefreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            globalRefreshing.set(false);
+            logger.warn("Admin expense summary refresh was rejected: {}", ex.getMessage());
+        }
+    }
+
+    private static ExpenseSummary join(CompletableFuture<ExpenseSummary> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private record GlobalEntry(ExpenseSummary summary, long version) {
+    }
+}
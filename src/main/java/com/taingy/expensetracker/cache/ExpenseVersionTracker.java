@@ -0,0 +1,81 @@
+package com.taingy.expensetracker.cache;
+
+import com.taingy.expensetracker.event.CategoryChangedEvent;
+import com.taingy.expensetracker.event.ExpenseChangedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out ETag values for expense and category data without touching the database.
+ * <p>
+ * Every committed expense change bumps the version of the owning user and of the all-users
+ * scope. Category changes bump a separate version that is part of every tag, because category
+ * names appear in expense responses and summaries. Versions are kept in memory, so each tag
+ * carries an epoch that changes on every start and tags from an earlier run never match. Like
+ * {@link ExpenseSummaryCache}, this assumes a single application instance.
+ * <p>
+ * Callers must read a tag before they read the data it describes. A change that lands in
+ * between then produces newer data under an older tag, which only costs one extra full response.
+ */
+@Component
+public class ExpenseVersionTracker {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong categoryVersion = new AtomicLong();
+    private final ConcurrentMap<UUID, Long> userVersions = new ConcurrentHashMap<>();
+
+    // Runs after the summary cache has been invalidated, so a new tag never describes a stale entry
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        long version = sequence.incrementAndGet();
+        if (event.userId() != null) {
+            userVersions.merge(event.userId(), version, Math::max);
+        }
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        categoryVersion.incrementAndGet();
+    }
+
+    /**
+     * Makes every tag issued so far for the user stale, e.g. after serving them an incomplete
+     * response that clients must not keep revalidating.
+     */
+    public void invalidateUser(UUID userId) {
+        userVersions.merge(userId, sequence.incrementAndGet(), Math::max);
+    }
+
+    public String userExpensesTag(UUID userId) {
+        return epoch + "-u" + userVersions.getOrDefault(userId, 0L) + "-c" + categoryVersion.get();
+    }
+
+    public String allExpensesTag() {
+        return epoch + "-a" + sequence.get() + "-c" + categoryVersion.get();
+    }
+
+    public String globalSummaryTag(long summaryVersion) {
+        return epoch + "-s" + summaryVersion;
+    }
+
+    public String categoriesTag() {
+        return epoch + "-c" + categoryVersion.get();
+    }
+
+    public String expenseTag(LocalDateTime lastModified) {
+        return epoch + "-e" + lastModified.toEpochSecond(ZoneOffset.UTC) + "." + lastModified.getNano()
+                + "-c" + categoryVersion.get();
+    }
+}
@@ -0,0 +1,77 @@
+package com.taingy.expensetracker.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+
+/**
+ * Executors for {@code @Async} work. Each executor is bounded by its own concurrency setting.
+ * With {@code spring.threads.virtual.enabled} every task gets a virtual thread and the setting
+ * caps how many run at once. Otherwise a fixed pool of platform threads works through a
+ * bounded queue.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${app.async.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Bean
+    public TaskExecutor emailExecutor(@Value("${app.async.email.concurrency:8}") int concurrency) {
+        return createExecutor("email-", concurrency);
+    }
+
+    @Bean
+    public TaskExecutor auditExecutor(@Value("${app.async.audit.concurrency:4}") int concurrency) {
+        return createExecutor("audit-", concurrency);
+    }
+
+    /**
+     * Runs the independent summary sub-queries side by side. Each one holds a connection while it
+     * runs, so keep the concurrency well below the connection pool size. The caller's security
+     * context is carried over because replica routing pins users who just wrote to the primary.
+     */
+    @Bean
+    public TaskExecutor summaryQueryExecutor(@Value("${app.summary.query-concurrency:4}") int concurrency) {
+        return createExecutor("summary-query-", concurrency, DelegatingSecurityContextRunnable::new);
+    }
+
+    @Bean
+    public TaskExecutor summaryRefreshExecutor() {
+        // The admin summary cache only ever runs one refresh at a time
+        return createExecutor("summary-refresh-", 1);
+    }
+
+    private TaskExecutor createExecutor(String threadNamePrefix, int concurrency) {
+        return createExecutor(threadNamePrefix, concurrency, null);
+    }
+
+    private TaskExecutor createExecutor(String threadNamePrefix, int concurrency, TaskDecorator taskDecorator) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(concurrency);
+            executor.setTaskDecorator(taskDecorator);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setTaskDecorator(taskDecorator);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+}
@@ -0,0 +1,80 @@
+package com.taingy.expensetracker.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the number of API requests in flight when requests run on virtual threads.
+ * <p>
+ * Platform threads were implicitly limited by the Tomcat pool. Virtual threads are not, so
+ * thousands of requests would otherwise queue inside Hikari and time out there after holding
+ * their memory for the whole connection timeout. The limit defaults to a small multiple of the
+ * connection pool size. A request that cannot get a permit within the acquire timeout is
+ * rejected with 503 and a {@code Retry-After} hint. The filter runs ahead of Spring Security,
+ * because token validation already queries the database.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMs;
+
+    public ConcurrencyLimitFilter(@Value("${app.concurrency.max-in-flight:0}") int maxInFlight,
+                                  @Value("${app.concurrency.requests-per-connection:4}") int requestsPerConnection,
+                                  @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                                  @Value("${app.concurrency.acquire-timeout-ms:2000}") long acquireTimeoutMs) {
+        int limit = maxInFlight > 0 ? maxInFlight : poolSize * requestsPerConnection;
+        this.permits = new Semaphore(limit, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        logger.info("Limiting in-flight API requests to {}", limit);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+
+        if (!acquired) {
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server is busy, please retry");
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
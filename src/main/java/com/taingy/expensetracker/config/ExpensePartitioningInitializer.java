@@ -0,0 +1,114 @@
+package com.taingy.expensetracker.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts {@code expenses} into a PostgreSQL table hash-partitioned on {@code user_id}, so that
+ * the per-user queries, which all filter on the user, only touch one partition, and vacuum and
+ * index maintenance work on partitions rather than one large heap.
+ * <p>
+ * Hibernate creates {@code expenses} as a plain table, so on the first start with this enabled
+ * the table is locked, its rows are copied into {@code app.expenses.partitioning.partitions}
+ * partitions and the original is dropped, all in one transaction; if anything fails the original
+ * table is left as it was. The primary key becomes {@code (id, user_id)}, as PostgreSQL requires
+ * the partition key in unique indexes; ids are still unique as they are UUIDs. The other indexes
+ * and foreign keys are recreated on the parent table, which creates a matching index on each
+ * partition. Once {@code expenses} is partitioned this does nothing, and other databases are
+ * skipped. Changing the partition count later needs a manual migration.
+ */
+@Component
+@ConditionalOnProperty(name = "app.expenses.partitioning.enabled", havingValue = "true")
+public class ExpensePartitioningInitializer implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(ExpensePartitioningInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int partitions;
+
+    public ExpensePartitioningInitializer(JdbcTemplate jdbcTemplate,
+                                          PlatformTransactionManager transactionManager,
+                                          @Value("${app.expenses.partitioning.partitions:16}") int partitions) {
+        if (partitions < 2) {
+            throw new IllegalArgumentException("app.expenses.partitioning.partitions must be at least 2");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.partitions = partitions;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            logger.debug("Skipping expense partitioning on {}", database);
+            return;
+        }
+        String kind = jdbcTemplate.queryForObject(
+                "SELECT relkind::text FROM pg_class WHERE oid = to_regclass('expenses')", String.class);
+        if ("p".equals(kind)) {
+            Integer existing = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM pg_inherits WHERE inhparent = 'expenses'::regclass", Integer.class);
+            if (existing != null && existing != partitions) {
+                logger.warn("expenses has {} partitions but {} are configured; repartitioning is not automatic",
+                        existing, partitions);
+            }
+            return;
+        }
+
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("LOCK TABLE expenses IN ACCESS EXCLUSIVE MODE");
+            List<String> indexes = jdbcTemplate.queryForList(
+                    "SELECT pg_get_indexdef(i.indexrelid) FROM pg_index i "
+                            + "WHERE i.indrelid = 'expenses'::regclass AND NOT i.indisprimary", String.class);
+            List<String> foreignKeys = jdbcTemplate.query(
+                    "SELECT conname, pg_get_constraintdef(oid) FROM pg_constraint "
+                            + "WHERE conrelid = 'expenses'::regclass AND contype = 'f'",
+                    (rs, rowNum) -> "ALTER TABLE expenses ADD CONSTRAINT " + rs.getString(1) + " " + rs.getString(2));
+
+            jdbcTemplate.execute("ALTER TABLE expenses RENAME TO expenses_unpartitioned");
+            for (String statement : partitionStatements(partitions)) {
+                jdbcTemplate.execute(statement);
+            }
+            int rows = jdbcTemplate.update("INSERT INTO expenses SELECT * FROM expenses_unpartitioned");
+            jdbcTemplate.execute("DROP TABLE expenses_unpartitioned");
+
+            // Built after the copy, which is faster than maintaining them row by row
+            jdbcTemplate.execute("ALTER TABLE expenses ADD PRIMARY KEY (id, user_id)");
+            indexes.forEach(jdbcTemplate::execute);
+            foreignKeys.forEach(jdbcTemplate::execute);
+            logger.info("Partitioned expenses into {} partitions ({} rows) in {} ms",
+                    partitions, rows, (System.nanoTime() - start) / 1_000_000);
+        });
+        jdbcTemplate.execute("ANALYZE expenses");
+    }
+
+    /**
+     * The partitioned parent, with the columns of {@code expenses_unpartitioned}, and its
+     * partitions.
+     */
+    static List<String> partitionStatements(int partitions) {
+        List<String> statements = new ArrayList<>(partitions + 1);
+        statements.add("CREATE TABLE expenses (LIKE expenses_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING STORAGE) "
+                + "PARTITION BY HASH (user_id)");
+        for (int i = 0; i < partitions; i++) {
+            statements.add(String.format("CREATE TABLE expenses_p%d PARTITION OF expenses "
+                    + "FOR VALUES WITH (MODULUS %d, REMAINDER %d)", i, partitions, i));
+        }
+        return statements;
+    }
+}
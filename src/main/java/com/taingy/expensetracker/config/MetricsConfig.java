@@ -0,0 +1,26 @@
+package com.taingy.expensetracker.config;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics that are not auto-configured. Hikari pool, HTTP server, JVM and {@code @Timed} metrics
+ * come from Spring Boot; see {@code management.*} in application.yml.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Session, query and second-level cache statistics (Category/Role regions and the query
+     * cache). Requires {@code hibernate.generate_statistics}.
+     */
+    @Bean
+    public MeterBinder hibernateMetrics(EntityManagerFactory entityManagerFactory) {
+        return new HibernateMetrics(entityManagerFactory.unwrap(SessionFactory.class), "default", Tags.empty());
+    }
+}
@@ -0,0 +1,68 @@
+package com.taingy.expensetracker.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Creates the PostgreSQL indexes on {@code users} that Hibernate's schema update cannot express:
+ * a unique index on {@code lower(email)}, which case-insensitive email lookups use and which
+ * rejects duplicate signups; a {@code pg_trgm} GIN index over the generated {@code search_text}
+ * column for substring search; and a {@code text_pattern_ops} index on {@code lower(email)} for
+ * email prefix lookups. Every statement is idempotent. The unique index is the only thing that
+ * keeps emails differing only in case apart, so startup fails if it cannot be created (for
+ * example because such duplicates already exist and have to be merged first). A failure of the
+ * search indexes (for example no permission to create the extension) is logged and the
+ * application starts anyway; the remaining statements are still attempted. Other databases are
+ * skipped.
+ */
+@Component
+@ConditionalOnProperty(name = "app.users.create-indexes", havingValue = "true", matchIfMissing = true)
+public class UserIndexInitializer implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(UserIndexInitializer.class);
+
+    private static final String UNIQUE_EMAIL_INDEX =
+            "CREATE UNIQUE INDEX IF NOT EXISTS uk_users_email_lower ON users (lower(email))";
+
+    private static final List<String> SEARCH_STATEMENTS = List.of(
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            "CREATE INDEX IF NOT EXISTS idx_users_search_text_trgm ON users USING gin (search_text gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_users_email_prefix ON users (lower(email) text_pattern_ops)");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserIndexInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            logger.debug("Skipping user indexes on {}", database);
+            return;
+        }
+        try {
+            jdbcTemplate.execute(UNIQUE_EMAIL_INDEX);
+        } catch (DataAccessException ex) {
+            throw new IllegalStateException("Could not create uk_users_email_lower; emails that differ only in "
+                    + "case must be merged before the application can start", ex);
+        }
+        for (String statement : SEARCH_STATEMENTS) {
+            try {
+                jdbcTemplate.execute(statement);
+            } catch (DataAccessException ex) {
+                logger.warn("Could not run '{}', lookups it serves will scan the users table", statement, ex);
+            }
+        }
+    }
+}
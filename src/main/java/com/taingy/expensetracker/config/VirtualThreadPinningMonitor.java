@@ -0,0 +1,68 @@
+package com.taingy.expensetracker.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * Logs the stack of every virtual thread that stays pinned to its carrier longer than the
+ * threshold, using the JDK's {@code jdk.VirtualThreadPinned} flight recorder event.
+ * <p>
+ * On Java 21 a virtual thread that blocks inside a {@code synchronized} block or method cannot
+ * unmount, so it holds a carrier thread for the whole wait. Common causes are JDBC drivers and
+ * connection pools that guard I/O with monitors. The reported frames show which lock to replace
+ * or which driver to upgrade.
+ */
+@Component
+@ConditionalOnProperty(name = "app.virtual-threads.pinning-diagnostics.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_FRAMES = 15;
+
+    @Value("${app.virtual-threads.pinning-diagnostics.threshold-ms:20}")
+    private long thresholdMs;
+
+    private RecordingStream stream;
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::report);
+        stream.startAsync();
+        logger.info("Reporting virtual threads pinned for more than {} ms", thresholdMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void report(RecordedEvent event) {
+        String frames = event.getStackTrace() == null ? "  (no stack trace)" : event.getStackTrace().getFrames().stream()
+                .limit(MAX_FRAMES)
+                .map(VirtualThreadPinningMonitor::describe)
+                .collect(Collectors.joining("\n  at ", "  at ", ""));
+        logger.warn("Virtual thread {} pinned its carrier for {} ms\n{}",
+                event.getThread() != null ? event.getThread().getJavaName() : "?",
+                event.getDuration().toMillis(), frames);
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + "(line " + frame.getLineNumber() + ")";
+    }
+}
@@ -1,5 +1,6 @@
 package com.taingy.expensetracker.controller;
 
+import com.taingy.expensetracker.cache.ExpenseVersionTracker;
 import com.taingy.expensetracker.dto.CategoryRequest;
 import com.taingy.expensetracker.dto.CategoryResponse;
 import com.taingy.expensetracker.dto.ListResponse;
@@ -8,6 +9,7 @@ import com.taingy.expensetracker.service.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -17,14 +19,20 @@ import java.util.UUID;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final ExpenseVersionTracker versionTracker;
 
     @Autowired
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, ExpenseVersionTracker versionTracker) {
         this.categoryService = categoryService;
+        this.versionTracker = versionTracker;
     }
 
     @GetMapping
-    public ResponseEntity<ListResponse<CategoryResponse>> getCategories() {
+    public ResponseEntity<ListResponse<CategoryResponse>> getCategories(WebRequest webRequest) {
+        if (webRequest.checkNotModified(versionTracker.categoriesTag())) {
+            return null;
+        }
+
         List<CategoryResponse> list = categoryService.findAll();
         ListResponse<CategoryResponse> response = new ListResponse<>(list, list.size());
         return ResponseEntity.ok(response);
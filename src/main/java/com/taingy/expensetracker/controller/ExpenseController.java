@@ -1,12 +1,17 @@
 package com.taingy.expensetracker.controller;
 
+import com.taingy.expensetracker.cache.ExpenseSummaryCache;
+import com.taingy.expensetracker.cache.ExpenseVersionTracker;
+import com.taingy.expensetracker.dto.ExpenseChanges;
 import com.taingy.expensetracker.dto.ExpenseRequest;
 import com.taingy.expensetracker.dto.ExpenseResponse;
 import com.taingy.expensetracker.dto.ExpenseSummary;
+import com.taingy.expensetracker.dto.ExpenseVersion;
 import com.taingy.expensetracker.dto.ResponseMessage;
 import com.taingy.expensetracker.model.User;
 import com.taingy.expensetracker.repository.UserRepository;
 import com.taingy.expensetracker.service.ExpenseService;
+import com.taingy.expensetracker.timing.RequestTiming;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -18,10 +23,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.OptionalLong;
 import java.util.UUID;
 
 @RestController
@@ -30,11 +38,16 @@ public class ExpenseController {
 
     private final ExpenseService expenseService;
     private final UserRepository userRepository;
+    private final ExpenseVersionTracker versionTracker;
+    private final ExpenseSummaryCache summaryCache;
 
     @Autowired
-    public ExpenseController(ExpenseService expenseService, UserRepository userRepository) {
+    public ExpenseController(ExpenseService expenseService, UserRepository userRepository,
+                             ExpenseVersionTracker versionTracker, ExpenseSummaryCache summaryCache) {
         this.expenseService = expenseService;
         this.userRepository = userRepository;
+        this.versionTracker = versionTracker;
+        this.summaryCache = summaryCache;
     }
 
     @GetMapping
@@ -49,19 +62,29 @@ public class ExpenseController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "expenseDate") String sortBy,
-            @RequestParam(defaultValue = "DESC") String sortDirection) {
+            @RequestParam(defaultValue = "DESC") String sortDirection,
+            WebRequest webRequest) {
 
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String userEmail = authentication.getName();
 
         // Get current user to check role
-        User currentUser = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
+        User currentUser;
+        try (RequestTiming.Phase ignored = RequestTiming.start("user-lookup")) {
+            currentUser = userRepository.findByEmail(userEmail)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
+        }
 
         // If user has USER role, restrict to their own expenses only
         UUID effectiveUserId = userId;
+        String etag = versionTracker.allExpensesTag();
         if ("USER".equals(currentUser.getRole().getName())) {
             effectiveUserId = currentUser.getId();
+            etag = versionTracker.userExpensesTag(effectiveUserId);
+        }
+
+        if (webRequest.checkNotModified(etag)) {
+            return null;
         }
 
         Sort.Direction direction = sortDirection.equalsIgnoreCase("ASC") ? Sort.Direction.ASC : Sort.Direction.DESC;
@@ -71,25 +94,49 @@ public class ExpenseController {
                 effectiveUserId, categoryId, searchTerm, startDate, endDate, minAmount, maxAmount, pageable));
     }
 
+    @GetMapping("/changes")
+    public ResponseEntity<ExpenseChanges> findChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "200") int limit) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String userEmail = authentication.getName();
+        return ResponseEntity.ok(expenseService.findChanges(userEmail, since, limit));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<ExpenseResponse> findById(@PathVariable UUID id) {
+    public ResponseEntity<ExpenseResponse> findById(@PathVariable UUID id, WebRequest webRequest) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String userEmail = authentication.getName();
 
         User currentUser = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
 
-        ExpenseResponse expenseResponse = expenseService.findById(id);
+        // Check existence, ownership and freshness before loading the full expense
+        ExpenseVersion version = expenseService.findVersionById(id);
 
-        if (expenseResponse == null) {
+        if (version == null) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Expense not found");
         }
 
         // If user has USER role, verify they own this expense
-        if ("USER".equals(currentUser.getRole().getName()) && !expenseResponse.getUserId().equals(currentUser.getId())) {
+        if ("USER".equals(currentUser.getRole().getName()) && !version.getUserId().equals(currentUser.getId())) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Access denied");
         }
 
+        if (version.getLastModified() != null) {
+            String etag = versionTracker.expenseTag(version.getLastModified());
+            long lastModified = version.getLastModified().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            if (webRequest.checkNotModified(etag, lastModified)) {
+                return null;
+            }
+        }
+
+        ExpenseResponse expenseResponse = expenseService.findById(id);
+
+        if (expenseResponse == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Expense not found");
+        }
+
         return ResponseEntity.ok(expenseResponse);
     }
 
@@ -146,10 +193,33 @@ public class ExpenseController {
     }
 
     @GetMapping("/summary")
-    public ResponseEntity<ExpenseSummary> getSummary() {
+    public ResponseEntity<ExpenseSummary> getSummary(WebRequest webRequest) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String userEmail = authentication.getName();
+
+        User currentUser = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
+
+        if ("ADMIN".equals(currentUser.getRole().getName())) {
+            // The admin summary is always served from the cache, possibly stale while it refreshes,
+            // so tag the value actually returned rather than the latest version
+            ExpenseSummary summary = expenseService.getSummary(userEmail);
+            OptionalLong version = summaryCache.globalVersionOf(summary);
+            if (version.isPresent() && webRequest.checkNotModified(versionTracker.globalSummaryTag(version.getAsLong()))) {
+                return null;
+            }
+            return ResponseEntity.ok(summary);
+        }
+
+        if (webRequest.checkNotModified(versionTracker.userExpensesTag(currentUser.getId()))) {
+            return null;
+        }
+
         ExpenseSummary summary = expenseService.getSummary(userEmail);
+        if (summary.isPartial()) {
+            // The tag was already sent; make sure it cannot validate this incomplete summary later
+            versionTracker.invalidateUser(currentUser.getId());
+        }
         return ResponseEntity.ok(summary);
     }
 
@@ -3,6 +3,7 @@ package com.taingy.expensetracker.controller;
 import com.taingy.expensetracker.dto.ResponseMessage;
 import com.taingy.expensetracker.dto.UserRequest;
 import com.taingy.expensetracker.dto.UserResponse;
+import com.taingy.expensetracker.dto.UserScroll;
 import com.taingy.expensetracker.mapper.UserMapper;
 import com.taingy.expensetracker.model.User;
 import com.taingy.expensetracker.service.UserService;
@@ -11,8 +12,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.UUID;
 
@@ -32,6 +35,7 @@ public class UserController {
     @GetMapping
     public ResponseEntity<Page<UserResponse>> getAllUsers(
             @RequestParam(required = false) String searchTerm,
+            @RequestParam(required = false) String emailPrefix,
             @RequestParam(required = false) UUID roleId,
             @RequestParam(required = false) Boolean isActive,
             @RequestParam(required = false) Boolean isVerified,
@@ -43,7 +47,23 @@ public class UserController {
         Sort.Direction direction = sortDirection.equalsIgnoreCase("ASC") ? Sort.Direction.ASC : Sort.Direction.DESC;
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
 
-        return ResponseEntity.ok(userService.findUsersWithFilters(searchTerm, roleId, isActive, isVerified, pageable));
+        return ResponseEntity.ok(userService.findUsersWithFilters(searchTerm, emailPrefix, roleId, isActive, isVerified, pageable));
+    }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<UserScroll> scrollUsers(
+            @RequestParam(required = false) String searchTerm,
+            @RequestParam(required = false) String emailPrefix,
+            @RequestParam(required = false) UUID roleId,
+            @RequestParam(required = false) Boolean isActive,
+            @RequestParam(required = false) Boolean isVerified,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(userService.scrollUsers(searchTerm, emailPrefix, roleId, isActive, isVerified, cursor, size));
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,142 @@
+package com.taingy.expensetracker.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.transaction.ConfigurableTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Replaces the auto-configured datasource with a primary pool plus one pool per configured
+ * replica when {@code app.datasource.read-replicas.enabled} is set. Read-only transactions
+ * (every {@code @Transactional(readOnly = true)} service method) are served by a replica.
+ * <p>
+ * JPA sessions hand their connection back after every transaction, so that with open-in-view a
+ * request whose first transaction read from a replica writes to the primary in the next one.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.read-replicas.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+public class ReadReplicaDataSourceConfig implements DisposableBean {
+
+    // Not beans themselves: the datasource bean is the proxy in front of them
+    private final List<HikariDataSource> pools = new CopyOnWriteArrayList<>();
+
+    @Value("${spring.datasource.url}")
+    private String primaryUrl;
+
+    @Value("${spring.datasource.username:}")
+    private String primaryUsername;
+
+    @Value("${spring.datasource.password:}")
+    private String primaryPassword;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int primaryPoolSize;
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(ReadReplicaProperties properties) {
+        return new ReadYourWritesTracker(properties.getStickyWindow());
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReadReplicaProperties properties) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<ReadReplicaProperties.Replica> configured = properties.getReplicas();
+        for (int i = 0; i < configured.size(); i++) {
+            ReadReplicaProperties.Replica replica = configured.get(i);
+            String name = "replica-" + i;
+            replicas.put(name, createPool(name, replica.getUrl(), replica.getUsername(),
+                    replica.getPassword(), replica.getMaximumPoolSize(), true));
+        }
+        return new ReplicaLagMonitor(replicas, properties.getLagQuery(), properties.getMaxLag());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaLagMonitor replicaLagMonitor, ReadYourWritesTracker readYourWritesTracker) {
+        Map<Object, Object> targets = new HashMap<>(replicaLagMonitor.replicaDataSources());
+        targets.put(ReplicaRoutingDataSource.PRIMARY,
+                createPool(ReplicaRoutingDataSource.PRIMARY, primaryUrl, primaryUsername, primaryPassword,
+                        primaryPoolSize, false));
+
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(replicaLagMonitor, readYourWritesTracker);
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(targets.get(ReplicaRoutingDataSource.PRIMARY));
+        routingDataSource.afterPropertiesSet();
+
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * Registers the tracker with the transaction manager so it hears about every commit.
+     */
+    @Bean
+    public static BeanPostProcessor readYourWritesRegistrar(ReadYourWritesTracker readYourWritesTracker) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ConfigurableTransactionManager transactionManager
+                        && !transactionManager.getTransactionExecutionListeners().contains(readYourWritesTracker)) {
+                    transactionManager.addListener(readYourWritesTracker);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Releases the session's connection after each transaction instead of holding it until the
+     * session closes, which Spring's Hibernate adapter configures by default. A held connection
+     * keeps the target its first transaction was routed to.
+     */
+    @Bean
+    public static BeanPostProcessor replicaConnectionHandling() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof LocalContainerEntityManagerFactoryBean entityManagerFactory) {
+                    entityManagerFactory.getJpaPropertyMap().put(AvailableSettings.CONNECTION_HANDLING,
+                            PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    private HikariDataSource createPool(String name, String url, String username, String password,
+                                               int maximumPoolSize, boolean readOnly) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("expense-tracker-" + name);
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setReadOnly(readOnly);
+        HikariDataSource pool = new HikariDataSource(config);
+        pools.add(pool);
+        return pool;
+    }
+}
@@ -0,0 +1,41 @@
+package com.taingy.expensetracker.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.datasource.read-replicas")
+public class ReadReplicaProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Replicas lagging further behind the primary than this are taken out of rotation.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /**
+     * After a user commits a write, their reads stay on the primary for this long.
+     */
+    private Duration stickyWindow = Duration.ofSeconds(5);
+
+    /**
+     * Query returning the replica's replay lag in seconds.
+     */
+    private String lagQuery = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) END";
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,81 @@
+package com.taingy.expensetracker.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Periodically measures each replica's replay lag and keeps the set of replicas that are
+ * safe to read from. A replica that cannot be reached or lags more than the configured
+ * maximum is skipped until a later check finds it healthy again.
+ */
+public class ReplicaLagMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final Map<String, DataSource> replicas;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private final Set<String> unhealthy = ConcurrentHashMap.newKeySet();
+    private volatile List<String> healthyReplicas;
+
+    public ReplicaLagMonitor(Map<String, DataSource> replicas, String lagQuery, Duration maxLag) {
+        this.replicas = replicas;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.healthyReplicas = List.copyOf(replicas.keySet());
+    }
+
+    public Map<String, DataSource> replicaDataSources() {
+        return replicas;
+    }
+
+    public List<String> healthyReplicas() {
+        return healthyReplicas;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.read-replicas.lag-check-interval-ms:5000}")
+    public void checkReplicas() {
+        List<String> healthy = new ArrayList<>();
+        replicas.forEach((key, dataSource) -> {
+            if (isHealthy(key, dataSource)) {
+                healthy.add(key);
+            }
+        });
+        healthyReplicas = List.copyOf(healthy);
+    }
+
+    private boolean isHealthy(String key, DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            double lagSeconds = resultSet.next() ? resultSet.getDouble(1) : 0;
+            if (lagSeconds > maxLagSeconds) {
+                if (unhealthy.add(key)) {
+                    logger.warn("Replica {} is {}s behind the primary, routing its reads to the primary", key, lagSeconds);
+                }
+                return false;
+            }
+        } catch (Exception e) {
+            if (unhealthy.add(key)) {
+                logger.warn("Replica {} failed its lag check, routing its reads to the primary", key, e);
+            }
+            return false;
+        }
+
+        if (unhealthy.remove(key)) {
+            logger.info("Replica {} caught up, resuming reads from it", key);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,44 @@
+package com.taingy.expensetracker.datasource;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Remembers which repository method the current thread is executing, so SQL logging can name the
+ * caller of a statement. Spring Data repositories are interface proxies and never show up as a
+ * frame of their own.
+ */
+public final class RepositoryMethodContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private RepositoryMethodContext() {
+    }
+
+    /**
+     * The innermost repository method in progress, e.g. {@code ExpenseRepository.findChangesByUserId},
+     * or null outside a repository call.
+     */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    static MethodInterceptor interceptor(Class<?> repositoryInterface) {
+        String prefix = repositoryInterface.getSimpleName() + ".";
+        return invocation -> track(prefix, invocation);
+    }
+
+    private static Object track(String prefix, MethodInvocation invocation) throws Throwable {
+        String previous = CURRENT.get();
+        CURRENT.set(prefix + invocation.getMethod().getName());
+        try {
+            return invocation.proceed();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
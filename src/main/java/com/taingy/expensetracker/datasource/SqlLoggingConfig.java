@@ -0,0 +1,68 @@
+package com.taingy.expensetracker.datasource;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import javax.sql.DataSource;
+
+/**
+ * Routes every statement through {@link SqlLoggingListener} for a slow-query log and sampled SQL
+ * logging, instead of {@code spring.jpa.show-sql}, which prints every statement synchronously.
+ * Both loggers write through an async appender (see logback-spring.xml).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sql-logging.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlLoggingConfig {
+
+    /**
+     * Wraps the application datasource, including the replica-routing one, in a datasource-proxy.
+     */
+    @Bean
+    public static BeanPostProcessor sqlLoggingDataSourceWrapper(
+            @Value("${app.sql-logging.slow-threshold-ms:200}") long slowThresholdMs,
+            @Value("${app.sql-logging.sample-rate:0.0}") double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("app.sql-logging.sample-rate must be between 0 and 1");
+        }
+        SqlLoggingListener listener = new SqlLoggingListener(slowThresholdMs, sampleRate);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(listener)
+                            .methodListener(listener)
+                            // Needed to count the rows read from each result set
+                            .proxyResultSet()
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Lets the SQL log name the repository method that issued a statement.
+     */
+    @Bean
+    public static BeanPostProcessor repositoryMethodTracker() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(
+                                    RepositoryMethodContext.interceptor(repositoryInformation.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+}
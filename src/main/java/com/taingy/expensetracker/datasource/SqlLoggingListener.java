@@ -0,0 +1,135 @@
+package com.taingy.expensetracker.datasource;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.logging.DefaultQueryLogEntryCreator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logs statements that take at least {@code slowThresholdMs} to {@code sql.slow}, and a random
+ * {@code sampleRate} fraction of the others to {@code sql.sample}. Each entry carries the
+ * statement with its bind parameters, the elapsed time, the calling repository method and the
+ * number of rows read or updated.
+ * <p>
+ * The row count of a query is only known once its result set has been read. Its entry is
+ * therefore held per thread and written when the result set (or its statement or connection) is
+ * closed, or when the thread runs its next statement.
+ */
+public class SqlLoggingListener implements QueryExecutionListener, MethodExecutionListener {
+    private static final Logger slowLogger = LoggerFactory.getLogger("sql.slow");
+    private static final Logger sampleLogger = LoggerFactory.getLogger("sql.sample");
+    private static final String APPLICATION_PACKAGE = "com.taingy.expensetracker.";
+
+    private final long slowThresholdMs;
+    private final double sampleRate;
+    private final DefaultQueryLogEntryCreator entryCreator = new DefaultQueryLogEntryCreator();
+    private final ThreadLocal<PendingEntry> pending = new ThreadLocal<>();
+
+    public SqlLoggingListener(long slowThresholdMs, double sampleRate) {
+        this.slowThresholdMs = slowThresholdMs;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        flush();
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        boolean slow = execInfo.getElapsedTime() >= slowThresholdMs;
+        if (!slow && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+
+        PendingEntry entry = new PendingEntry(slow, entryCreator.getLogEntry(execInfo, queryInfoList, false, true),
+                caller());
+        Object result = execInfo.getResult();
+        if (result instanceof ResultSet) {
+            pending.set(entry);
+            return;
+        }
+        if (result instanceof Integer updated) {
+            entry.rows = updated;
+        } else if (result instanceof int[] batch) {
+            entry.rows = Arrays.stream(batch).filter(count -> count > 0).sum();
+        }
+        entry.write();
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        PendingEntry entry = pending.get();
+        if (entry == null) {
+            return;
+        }
+        String method = executionContext.getMethod().getName();
+        if ("next".equals(method) && executionContext.getTarget() instanceof ResultSet) {
+            if (Boolean.TRUE.equals(executionContext.getResult())) {
+                entry.rows++;
+            }
+        } else if ("close".equals(method)) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        PendingEntry entry = pending.get();
+        if (entry != null) {
+            pending.remove();
+            entry.write();
+        }
+    }
+
+    /**
+     * The repository method behind the statement or, for statements issued elsewhere (lazy
+     * loading, JdbcTemplate), the nearest application frame.
+     */
+    private static String caller() {
+        String repositoryMethod = RepositoryMethodContext.current();
+        if (repositoryMethod != null) {
+            return repositoryMethod;
+        }
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE)
+                        && !frame.getClassName().startsWith(SqlLoggingListener.class.getPackageName()))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1)
+                        + "." + frame.getMethodName())
+                .orElse("unknown"));
+    }
+
+    private static final class PendingEntry {
+        private final boolean slow;
+        private final String statement;
+        private final String caller;
+        private long rows;
+
+        PendingEntry(boolean slow, String statement, String caller) {
+            this.slow = slow;
+            this.statement = statement;
+            this.caller = caller;
+        }
+
+        void write() {
+            if (slow) {
+                slowLogger.warn("Caller:{}, Rows:{}, {}", caller, rows, statement);
+            } else {
+                sampleLogger.info("Caller:{}, Rows:{}, {}", caller, rows, statement);
+            }
+        }
+    }
+}
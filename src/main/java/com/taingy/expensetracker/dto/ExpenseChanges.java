@@ -0,0 +1,22 @@
+package com.taingy.expensetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseChanges {
+
+    private List<ExpenseResponse> changed;
+    private List<UUID> deletedIds;
+    private String nextToken;
+    private boolean hasMore; // Call again with nextToken straight away
+    private boolean fullResync; // Token was expired or unreadable: discard local data before applying
+}
@@ -22,6 +22,7 @@ public class ExpenseSummary {
     private List<CategorySummary> categoryBreakdown;
     private List<MonthlySummary> monthlyBreakdown;
     private List<UserSummary> userBreakdown; // Only populated for ADMIN role
+    private boolean partial; // Some sections timed out and are missing; never cached
 
     @Data
     @Builder
@@ -0,0 +1,18 @@
+package com.taingy.expensetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseVersion {
+
+    private UUID userId;
+    private LocalDateTime lastModified;
+
+}
@@ -0,0 +1,19 @@
+package com.taingy.expensetracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserScroll {
+
+    private List<UserResponse> content;
+    private String nextCursor; // Pass back as cursor for the next window; null on the last one
+    private boolean hasMore;
+}
@@ -0,0 +1,11 @@
+package com.taingy.expensetracker.event;
+
+import java.util.UUID;
+
+/**
+ * Published by the category service whenever a category is created, updated or deleted.
+ * Category names appear in expense responses and summaries, so anything derived from them is
+ * affected as well.
+ */
+public record CategoryChangedEvent(UUID categoryId) {
+}
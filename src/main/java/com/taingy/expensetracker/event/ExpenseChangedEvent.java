@@ -0,0 +1,11 @@
+package com.taingy.expensetracker.event;
+
+import java.util.UUID;
+
+/**
+ * Published by the expense service whenever an expense owned by {@code userId} is created,
+ * updated or deleted. Listeners that cache derived data should react after the surrounding
+ * transaction commits.
+ */
+public record ExpenseChangedEvent(UUID userId) {
+}
@@ -0,0 +1,26 @@
+package com.taingy.expensetracker.event;
+
+import com.taingy.expensetracker.model.Expense;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Published by the expense service with the values of an expense it saved or deleted, for
+ * listeners that keep their own copy of expenses. Like {@link ExpenseChangedEvent}, it should be
+ * handled after the surrounding transaction commits.
+ */
+public record ExpenseWrittenEvent(UUID expenseId, UUID userId, UUID categoryId, LocalDate expenseDate,
+                                  BigDecimal amount, boolean deleted) {
+
+    public static ExpenseWrittenEvent saved(Expense expense) {
+        return new ExpenseWrittenEvent(expense.getId(), expense.getUser().getId(),
+                expense.getCategory() != null ? expense.getCategory().getId() : null,
+                expense.getExpenseDate(), expense.getAmount(), false);
+    }
+
+    public static ExpenseWrittenEvent deleted(Expense expense) {
+        return new ExpenseWrittenEvent(expense.getId(), expense.getUser().getId(), null, null, null, true);
+    }
+}
@@ -3,7 +3,10 @@ package com.taingy.expensetracker.mapper;
 
 import com.taingy.expensetracker.dto.ExpenseRequest;
 import com.taingy.expensetracker.dto.ExpenseResponse;
+import com.taingy.expensetracker.model.Category;
 import com.taingy.expensetracker.model.Expense;
+import com.taingy.expensetracker.model.User;
+import com.taingy.expensetracker.repository.projection.ExpenseListItem;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -24,18 +27,39 @@ public class ExpenseMapper {
     public ExpenseResponse toDto(Expense expense) {
         if (expense == null) return null;
 
+        // Sharded expenses have no foreign keys, so their category or user may be gone
+        Category category = expense.getCategory();
+        User user = expense.getUser();
         return ExpenseResponse.builder()
                 .id(expense.getId())
                 .title(expense.getTitle())
                 .expenseDate(expense.getExpenseDate())
                 .description(expense.getDescription())
                 .amount(expense.getAmount())
-                .categoryName(expense.getCategory().getName())
-                .userId(expense.getUser().getId())
-                .userEmail(expense.getUser().getEmail())
-                .userName(expense.getUser().getFirstName() + " " + expense.getUser().getLastName())
+                .categoryName(category != null ? category.getName() : null)
+                .userId(user != null ? user.getId() : null)
+                .userEmail(user != null ? user.getEmail() : null)
+                .userName(user != null ? user.getFirstName() + " " + user.getLastName() : null)
                 .createdAt(expense.getCreatedAt())
                 .updatedAt(expense.getUpdatedAt())
                 .build();
     }
+
+    public ExpenseResponse toDto(ExpenseListItem item) {
+        if (item == null) return null;
+
+        return ExpenseResponse.builder()
+                .id(item.id())
+                .title(item.title())
+                .expenseDate(item.expenseDate())
+                .description(item.description())
+                .amount(item.amount())
+                .categoryName(item.categoryName())
+                .userId(item.userId())
+                .userEmail(item.userEmail())
+                .userName(item.userFirstName() + " " + item.userLastName())
+                .createdAt(item.createdAt())
+                .updatedAt(item.updatedAt())
+                .build();
+    }
 }
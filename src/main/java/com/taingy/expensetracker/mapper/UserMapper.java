@@ -4,6 +4,7 @@ package com.taingy.expensetracker.mapper;
 import com.taingy.expensetracker.dto.UserRequest;
 import com.taingy.expensetracker.dto.UserResponse;
 import com.taingy.expensetracker.model.User;
+import com.taingy.expensetracker.repository.projection.UserListItem;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -36,4 +37,20 @@ public class UserMapper {
                 .updatedAt(user.getUpdatedAt())
                 .build();
     }
+
+    public UserResponse toDto(UserListItem user) {
+        if (user == null) return null;
+
+        return UserResponse.builder()
+                .id(user.id())
+                .firstName(user.firstName())
+                .lastName(user.lastName())
+                .email(user.email())
+                .role(user.roleName())
+                .isActive(user.isActive())
+                .isVerified(user.isVerified())
+                .createdAt(user.createdAt())
+                .updatedAt(user.updatedAt())
+                .build();
+    }
 }
@@ -19,7 +19,7 @@ import java.util.UUID;
 public class AuditLog {
 
     @Id
-    @GeneratedValue
+    @UuidV7
     private UUID id;
 
     @Column(nullable = false, length = 50)
@@ -10,13 +10,16 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "email_otps")
+@Table(name = "email_otps", indexes = {
+        @Index(name = "idx_email_otps_email", columnList = "email"),
+        @Index(name = "idx_email_otps_expires_at", columnList = "expires_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class EmailOtp {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Column(name = "id", nullable = false, updatable = false)
     private UUID id;
 
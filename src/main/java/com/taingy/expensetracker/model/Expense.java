@@ -14,12 +14,14 @@ import java.util.UUID;
 
 @Entity
 @Data
-@Table(name = "expenses")
+@Table(name = "expenses", indexes = {
+        @Index(name = "idx_expenses_user_updated_at", columnList = "user_id, updated_at")
+})
 public class Expense {
 
 
     @Id
-    @GeneratedValue
+    @UuidV7
     private UUID id;
 
 
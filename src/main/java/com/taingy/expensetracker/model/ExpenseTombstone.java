@@ -0,0 +1,37 @@
+package com.taingy.expensetracker.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Records that an expense was deleted, so that syncing clients can drop their local copy.
+ * Tombstones are purged once they are older than the sync retention period.
+ */
+@Entity
+@Table(name = "expense_tombstones", indexes = {
+        @Index(name = "idx_expense_tombstones_user_deleted_at", columnList = "user_id, deleted_at"),
+        @Index(name = "idx_expense_tombstones_deleted_at", columnList = "deleted_at")
+})
+@Data
+@NoArgsConstructor
+public class ExpenseTombstone {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id", nullable = false, updatable = false)
+    private UUID id;
+
+    @Column(name = "expense_id", nullable = false, updatable = false)
+    private UUID expenseId;
+
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private UUID userId;
+
+    @CreationTimestamp
+    @Column(name = "deleted_at", nullable = false, updatable = false)
+    private LocalDateTime deletedAt;
+}
@@ -3,6 +3,7 @@ package com.taingy.expensetracker.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GeneratedColumn;
 import org.hibernate.annotations.UpdateTimestamp;
 
 
@@ -12,11 +13,15 @@ import java.util.UUID;
 
 @Entity
 @Data
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_users_email", columnNames = "email")
+}, indexes = {
+        @Index(name = "idx_users_created_at_id", columnList = "created_at, id")
+})
 public class User {
 
     @Id
-    @GeneratedValue
+    @UuidV7
     private UUID id;
 
 
@@ -28,7 +33,7 @@ public class User {
     private String lastName;
 
 
-    @Column(nullable = false, unique = true, length = 100)
+    @Column(nullable = false, length = 100)
     private String email;
 
 
@@ -56,4 +61,11 @@ public class User {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
 
+
+    // Normalized text the user search matches against, maintained by the database; on
+    // PostgreSQL it carries a trigram index (see UserIndexInitializer)
+    @GeneratedColumn("lower(first_name || ' ' || last_name || ' ' || email)")
+    @Column(length = 302)
+    private String searchText;
+
 }
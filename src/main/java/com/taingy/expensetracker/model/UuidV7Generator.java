@@ -0,0 +1,81 @@
+package com.taingy.expensetracker.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Hibernate identifier generator for RFC 9562 version 7 UUIDs.
+ * <p>
+ * A UUIDv7 starts with the Unix time in milliseconds, so new rows land at the right-hand edge of
+ * the primary key index instead of on a random page. The 12 bits after the version hold a
+ * counter (RFC 9562 section 6.2, method 1) that makes the identifiers of this JVM strictly
+ * increasing: each millisecond starts the counter at a random value in its lower half, and if it
+ * runs out, or the clock steps back, the timestamp is carried forward instead. The remaining 62
+ * bits are random, as in the random UUIDs used before, which keeps identifiers from different
+ * instances unique and hard to guess.
+ */
+public class UuidV7Generator implements BeforeExecutionGenerator {
+    private static final Sequence NODE = new Sequence(System::currentTimeMillis);
+
+    /**
+     * Returns the next identifier of this JVM.
+     */
+    public static UUID next() {
+        return NODE.next();
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    /**
+     * Monotonic timestamp and counter, packed as {@code millis << 12 | counter} so the counter
+     * overflows into the timestamp.
+     */
+    static final class Sequence {
+        static final int COUNTER_BITS = 12;
+
+        private static final SecureRandom RANDOM = new SecureRandom();
+
+        private final LongSupplier clock;
+        private final AtomicLong state = new AtomicLong();
+
+        Sequence(LongSupplier clock) {
+            this.clock = clock;
+        }
+
+        UUID next() {
+            long now = clock.getAsLong() << COUNTER_BITS;
+            long previous;
+            long current;
+            do {
+                previous = state.get();
+                current = now > previous
+                        ? now | ThreadLocalRandom.current().nextInt(1 << (COUNTER_BITS - 1))
+                        : previous + 1;
+            } while (!state.compareAndSet(previous, current));
+
+            long mostSigBits = (current >>> COUNTER_BITS) << 16
+                    | 0x7000L
+                    | (current & ((1 << COUNTER_BITS) - 1));
+            long leastSigBits = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+            return new UUID(mostSigBits, leastSigBits);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.taingy.expensetracker.repository;
 import com.taingy.expensetracker.model.AuditLog;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -15,26 +16,35 @@ import java.util.UUID;
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, UUID> {
 
+    // AuditLogMapper reads the user of every row; fetch it (and its EAGER role) in the same query
+    @EntityGraph(attributePaths = {"user", "user.role"})
     Page<AuditLog> findAllByOrderByCreatedAtDesc(Pageable pageable);
 
+    @EntityGraph(attributePaths = {"user", "user.role"})
     Page<AuditLog> findByUserIdOrderByCreatedAtDesc(UUID userId, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"user", "user.role"})
     Page<AuditLog> findByActionOrderByCreatedAtDesc(String action, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"user", "user.role"})
     Page<AuditLog> findByEntityTypeOrderByCreatedAtDesc(String entityType, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"user", "user.role"})
     Page<AuditLog> findByEntityIdOrderByCreatedAtDesc(String entityId, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"user", "user.role"})
     @Query("SELECT a FROM AuditLog a WHERE a.createdAt BETWEEN :startDate AND :endDate ORDER BY a.createdAt DESC")
     Page<AuditLog> findByDateRange(@Param("startDate") LocalDateTime startDate,
                                      @Param("endDate") LocalDateTime endDate,
                                      Pageable pageable);
 
+    @EntityGraph(attributePaths = {"user", "user.role"})
     @Query("SELECT a FROM AuditLog a WHERE a.user.id = :userId AND a.createdAt BETWEEN :startDate AND :endDate ORDER BY a.createdAt DESC")
     Page<AuditLog> findByUserIdAndDateRange(@Param("userId") UUID userId,
                                               @Param("startDate") LocalDateTime startDate,
                                               @Param("endDate") LocalDateTime endDate,
                                               Pageable pageable);
 
+    @EntityGraph(attributePaths = {"user", "user.role"})
     List<AuditLog> findTop10ByUserIdOrderByCreatedAtDesc(UUID userId);
 }
@@ -2,10 +2,13 @@ package com.taingy.expensetracker.repository;
 
 import com.taingy.expensetracker.model.EmailOtp;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -14,7 +17,23 @@ public interface EmailOtpRepository extends JpaRepository<EmailOtp, UUID> {
     Optional<EmailOtp> findByEmailAndOtpCodeAndVerifiedFalseAndExpiresAtAfter(
             String email, String otpCode, LocalDateTime now);
 
-    List<EmailOtp> findByEmailAndVerifiedFalse(String email);
+    /**
+     * Expires every outstanding code for the email in a single UPDATE so that only the
+     * code issued afterwards can match during verification.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE EmailOtp o SET o.expiresAt = :now " +
+            "WHERE o.email = :email AND o.verified = false AND o.expiresAt > :now")
+    int invalidateActiveOtps(@Param("email") String email, @Param("now") LocalDateTime now);
 
-    void deleteByExpiresAtBefore(LocalDateTime now);
+    /**
+     * Deletes at most {@code batchSize} expired codes. Callers loop until fewer rows than
+     * the batch size are removed, committing between batches to keep row locks short-lived.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM email_otps WHERE id IN (" +
+            "SELECT id FROM email_otps WHERE expires_at < :cutoff LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteExpiredBatch(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
 }
@@ -0,0 +1,56 @@
+package com.taingy.expensetracker.repository;
+
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * The order the database gives sorted values, for stores that merge rows sorted by a database
+ * with rows sorted here: uuids as unsigned bytes, text by code point like the C collation, and
+ * nulls after every value.
+ */
+public final class ExpenseOrder {
+
+    // Databases compare uuid values as unsigned bytes, unlike UUID.compareTo
+    public static final Comparator<UUID> UUIDS = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private ExpenseOrder() {
+    }
+
+    /**
+     * Compares two values of the same sort column, nulls last.
+     */
+    @SuppressWarnings("unchecked")
+    public static int compareNullsLast(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : 1) : -1;
+        }
+        if (a instanceof UUID first && b instanceof UUID second) {
+            return UUIDS.compare(first, second);
+        }
+        if (a instanceof String first && b instanceof String second) {
+            return compareText(first, second);
+        }
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+
+    /**
+     * Orders strings like the C collation does. Unlike {@link String#compareTo}, which compares
+     * UTF-16 units, this puts characters beyond U+FFFF after U+E000 to U+FFFF.
+     */
+    public static int compareText(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int first = a.codePointAt(i);
+            int second = b.codePointAt(j);
+            if (first != second) {
+                return Integer.compare(first, second);
+            }
+            i += Character.charCount(first);
+            j += Character.charCount(second);
+        }
+        return Boolean.compare(i < a.length(), j < b.length());
+    }
+}
@@ -1,45 +1,79 @@
 package com.taingy.expensetracker.repository;
 
+import com.taingy.expensetracker.dto.ExpenseVersion;
 import com.taingy.expensetracker.model.Expense;
+import com.taingy.expensetracker.repository.projection.CategoryTotal;
+import com.taingy.expensetracker.repository.projection.ExpenseTotals;
+import com.taingy.expensetracker.repository.projection.MonthlyTotal;
+import com.taingy.expensetracker.repository.projection.UserTotal;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface ExpenseRepository extends JpaRepository<Expense, UUID>, ExpenseRepositoryCustom {
 
     List<Expense> findAllByUserId(UUID userId);
 
-    @Query("SELECT SUM(e.amount) FROM Expense e WHERE e.user.id = :userId")
-    BigDecimal getTotalAmountByUserId(@Param("userId") UUID userId);
+    boolean existsByUserId(UUID userId);
 
-    @Query("SELECT COUNT(e) FROM Expense e WHERE e.user.id = :userId")
-    Long getCountByUserId(@Param("userId") UUID userId);
+    boolean existsByCategoryId(UUID categoryId);
 
-    @Query("SELECT AVG(e.amount) FROM Expense e WHERE e.user.id = :userId")
-    BigDecimal getAverageAmountByUserId(@Param("userId") UUID userId);
+    @Query("SELECT new com.taingy.expensetracker.dto.ExpenseVersion(e.user.id, COALESCE(e.updatedAt, e.createdAt)) " +
+            "FROM Expense e WHERE e.id = :id")
+    Optional<ExpenseVersion> findVersionById(@Param("id") UUID id);
 
-    @Query("SELECT MAX(e.amount) FROM Expense e WHERE e.user.id = :userId")
-    BigDecimal getMaxAmountByUserId(@Param("userId") UUID userId);
+    /**
+     * Returns the user's expenses created or updated after the (updatedAt, id) cursor and no
+     * later than {@code upTo}, in cursor order. Served by the (user_id, updated_at) index.
+     */
+    @Query("SELECT e FROM Expense e JOIN FETCH e.category JOIN FETCH e.user " +
+            "WHERE e.user.id = :userId AND e.updatedAt <= :upTo " +
+            "AND (e.updatedAt > :since OR (e.updatedAt = :since AND e.id > :afterId)) " +
+            "ORDER BY e.updatedAt, e.id")
+    List<Expense> findChangesByUserId(@Param("userId") UUID userId,
+                                      @Param("since") LocalDateTime since,
+                                      @Param("afterId") UUID afterId,
+                                      @Param("upTo") LocalDateTime upTo,
+                                      Pageable pageable);
 
-    @Query("SELECT MIN(e.amount) FROM Expense e WHERE e.user.id = :userId")
-    BigDecimal getMinAmountByUserId(@Param("userId") UUID userId);
+    @Query("SELECT new com.taingy.expensetracker.repository.projection.ExpenseTotals(" +
+            "SUM(e.amount), COUNT(e), AVG(e.amount), MAX(e.amount), MIN(e.amount)) " +
+            "FROM Expense e WHERE e.user.id = :userId")
+    ExpenseTotals getTotalsByUserId(@Param("userId") UUID userId);
 
-    @Query("SELECT SUM(e.amount) FROM Expense e")
-    BigDecimal getTotalAmount();
+    @Query("SELECT new com.taingy.expensetracker.repository.projection.ExpenseTotals(" +
+            "SUM(e.amount), COUNT(e), AVG(e.amount), MAX(e.amount), MIN(e.amount)) " +
+            "FROM Expense e")
+    ExpenseTotals getTotals();
 
-    @Query("SELECT AVG(e.amount) FROM Expense e")
-    BigDecimal getAverageAmount();
+    @Query("SELECT new com.taingy.expensetracker.repository.projection.CategoryTotal(c.name, SUM(e.amount), COUNT(e)) " +
+            "FROM Expense e LEFT JOIN e.category c WHERE e.user.id = :userId GROUP BY c.name")
+    List<CategoryTotal> getCategoryTotalsByUserId(@Param("userId") UUID userId);
 
-    @Query("SELECT MAX(e.amount) FROM Expense e")
-    BigDecimal getMaxAmount();
+    @Query("SELECT new com.taingy.expensetracker.repository.projection.CategoryTotal(c.name, SUM(e.amount), COUNT(e)) " +
+            "FROM Expense e LEFT JOIN e.category c GROUP BY c.name")
+    List<CategoryTotal> getCategoryTotals();
 
-    @Query("SELECT MIN(e.amount) FROM Expense e")
-    BigDecimal getMinAmount();
+    @Query("SELECT new com.taingy.expensetracker.repository.projection.MonthlyTotal(" +
+            "YEAR(e.expenseDate), MONTH(e.expenseDate), SUM(e.amount), COUNT(e)) " +
+            "FROM Expense e WHERE e.user.id = :userId GROUP BY YEAR(e.expenseDate), MONTH(e.expenseDate)")
+    List<MonthlyTotal> getMonthlyTotalsByUserId(@Param("userId") UUID userId);
+
+    @Query("SELECT new com.taingy.expensetracker.repository.projection.MonthlyTotal(" +
+            "YEAR(e.expenseDate), MONTH(e.expenseDate), SUM(e.amount), COUNT(e)) " +
+            "FROM Expense e GROUP BY YEAR(e.expenseDate), MONTH(e.expenseDate)")
+    List<MonthlyTotal> getMonthlyTotals();
+
+    @Query("SELECT new com.taingy.expensetracker.repository.projection.UserTotal(" +
+            "u.firstName, u.lastName, u.email, SUM(e.amount), COUNT(e)) " +
+            "FROM Expense e JOIN e.user u GROUP BY u.id, u.firstName, u.lastName, u.email")
+    List<UserTotal> getUserTotals();
 
 }
@@ -1,6 +1,6 @@
 package com.taingy.expensetracker.repository;
 
-import com.taingy.expensetracker.model.Expense;
+import com.taingy.expensetracker.repository.projection.ExpenseListItem;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -10,7 +10,7 @@ import java.util.UUID;
 
 public interface ExpenseRepositoryCustom {
 
-    Page<Expense> findExpensesWithFilters(
+    Page<ExpenseListItem> findExpensesWithFilters(
             UUID userId,
             UUID categoryId,
             String searchTerm,
@@ -1,10 +1,18 @@
 package com.taingy.expensetracker.repository;
 
+import com.taingy.expensetracker.model.Category;
 import com.taingy.expensetracker.model.Expense;
+import com.taingy.expensetracker.model.User;
+import com.taingy.expensetracker.repository.projection.ExpenseListItem;
+import com.taingy.expensetracker.timing.RequestTiming;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.*;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -14,16 +22,25 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
+/**
+ * Sorted pages are ordered like {@link ExpenseOrder}: text by code point, nulls after every
+ * value, and the id as a final tie-breaker, the same order the sharded and archiving stores
+ * merge in.
+ */
 @Repository
 public class ExpenseRepositoryCustomImpl implements ExpenseRepositoryCustom {
 
+    private static final Set<String> TEXT_PROPERTIES = Set.of("title", "description");
+
     @PersistenceContext
     private EntityManager entityManager;
 
     @Override
-    public Page<Expense> findExpensesWithFilters(
+    @Timed(value = "repository.query", extraTags = {"query", "findExpensesWithFilters"})
+    public Page<ExpenseListItem> findExpensesWithFilters(
             UUID userId,
             UUID categoryId,
             String searchTerm,
@@ -34,12 +51,104 @@ public class ExpenseRepositoryCustomImpl implements ExpenseRepositoryCustom {
             Pageable pageable) {
 
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Expense> query = cb.createQuery(Expense.class);
+        CriteriaQuery<ExpenseListItem> query = cb.createQuery(ExpenseListItem.class);
         Root<Expense> expense = query.from(Expense.class);
 
-        // Eagerly fetch related entities to avoid lazy loading issues
-        expense.fetch("user", JoinType.LEFT);
-        expense.fetch("category", JoinType.LEFT);
+        // Select only the listed columns into records: nothing is added to the persistence
+        // context, so there are no entity snapshots to keep or dirty-check on flush
+        Join<Expense, User> user = expense.join("user");
+        Join<Expense, Category> category = expense.join("category");
+        query.select(cb.construct(ExpenseListItem.class,
+                expense.get("id"),
+                expense.get("expenseDate"),
+                expense.get("title"),
+                expense.get("description"),
+                expense.get("amount"),
+                category.get("name"),
+                user.get("id"),
+                user.get("email"),
+                user.get("firstName"),
+                user.get("lastName"),
+                expense.get("createdAt"),
+                expense.get("updatedAt")));
+
+        List<Predicate> predicates = buildPredicates(cb, expense, userId, categoryId, searchTerm,
+                startDate, endDate, minAmount, maxAmount);
+
+        // Apply all predicates
+        query.where(predicates.toArray(new Predicate[0]));
+
+        // Apply sorting in ExpenseOrder, so pages merged with shards or the archive line up
+        if (pageable.getSort().isSorted()) {
+            boolean postgres = isPostgres();
+            List<Order> orders = new ArrayList<>();
+            pageable.getSort().forEach(order -> {
+                Expression<?> value = sortValue(cb, expense, order.getProperty(), postgres);
+                orders.add(order.isAscending() ? cb.asc(value, Nulls.LAST) : cb.desc(value, Nulls.FIRST));
+            });
+            orders.add(cb.asc(expense.get("id")));
+            query.orderBy(orders);
+        }
+
+        // Execute query with pagination
+        TypedQuery<ExpenseListItem> typedQuery = entityManager.createQuery(query);
+        typedQuery.setFirstResult((int) pageable.getOffset());
+        typedQuery.setMaxResults(pageable.getPageSize());
+
+        List<ExpenseListItem> expenses;
+        try (RequestTiming.Phase ignored = RequestTiming.start("criteria-query")) {
+            expenses = typedQuery.getResultList();
+        }
+
+        // Count query for total elements
+        CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
+        Root<Expense> expenseCount = countQuery.from(Expense.class);
+        countQuery.select(cb.count(expenseCount));
+
+        // Apply same predicates to count query
+        List<Predicate> countPredicates = buildPredicates(cb, expenseCount, userId, categoryId, searchTerm,
+                startDate, endDate, minAmount, maxAmount);
+
+        countQuery.where(countPredicates.toArray(new Predicate[0]));
+        Long total;
+        try (RequestTiming.Phase ignored = RequestTiming.start("count-query")) {
+            total = entityManager.createQuery(countQuery).getSingleResult();
+        }
+
+        return new PageImpl<>(expenses, pageable, total);
+    }
+
+    /**
+     * The sort column, with text compared by code point on PostgreSQL rather than in the
+     * database's collation. H2 compares text by UTF-16 unit, which only differs past U+FFFF.
+     */
+    private static Expression<?> sortValue(CriteriaBuilder cb, Root<Expense> expense, String property,
+                                           boolean postgres) {
+        if (postgres && TEXT_PROPERTIES.contains(property)) {
+            return ((HibernateCriteriaBuilder) cb).collate(expense.<String>get(property), "ucs_basic");
+        }
+        return expense.get(property);
+    }
+
+    private boolean isPostgres() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+
+    /**
+     * Builds the filter predicates for the given root. Shared by the page query and its count
+     * query so both always apply the same filters.
+     */
+    static List<Predicate> buildPredicates(
+            CriteriaBuilder cb,
+            Root<Expense> expense,
+            UUID userId,
+            UUID categoryId,
+            String searchTerm,
+            LocalDate startDate,
+            LocalDate endDate,
+            BigDecimal minAmount,
+            BigDecimal maxAmount) {
 
         List<Predicate> predicates = new ArrayList<>();
 
@@ -79,69 +188,6 @@ public class ExpenseRepositoryCustomImpl implements ExpenseRepositoryCustom {
             predicates.add(cb.lessThanOrEqualTo(expense.get("amount"), maxAmount));
         }
 
-        // Apply all predicates
-        query.where(predicates.toArray(new Predicate[0]));
-
-        // Make the query distinct to avoid duplicates from the joins
-        query.distinct(true);
-
-        // Apply sorting
-        if (pageable.getSort().isSorted()) {
-            List<Order> orders = new ArrayList<>();
-            pageable.getSort().forEach(order -> {
-                if (order.isAscending()) {
-                    orders.add(cb.asc(expense.get(order.getProperty())));
-                } else {
-                    orders.add(cb.desc(expense.get(order.getProperty())));
-                }
-            });
-            query.orderBy(orders);
-        }
-
-        // Execute query with pagination
-        TypedQuery<Expense> typedQuery = entityManager.createQuery(query);
-        typedQuery.setFirstResult((int) pageable.getOffset());
-        typedQuery.setMaxResults(pageable.getPageSize());
-
-        List<Expense> expenses = typedQuery.getResultList();
-
-        // Count query for total elements
-        CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
-        Root<Expense> expenseCount = countQuery.from(Expense.class);
-        countQuery.select(cb.count(expenseCount));
-
-        // Apply same predicates to count query
-        List<Predicate> countPredicates = new ArrayList<>();
-        if (userId != null) {
-            countPredicates.add(cb.equal(expenseCount.get("user").get("id"), userId));
-        }
-        if (categoryId != null) {
-            countPredicates.add(cb.equal(expenseCount.get("category").get("id"), categoryId));
-        }
-        if (searchTerm != null && !searchTerm.trim().isEmpty()) {
-            String searchPattern = "%" + searchTerm.toLowerCase() + "%";
-            Predicate titlePredicate = cb.like(cb.lower(expenseCount.get("title")), searchPattern);
-            Predicate descriptionPredicate = cb.like(cb.lower(expenseCount.get("description")), searchPattern);
-            countPredicates.add(cb.or(titlePredicate, descriptionPredicate));
-        }
-        if (startDate != null && endDate != null) {
-            countPredicates.add(cb.between(expenseCount.get("expenseDate"), startDate, endDate));
-        } else if (startDate != null) {
-            countPredicates.add(cb.greaterThanOrEqualTo(expenseCount.get("expenseDate"), startDate));
-        } else if (endDate != null) {
-            countPredicates.add(cb.lessThanOrEqualTo(expenseCount.get("expenseDate"), endDate));
-        }
-        if (minAmount != null && maxAmount != null) {
-            countPredicates.add(cb.between(expenseCount.get("amount"), minAmount, maxAmount));
-        } else if (minAmount != null) {
-            countPredicates.add(cb.greaterThanOrEqualTo(expenseCount.get("amount"), minAmount));
-        } else if (maxAmount != null) {
-            countPredicates.add(cb.lessThanOrEqualTo(expenseCount.get("amount"), maxAmount));
-        }
-
-        countQuery.where(countPredicates.toArray(new Predicate[0]));
-        Long total = entityManager.createQuery(countQuery).getSingleResult();
-
-        return new PageImpl<>(expenses, pageable, total);
+        return predicates;
     }
 }
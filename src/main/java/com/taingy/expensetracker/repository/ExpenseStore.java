@@ -0,0 +1,74 @@
+package com.taingy.expensetracker.repository;
+
+import com.taingy.expensetracker.dto.ExpenseVersion;
+import com.taingy.expensetracker.model.Expense;
+import com.taingy.expensetracker.repository.projection.CategoryTotal;
+import com.taingy.expensetracker.repository.projection.ExpenseListItem;
+import com.taingy.expensetracker.repository.projection.ExpenseTotals;
+import com.taingy.expensetracker.repository.projection.MonthlyTotal;
+import com.taingy.expensetracker.repository.projection.UserTotal;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The expense operations the services use. Backed by {@link ExpenseRepository} unless
+ * {@code app.sharding.enabled} spreads expenses over several databases, see
+ * {@link com.taingy.expensetracker.repository.shard.ShardedExpenseStore}. With
+ * {@code app.archive.enabled}, {@link com.taingy.expensetracker.archive.ArchivingExpenseStore}
+ * adds archived expenses to searches and totals, and with {@code app.analytics.enabled},
+ * {@link com.taingy.expensetracker.analytics.AnalyticsExpenseStore} answers the totals over all
+ * users from memory.
+ */
+public interface ExpenseStore {
+
+    Optional<Expense> findById(UUID id);
+
+    Optional<ExpenseVersion> findVersionById(UUID id);
+
+    Page<ExpenseListItem> findExpensesWithFilters(UUID userId, UUID categoryId, String searchTerm,
+                                                  LocalDate startDate, LocalDate endDate,
+                                                  BigDecimal minAmount, BigDecimal maxAmount,
+                                                  Pageable pageable);
+
+    /**
+     * See {@link ExpenseRepository#findChangesByUserId}.
+     */
+    List<Expense> findChangesByUserId(UUID userId, LocalDateTime since, UUID afterId, LocalDateTime upTo,
+                                      Pageable pageable);
+
+    Expense save(Expense expense);
+
+    void delete(Expense expense);
+
+    /**
+     * Whether the user has any expenses. Users and categories with expenses are not deleted, which
+     * the foreign keys enforce in the main database but nothing does across databases.
+     */
+    boolean existsByUserId(UUID userId);
+
+    /**
+     * Whether any expense is in the category, see {@link #existsByUserId}.
+     */
+    boolean existsByCategoryId(UUID categoryId);
+
+    ExpenseTotals getTotalsByUserId(UUID userId);
+
+    ExpenseTotals getTotals();
+
+    List<CategoryTotal> getCategoryTotalsByUserId(UUID userId);
+
+    List<CategoryTotal> getCategoryTotals();
+
+    List<MonthlyTotal> getMonthlyTotalsByUserId(UUID userId);
+
+    List<MonthlyTotal> getMonthlyTotals();
+
+    List<UserTotal> getUserTotals();
+}
@@ -0,0 +1,43 @@
+package com.taingy.expensetracker.repository;
+
+import com.taingy.expensetracker.model.ExpenseTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ExpenseTombstoneRepository extends JpaRepository<ExpenseTombstone, UUID> {
+
+    /**
+     * Returns the user's tombstones that come after the (deletedAt, id) cursor and no later
+     * than {@code upTo}, in cursor order. Served by the (user_id, deleted_at) index.
+     */
+    @Query("SELECT t FROM ExpenseTombstone t " +
+            "WHERE t.userId = :userId AND t.deletedAt <= :upTo " +
+            "AND (t.deletedAt > :since OR (t.deletedAt = :since AND t.id > :afterId)) " +
+            "ORDER BY t.deletedAt, t.id")
+    List<ExpenseTombstone> findChangesByUserId(@Param("userId") UUID userId,
+                                               @Param("since") LocalDateTime since,
+                                               @Param("afterId") UUID afterId,
+                                               @Param("upTo") LocalDateTime upTo,
+                                               Pageable pageable);
+
+    /**
+     * Deletes at most {@code batchSize} tombstones older than the cutoff. Callers loop until
+     * fewer rows than the batch size are removed, committing between batches.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM expense_tombstones WHERE id IN (" +
+            "SELECT id FROM expense_tombstones WHERE deleted_at < :cutoff LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteExpiredBatch(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+}
@@ -0,0 +1,116 @@
+package com.taingy.expensetracker.repository;
+
+import com.taingy.expensetracker.dto.ExpenseVersion;
+import com.taingy.expensetracker.model.Expense;
+import com.taingy.expensetracker.repository.projection.CategoryTotal;
+import com.taingy.expensetracker.repository.projection.ExpenseListItem;
+import com.taingy.expensetracker.repository.projection.ExpenseTotals;
+import com.taingy.expensetracker.repository.projection.MonthlyTotal;
+import com.taingy.expensetracker.repository.projection.UserTotal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Keeps expenses in the main database alongside everything else.
+ */
+@Component
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "false", matchIfMissing = true)
+public class JpaExpenseStore implements ExpenseStore {
+
+    private final ExpenseRepository expenseRepository;
+
+    @Autowired
+    public JpaExpenseStore(ExpenseRepository expenseRepository) {
+        this.expenseRepository = expenseRepository;
+    }
+
+    @Override
+    public Optional<Expense> findById(UUID id) {
+        return expenseRepository.findById(id);
+    }
+
+    @Override
+    public Optional<ExpenseVersion> findVersionById(UUID id) {
+        return expenseRepository.findVersionById(id);
+    }
+
+    @Override
+    public Page<ExpenseListItem> findExpensesWithFilters(UUID userId, UUID categoryId, String searchTerm,
+                                                         LocalDate startDate, LocalDate endDate,
+                                                         BigDecimal minAmount, BigDecimal maxAmount,
+                                                         Pageable pageable) {
+        return expenseRepository.findExpensesWithFilters(userId, categoryId, searchTerm, startDate, endDate,
+                minAmount, maxAmount, pageable);
+    }
+
+    @Override
+    public List<Expense> findChangesByUserId(UUID userId, LocalDateTime since, UUID afterId, LocalDateTime upTo,
+                                             Pageable pageable) {
+        return expenseRepository.findChangesByUserId(userId, since, afterId, upTo, pageable);
+    }
+
+    @Override
+    public Expense save(Expense expense) {
+        return expenseRepository.save(expense);
+    }
+
+    @Override
+    public void delete(Expense expense) {
+        expenseRepository.delete(expense);
+    }
+
+    @Override
+    public boolean existsByUserId(UUID userId) {
+        return expenseRepository.existsByUserId(userId);
+    }
+
+    @Override
+    public boolean existsByCategoryId(UUID categoryId) {
+        return expenseRepository.existsByCategoryId(categoryId);
+    }
+
+    @Override
+    public ExpenseTotals getTotalsByUserId(UUID userId) {
+        return expenseRepository.getTotalsByUserId(userId);
+    }
+
+    @Override
+    public ExpenseTotals getTotals() {
+        return expenseRepository.getTotals();
+    }
+
+    @Override
+    public List<CategoryTotal> getCategoryTotalsByUserId(UUID userId) {
+        return expenseRepository.getCategoryTotalsByUserId(userId);
+    }
+
+    @Override
+    public List<CategoryTotal> getCategoryTotals() {
+        return expenseRepository.getCategoryTotals();
+    }
+
+    @Override
+    public List<MonthlyTotal> getMonthlyTotalsByUserId(UUID userId) {
+        return expenseRepository.getMonthlyTotalsByUserId(userId);
+    }
+
+    @Override
+    public List<MonthlyTotal> getMonthlyTotals() {
+        return expenseRepository.getMonthlyTotals();
+    }
+
+    @Override
+    public List<UserTotal> getUserTotals() {
+        return expenseRepository.getUserTotals();
+    }
+}
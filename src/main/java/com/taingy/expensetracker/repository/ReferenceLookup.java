@@ -0,0 +1,60 @@
+package com.taingy.expensetracker.repository;
+
+import com.taingy.expensetracker.model.Category;
+import com.taingy.expensetracker.model.User;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Looks up the users and categories of expense rows by id, in batches, for the stores that
+ * return rows read without them: from shards, from the archive or from memory.
+ */
+public class ReferenceLookup {
+
+    private static final int BATCH = 1000;
+
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+
+    public ReferenceLookup(UserRepository userRepository, CategoryRepository categoryRepository) {
+        this.userRepository = userRepository;
+        this.categoryRepository = categoryRepository;
+    }
+
+    /**
+     * The users that still exist among {@code ids}; null ids are skipped.
+     */
+    public Map<UUID, User> usersById(Collection<UUID> ids) {
+        Map<UUID, User> users = new HashMap<>();
+        for (List<UUID> batch : batches(ids)) {
+            userRepository.findAllById(batch).forEach(user -> users.put(user.getId(), user));
+        }
+        return users;
+    }
+
+    /**
+     * The categories that still exist among {@code ids}; null ids are skipped.
+     */
+    public Map<UUID, Category> categoriesById(Collection<UUID> ids) {
+        Map<UUID, Category> categories = new HashMap<>();
+        for (List<UUID> batch : batches(ids)) {
+            categoryRepository.findAllById(batch).forEach(category -> categories.put(category.getId(), category));
+        }
+        return categories;
+    }
+
+    private static List<List<UUID>> batches(Collection<UUID> ids) {
+        List<UUID> all = ids.stream().filter(Objects::nonNull).toList();
+        List<List<UUID>> batches = new ArrayList<>();
+        for (int i = 0; i < all.size(); i += BATCH) {
+            batches.add(all.subList(i, Math.min(all.size(), i + BATCH)));
+        }
+        return batches;
+    }
+}
@@ -1,18 +1,36 @@
 package com.taingy.expensetracker.repository;
 
-import com.taingy.expensetracker.model.User;
+import com.taingy.expensetracker.repository.projection.UserListItem;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 public interface UserRepositoryCustom {
 
-    Page<User> findUsersWithFilters(
+    Page<UserListItem> findUsersWithFilters(
             String searchTerm,
+            String emailPrefix,
             UUID roleId,
             Boolean isActive,
             Boolean isVerified,
             Pageable pageable
     );
+
+    /**
+     * Returns up to {@code limit} users ordered newest first by (createdAt, id), starting after
+     * the given position, or from the newest user when {@code afterCreatedAt} is null.
+     */
+    List<UserListItem> scrollUsersWithFilters(
+            String searchTerm,
+            String emailPrefix,
+            UUID roleId,
+            Boolean isActive,
+            Boolean isVerified,
+            LocalDateTime afterCreatedAt,
+            UUID afterId,
+            int limit
+    );
 }
@@ -1,6 +1,9 @@
 package com.taingy.expensetracker.repository;
 
+import com.taingy.expensetracker.model.Role;
 import com.taingy.expensetracker.model.User;
+import com.taingy.expensetracker.repository.projection.UserListItem;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
@@ -10,6 +13,7 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -21,52 +25,25 @@ public class UserRepositoryCustomImpl implements UserRepositoryCustom {
     private EntityManager entityManager;
 
     @Override
-    public Page<User> findUsersWithFilters(
+    @Timed(value = "repository.query", extraTags = {"query", "findUsersWithFilters"})
+    public Page<UserListItem> findUsersWithFilters(
             String searchTerm,
+            String emailPrefix,
             UUID roleId,
             Boolean isActive,
             Boolean isVerified,
             Pageable pageable) {
 
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<User> query = cb.createQuery(User.class);
+        CriteriaQuery<UserListItem> query = cb.createQuery(UserListItem.class);
         Root<User> user = query.from(User.class);
+        selectListItem(cb, query, user);
 
-        // Eagerly fetch the role to avoid lazy loading issues
-        user.fetch("role", JoinType.LEFT);
-
-        List<Predicate> predicates = new ArrayList<>();
-
-        // Search term (firstName, lastName, or email)
-        if (searchTerm != null && !searchTerm.trim().isEmpty()) {
-            String searchPattern = "%" + searchTerm.toLowerCase() + "%";
-            Predicate firstNamePredicate = cb.like(cb.lower(user.get("firstName")), searchPattern);
-            Predicate lastNamePredicate = cb.like(cb.lower(user.get("lastName")), searchPattern);
-            Predicate emailPredicate = cb.like(cb.lower(user.get("email")), searchPattern);
-            predicates.add(cb.or(firstNamePredicate, lastNamePredicate, emailPredicate));
-        }
-
-        // Filter by roleId
-        if (roleId != null) {
-            predicates.add(cb.equal(user.get("role").get("id"), roleId));
-        }
-
-        // Filter by isActive
-        if (isActive != null) {
-            predicates.add(cb.equal(user.get("isActive"), isActive));
-        }
-
-        // Filter by isVerified
-        if (isVerified != null) {
-            predicates.add(cb.equal(user.get("isVerified"), isVerified));
-        }
+        List<Predicate> predicates = buildPredicates(cb, user, searchTerm, emailPrefix, roleId, isActive, isVerified);
 
         // Apply all predicates
         query.where(predicates.toArray(new Predicate[0]));
 
-        // Make the query distinct to avoid duplicates from the join
-        query.distinct(true);
-
         // Apply sorting
         if (pageable.getSort().isSorted()) {
             List<Order> orders = new ArrayList<>();
@@ -81,11 +58,11 @@ public class UserRepositoryCustomImpl implements UserRepositoryCustom {
         }
 
         // Execute query with pagination
-        TypedQuery<User> typedQuery = entityManager.createQuery(query);
+        TypedQuery<UserListItem> typedQuery = entityManager.createQuery(query);
         typedQuery.setFirstResult((int) pageable.getOffset());
         typedQuery.setMaxResults(pageable.getPageSize());
 
-        List<User> users = typedQuery.getResultList();
+        List<UserListItem> users = typedQuery.getResultList();
 
         // Count query for total elements
         CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
@@ -93,27 +70,118 @@ public class UserRepositoryCustomImpl implements UserRepositoryCustom {
         countQuery.select(cb.count(userCount));
 
         // Apply same predicates to count query
-        List<Predicate> countPredicates = new ArrayList<>();
+        List<Predicate> countPredicates = buildPredicates(cb, userCount, searchTerm, emailPrefix, roleId, isActive, isVerified);
+
+        countQuery.where(countPredicates.toArray(new Predicate[0]));
+        Long total = entityManager.createQuery(countQuery).getSingleResult();
+
+        return new PageImpl<>(users, pageable, total);
+    }
+
+    @Override
+    @Timed(value = "repository.query", extraTags = {"query", "scrollUsersWithFilters"})
+    public List<UserListItem> scrollUsersWithFilters(
+            String searchTerm,
+            String emailPrefix,
+            UUID roleId,
+            Boolean isActive,
+            Boolean isVerified,
+            LocalDateTime afterCreatedAt,
+            UUID afterId,
+            int limit) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UserListItem> query = cb.createQuery(UserListItem.class);
+        Root<User> user = query.from(User.class);
+        selectListItem(cb, query, user);
+
+        List<Predicate> predicates = buildPredicates(cb, user, searchTerm, emailPrefix, roleId, isActive, isVerified);
+
+        // Resume strictly after the last row of the previous window, so the index on
+        // (created_at, id) is seeked instead of skipping an offset
+        if (afterCreatedAt != null) {
+            Path<LocalDateTime> createdAt = user.get("createdAt");
+            predicates.add(cb.or(
+                    cb.lessThan(createdAt, afterCreatedAt),
+                    cb.and(cb.equal(createdAt, afterCreatedAt), cb.lessThan(user.<UUID>get("id"), afterId))));
+        }
+
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(cb.desc(user.get("createdAt")), cb.desc(user.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Selects the list columns into {@link UserListItem}; the role is joined for its name only,
+     * so neither the password nor a Role entity is loaded.
+     */
+    private static void selectListItem(CriteriaBuilder cb, CriteriaQuery<UserListItem> query, Root<User> user) {
+        Join<User, Role> role = user.join("role");
+        query.select(cb.construct(UserListItem.class,
+                user.get("id"),
+                user.get("firstName"),
+                user.get("lastName"),
+                user.get("email"),
+                role.get("name"),
+                user.get("isActive"),
+                user.get("isVerified"),
+                user.get("createdAt"),
+                user.get("updatedAt")));
+    }
+
+    private static List<Predicate> buildPredicates(
+            CriteriaBuilder cb,
+            Root<User> user,
+            String searchTerm,
+            String emailPrefix,
+            UUID roleId,
+            Boolean isActive,
+            Boolean isVerified) {
+
+        List<Predicate> predicates = new ArrayList<>();
+
+        // Search term (firstName, lastName, or email)
         if (searchTerm != null && !searchTerm.trim().isEmpty()) {
             String searchPattern = "%" + searchTerm.toLowerCase() + "%";
-            Predicate firstNamePredicate = cb.like(cb.lower(userCount.get("firstName")), searchPattern);
-            Predicate lastNamePredicate = cb.like(cb.lower(userCount.get("lastName")), searchPattern);
-            Predicate emailPredicate = cb.like(cb.lower(userCount.get("email")), searchPattern);
-            countPredicates.add(cb.or(firstNamePredicate, lastNamePredicate, emailPredicate));
+            if (searchTerm.indexOf(' ') < 0) {
+                // searchText joins the three fields with spaces, so a term without one cannot
+                // match across two fields; this is the same match as below, on the trigram index
+                predicates.add(cb.like(user.get("searchText"), searchPattern));
+            } else {
+                Predicate firstNamePredicate = cb.like(cb.lower(user.get("firstName")), searchPattern);
+                Predicate lastNamePredicate = cb.like(cb.lower(user.get("lastName")), searchPattern);
+                Predicate emailPredicate = cb.like(cb.lower(user.get("email")), searchPattern);
+                predicates.add(cb.or(firstNamePredicate, lastNamePredicate, emailPredicate));
+            }
         }
+
+        // Email prefix, taken literally and matched on the lower(email) pattern index
+        if (emailPrefix != null && !emailPrefix.isBlank()) {
+            String prefixPattern = emailPrefix.toLowerCase()
+                    .replace("\\", "\\\\")
+                    .replace("%", "\\%")
+                    .replace("_", "\\_") + "%";
+            predicates.add(cb.like(cb.lower(user.get("email")), prefixPattern, '\\'));
+        }
+
+        // Filter by roleId
         if (roleId != null) {
-            countPredicates.add(cb.equal(userCount.get("role").get("id"), roleId));
+            predicates.add(cb.equal(user.get("role").get("id"), roleId));
         }
+
+        // Filter by isActive
         if (isActive != null) {
-            countPredicates.add(cb.equal(userCount.get("isActive"), isActive));
+            predicates.add(cb.equal(user.get("isActive"), isActive));
         }
+
+        // Filter by isVerified
         if (isVerified != null) {
-            countPredicates.add(cb.equal(userCount.get("isVerified"), isVerified));
+            predicates.add(cb.equal(user.get("isVerified"), isVerified));
         }
 
-        countQuery.where(countPredicates.toArray(new Predicate[0]));
-        Long total = entityManager.createQuery(countQuery).getSingleResult();
-
-        return new PageImpl<>(users, pageable, total);
+        return predicates;
     }
 }
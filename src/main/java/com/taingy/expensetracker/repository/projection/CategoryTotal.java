@@ -0,0 +1,6 @@
+package com.taingy.expensetracker.repository.projection;
+
+import java.math.BigDecimal;
+
+public record CategoryTotal(String categoryName, BigDecimal totalAmount, Long count) {
+}
@@ -0,0 +1,15 @@
+package com.taingy.expensetracker.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The columns of an expense list row, selected directly instead of loading the expense with its
+ * user and category entities.
+ */
+public record ExpenseListItem(UUID id, LocalDate expenseDate, String title, String description, BigDecimal amount,
+                              String categoryName, UUID userId, String userEmail, String userFirstName,
+                              String userLastName, LocalDateTime createdAt, LocalDateTime updatedAt) {
+}
@@ -0,0 +1,10 @@
+package com.taingy.expensetracker.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Aggregates over a set of expenses. Every value is null when the set is empty, except the count.
+ */
+public record ExpenseTotals(BigDecimal totalAmount, Long count, Double averageAmount,
+                            BigDecimal maxAmount, BigDecimal minAmount) {
+}
@@ -0,0 +1,6 @@
+package com.taingy.expensetracker.repository.projection;
+
+import java.math.BigDecimal;
+
+public record MonthlyTotal(Integer year, Integer month, BigDecimal totalAmount, Long count) {
+}
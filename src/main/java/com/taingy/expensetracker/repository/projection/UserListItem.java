@@ -0,0 +1,11 @@
+package com.taingy.expensetracker.repository.projection;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * The columns of a user list row. Leaves out the password hash and selects only the role name.
+ */
+public record UserListItem(UUID id, String firstName, String lastName, String email, String roleName,
+                           Boolean isActive, Boolean isVerified, LocalDateTime createdAt, LocalDateTime updatedAt) {
+}
@@ -0,0 +1,6 @@
+package com.taingy.expensetracker.repository.projection;
+
+import java.math.BigDecimal;
+
+public record UserTotal(String firstName, String lastName, String email, BigDecimal totalAmount, Long count) {
+}
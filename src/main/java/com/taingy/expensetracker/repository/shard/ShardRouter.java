@@ -0,0 +1,37 @@
+package com.taingy.expensetracker.repository.shard;
+
+import java.util.UUID;
+
+/**
+ * Maps a user to the shard holding their expenses.
+ * <p>
+ * The hash depends only on the user id and the number of shards, so every instance agrees on
+ * it across restarts. It must not change once data has been written, and neither may the number
+ * or order of the configured shards: a user whose shard changes would lose sight of their
+ * expenses until they are moved.
+ */
+public final class ShardRouter {
+
+    private final int shards;
+
+    public ShardRouter(int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = shards;
+    }
+
+    public int shards() {
+        return shards;
+    }
+
+    public int shardFor(UUID userId) {
+        long hash = userId.getMostSignificantBits() ^ userId.getLeastSignificantBits();
+        // SplitMix64 finalizer: spreads ids that differ in only a few bits, such as the
+        // timestamp of consecutive UUIDv7 values, evenly over the shards
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        hash ^= hash >>> 31;
+        return (int) Math.floorMod(hash, (long) shards);
+    }
+}
@@ -0,0 +1,550 @@
+package com.taingy.expensetracker.repository.shard;
+
+import com.taingy.expensetracker.dto.ExpenseVersion;
+import com.taingy.expensetracker.model.Category;
+import com.taingy.expensetracker.model.Expense;
+import com.taingy.expensetracker.model.User;
+import com.taingy.expensetracker.model.UuidV7Generator;
+import com.taingy.expensetracker.repository.CategoryRepository;
+import com.taingy.expensetracker.repository.ExpenseOrder;
+import com.taingy.expensetracker.repository.ExpenseStore;
+import com.taingy.expensetracker.repository.ReferenceLookup;
+import com.taingy.expensetracker.repository.UserRepository;
+import com.taingy.expensetracker.repository.projection.CategoryTotal;
+import com.taingy.expensetracker.repository.projection.ExpenseListItem;
+import com.taingy.expensetracker.repository.projection.ExpenseTotals;
+import com.taingy.expensetracker.repository.projection.MonthlyTotal;
+import com.taingy.expensetracker.repository.projection.UserTotal;
+import com.taingy.expensetracker.timing.RequestTiming;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Spreads expenses over several databases, each user's expenses on the shard chosen by
+ * {@link ShardRouter}. The shards hold only the {@code expenses} table, with plain user and
+ * category ids; users and categories stay in the main database and are looked up there, in
+ * batches, for the rows being returned.
+ * <p>
+ * Queries for one user go to that user's shard. Queries across users (the admin summary, an
+ * unfiltered expense search, and lookups by expense id, which does not say where the expense
+ * lives) run on every shard concurrently and are combined here. For a page of a cross-user
+ * search each shard returns its first {@code offset + size} rows in the requested order and the
+ * page is cut from a merge of those. On PostgreSQL text columns are ordered with
+ * {@code COLLATE "C"}, byte order, which is code point order and so can be merged here whatever
+ * the shards' default collation; other databases are expected to order text by code point.
+ * <p>
+ * Writes commit on the shard immediately rather than with the caller's transaction. The shards
+ * have no foreign keys to {@code users} and {@code categories}; the services check
+ * {@link #existsByUserId} and {@link #existsByCategoryId} before deleting either, and an expense
+ * whose user is gone anyway comes back with a user that only has its id.
+ */
+public class ShardedExpenseStore implements ExpenseStore, AutoCloseable {
+
+    static final List<String> SCHEMA = List.of(
+            "CREATE TABLE IF NOT EXISTS expenses (id uuid PRIMARY KEY, user_id uuid NOT NULL, "
+                    + "category_id uuid NOT NULL, title varchar(150) NOT NULL, description varchar(255), "
+                    + "expense_date date NOT NULL, amount numeric(10, 2) NOT NULL, created_at timestamp, "
+                    + "updated_at timestamp)",
+            "CREATE INDEX IF NOT EXISTS idx_expenses_user_updated_at ON expenses (user_id, updated_at)",
+            "CREATE INDEX IF NOT EXISTS idx_expenses_user_expense_date ON expenses (user_id, expense_date)");
+
+    private static final String COLUMNS =
+            "id, user_id, category_id, title, description, expense_date, amount, created_at, updated_at";
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "id",
+            "title", "title",
+            "description", "description",
+            "expenseDate", "expense_date",
+            "amount", "amount",
+            "createdAt", "created_at",
+            "updatedAt", "updated_at");
+
+    private static final Set<String> TEXT_COLUMNS = Set.of("title", "description");
+
+    private static final RowMapper<Row> ROW_MAPPER = (rs, rowNum) -> new Row(
+            rs.getObject("id", UUID.class),
+            rs.getObject("user_id", UUID.class),
+            rs.getObject("category_id", UUID.class),
+            rs.getString("title"),
+            rs.getString("description"),
+            rs.getObject("expense_date", LocalDate.class),
+            rs.getBigDecimal("amount"),
+            rs.getObject("created_at", LocalDateTime.class),
+            rs.getObject("updated_at", LocalDateTime.class));
+
+    private final List<DataSource> dataSources;
+    private final List<JdbcTemplate> shards;
+    private final ShardRouter router;
+    private final ReferenceLookup references;
+    private final String textCollation;
+    // Shard queries block on JDBC, so each gets its own virtual thread
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ShardedExpenseStore(List<DataSource> dataSources, UserRepository userRepository,
+                               CategoryRepository categoryRepository) {
+        this.dataSources = List.copyOf(dataSources);
+        this.shards = this.dataSources.stream().map(JdbcTemplate::new).toList();
+        this.router = new ShardRouter(this.shards.size());
+        this.references = new ReferenceLookup(userRepository, categoryRepository);
+        String database = this.shards.get(0).execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        this.textCollation = "PostgreSQL".equals(database) ? " COLLATE \"C\"" : "";
+    }
+
+    /**
+     * Creates the expenses table and its indexes on every shard, unless they exist.
+     */
+    public void createSchema() {
+        for (JdbcTemplate shard : shards) {
+            SCHEMA.forEach(shard::execute);
+        }
+    }
+
+    @Override
+    public Optional<Expense> findById(UUID id) {
+        List<List<Row>> found = scatter(shards, shard ->
+                shard.query("SELECT " + COLUMNS + " FROM expenses WHERE id = ?", ROW_MAPPER, id));
+        return toExpenses(found.stream().flatMap(List::stream).toList()).stream().findFirst();
+    }
+
+    @Override
+    public Optional<ExpenseVersion> findVersionById(UUID id) {
+        List<List<ExpenseVersion>> found = scatter(shards, shard ->
+                shard.query("SELECT user_id, COALESCE(updated_at, created_at) FROM expenses WHERE id = ?",
+                        (rs, rowNum) -> new ExpenseVersion(rs.getObject(1, UUID.class),
+                                rs.getObject(2, LocalDateTime.class)), id));
+        return found.stream().flatMap(List::stream).findFirst();
+    }
+
+    @Override
+    public Page<ExpenseListItem> findExpensesWithFilters(UUID userId, UUID categoryId, String searchTerm,
+                                                         LocalDate startDate, LocalDate endDate,
+                                                         BigDecimal minAmount, BigDecimal maxAmount,
+                                                         Pageable pageable) {
+        Filter filter = Filter.of(userId, categoryId, searchTerm, startDate, endDate, minAmount, maxAmount);
+        List<JdbcTemplate> targets = userId != null ? List.of(shardFor(userId)) : shards;
+
+        // Every shard returns enough rows to fill the page on its own
+        long limit = pageable.getOffset() + pageable.getPageSize();
+        String pageSql = "SELECT " + COLUMNS + " FROM expenses" + filter.where()
+                + orderBy(pageable.getSort(), textCollation) + " LIMIT " + limit;
+        List<Row> page;
+        try (RequestTiming.Phase ignored = RequestTiming.start("criteria-query")) {
+            List<List<Row>> perShard = scatter(targets, shard -> shard.query(pageSql, ROW_MAPPER, filter.args()));
+            page = merge(perShard, comparator(pageable.getSort()), pageable.getOffset(), pageable.getPageSize());
+        }
+
+        long total;
+        try (RequestTiming.Phase ignored = RequestTiming.start("count-query")) {
+            total = scatter(targets, shard -> shard.queryForObject(
+                    "SELECT COUNT(*) FROM expenses" + filter.where(), Long.class, filter.args()))
+                    .stream().mapToLong(Long::longValue).sum();
+        }
+
+        Map<UUID, User> users = references.usersById(page.stream().map(Row::userId).collect(Collectors.toSet()));
+        Map<UUID, Category> categories = references.categoriesById(
+                page.stream().map(Row::categoryId).collect(Collectors.toSet()));
+        List<ExpenseListItem> items = page.stream().map(row -> {
+            User user = users.get(row.userId());
+            Category category = categories.get(row.categoryId());
+            return new ExpenseListItem(row.id(), row.expenseDate(), row.title(), row.description(), row.amount(),
+                    category != null ? category.getName() : null, row.userId(),
+                    user != null ? user.getEmail() : null,
+                    user != null ? user.getFirstName() : null,
+                    user != null ? user.getLastName() : null,
+                    row.createdAt(), row.updatedAt());
+        }).toList();
+        return new PageImpl<>(items, pageable, total);
+    }
+
+    @Override
+    public List<Expense> findChangesByUserId(UUID userId, LocalDateTime since, UUID afterId, LocalDateTime upTo,
+                                             Pageable pageable) {
+        List<Row> rows = shardFor(userId).query("SELECT " + COLUMNS + " FROM expenses "
+                        + "WHERE user_id = ? AND updated_at <= ? "
+                        + "AND (updated_at > ? OR (updated_at = ? AND id > ?)) "
+                        + "ORDER BY updated_at, id LIMIT ? OFFSET ?",
+                ROW_MAPPER, userId, upTo, since, since, afterId, pageable.getPageSize(), pageable.getOffset());
+        return toExpenses(rows);
+    }
+
+    @Override
+    public Expense save(Expense expense) {
+        JdbcTemplate shard = shardFor(expense.getUser().getId());
+        UUID categoryId = expense.getCategory() != null ? expense.getCategory().getId() : null;
+        LocalDateTime now = LocalDateTime.now();
+        if (expense.getId() != null) {
+            int updated = shard.update("UPDATE expenses SET category_id = ?, title = ?, description = ?, "
+                            + "expense_date = ?, amount = ?, updated_at = ? WHERE id = ? AND user_id = ?",
+                    categoryId, expense.getTitle(), expense.getDescription(), expense.getExpenseDate(),
+                    expense.getAmount(), now, expense.getId(), expense.getUser().getId());
+            if (updated == 0) {
+                // Deleted since it was read; inserting it again would bring it back
+                throw new ObjectOptimisticLockingFailureException(Expense.class, expense.getId());
+            }
+            expense.setUpdatedAt(now);
+            return expense;
+        }
+        expense.setId(UuidV7Generator.next());
+        expense.setCreatedAt(now);
+        expense.setUpdatedAt(now);
+        shard.update("INSERT INTO expenses (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                expense.getId(), expense.getUser().getId(), categoryId, expense.getTitle(),
+                expense.getDescription(), expense.getExpenseDate(), expense.getAmount(), now, now);
+        return expense;
+    }
+
+    @Override
+    public void delete(Expense expense) {
+        shardFor(expense.getUser().getId()).update("DELETE FROM expenses WHERE id = ? AND user_id = ?",
+                expense.getId(), expense.getUser().getId());
+    }
+
+    @Override
+    public boolean existsByUserId(UUID userId) {
+        return !shardFor(userId).queryForList("SELECT 1 FROM expenses WHERE user_id = ? LIMIT 1",
+                Integer.class, userId).isEmpty();
+    }
+
+    @Override
+    public boolean existsByCategoryId(UUID categoryId) {
+        return scatter(shards, shard -> shard.queryForList("SELECT 1 FROM expenses WHERE category_id = ? LIMIT 1",
+                Integer.class, categoryId)).stream().anyMatch(found -> !found.isEmpty());
+    }
+
+    @Override
+    public ExpenseTotals getTotalsByUserId(UUID userId) {
+        return totals(List.of(shardFor(userId)), " WHERE user_id = ?", userId);
+    }
+
+    @Override
+    public ExpenseTotals getTotals() {
+        return totals(shards, "");
+    }
+
+    @Override
+    public List<CategoryTotal> getCategoryTotalsByUserId(UUID userId) {
+        return categoryTotals(List.of(shardFor(userId)), " WHERE user_id = ?", userId);
+    }
+
+    @Override
+    public List<CategoryTotal> getCategoryTotals() {
+        return categoryTotals(shards, "");
+    }
+
+    @Override
+    public List<MonthlyTotal> getMonthlyTotalsByUserId(UUID userId) {
+        return monthlyTotals(List.of(shardFor(userId)), " WHERE user_id = ?", userId);
+    }
+
+    @Override
+    public List<MonthlyTotal> getMonthlyTotals() {
+        return monthlyTotals(shards, "");
+    }
+
+    @Override
+    public List<UserTotal> getUserTotals() {
+        // A user's expenses are all on one shard, so the per-shard groups do not overlap
+        Map<UUID, Sum> sums = new HashMap<>();
+        for (List<Map.Entry<UUID, Sum>> shardSums : scatter(shards, shard -> shard.query(
+                "SELECT user_id, SUM(amount), COUNT(*) FROM expenses GROUP BY user_id",
+                (rs, rowNum) -> Map.entry(rs.getObject(1, UUID.class), new Sum(rs.getBigDecimal(2), rs.getLong(3)))))) {
+            shardSums.forEach(entry -> sums.put(entry.getKey(), entry.getValue()));
+        }
+        Map<UUID, User> users = references.usersById(sums.keySet());
+        List<UserTotal> totals = new ArrayList<>(sums.size());
+        sums.forEach((userId, sum) -> {
+            User user = users.get(userId);
+            if (user != null) {
+                totals.add(new UserTotal(user.getFirstName(), user.getLastName(), user.getEmail(),
+                        sum.amount(), sum.count()));
+            }
+        });
+        return totals;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception ex) {
+                    throw new IllegalStateException("Could not close shard datasource", ex);
+                }
+            }
+        }
+    }
+
+    private JdbcTemplate shardFor(UUID userId) {
+        return shards.get(router.shardFor(userId));
+    }
+
+    /**
+     * Runs the query on each target concurrently and returns the results in target order.
+     */
+    private <T> List<T> scatter(List<JdbcTemplate> targets, Function<JdbcTemplate, T> query) {
+        if (targets.size() == 1) {
+            return List.of(query.apply(targets.get(0)));
+        }
+        List<CompletableFuture<T>> futures = targets.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> query.apply(shard), executor))
+                .toList();
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private ExpenseTotals totals(List<JdbcTemplate> targets, String where, Object... args) {
+        BigDecimal amount = null;
+        long count = 0;
+        BigDecimal max = null;
+        BigDecimal min = null;
+        for (ExpenseTotals part : scatter(targets, shard -> shard.queryForObject(
+                "SELECT SUM(amount), COUNT(*), MAX(amount), MIN(amount) FROM expenses" + where,
+                (rs, rowNum) -> new ExpenseTotals(rs.getBigDecimal(1), rs.getLong(2), null,
+                        rs.getBigDecimal(3), rs.getBigDecimal(4)), args))) {
+            if (part.count() == 0) {
+                continue;
+            }
+            amount = amount == null ? part.totalAmount() : amount.add(part.totalAmount());
+            count += part.count();
+            max = max == null || part.maxAmount().compareTo(max) > 0 ? part.maxAmount() : max;
+            min = min == null || part.minAmount().compareTo(min) < 0 ? part.minAmount() : min;
+        }
+        Double average = count > 0 ? amount.doubleValue() / count : null;
+        return new ExpenseTotals(amount, count, average, max, min);
+    }
+
+    private List<CategoryTotal> categoryTotals(List<JdbcTemplate> targets, String where, Object... args) {
+        Map<UUID, Sum> byCategory = new HashMap<>();
+        for (List<Map.Entry<UUID, Sum>> shardSums : scatter(targets, shard -> shard.query(
+                "SELECT category_id, SUM(amount), COUNT(*) FROM expenses" + where + " GROUP BY category_id",
+                (rs, rowNum) -> Map.entry(rs.getObject(1, UUID.class), new Sum(rs.getBigDecimal(2), rs.getLong(3))),
+                args))) {
+            shardSums.forEach(entry -> byCategory.merge(entry.getKey(), entry.getValue(), Sum::plus));
+        }
+        Map<UUID, Category> categories = references.categoriesById(byCategory.keySet());
+        // Grouped by name like the JPA query, so categories that no longer exist fall together
+        Map<String, Sum> byName = new LinkedHashMap<>();
+        byCategory.forEach((categoryId, sum) -> {
+            Category category = categories.get(categoryId);
+            byName.merge(category != null ? category.getName() : null, sum, Sum::plus);
+        });
+        List<CategoryTotal> totals = new ArrayList<>(byName.size());
+        byName.forEach((name, sum) -> totals.add(new CategoryTotal(name, sum.amount(), sum.count())));
+        return totals;
+    }
+
+    private List<MonthlyTotal> monthlyTotals(List<JdbcTemplate> targets, String where, Object... args) {
+        Map<Integer, Sum> byMonth = new HashMap<>();
+        for (List<Map.Entry<Integer, Sum>> shardSums : scatter(targets, shard -> shard.query(
+                "SELECT EXTRACT(YEAR FROM expense_date), EXTRACT(MONTH FROM expense_date), SUM(amount), COUNT(*) "
+                        + "FROM expenses" + where
+                        + " GROUP BY EXTRACT(YEAR FROM expense_date), EXTRACT(MONTH FROM expense_date)",
+                (rs, rowNum) -> Map.entry(rs.getInt(1) * 12 + rs.getInt(2) - 1,
+                        new Sum(rs.getBigDecimal(3), rs.getLong(4))),
+                args))) {
+            shardSums.forEach(entry -> byMonth.merge(entry.getKey(), entry.getValue(), Sum::plus));
+        }
+        List<MonthlyTotal> totals = new ArrayList<>(byMonth.size());
+        byMonth.forEach((month, sum) -> totals.add(new MonthlyTotal(month / 12, month % 12 + 1, sum.amount(), sum.count())));
+        return totals;
+    }
+
+    private List<Expense> toExpenses(List<Row> rows) {
+        Map<UUID, User> users = references.usersById(rows.stream().map(Row::userId).collect(Collectors.toSet()));
+        Map<UUID, Category> categories = references.categoriesById(
+                rows.stream().map(Row::categoryId).collect(Collectors.toSet()));
+        return rows.stream().map(row -> {
+            Expense expense = new Expense();
+            expense.setId(row.id());
+            expense.setUser(users.computeIfAbsent(row.userId(), ShardedExpenseStore::missingUser));
+            expense.setCategory(categories.get(row.categoryId()));
+            expense.setTitle(row.title());
+            expense.setDescription(row.description());
+            expense.setExpenseDate(row.expenseDate());
+            expense.setAmount(row.amount());
+            expense.setCreatedAt(row.createdAt());
+            expense.setUpdatedAt(row.updatedAt());
+            return expense;
+        }).toList();
+    }
+
+    private static User missingUser(UUID id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    /**
+     * The ORDER BY for the requested sort, with nulls ordered as larger than any value, text in
+     * {@code textCollation} and the id as a final tie-breaker, matching {@link #comparator(Sort)}.
+     */
+    static String orderBy(Sort sort, String textCollation) {
+        StringBuilder orderBy = new StringBuilder(" ORDER BY ");
+        for (Sort.Order order : sort) {
+            String column = column(order.getProperty());
+            orderBy.append(column)
+                    .append(TEXT_COLUMNS.contains(column) ? textCollation : "")
+                    .append(order.isAscending() ? " ASC NULLS LAST, " : " DESC NULLS FIRST, ");
+        }
+        return orderBy.append("id").toString();
+    }
+
+    static Comparator<Row> comparator(Sort sort) {
+        Comparator<Row> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            String property = order.getProperty();
+            column(property);
+            Comparator<Row> byProperty = (a, b) -> ExpenseOrder.compareNullsLast(a.value(property), b.value(property));
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator.thenComparing(Row::id, ExpenseOrder.UUIDS);
+    }
+
+    /**
+     * Merges lists that are each sorted by {@code order} and returns {@code size} rows starting
+     * at {@code offset} of the merged order.
+     */
+    static List<Row> merge(List<List<Row>> sorted, Comparator<Row> order, long offset, int size) {
+        record Head(Row row, Iterator<Row> rest) {
+        }
+        PriorityQueue<Head> heads = new PriorityQueue<>(sorted.size(), Comparator.comparing(Head::row, order));
+        for (List<Row> rows : sorted) {
+            Iterator<Row> iterator = rows.iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Head(iterator.next(), iterator));
+            }
+        }
+        List<Row> page = new ArrayList<>(size);
+        long skipped = 0;
+        while (page.size() < size && !heads.isEmpty()) {
+            Head head = heads.poll();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                page.add(head.row());
+            }
+            if (head.rest().hasNext()) {
+                heads.add(new Head(head.rest().next(), head.rest()));
+            }
+        }
+        return page;
+    }
+
+    private static String column(String property) {
+        String column = SORT_COLUMNS.get(property);
+        if (column == null) {
+            throw new IllegalArgumentException("Cannot sort expenses by " + property);
+        }
+        return column;
+    }
+
+    record Row(UUID id, UUID userId, UUID categoryId, String title, String description, LocalDate expenseDate,
+               BigDecimal amount, LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+        Object value(String property) {
+            return switch (property) {
+                case "id" -> id;
+                case "title" -> title;
+                case "description" -> description;
+                case "expenseDate" -> expenseDate;
+                case "amount" -> amount;
+                case "createdAt" -> createdAt;
+                case "updatedAt" -> updatedAt;
+                default -> throw new IllegalArgumentException("Cannot sort expenses by " + property);
+            };
+        }
+    }
+
+    /**
+     * The WHERE clause of {@link #findExpensesWithFilters}, with the same filters as
+     * {@code ExpenseRepositoryCustomImpl.buildPredicates}.
+     */
+    private record Filter(String where, Object[] args) {
+
+        static Filter of(UUID userId, UUID categoryId, String searchTerm, LocalDate startDate, LocalDate endDate,
+                         BigDecimal minAmount, BigDecimal maxAmount) {
+            List<String> conditions = new ArrayList<>();
+            List<Object> args = new ArrayList<>();
+            if (userId != null) {
+                conditions.add("user_id = ?");
+                args.add(userId);
+            }
+            if (categoryId != null) {
+                conditions.add("category_id = ?");
+                args.add(categoryId);
+            }
+            if (searchTerm != null && !searchTerm.trim().isEmpty()) {
+                String searchPattern = "%" + searchTerm.toLowerCase() + "%";
+                conditions.add("(lower(title) LIKE ? OR lower(description) LIKE ?)");
+                args.add(searchPattern);
+                args.add(searchPattern);
+            }
+            if (startDate != null) {
+                conditions.add("expense_date >= ?");
+                args.add(startDate);
+            }
+            if (endDate != null) {
+                conditions.add("expense_date <= ?");
+                args.add(endDate);
+            }
+            if (minAmount != null) {
+                conditions.add("amount >= ?");
+                args.add(minAmount);
+            }
+            if (maxAmount != null) {
+                conditions.add("amount <= ?");
+                args.add(maxAmount);
+            }
+            String where = conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+            return new Filter(where, args.toArray());
+        }
+    }
+
+    /**
+     * Amount and count of one group.
+     */
+    private record Sum(BigDecimal amount, long count) {
+
+        Sum plus(Sum other) {
+            return new Sum(amount.add(other.amount), count + other.count);
+        }
+    }
+}
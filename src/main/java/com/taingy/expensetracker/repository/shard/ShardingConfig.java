@@ -0,0 +1,54 @@
+package com.taingy.expensetracker.repository.shard;
+
+import com.taingy.expensetracker.repository.CategoryRepository;
+import com.taingy.expensetracker.repository.UserRepository;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores expenses in the databases listed under {@code app.sharding.shards} instead of the main
+ * database when {@code app.sharding.enabled} is set. Users, categories and everything else stay
+ * in the main database.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    public ShardedExpenseStore shardedExpenseStore(ShardingProperties properties,
+                                                   UserRepository userRepository,
+                                                   CategoryRepository categoryRepository) {
+        List<ShardingProperties.Shard> configured = properties.getShards();
+        if (configured.isEmpty()) {
+            throw new IllegalArgumentException("app.sharding.shards must list at least one database");
+        }
+        List<DataSource> dataSources = new ArrayList<>(configured.size());
+        for (int i = 0; i < configured.size(); i++) {
+            dataSources.add(createPool("shard-" + i, configured.get(i)));
+        }
+        ShardedExpenseStore store = new ShardedExpenseStore(dataSources, userRepository, categoryRepository);
+        if (properties.isCreateSchema()) {
+            store.createSchema();
+        }
+        return store;
+    }
+
+    private static HikariDataSource createPool(String name, ShardingProperties.Shard shard) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("expense-tracker-" + name);
+        config.setJdbcUrl(shard.getUrl());
+        config.setUsername(shard.getUsername());
+        config.setPassword(shard.getPassword());
+        config.setMaximumPoolSize(shard.getMaximumPoolSize());
+        return new HikariDataSource(config);
+    }
+}
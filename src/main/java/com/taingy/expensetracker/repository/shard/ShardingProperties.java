@@ -0,0 +1,32 @@
+package com.taingy.expensetracker.repository.shard;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "app.sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Create the expenses table and its indexes on each shard at startup.
+     */
+    private boolean createSchema = true;
+
+    /**
+     * Databases holding the expenses, in a fixed order; see {@link ShardRouter}.
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -1,5 +1,6 @@
 package com.taingy.expensetracker.security;
 
+import com.taingy.expensetracker.timing.RequestTiming;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -35,13 +36,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         final String token = header.substring(7);
-        if (!jwtUtil.validateToken(token)) {
+        String username;
+        try (RequestTiming.Phase ignored = RequestTiming.start("jwt")) {
+            username = jwtUtil.validateToken(token) ? jwtUtil.getUsername(token) : null;
+        }
+        if (username == null) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        String username = jwtUtil.getUsername(token);
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        UserDetails userDetails;
+        try (RequestTiming.Phase ignored = RequestTiming.start("user-lookup")) {
+            userDetails = userDetailsService.loadUserByUsername(username);
+        }
 
         UsernamePasswordAuthenticationToken auth =
                 new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
@@ -1,9 +1,12 @@
 package com.taingy.expensetracker.security;
 
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -19,6 +22,12 @@ public class JwtUtil {
     @Value("${app.jwt.expiration-ms}")
     private long expirationMs;
 
+    private final MeterRegistry meterRegistry;
+
+    public JwtUtil(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     public String generateToken(String username, String role) {
         Date now = new Date();
         Date expiration = new Date(now.getTime() + expirationMs);
@@ -32,6 +41,8 @@ public class JwtUtil {
     }
 
     public boolean validateToken(String token) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "valid";
         try {
             Jwts.parserBuilder()
                     .setSigningKey(Keys.hmacShaKeyFor(SECRET_KEY.getBytes()))
@@ -39,8 +50,11 @@ public class JwtUtil {
                     .parseClaimsJws(token);
             return true;
         } catch (JwtException e) {
+            outcome = e instanceof ExpiredJwtException ? "expired" : "invalid";
             log.info(TAG, e.getMessage());
             return false;
+        } finally {
+            sample.stop(meterRegistry.timer("security.jwt.validation", "outcome", outcome));
         }
     }
 
@@ -0,0 +1,40 @@
+package com.taingy.expensetracker.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Records how long password hashing and verification take. BCrypt is deliberately slow, so
+ * these timers show how much of login and registration latency it accounts for.
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final MeterRegistry meterRegistry;
+    private final Timer encodeTimer;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.encodeTimer = meterRegistry.timer("security.password.encode");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encodeTimer.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        sample.stop(meterRegistry.timer("security.password.matches", "outcome", matches ? "match" : "mismatch"));
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
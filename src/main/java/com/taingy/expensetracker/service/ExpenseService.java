@@ -1,8 +1,10 @@
 package com.taingy.expensetracker.service;
 
+import com.taingy.expensetracker.dto.ExpenseChanges;
 import com.taingy.expensetracker.dto.ExpenseRequest;
 import com.taingy.expensetracker.dto.ExpenseResponse;
 import com.taingy.expensetracker.dto.ExpenseSummary;
+import com.taingy.expensetracker.dto.ExpenseVersion;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -13,6 +15,7 @@ import java.util.UUID;
 public interface ExpenseService {
 
     ExpenseResponse findById(UUID id);
+    ExpenseVersion findVersionById(UUID id);
     Page<ExpenseResponse> findExpensesWithFilters(UUID userId, UUID categoryId, String searchTerm,
                                                    LocalDate startDate, LocalDate endDate,
                                                    BigDecimal minAmount, BigDecimal maxAmount,
@@ -21,5 +24,7 @@ public interface ExpenseService {
     ExpenseResponse update(UUID id, ExpenseRequest request);
     void delete(UUID id);
     ExpenseSummary getSummary(String userEmail);
+    ExpenseChanges findChanges(String userEmail, String sinceToken, int limit);
+    int purgeExpiredTombstones();
 
 }
@@ -4,4 +4,5 @@ public interface OtpService {
 
     String generateOtp(String email);
     boolean verifyOtp(String email, String otpCode);
+    int purgeExpiredOtps();
 }
@@ -0,0 +1,26 @@
+package com.taingy.expensetracker.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persistence for one-time codes. Implementations are selected with {@code otp.store}:
+ * {@code jpa} (default) keeps codes in {@code email_otps}, {@code memory} keeps hashed codes
+ * in-process and is only suitable for single-instance deployments.
+ */
+public interface OtpStore {
+
+    /**
+     * Stores a new code for the email, invalidating any code previously issued to it.
+     */
+    void store(String email, String otpCode, LocalDateTime expiresAt);
+
+    /**
+     * Returns {@code true} and marks the code as used if it is the live code for the email.
+     */
+    boolean consume(String email, String otpCode);
+
+    /**
+     * Removes expired codes and returns how many were removed.
+     */
+    int purgeExpired();
+}
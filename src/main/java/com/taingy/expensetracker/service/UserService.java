@@ -2,6 +2,7 @@ package com.taingy.expensetracker.service;
 
 import com.taingy.expensetracker.dto.UserRequest;
 import com.taingy.expensetracker.dto.UserResponse;
+import com.taingy.expensetracker.dto.UserScroll;
 import com.taingy.expensetracker.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -13,7 +14,8 @@ public interface UserService {
 
     Optional<User> getUserById(UUID id);
     UserResponse getUserByEmail(String email);
-    Page<UserResponse> findUsersWithFilters(String searchTerm, UUID roleId, Boolean isActive, Boolean isVerified, Pageable pageable);
+    Page<UserResponse> findUsersWithFilters(String searchTerm, String emailPrefix, UUID roleId, Boolean isActive, Boolean isVerified, Pageable pageable);
+    UserScroll scrollUsers(String searchTerm, String emailPrefix, UUID roleId, Boolean isActive, Boolean isVerified, String cursor, int size);
     UserResponse createUser(UserRequest userRequest);
     void deactivateUser(UUID id);
     void deleteUser(UUID id);
@@ -6,9 +6,11 @@ import com.taingy.expensetracker.model.AuditLog;
 import com.taingy.expensetracker.model.User;
 import com.taingy.expensetracker.repository.AuditLogRepository;
 import com.taingy.expensetracker.service.AuditLogService;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -31,6 +33,8 @@ public class AuditLogServiceImpl implements AuditLogService {
     }
 
     @Override
+    @Async("auditExecutor")
+    @Timed("audit.write")
     @Transactional
     public void log(String action, String entityType, String entityId, User user, String details,
                     String ipAddress, String userAgent, Boolean success, String errorMessage) {
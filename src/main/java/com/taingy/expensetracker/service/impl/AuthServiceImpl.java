@@ -12,6 +12,7 @@ import com.taingy.expensetracker.service.OtpService;
 import com.taingy.expensetracker.service.EmailService;
 import org.apache.coyote.BadRequestException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -58,17 +59,22 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public ResponseMessage register(UserRequest request) {
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new IllegalArgumentException("Email is already in use");
-        }
-
         User user = userMapper.toEntity(request);
         user.setPassword(passwordEncoder.encode(request.getPassword()));
         user.setIsVerified(false);
 
         Role role = roleRepository.findByName("USER").get();
         user.setRole(role);
-        userRepository.save(user);
+        // Let the unique email index reject duplicates instead of checking first: one round trip,
+        // and no window for a concurrent signup between the check and the insert
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException ex) {
+            if (DuplicateEmail.isCause(ex)) {
+                throw new IllegalArgumentException("Email is already in use");
+            }
+            throw ex;
+        }
 
         String otpCode = otpService.generateOtp(request.getEmail());
         emailService.sendOtpEmail(request.getEmail(), otpCode, request.getFirstName());
@@ -2,12 +2,16 @@ package com.taingy.expensetracker.service.impl;
 
 import com.taingy.expensetracker.dto.CategoryRequest;
 import com.taingy.expensetracker.dto.CategoryResponse;
+import com.taingy.expensetracker.event.CategoryChangedEvent;
 import com.taingy.expensetracker.mapper.CategoryMapper;
 import com.taingy.expensetracker.model.Category;
 import com.taingy.expensetracker.repository.CategoryRepository;
+import com.taingy.expensetracker.repository.ExpenseStore;
 import com.taingy.expensetracker.service.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.UUID;
@@ -17,11 +21,15 @@ public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExpenseStore expenseStore;
 
     @Autowired
-    public CategoryServiceImpl(CategoryRepository categoryRepository, CategoryMapper categoryMapper) {
+    public CategoryServiceImpl(CategoryRepository categoryRepository, CategoryMapper categoryMapper, ApplicationEventPublisher eventPublisher, ExpenseStore expenseStore) {
         this.categoryRepository = categoryRepository;
         this.categoryMapper = categoryMapper;
+        this.eventPublisher = eventPublisher;
+        this.expenseStore = expenseStore;
     }
 
 
@@ -40,25 +48,34 @@ public class CategoryServiceImpl implements CategoryService {
     }
 
     @Override
+    @Transactional
     public CategoryResponse create(CategoryRequest category) {
         Category c = categoryMapper.toEntity(category);
         c = categoryRepository.save(c);
+        eventPublisher.publishEvent(new CategoryChangedEvent(c.getId()));
         return categoryMapper.toDto(c);
     }
 
     @Override
+    @Transactional
     public CategoryResponse update(UUID id, CategoryRequest category) {
         Category c = categoryMapper.toEntity(category);
         c.setId(id);
         c = categoryRepository.save(c);
+        eventPublisher.publishEvent(new CategoryChangedEvent(c.getId()));
         return categoryMapper.toDto(c);
     }
 
     @Override
+    @Transactional
     public void delete(UUID id) {
         Category c = categoryRepository.findById(id).orElseThrow(
                 () -> new IllegalArgumentException("Category with id: " + id + " does not exist"));
+        if (expenseStore.existsByCategoryId(id)) {
+            throw new IllegalArgumentException("Category with id: " + id + " still has expenses");
+        }
 
         categoryRepository.delete(c);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
     }
 }
@@ -0,0 +1,27 @@
+package com.taingy.expensetracker.service.impl;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+/**
+ * Recognizes an insert rejected by one of the unique email constraints on {@code users}: the
+ * {@code uk_users_email} column constraint or, on PostgreSQL, the {@code uk_users_email_lower}
+ * index.
+ */
+final class DuplicateEmail {
+    private static final String CONSTRAINT_PREFIX = "uk_users_email";
+
+    private DuplicateEmail() {
+    }
+
+    static boolean isCause(DataIntegrityViolationException ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT).contains(CONSTRAINT_PREFIX);
+            }
+        }
+        return false;
+    }
+}
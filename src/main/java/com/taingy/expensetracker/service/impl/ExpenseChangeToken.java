@@ -0,0 +1,65 @@
+package com.taingy.expensetracker.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque sync position handed to clients: a (timestamp, id) cursor into the user's expenses
+ * ordered by updatedAt and one into their tombstones ordered by deletedAt. Timestamps are
+ * encoded in microseconds, the precision the database stores.
+ */
+record ExpenseChangeToken(LocalDateTime expensesSince, UUID expensesAfterId,
+                          LocalDateTime tombstonesSince, UUID tombstonesAfterId) {
+
+    static final UUID MIN_ID = new UUID(0L, 0L);
+    static final UUID MAX_ID = new UUID(-1L, -1L);
+
+    private static final String VERSION = "1";
+    private static final LocalDateTime ORIGIN = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    /**
+     * Starting point for a client without usable local state: every live expense, and only
+     * deletions that happen after {@code upTo}.
+     */
+    static ExpenseChangeToken initial(LocalDateTime upTo) {
+        return new ExpenseChangeToken(ORIGIN, MIN_ID, upTo, MAX_ID);
+    }
+
+    String encode() {
+        String raw = String.join(":", VERSION,
+                Long.toString(toMicros(expensesSince)), expensesAfterId.toString(),
+                Long.toString(toMicros(tombstonesSince)), tombstonesAfterId.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ExpenseChangeToken decode(String token) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Malformed change token");
+        }
+        if (parts.length != 5 || !VERSION.equals(parts[0])) {
+            throw new IllegalArgumentException("Malformed change token");
+        }
+        try {
+            return new ExpenseChangeToken(
+                    fromMicros(Long.parseLong(parts[1])), UUID.fromString(parts[2]),
+                    fromMicros(Long.parseLong(parts[3])), UUID.fromString(parts[4]));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Malformed change token");
+        }
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -1,61 +1,106 @@
 package com.taingy.expensetracker.service.impl;
 
+import com.taingy.expensetracker.cache.ExpenseSummaryCache;
+import com.taingy.expensetracker.dto.ExpenseChanges;
 import com.taingy.expensetracker.dto.ExpenseRequest;
 import com.taingy.expensetracker.dto.ExpenseResponse;
 import com.taingy.expensetracker.dto.ExpenseSummary;
+import com.taingy.expensetracker.dto.ExpenseVersion;
+import com.taingy.expensetracker.event.ExpenseChangedEvent;
+import com.taingy.expensetracker.event.ExpenseWrittenEvent;
 import com.taingy.expensetracker.mapper.ExpenseMapper;
 import com.taingy.expensetracker.model.Category;
 import com.taingy.expensetracker.model.Expense;
+import com.taingy.expensetracker.model.ExpenseTombstone;
 import com.taingy.expensetracker.model.User;
 import com.taingy.expensetracker.repository.CategoryRepository;
-import com.taingy.expensetracker.repository.ExpenseRepository;
+import com.taingy.expensetracker.repository.ExpenseStore;
+import com.taingy.expensetracker.repository.ExpenseTombstoneRepository;
 import com.taingy.expensetracker.repository.UserRepository;
+import com.taingy.expensetracker.repository.projection.ExpenseListItem;
 import com.taingy.expensetracker.service.ExpenseService;
+import com.taingy.expensetracker.timing.RequestTiming;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional(readOnly = true)
 public class ExpenseServiceImpl implements ExpenseService {
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseServiceImpl.class);
 
-    private final ExpenseRepository expenseRepository;
+    private final ExpenseStore expenseStore;
     private final CategoryRepository categoryRepository;
     private final ExpenseMapper expenseMapper;
     private final UserRepository userRepository;
+    private final ExpenseSummaryCalculator summaryCalculator;
+    private final ExpenseSummaryCache summaryCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExpenseTombstoneRepository tombstoneRepository;
+
+    @Value("${expense.sync.settle-seconds:5}")
+    private int syncSettleSeconds;
+
+    @Value("${expense.sync.max-limit:1000}")
+    private int syncMaxLimit;
+
+    @Value("${expense.sync.tombstone-retention-days:30}")
+    private int tombstoneRetentionDays;
+
+    @Value("${expense.sync.tombstone-purge.batch-size:500}")
+    private int tombstonePurgeBatchSize;
 
     @Autowired
-    public ExpenseServiceImpl(ExpenseRepository expenseRepository, CategoryRepository categoryRepository, ExpenseMapper expenseMapper, UserRepository userRepository) {
-        this.expenseRepository = expenseRepository;
+    public ExpenseServiceImpl(ExpenseStore expenseStore, CategoryRepository categoryRepository, ExpenseMapper expenseMapper, UserRepository userRepository,
+                              ExpenseSummaryCalculator summaryCalculator, ExpenseSummaryCache summaryCache, ApplicationEventPublisher eventPublisher,
+                              ExpenseTombstoneRepository tombstoneRepository) {
+        this.expenseStore = expenseStore;
         this.categoryRepository = categoryRepository;
         this.expenseMapper = expenseMapper;
         this.userRepository = userRepository;
+        this.summaryCalculator = summaryCalculator;
+        this.summaryCache = summaryCache;
+        this.eventPublisher = eventPublisher;
+        this.tombstoneRepository = tombstoneRepository;
     }
 
 
     @Override
     public ExpenseResponse findById(UUID id) {
-        Expense expense = expenseRepository.findById(id).orElse(null);
+        Expense expense = expenseStore.findById(id).orElse(null);
         return expenseMapper.toDto(expense);
     }
 
+    @Override
+    public ExpenseVersion findVersionById(UUID id) {
+        return expenseStore.findVersionById(id).orElse(null);
+    }
+
     @Override
     public Page<ExpenseResponse> findExpensesWithFilters(UUID userId, UUID categoryId, String searchTerm,
                                                           LocalDate startDate, LocalDate endDate,
                                                           BigDecimal minAmount, BigDecimal maxAmount,
                                                           Pageable pageable) {
-        return expenseRepository.findExpensesWithFilters(userId, categoryId, searchTerm,
-                        startDate, endDate, minAmount, maxAmount, pageable)
-                .map(expenseMapper::toDto);
+        Page<ExpenseListItem> expenses = expenseStore.findExpensesWithFilters(userId, categoryId, searchTerm,
+                startDate, endDate, minAmount, maxAmount, pageable);
+        try (RequestTiming.Phase ignored = RequestTiming.start("mapper")) {
+            return expenses.map(expenseMapper::toDto);
+        }
     }
 
     @Override
@@ -69,14 +114,16 @@ public class ExpenseServiceImpl implements ExpenseService {
         Expense expense = expenseMapper.toEntity(request);
         expense.setUser(user);
         expense.setCategory(category);
-        expense = expenseRepository.save(expense);
+        expense = expenseStore.save(expense);
+        eventPublisher.publishEvent(new ExpenseChangedEvent(user.getId()));
+        eventPublisher.publishEvent(ExpenseWrittenEvent.saved(expense));
         return expenseMapper.toDto(expense);
     }
 
     @Override
     @Transactional
     public ExpenseResponse update(UUID id, ExpenseRequest request) {
-        Expense expense = expenseRepository.findById(id).orElseThrow(
+        Expense expense = expenseStore.findById(id).orElseThrow(
                 () -> new IllegalArgumentException("Expense not found with id: " + id)
         );
         if (request.getAmount() != null) {
@@ -93,7 +140,9 @@ public class ExpenseServiceImpl implements ExpenseService {
         }
         Category category = categoryRepository.findById(request.getCategoryId()).orElse(null);
         expense.setCategory(category);
-        expense = expenseRepository.save(expense);
+        expense = expenseStore.save(expense);
+        eventPublisher.publishEvent(new ExpenseChangedEvent(expense.getUser().getId()));
+        eventPublisher.publishEvent(ExpenseWrittenEvent.saved(expense));
 
         return expenseMapper.toDto(expense);
     }
@@ -101,166 +150,115 @@ public class ExpenseServiceImpl implements ExpenseService {
     @Override
     @Transactional
     public void delete(UUID id) {
-        Expense expense = expenseRepository.findById(id)
+        Expense expense = expenseStore.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Expense not found"));
 
-        expenseRepository.delete(expense);
+        expenseStore.delete(expense);
+
+        // Keep a tombstone so syncing clients learn about the deletion
+        ExpenseTombstone tombstone = new ExpenseTombstone();
+        tombstone.setExpenseId(expense.getId());
+        tombstone.setUserId(expense.getUser().getId());
+        tombstoneRepository.save(tombstone);
+        eventPublisher.publishEvent(new ExpenseChangedEvent(expense.getUser().getId()));
+        eventPublisher.publishEvent(ExpenseWrittenEvent.deleted(expense));
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Timed("expense.summary")
     public ExpenseSummary getSummary(String userEmail) {
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new IllegalArgumentException("User not found with email: " + userEmail));
 
-        UUID userId = user.getId();
-        String roleName = user.getRole().getName();
-
-        // Get basic statistics based on role
-        BigDecimal totalAmount;
-        Long totalCount;
-        BigDecimal averageAmount;
-        BigDecimal maxAmount;
-        BigDecimal minAmount;
-        List<Expense> allExpenses;
-
-        if ("ADMIN".equals(roleName)) {
+        if ("ADMIN".equals(user.getRole().getName())) {
             // Admin gets all expenses across all users
-            totalAmount = expenseRepository.getTotalAmount();
-            totalCount = expenseRepository.count();
-            averageAmount = expenseRepository.getAverageAmount();
-            maxAmount = expenseRepository.getMaxAmount();
-            minAmount = expenseRepository.getMinAmount();
-            allExpenses = expenseRepository.findAll();
-        } else {
-            // Regular users get only their expenses
-            totalAmount = expenseRepository.getTotalAmountByUserId(userId);
-            totalCount = expenseRepository.getCountByUserId(userId);
-            averageAmount = expenseRepository.getAverageAmountByUserId(userId);
-            maxAmount = expenseRepository.getMaxAmountByUserId(userId);
-            minAmount = expenseRepository.getMinAmountByUserId(userId);
-            allExpenses = expenseRepository.findAllByUserId(userId);
+            return summaryCache.getGlobalSummary(summaryCalculator::calculateForAllUsers);
         }
 
-        // Handle null values (when no expenses exist)
-        totalAmount = totalAmount != null ? totalAmount : BigDecimal.ZERO;
-        totalCount = totalCount != null ? totalCount : 0L;
-        averageAmount = averageAmount != null ? averageAmount : BigDecimal.ZERO;
-        maxAmount = maxAmount != null ? maxAmount : BigDecimal.ZERO;
-        minAmount = minAmount != null ? minAmount : BigDecimal.ZERO;
-
-        // Calculate category breakdown
-        List<ExpenseSummary.CategorySummary> categoryBreakdown = calculateCategoryBreakdown(allExpenses, totalAmount);
+        // Regular users get only their expenses
+        UUID userId = user.getId();
+        return summaryCache.getUserSummary(userId, () -> summaryCalculator.calculateForUser(userId));
+    }
 
-        // Calculate monthly breakdown
-        List<ExpenseSummary.MonthlySummary> monthlyBreakdown = calculateMonthlyBreakdown(allExpenses);
+    /**
+     * Returns the user's expenses changed and deleted since the token, oldest first.
+     * <p>
+     * Timestamps are assigned before commit, so rows newer than the settle window are left for
+     * the next call rather than risk skipping one that commits late with an earlier timestamp.
+     * A token older than the tombstone retention, or one that cannot be read, restarts the sync
+     * from scratch with {@code fullResync} set.
+     */
+    @Override
+    public ExpenseChanges findChanges(String userEmail, String sinceToken, int limit) {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new IllegalArgumentException("User not found with email: " + userEmail));
 
-        // Calculate user breakdown (only for admins)
-        List<ExpenseSummary.UserSummary> userBreakdown = null;
-        if ("ADMIN".equals(roleName)) {
-            userBreakdown = calculateUserBreakdown(allExpenses, totalAmount);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime upTo = now.minusSeconds(syncSettleSeconds);
+        int pageSize = Math.max(1, Math.min(limit, syncMaxLimit));
+
+        ExpenseChangeToken since = null;
+        boolean fullResync = false;
+        if (sinceToken != null && !sinceToken.isBlank()) {
+            try {
+                since = ExpenseChangeToken.decode(sinceToken);
+            } catch (IllegalArgumentException ex) {
+                fullResync = true;
+            }
+            if (since != null && since.tombstonesSince().isBefore(now.minusDays(tombstoneRetentionDays))) {
+                // Deletions older than the retention are gone, so the client cannot catch up incrementally
+                since = null;
+                fullResync = true;
+            }
+        }
+        if (since == null) {
+            since = ExpenseChangeToken.initial(upTo);
         }
 
-        return ExpenseSummary.builder()
-                .totalAmount(totalAmount)
-                .totalCount(totalCount)
-                .averageAmount(averageAmount)
-                .maxAmount(maxAmount)
-                .minAmount(minAmount)
-                .categoryBreakdown(categoryBreakdown)
-                .monthlyBreakdown(monthlyBreakdown)
-                .userBreakdown(userBreakdown)
+        Pageable page = PageRequest.of(0, pageSize);
+        List<Expense> changed = expenseStore.findChangesByUserId(
+                user.getId(), since.expensesSince(), since.expensesAfterId(), upTo, page);
+        List<ExpenseTombstone> deleted = tombstoneRepository.findChangesByUserId(
+                user.getId(), since.tombstonesSince(), since.tombstonesAfterId(), upTo, page);
+
+        // A full page resumes after its last row; otherwise everything up to the window was delivered
+        boolean moreChanged = changed.size() == pageSize;
+        boolean moreDeleted = deleted.size() == pageSize;
+        Expense lastChanged = moreChanged ? changed.get(changed.size() - 1) : null;
+        ExpenseTombstone lastDeleted = moreDeleted ? deleted.get(deleted.size() - 1) : null;
+        ExpenseChangeToken next = new ExpenseChangeToken(
+                lastChanged != null ? lastChanged.getUpdatedAt() : upTo,
+                lastChanged != null ? lastChanged.getId() : ExpenseChangeToken.MAX_ID,
+                lastDeleted != null ? lastDeleted.getDeletedAt() : upTo,
+                lastDeleted != null ? lastDeleted.getId() : ExpenseChangeToken.MAX_ID);
+
+        return ExpenseChanges.builder()
+                .changed(changed.stream().map(expenseMapper::toDto).toList())
+                .deletedIds(deleted.stream().map(ExpenseTombstone::getExpenseId).toList())
+                .nextToken(next.encode())
+                .hasMore(moreChanged || moreDeleted)
+                .fullResync(fullResync)
                 .build();
     }
 
-    private List<ExpenseSummary.CategorySummary> calculateCategoryBreakdown(List<Expense> expenses, BigDecimal totalAmount) {
-        Map<String, List<Expense>> groupedByCategory = expenses.stream()
-                .collect(Collectors.groupingBy(e -> e.getCategory() != null ? e.getCategory().getName() : "Uncategorized"));
-
-        return groupedByCategory.entrySet().stream()
-                .map(entry -> {
-                    String categoryName = entry.getKey();
-                    List<Expense> categoryExpenses = entry.getValue();
-
-                    BigDecimal categoryTotal = categoryExpenses.stream()
-                            .map(Expense::getAmount)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                    long count = categoryExpenses.size();
-
-                    double percentage = totalAmount.compareTo(BigDecimal.ZERO) > 0
-                            ? categoryTotal.divide(totalAmount, 4, RoundingMode.HALF_UP)
-                            .multiply(BigDecimal.valueOf(100))
-                            .doubleValue()
-                            : 0.0;
-
-                    return ExpenseSummary.CategorySummary.builder()
-                            .categoryName(categoryName)
-                            .totalAmount(categoryTotal)
-                            .count(count)
-                            .percentage(percentage)
-                            .build();
-                })
-                .sorted(Comparator.comparing(ExpenseSummary.CategorySummary::getTotalAmount).reversed())
-                .collect(Collectors.toList());
-    }
-
-    private List<ExpenseSummary.MonthlySummary> calculateMonthlyBreakdown(List<Expense> expenses) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM");
-
-        Map<String, List<Expense>> groupedByMonth = expenses.stream()
-                .collect(Collectors.groupingBy(e -> e.getExpenseDate().format(formatter)));
-
-        return groupedByMonth.entrySet().stream()
-                .map(entry -> {
-                    String month = entry.getKey();
-                    List<Expense> monthExpenses = entry.getValue();
-
-                    BigDecimal monthTotal = monthExpenses.stream()
-                            .map(Expense::getAmount)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                    long count = monthExpenses.size();
-
-                    return ExpenseSummary.MonthlySummary.builder()
-                            .month(month)
-                            .totalAmount(monthTotal)
-                            .count(count)
-                            .build();
-                })
-                .sorted(Comparator.comparing(ExpenseSummary.MonthlySummary::getMonth).reversed())
-                .collect(Collectors.toList());
-    }
-
-    private List<ExpenseSummary.UserSummary> calculateUserBreakdown(List<Expense> expenses, BigDecimal totalAmount) {
-        Map<User, List<Expense>> groupedByUser = expenses.stream()
-                .collect(Collectors.groupingBy(Expense::getUser));
-
-        return groupedByUser.entrySet().stream()
-                .map(entry -> {
-                    User user = entry.getKey();
-                    List<Expense> userExpenses = entry.getValue();
-
-                    BigDecimal userTotal = userExpenses.stream()
-                            .map(Expense::getAmount)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                    long count = userExpenses.size();
-
-                    double percentage = totalAmount.compareTo(BigDecimal.ZERO) > 0
-                            ? userTotal.divide(totalAmount, 4, RoundingMode.HALF_UP)
-                            .multiply(BigDecimal.valueOf(100))
-                            .doubleValue()
-                            : 0.0;
-
-                    return ExpenseSummary.UserSummary.builder()
-                            .userName(user.getFirstName() + " " + user.getLastName())
-                            .userEmail(user.getEmail())
-                            .totalAmount(userTotal)
-                            .count(count)
-                            .percentage(percentage)
-                            .build();
-                })
-                .sorted(Comparator.comparing(ExpenseSummary.UserSummary::getTotalAmount).reversed())
-                .collect(Collectors.toList());
+    /**
+     * Removes tombstones past the sync retention in bounded batches, each in its own transaction.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Scheduled(cron = "${expense.sync.tombstone-purge.cron:0 30 3 * * *}")
+    public int purgeExpiredTombstones() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(tombstoneRetentionDays);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = tombstoneRepository.deleteExpiredBatch(cutoff, tombstonePurgeBatchSize);
+            total += deleted;
+        } while (deleted >= tombstonePurgeBatchSize);
+        if (total > 0) {
+            logger.info("Purged {} expense tombstone(s) older than {}", total, cutoff);
+        }
+        return total;
     }
 }
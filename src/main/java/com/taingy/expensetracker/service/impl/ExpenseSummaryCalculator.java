@@ -0,0 +1,207 @@
+package com.taingy.expensetracker.service.impl;
+
+import com.taingy.expensetracker.dto.ExpenseSummary;
+import com.taingy.expensetracker.repository.ExpenseStore;
+import com.taingy.expensetracker.repository.projection.CategoryTotal;
+import com.taingy.expensetracker.repository.projection.ExpenseTotals;
+import com.taingy.expensetracker.repository.projection.MonthlyTotal;
+import com.taingy.expensetracker.repository.projection.UserTotal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Computes expense summaries from the database. Results are cached by
+ * {@link com.taingy.expensetracker.cache.ExpenseSummaryCache}, so this is only reached on a miss
+ * or a background refresh.
+ * <p>
+ * The totals and each breakdown are aggregated in SQL by independent queries. They run
+ * concurrently on the summary query executor, each in its own read-only transaction and thus on
+ * its own connection, so a summary takes about as long as its slowest query. Whatever has not
+ * finished by the deadline is left out and the summary is marked partial.
+ */
+@Component
+public class ExpenseSummaryCalculator {
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseSummaryCalculator.class);
+
+    private final ExpenseStore expenseStore;
+    private final TaskExecutor queryExecutor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long deadlineMs;
+
+    @Autowired
+    public ExpenseSummaryCalculator(ExpenseStore expenseStore,
+                                    @Qualifier("summaryQueryExecutor") TaskExecutor queryExecutor,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${app.summary.deadline-ms:2000}") long deadlineMs) {
+        this.expenseStore = expenseStore;
+        this.queryExecutor = queryExecutor;
+        this.deadlineMs = deadlineMs;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Let the database cancel a query that overruns, so it does not hold its connection
+        this.readOnlyTransaction.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(deadlineMs + 999)));
+    }
+
+    public ExpenseSummary calculateForUser(UUID userId) {
+        Deadline deadline = new Deadline();
+        CompletableFuture<ExpenseTotals> totals = submit(() -> expenseStore.getTotalsByUserId(userId));
+        CompletableFuture<List<CategoryTotal>> categories = submit(() -> expenseStore.getCategoryTotalsByUserId(userId));
+        CompletableFuture<List<MonthlyTotal>> months = submit(() -> expenseStore.getMonthlyTotalsByUserId(userId));
+
+        return summarize(deadline, deadline.await(totals, "totals"),
+                deadline.await(categories, "category breakdown"),
+                deadline.await(months, "monthly breakdown"),
+                null);
+    }
+
+    public ExpenseSummary calculateForAllUsers() {
+        Deadline deadline = new Deadline();
+        CompletableFuture<ExpenseTotals> totals = submit(expenseStore::getTotals);
+        CompletableFuture<List<CategoryTotal>> categories = submit(expenseStore::getCategoryTotals);
+        CompletableFuture<List<MonthlyTotal>> months = submit(expenseStore::getMonthlyTotals);
+        CompletableFuture<List<UserTotal>> users = submit(expenseStore::getUserTotals);
+
+        return summarize(deadline, deadline.await(totals, "totals"),
+                deadline.await(categories, "category breakdown"),
+                deadline.await(months, "monthly breakdown"),
+                deadline.await(users, "user breakdown"));
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> query) {
+        Supplier<T> transactional = () -> readOnlyTransaction.execute(status -> query.get());
+        try {
+            return CompletableFuture.supplyAsync(transactional, queryExecutor);
+        } catch (RejectedExecutionException ex) {
+            // The executor is saturated; run on the caller rather than fail the summary
+            return CompletableFuture.completedFuture(transactional.get());
+        }
+    }
+
+    private ExpenseSummary summarize(Deadline deadline, ExpenseTotals totals, List<CategoryTotal> categories,
+                                     List<MonthlyTotal> months, List<UserTotal> users) {
+        ExpenseSummary.ExpenseSummaryBuilder summary = ExpenseSummary.builder()
+                .categoryBreakdown(categories != null ? calculateCategoryBreakdown(categories) : null)
+                .monthlyBreakdown(months != null ? calculateMonthlyBreakdown(months) : null)
+                // Calculate user breakdown (only for admins)
+                .userBreakdown(users != null ? calculateUserBreakdown(users) : null)
+                .partial(deadline.missed);
+
+        if (totals != null) {
+            // Handle null values (when no expenses exist)
+            summary.totalAmount(totals.totalAmount() != null ? totals.totalAmount() : BigDecimal.ZERO)
+                    .totalCount(totals.count() != null ? totals.count() : 0L)
+                    .averageAmount(totals.averageAmount() != null ? BigDecimal.valueOf(totals.averageAmount()) : BigDecimal.ZERO)
+                    .maxAmount(totals.maxAmount() != null ? totals.maxAmount() : BigDecimal.ZERO)
+                    .minAmount(totals.minAmount() != null ? totals.minAmount() : BigDecimal.ZERO);
+        }
+        return summary.build();
+    }
+
+    static List<ExpenseSummary.CategorySummary> calculateCategoryBreakdown(List<CategoryTotal> totals) {
+        BigDecimal totalAmount = sum(totals.stream().map(CategoryTotal::totalAmount).toList());
+
+        return totals.stream()
+                .map(total -> ExpenseSummary.CategorySummary.builder()
+                        .categoryName(total.categoryName() != null ? total.categoryName() : "Uncategorized")
+                        .totalAmount(total.totalAmount())
+                        .count(total.count())
+                        .percentage(percentage(total.totalAmount(), totalAmount))
+                        .build())
+                .sorted(Comparator.comparing(ExpenseSummary.CategorySummary::getTotalAmount).reversed())
+                .toList();
+    }
+
+    static List<ExpenseSummary.MonthlySummary> calculateMonthlyBreakdown(List<MonthlyTotal> totals) {
+        return totals.stream()
+                .map(total -> ExpenseSummary.MonthlySummary.builder()
+                        .month(String.format("%04d-%02d", total.year(), total.month()))
+                        .totalAmount(total.totalAmount())
+                        .count(total.count())
+                        .build())
+                .sorted(Comparator.comparing(ExpenseSummary.MonthlySummary::getMonth).reversed())
+                .toList();
+    }
+
+    static List<ExpenseSummary.UserSummary> calculateUserBreakdown(List<UserTotal> totals) {
+        BigDecimal totalAmount = sum(totals.stream().map(UserTotal::totalAmount).toList());
+
+        return totals.stream()
+                .map(total -> ExpenseSummary.UserSummary.builder()
+                        .userName(total.firstName() + " " + total.lastName())
+                        .userEmail(total.email())
+                        .totalAmount(total.totalAmount())
+                        .count(total.count())
+                        .percentage(percentage(total.totalAmount(), totalAmount))
+                        .build())
+                .sorted(Comparator.comparing(ExpenseSummary.UserSummary::getTotalAmount).reversed())
+                .toList();
+    }
+
+    private static BigDecimal sum(List<BigDecimal> amounts) {
+        return amounts.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static double percentage(BigDecimal amount, BigDecimal totalAmount) {
+        return totalAmount.compareTo(BigDecimal.ZERO) > 0
+                ? amount.divide(totalAmount, 4, RoundingMode.HALF_UP)
+                .multiply(BigDecimal.valueOf(100))
+                .doubleValue()
+                : 0.0;
+    }
+
+    /**
+     * Shared deadline for the sub-queries of one summary.
+     */
+    private final class Deadline {
+        private final long expiresAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        private boolean missed;
+
+        <T> T await(CompletableFuture<T> future, String part) {
+            try {
+                return future.get(Math.max(0, expiresAt - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException ex) {
+                future.cancel(true);
+                return skip(part);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return skip(part);
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof TransactionTimedOutException
+                        || ex.getCause() instanceof QueryTimeoutException) {
+                    return skip(part);
+                }
+                if (ex.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException(ex.getCause());
+            }
+        }
+
+        private <T> T skip(String part) {
+            missed = true;
+            logger.warn("Expense summary {} did not finish within {} ms, returning a partial summary", part, deadlineMs);
+            return null;
+        }
+    }
+}
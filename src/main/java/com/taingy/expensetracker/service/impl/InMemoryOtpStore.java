@@ -0,0 +1,107 @@
+package com.taingy.expensetracker.service.impl;
+
+import com.taingy.expensetracker.service.OtpStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps only a salted SHA-256 hash of each live code, one per email, with a counter of failed
+ * attempts. Issuing a new code replaces the previous one, a successful verification removes it,
+ * and expired entries are evicted lazily on access and by the scheduled purge.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "memory")
+public class InMemoryOtpStore implements OtpStore {
+
+    private static final int SALT_LENGTH = 16;
+    private static final SecureRandom random = new SecureRandom();
+
+    @Value("${otp.max-attempts:5}")
+    private int maxAttempts;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public void store(String email, String otpCode, LocalDateTime expiresAt) {
+        byte[] salt = new byte[SALT_LENGTH];
+        random.nextBytes(salt);
+        entries.put(email, new Entry(salt, hash(salt, otpCode), expiresAt));
+    }
+
+    @Override
+    public boolean consume(String email, String otpCode) {
+        Entry entry = entries.get(email);
+        if (entry == null) {
+            return false;
+        }
+        if (entry.isExpired(LocalDateTime.now())) {
+            entries.remove(email, entry);
+            return false;
+        }
+
+        int attempt = entry.attempts.incrementAndGet();
+        if (attempt > maxAttempts) {
+            entries.remove(email, entry);
+            return false;
+        }
+
+        if (!MessageDigest.isEqual(entry.hash, hash(entry.salt, otpCode))) {
+            if (attempt == maxAttempts) {
+                entries.remove(email, entry);
+            }
+            return false;
+        }
+
+        // Only the caller that actually removes the entry wins, so a code is never accepted twice
+        return entries.remove(email, entry);
+    }
+
+    @Override
+    public int purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int removed = 0;
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            if (entry.getValue().isExpired(now) && entries.remove(entry.getKey(), entry.getValue())) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private static byte[] hash(byte[] salt, String otpCode) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(salt);
+            return digest.digest(otpCode.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class Entry {
+        private final byte[] salt;
+        private final byte[] hash;
+        private final LocalDateTime expiresAt;
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        private Entry(byte[] salt, byte[] hash, LocalDateTime expiresAt) {
+            this.salt = salt;
+            this.hash = hash;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(LocalDateTime now) {
+            return !expiresAt.isAfter(now);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.taingy.expensetracker.service.impl;
+
+import com.taingy.expensetracker.model.EmailOtp;
+import com.taingy.expensetracker.repository.EmailOtpRepository;
+import com.taingy.expensetracker.service.OtpStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaOtpStore implements OtpStore {
+    private static final Logger logger = LoggerFactory.getLogger(JpaOtpStore.class);
+
+    @Value("${otp.purge.batch-size:500}")
+    private int purgeBatchSize;
+
+    private final EmailOtpRepository emailOtpRepository;
+
+    @Autowired
+    public JpaOtpStore(EmailOtpRepository emailOtpRepository) {
+        this.emailOtpRepository = emailOtpRepository;
+    }
+
+    @Override
+    @Transactional
+    public void store(String email, String otpCode, LocalDateTime expiresAt) {
+        int invalidated = emailOtpRepository.invalidateActiveOtps(email, LocalDateTime.now());
+        if (invalidated > 0) {
+            logger.info("Invalidated {} existing OTP(s) for email: {}", invalidated, email);
+        }
+
+        EmailOtp emailOtp = new EmailOtp();
+        emailOtp.setEmail(email);
+        emailOtp.setOtpCode(otpCode);
+        emailOtp.setExpiresAt(expiresAt);
+        emailOtp.setVerified(false);
+
+        emailOtpRepository.save(emailOtp);
+    }
+
+    @Override
+    @Transactional
+    public boolean consume(String email, String otpCode) {
+        Optional<EmailOtp> otpOpt = emailOtpRepository.findByEmailAndOtpCodeAndVerifiedFalseAndExpiresAtAfter(
+                email, otpCode, LocalDateTime.now());
+
+        if (otpOpt.isEmpty()) {
+            return false;
+        }
+
+        EmailOtp emailOtp = otpOpt.get();
+        emailOtp.setVerified(true);
+        emailOtp.setVerifiedAt(LocalDateTime.now());
+        emailOtpRepository.save(emailOtp);
+        return true;
+    }
+
+    /**
+     * Removes expired codes in bounded batches. Each batch runs in its own transaction so the
+     * purge never holds locks on a large slice of {@code email_otps} at once.
+     */
+    @Override
+    public int purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = emailOtpRepository.deleteExpiredBatch(cutoff, purgeBatchSize);
+            total += deleted;
+        } while (deleted >= purgeBatchSize);
+        return total;
+    }
+}
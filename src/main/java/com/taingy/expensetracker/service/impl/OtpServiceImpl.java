@@ -1,19 +1,17 @@
 package com.taingy.expensetracker.service.impl;
 
-import com.taingy.expensetracker.model.EmailOtp;
-import com.taingy.expensetracker.repository.EmailOtpRepository;
 import com.taingy.expensetracker.service.OtpService;
+import com.taingy.expensetracker.service.OtpStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Optional;
+import java.util.Locale;
 
 @Service
 public class OtpServiceImpl implements OtpService {
@@ -23,52 +21,49 @@ public class OtpServiceImpl implements OtpService {
     private int OTP_EXPIRY_MINUTES;
     private static final SecureRandom random = new SecureRandom();
 
-    private final EmailOtpRepository emailOtpRepository;
+    private final OtpStore otpStore;
 
     @Autowired
-    public OtpServiceImpl(EmailOtpRepository emailOtpRepository) {
-        this.emailOtpRepository = emailOtpRepository;
+    public OtpServiceImpl(OtpStore otpStore) {
+        this.otpStore = otpStore;
     }
 
     @Override
     public String generateOtp(String email) {
-        List<EmailOtp> existingOtps = emailOtpRepository.findByEmailAndVerifiedFalse(email);
-        if (!existingOtps.isEmpty()) {
-            logger.info("Invalidating {} existing OTP(s) for email: {}", existingOtps.size(), email);
-        }
-
         String otpCode = String.format("%06d", random.nextInt(1000000));
 
-        EmailOtp emailOtp = new EmailOtp();
-        emailOtp.setEmail(email);
-        emailOtp.setOtpCode(otpCode);
-        emailOtp.setExpiresAt(LocalDateTime.now().plusMinutes(OTP_EXPIRY_MINUTES));
-        emailOtp.setVerified(false);
-
-        emailOtpRepository.save(emailOtp);
+        otpStore.store(key(email), otpCode, LocalDateTime.now().plusMinutes(OTP_EXPIRY_MINUTES));
         logger.info("Generated OTP for email: {}", email);
 
         return otpCode;
     }
 
     @Override
-    @Transactional
     public boolean verifyOtp(String email, String otpCode) {
-        Optional<EmailOtp> otpOpt = emailOtpRepository.findByEmailAndOtpCodeAndVerifiedFalseAndExpiresAtAfter(
-                email, otpCode, LocalDateTime.now());
-
-        if (otpOpt.isEmpty()) {
+        if (!otpStore.consume(key(email), otpCode)) {
             logger.warn("Invalid or expired OTP attempt for email: {}", email);
             return false;
         }
 
-        EmailOtp emailOtp = otpOpt.get();
-        emailOtp.setVerified(true);
-        emailOtp.setVerifiedAt(LocalDateTime.now());
-        emailOtpRepository.save(emailOtp);
-
         logger.info("OTP verified successfully for email: {}", email);
         return true;
     }
 
+    @Override
+    @Scheduled(cron = "${otp.purge.cron:0 */15 * * * *}")
+    public int purgeExpiredOtps() {
+        int purged = otpStore.purgeExpired();
+        if (purged > 0) {
+            logger.info("Purged {} expired OTP(s)", purged);
+        }
+        return purged;
+    }
+
+    // Users are looked up by email ignoring case, so codes are keyed the same way; otherwise a code
+    // requested as John@x.com could not be verified as john@x.com, nor would it be invalidated by a
+    // resend under the other spelling
+    private static String key(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
 }
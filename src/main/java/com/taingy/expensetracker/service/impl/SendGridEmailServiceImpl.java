@@ -8,8 +8,11 @@ import com.sendgrid.helpers.mail.Mail;
 import com.sendgrid.helpers.mail.objects.Content;
 import com.sendgrid.helpers.mail.objects.Email;
 import com.taingy.expensetracker.service.EmailService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
@@ -37,9 +40,18 @@ public class SendGridEmailServiceImpl implements EmailService {
     @Value("${otp.expire-in-minute}")
     private int OTP_EXPIRY_MINUTES;
 
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public SendGridEmailServiceImpl(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @Override
-    @Async
+    @Async("emailExecutor")
     public void sendOtpEmail(String email, String otpCode, String firstName) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             Email from = new Email(fromEmail, fromName);
             Email to = new Email(email, firstName);
@@ -60,13 +72,17 @@ public class SendGridEmailServiceImpl implements EmailService {
             Response response = sg.api(request);
 
             if (response.getStatusCode() >= 200 && response.getStatusCode() < 300) {
+                outcome = "success";
                 logger.info("OTP email sent via SendGrid to {}", email);
             } else {
+                outcome = "rejected";
                 logger.error("Failed to send OTP email via SendGrid. Status: {}, Body: {}",
                         response.getStatusCode(), response.getBody());
             }
         } catch (IOException e) {
             logger.error("Failed to send OTP email via SendGrid", e);
+        } finally {
+            sample.stop(meterRegistry.timer("email.send", "provider", "sendgrid", "outcome", outcome));
         }
     }
 
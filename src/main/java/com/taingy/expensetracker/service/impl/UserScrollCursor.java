@@ -0,0 +1,37 @@
+package com.taingy.expensetracker.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque position in the user listing: the (createdAt, id) of the last user returned. The
+ * timestamp is encoded in microseconds, the precision the database stores.
+ */
+record UserScrollCursor(LocalDateTime createdAt, UUID id) {
+
+    private static final String VERSION = "1";
+
+    String encode() {
+        long micros = createdAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + createdAt.getNano() / 1_000;
+        String raw = String.join(":", VERSION, Long.toString(micros), id.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static UserScrollCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 3 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            long micros = Long.parseLong(parts[1]);
+            LocalDateTime createdAt = LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                    (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+            return new UserScrollCursor(createdAt, UUID.fromString(parts[2]));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+    }
+}
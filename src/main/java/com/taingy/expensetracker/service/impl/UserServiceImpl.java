@@ -2,51 +2,63 @@ package com.taingy.expensetracker.service.impl;
 
 import com.taingy.expensetracker.dto.UserRequest;
 import com.taingy.expensetracker.dto.UserResponse;
+import com.taingy.expensetracker.dto.UserScroll;
 import com.taingy.expensetracker.mapper.UserMapper;
 import com.taingy.expensetracker.model.Role;
 import com.taingy.expensetracker.model.User;
+import com.taingy.expensetracker.repository.ExpenseStore;
 import com.taingy.expensetracker.repository.RoleRepository;
 import com.taingy.expensetracker.repository.UserRepository;
+import com.taingy.expensetracker.repository.projection.UserListItem;
 import com.taingy.expensetracker.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Service
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
+    private static final int MAX_SCROLL_SIZE = 100;
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
+    private final ExpenseStore expenseStore;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder, UserMapper userMapper) {
+    public UserServiceImpl(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder, UserMapper userMapper, ExpenseStore expenseStore) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
         this.userMapper = userMapper;
+        this.expenseStore = expenseStore;
     }
 
     @Override
     @Transactional
     public UserResponse createUser(UserRequest request) {
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new IllegalArgumentException("Email is already in use");
-        }
-
         User user = userMapper.toEntity(request);
         user.setPassword(passwordEncoder.encode(request.getPassword()));
         user.setIsVerified(true);
 
         Role role = roleRepository.findByName(request.getRole()).get();
         user.setRole(role);
-        user = userRepository.save(user);
+        // Duplicates are rejected by the unique email index, see AuthServiceImpl.register
+        try {
+            user = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException ex) {
+            if (DuplicateEmail.isCause(ex)) {
+                throw new IllegalArgumentException("Email is already in use");
+            }
+            throw ex;
+        }
 
         return userMapper.toDto(user);
     }
@@ -63,11 +75,37 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public org.springframework.data.domain.Page<UserResponse> findUsersWithFilters(String searchTerm, UUID roleId, Boolean isActive, Boolean isVerified, org.springframework.data.domain.Pageable pageable) {
-        return userRepository.findUsersWithFilters(searchTerm, roleId, isActive, isVerified, pageable)
+    public org.springframework.data.domain.Page<UserResponse> findUsersWithFilters(String searchTerm, String emailPrefix, UUID roleId, Boolean isActive, Boolean isVerified, org.springframework.data.domain.Pageable pageable) {
+        return userRepository.findUsersWithFilters(searchTerm, emailPrefix, roleId, isActive, isVerified, pageable)
                 .map(userMapper::toDto);
     }
 
+    /**
+     * Keyset alternative to {@link #findUsersWithFilters}: each window continues from the cursor
+     * instead of an offset, so deep windows cost the same as the first and no count is run.
+     */
+    @Override
+    public UserScroll scrollUsers(String searchTerm, String emailPrefix, UUID roleId, Boolean isActive,
+                                  Boolean isVerified, String cursor, int size) {
+        UserScrollCursor after = cursor != null && !cursor.isBlank() ? UserScrollCursor.decode(cursor) : null;
+        int limit = Math.max(1, Math.min(size, MAX_SCROLL_SIZE));
+
+        // Read one extra row to learn whether another window follows
+        List<UserListItem> users = userRepository.scrollUsersWithFilters(searchTerm, emailPrefix, roleId, isActive,
+                isVerified, after != null ? after.createdAt() : null, after != null ? after.id() : null, limit + 1);
+        boolean hasMore = users.size() > limit;
+        if (hasMore) {
+            users = users.subList(0, limit);
+        }
+
+        UserListItem last = hasMore ? users.get(users.size() - 1) : null;
+        return UserScroll.builder()
+                .content(users.stream().map(userMapper::toDto).toList())
+                .nextCursor(last != null ? new UserScrollCursor(last.createdAt(), last.id()).encode() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
     @Override
     @Transactional
     public void deactivateUser(UUID id) {
@@ -80,6 +118,9 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public void deleteUser(UUID id) {
+        if (expenseStore.existsByUserId(id)) {
+            throw new IllegalArgumentException("User with id " + id + " still has expenses");
+        }
         userRepository.findById(id).ifPresent(userRepository::delete);
     }
 }
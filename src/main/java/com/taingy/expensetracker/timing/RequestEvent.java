@@ -0,0 +1,31 @@
+package com.taingy.expensetracker.timing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A whole API request, from the timing filter to the end of the response.
+ */
+@Name("com.taingy.expensetracker.Request")
+@Label("Request")
+@Category({"Expense Tracker", "HTTP"})
+@Description("An API request with its phase breakdown")
+@StackTrace(false)
+class RequestEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("Path")
+    String path;
+
+    @Label("Status")
+    int status;
+
+    @Label("Phases")
+    String phases;
+}
@@ -0,0 +1,28 @@
+package com.taingy.expensetracker.timing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One timed phase of a request, such as token validation or the criteria query.
+ */
+@Name("com.taingy.expensetracker.RequestPhase")
+@Label("Request Phase")
+@Category({"Expense Tracker", "HTTP"})
+@Description("A timed phase of an API request")
+@StackTrace(false)
+class RequestPhaseEvent extends Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Method")
+    String method;
+
+    @Label("Path")
+    String path;
+}
@@ -0,0 +1,139 @@
+package com.taingy.expensetracker.timing;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Phase durations of the request running on the current thread.
+ * <p>
+ * Code wraps a phase in {@link #start(String)}. Each phase is added to the request's timings,
+ * which {@link RequestTimingFilter} turns into a {@code Server-Timing} header, and is published
+ * as a {@link RequestPhaseEvent} when JFR is recording. Repeated phases of the same name, such as
+ * two user lookups, are summed. Outside a request, or on another thread, only the JFR event is
+ * published.
+ */
+public final class RequestTiming {
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+    private static final Phase NOOP = new Phase(null, null, null);
+
+    private final String method;
+    private final String path;
+    private final long startNanos = System.nanoTime();
+    private final Map<String, long[]> phases = new LinkedHashMap<>();
+    private Phase trailingPhase;
+
+    RequestTiming(String method, String path) {
+        this.method = method;
+        this.path = path;
+    }
+
+    static RequestTiming begin(String method, String path) {
+        RequestTiming timing = new RequestTiming(method, path);
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Starts timing a phase; close the returned phase when it ends.
+     */
+    public static Phase start(String name) {
+        RequestTiming timing = CURRENT.get();
+        RequestPhaseEvent event = new RequestPhaseEvent();
+        if (timing == null && !event.isEnabled()) {
+            return NOOP;
+        }
+        event.begin();
+        return new Phase(timing, name, event);
+    }
+
+    /**
+     * Starts a phase that runs until the end of the request, for work such as response
+     * serialization that has no natural end inside application code.
+     */
+    public static void startTrailing(String name) {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null && timing.trailingPhase == null) {
+            timing.trailingPhase = start(name);
+        }
+    }
+
+    String method() {
+        return method;
+    }
+
+    String path() {
+        return path;
+    }
+
+    /**
+     * Closes the trailing phase, if any, and returns the time since the request began.
+     */
+    long finish() {
+        if (trailingPhase != null) {
+            trailingPhase.close();
+            trailingPhase = null;
+        }
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Formats the recorded phases and the total as a {@code Server-Timing} header value.
+     */
+    String toServerTiming(long totalNanos) {
+        StringJoiner header = new StringJoiner(", ");
+        phases.forEach((name, nanos) -> header.add(metric(name, nanos[0])));
+        header.add(metric("total", totalNanos));
+        return header.toString();
+    }
+
+    private static String metric(String name, long nanos) {
+        return String.format(Locale.ROOT, "%s;dur=%.2f", name, nanos / 1_000_000.0);
+    }
+
+    private void record(String name, long nanos) {
+        phases.computeIfAbsent(name, key -> new long[1])[0] += nanos;
+    }
+
+    /**
+     * A running phase. Closing it more than once has no further effect.
+     */
+    public static final class Phase implements AutoCloseable {
+        private final RequestTiming timing;
+        private final String name;
+        private final RequestPhaseEvent event;
+        private final long startNanos = System.nanoTime();
+        private boolean closed;
+
+        private Phase(RequestTiming timing, String name, RequestPhaseEvent event) {
+            this.timing = timing;
+            this.name = name;
+            this.event = event;
+        }
+
+        @Override
+        public void close() {
+            if (closed || event == null) {
+                return;
+            }
+            closed = true;
+            if (timing != null) {
+                timing.record(name, System.nanoTime() - startNanos);
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.phase = name;
+                if (timing != null) {
+                    event.method = timing.method;
+                    event.path = timing.path;
+                }
+                event.commit();
+            }
+        }
+    }
+}
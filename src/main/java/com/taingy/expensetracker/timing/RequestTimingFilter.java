@@ -0,0 +1,74 @@
+package com.taingy.expensetracker.timing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Collects the {@link RequestTiming} of each API request and publishes it as a
+ * {@link RequestEvent} when JFR is recording.
+ * <p>
+ * With {@code app.request-timing.server-timing-header} on, the phases are also returned in a
+ * {@code Server-Timing} header. A header has to be set before the body is written, so the
+ * response is buffered until the request ends; that, and the internals the header reveals, is
+ * why it is off by default. The filter runs first so the total includes the concurrency limit
+ * and Spring Security.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "app.request-timing.enabled", havingValue = "true", matchIfMissing = true)
+public class RequestTimingFilter extends OncePerRequestFilter {
+    static final String SERVER_TIMING = "Server-Timing";
+
+    private final boolean serverTimingHeader;
+
+    public RequestTimingFilter(@Value("${app.request-timing.server-timing-header:false}") boolean serverTimingHeader) {
+        this.serverTimingHeader = serverTimingHeader;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestEvent event = new RequestEvent();
+        event.begin();
+        RequestTiming timing = RequestTiming.begin(request.getMethod(), request.getRequestURI());
+        ContentCachingResponseWrapper buffered = serverTimingHeader ? new ContentCachingResponseWrapper(response) : null;
+        try {
+            filterChain.doFilter(request, buffered != null ? buffered : response);
+        } finally {
+            RequestTiming.clear();
+            long totalNanos = timing.finish();
+            if (buffered != null) {
+                if (!response.isCommitted()) {
+                    response.setHeader(SERVER_TIMING, timing.toServerTiming(totalNanos));
+                }
+                buffered.copyBodyToResponse();
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = timing.method();
+                event.path = timing.path();
+                event.status = response.getStatus();
+                event.phases = timing.toServerTiming(totalNanos);
+                event.commit();
+            }
+        }
+    }
+}
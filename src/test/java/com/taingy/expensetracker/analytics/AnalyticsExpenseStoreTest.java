@@ -0,0 +1,171 @@
+package com.taingy.expensetracker.analytics;
+
+import com.taingy.expensetracker.event.ExpenseWrittenEvent;
+import com.taingy.expensetracker.model.Category;
+import com.taingy.expensetracker.model.User;
+import com.taingy.expensetracker.repository.CategoryRepository;
+import com.taingy.expensetracker.repository.ExpenseStore;
+import com.taingy.expensetracker.repository.UserRepository;
+import com.taingy.expensetracker.repository.projection.CategoryTotal;
+import com.taingy.expensetracker.repository.projection.ExpenseTotals;
+import com.taingy.expensetracker.repository.projection.MonthlyTotal;
+import com.taingy.expensetracker.repository.projection.UserTotal;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class AnalyticsExpenseStoreTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ExpenseStore database;
+    private ExpenseAnalytics analytics;
+    private AnalyticsExpenseStore store;
+    private User user;
+    private Category food;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:analytics-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE expenses (id uuid PRIMARY KEY, user_id uuid NOT NULL, "
+                + "category_id uuid, expense_date date NOT NULL, amount numeric(10, 2) NOT NULL)");
+
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setEmail("john@example.com");
+        food = new Category();
+        food.setId(UUID.randomUUID());
+        food.setName("Food");
+        UserRepository userRepository = mock(UserRepository.class);
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(userRepository.findAllById(any())).thenReturn(List.of(user));
+        when(categoryRepository.findAllById(any())).thenReturn(List.of(food));
+
+        database = mock(ExpenseStore.class);
+        analytics = new ExpenseAnalytics(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), 100);
+        store = new AnalyticsExpenseStore(database, analytics, userRepository, categoryRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void getTotals_ShouldUseTheDatabase_UntilTheExpensesAreLoaded() {
+        // Arrange
+        ExpenseTotals fromDatabase = new ExpenseTotals(null, 0L, null, null, null);
+        when(database.getTotals()).thenReturn(fromDatabase);
+
+        // Act
+        ExpenseTotals totals = store.getTotals();
+
+        // Assert
+        assertThat(totals).isSameAs(fromDatabase);
+    }
+
+    @Test
+    void breakdowns_ShouldComeFromTheLoadedExpenses() {
+        // Arrange
+        insert(UUID.randomUUID(), food.getId(), LocalDate.of(2024, 1, 10), "10.00");
+        insert(UUID.randomUUID(), food.getId(), LocalDate.of(2024, 1, 20), "5.25");
+        insert(UUID.randomUUID(), null, LocalDate.of(2024, 3, 2), "4.75");
+        analytics.load();
+
+        // Act
+        ExpenseTotals totals = store.getTotals();
+        List<CategoryTotal> categories = store.getCategoryTotals();
+        List<MonthlyTotal> months = store.getMonthlyTotals();
+        List<UserTotal> users = store.getUserTotals();
+
+        // Assert
+        assertThat(totals).isEqualTo(new ExpenseTotals(new BigDecimal("20.00"), 3L, 20.0 / 3,
+                new BigDecimal("10.00"), new BigDecimal("4.75")));
+        assertThat(categories).containsExactlyInAnyOrder(
+                new CategoryTotal("Food", new BigDecimal("15.25"), 2L),
+                new CategoryTotal(null, new BigDecimal("4.75"), 1L));
+        assertThat(months).containsExactlyInAnyOrder(
+                new MonthlyTotal(2024, 1, new BigDecimal("15.25"), 2L),
+                new MonthlyTotal(2024, 3, new BigDecimal("4.75"), 1L));
+        assertThat(users).containsExactly(new UserTotal("John", "Doe", "john@example.com", new BigDecimal("20.00"), 3L));
+        verifyNoInteractions(database);
+    }
+
+    @Test
+    void onExpenseWritten_ShouldKeepTheLoadedExpensesCurrent() {
+        // Arrange
+        UUID kept = UUID.randomUUID();
+        UUID deleted = UUID.randomUUID();
+        insert(kept, food.getId(), LocalDate.of(2024, 1, 10), "10.00");
+        insert(deleted, food.getId(), LocalDate.of(2024, 1, 11), "3.00");
+        analytics.load();
+
+        // Act
+        analytics.onExpenseWritten(new ExpenseWrittenEvent(kept, user.getId(), food.getId(),
+                LocalDate.of(2024, 2, 1), new BigDecimal("12.00"), false));
+        analytics.onExpenseWritten(new ExpenseWrittenEvent(deleted, user.getId(), null, null, null, true));
+        analytics.onExpenseWritten(new ExpenseWrittenEvent(UUID.randomUUID(), user.getId(), food.getId(),
+                LocalDate.of(2024, 2, 2), new BigDecimal("1.50"), false));
+
+        // Assert
+        assertThat(store.getMonthlyTotals()).containsExactly(new MonthlyTotal(2024, 2, new BigDecimal("13.50"), 2L));
+    }
+
+    @Test
+    void getTotalsByUserId_ShouldStayOnTheDatabase() {
+        // Arrange
+        analytics.load();
+        UUID userId = user.getId();
+
+        // Act
+        store.getTotalsByUserId(userId);
+
+        // Assert
+        verify(database).getTotalsByUserId(userId);
+    }
+
+    @Test
+    void load_ShouldRunInAReadWriteTransaction_SoReplicaRoutingKeepsItOnThePrimary() {
+        // Arrange
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        ExpenseAnalytics configured = new AnalyticsConfig().expenseAnalytics(jdbcTemplate, transactionManager, 100);
+
+        // Act
+        configured.load();
+
+        // Assert
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertThat(definition.getValue().isReadOnly()).isFalse();
+    }
+
+    private void insert(UUID id, UUID categoryId, LocalDate date, String amount) {
+        jdbcTemplate.update("INSERT INTO expenses (id, user_id, category_id, expense_date, amount) VALUES (?, ?, ?, ?, ?)",
+                id, user.getId(), categoryId, date, new BigDecimal(amount));
+    }
+}
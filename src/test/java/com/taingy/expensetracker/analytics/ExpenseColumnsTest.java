@@ -0,0 +1,99 @@
+package com.taingy.expensetracker.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpenseColumnsTest {
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private final UUID food = UUID.randomUUID();
+
+    @Test
+    void upsert_ShouldReplaceTheValues_WhenTheIdIsAlreadyPresent() {
+        // Arrange
+        ExpenseColumns columns = new ExpenseColumns(0);
+        UUID id = UUID.randomUUID();
+        columns.upsert(id, alice, food, LocalDate.of(2024, 1, 5), new BigDecimal("10.00"));
+
+        // Act
+        columns.upsert(id, bob, null, LocalDate.of(2024, 2, 5), new BigDecimal("7.5"));
+
+        // Assert
+        assertThat(columns.size()).isEqualTo(1);
+        assertThat(columns.totals()).isEqualTo(new ExpenseColumns.Totals(750, 1, 750, 750));
+        assertThat(columns.sumByUser()).containsOnlyKeys(bob);
+        assertThat(columns.sumByCategory()).containsOnlyKeys((UUID) null);
+        assertThat(columns.sumByMonth()).containsOnlyKeys(2024 * 12 + 1);
+    }
+
+    @Test
+    void breakdowns_ShouldGroupAmountsInCents() {
+        // Arrange
+        ExpenseColumns columns = new ExpenseColumns(0);
+        columns.upsert(UUID.randomUUID(), alice, food, LocalDate.of(2023, 12, 31), new BigDecimal("12.50"));
+        columns.upsert(UUID.randomUUID(), alice, null, LocalDate.of(2024, 1, 1), new BigDecimal("3.00"));
+        columns.upsert(UUID.randomUUID(), bob, food, LocalDate.of(2024, 1, 31), new BigDecimal("0.99"));
+
+        // Act
+        Map<UUID, long[]> byCategory = columns.sumByCategory();
+        Map<Integer, long[]> byMonth = columns.sumByMonth();
+        Map<UUID, long[]> byUser = columns.sumByUser();
+
+        // Assert
+        assertThat(columns.totals()).isEqualTo(new ExpenseColumns.Totals(1649, 3, 1250, 99));
+        assertThat(byCategory.get(food)).containsExactly(1349, 2);
+        assertThat(byCategory.get(null)).containsExactly(300, 1);
+        assertThat(byMonth.get(2023 * 12 + 11)).containsExactly(1250, 1);
+        assertThat(byMonth.get(2024 * 12)).containsExactly(399, 2);
+        assertThat(byUser.get(alice)).containsExactly(1550, 2);
+        assertThat(byUser.get(bob)).containsExactly(99, 1);
+    }
+
+    @Test
+    void remove_ShouldKeepEveryOtherExpenseFindable_AfterManyInsertsAndRemoves() {
+        // Arrange
+        ExpenseColumns columns = new ExpenseColumns(0);
+        Random random = new Random(42);
+        Map<UUID, Long> expected = new HashMap<>();
+        List<UUID> ids = new ArrayList<>();
+
+        // Act
+        for (int step = 0; step < 20_000; step++) {
+            if (ids.isEmpty() || random.nextInt(3) > 0) {
+                UUID id = UUID.randomUUID();
+                long cents = random.nextInt(100_000);
+                columns.upsert(id, random.nextBoolean() ? alice : bob, food,
+                        LocalDate.of(2024, 1, 1).plusDays(random.nextInt(400)), BigDecimal.valueOf(cents, 2));
+                ids.add(id);
+                expected.put(id, cents);
+            } else {
+                UUID id = ids.remove(random.nextInt(ids.size()));
+                assertThat(columns.remove(id)).isTrue();
+                assertThat(columns.remove(id)).isFalse();
+                expected.remove(id);
+            }
+        }
+
+        // Assert
+        long sum = expected.values().stream().mapToLong(Long::longValue).sum();
+        assertThat(columns.size()).isEqualTo(expected.size());
+        assertThat(columns.totals().sum()).isEqualTo(sum);
+        assertThat(columns.sumByMonth().values().stream().mapToLong(group -> group[0]).sum()).isEqualTo(sum);
+        for (UUID id : ids) {
+            columns.upsert(id, alice, food, LocalDate.of(2024, 1, 1), BigDecimal.ZERO);
+        }
+        assertThat(columns.size()).isEqualTo(expected.size());
+        assertThat(columns.totals().sum()).isZero();
+    }
+}
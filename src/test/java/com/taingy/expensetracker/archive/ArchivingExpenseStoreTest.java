@@ -0,0 +1,293 @@
+package com.taingy.expensetracker.archive;
+
+import com.taingy.expensetracker.model.Category;
+import com.taingy.expensetracker.model.Expense;
+import com.taingy.expensetracker.model.User;
+import com.taingy.expensetracker.repository.CategoryRepository;
+import com.taingy.expensetracker.repository.ExpenseStore;
+import com.taingy.expensetracker.repository.UserRepository;
+import com.taingy.expensetracker.repository.projection.CategoryTotal;
+import com.taingy.expensetracker.repository.projection.ExpenseListItem;
+import com.taingy.expensetracker.repository.projection.ExpenseTotals;
+import com.taingy.expensetracker.repository.projection.MonthlyTotal;
+import com.taingy.expensetracker.repository.projection.UserTotal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ArchivingExpenseStoreTest {
+
+    private static final LocalDate HORIZON = LocalDate.of(2024, 1, 1);
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private ExpenseStore database;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    private ExpenseArchive archive;
+    private ArchivingExpenseStore store;
+    private User user;
+    private Category food;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setEmail("john@example.com");
+        food = new Category();
+        food.setId(UUID.randomUUID());
+        food.setName("Food");
+        lenient().when(userRepository.findAllById(any())).thenReturn(List.of(user));
+        lenient().when(categoryRepository.findAllById(any())).thenReturn(List.of(food));
+
+        archive = new ExpenseArchive(directory, 8);
+        archive.append(YearMonth.of(2023, 3), Map.of(archive.bucketFor(user.getId()), List.of(
+                archived("Old lunch", LocalDate.of(2023, 3, 10), "10.00"),
+                archived("Old dinner", LocalDate.of(2023, 3, 20), "30.00"))));
+        archive.append(YearMonth.of(2023, 11), Map.of(archive.bucketFor(user.getId()), List.of(
+                archived("Old taxi", LocalDate.of(2023, 11, 2), "5.50"))));
+        archive.advanceHorizon(HORIZON);
+        store = new ArchivingExpenseStore(database, archive, userRepository, categoryRepository);
+    }
+
+    @Test
+    void findExpensesWithFilters_ShouldOnlyQueryTheDatabase_WhenStartDateIsPastTheHorizon() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<ExpenseListItem> page = new PageImpl<>(List.of(), pageable, 0);
+        when(database.findExpensesWithFilters(user.getId(), null, null, HORIZON, null, null, null, pageable))
+                .thenReturn(page);
+
+        // Act
+        Page<ExpenseListItem> result = store.findExpensesWithFilters(user.getId(), null, null, HORIZON, null,
+                null, null, pageable);
+
+        // Assert
+        assertThat(result).isSameAs(page);
+        verifyNoInteractions(userRepository, categoryRepository);
+    }
+
+    @Test
+    void findExpensesWithFilters_ShouldMergeArchivedExpensesInSortOrder() {
+        // Arrange
+        Pageable pageable = PageRequest.of(1, 2, Sort.by("expenseDate").descending());
+        List<ExpenseListItem> recent = List.of(
+                item("Lunch", LocalDate.of(2024, 5, 2), "12.00"),
+                item("Bus", LocalDate.of(2023, 6, 1), "2.00"),
+                item("Coffee", LocalDate.of(2023, 2, 1), "3.00"));
+        when(database.findExpensesWithFilters(eq(user.getId()), isNull(), isNull(), isNull(), isNull(), isNull(),
+                isNull(), eq(PageRequest.of(0, 4, pageable.getSort()))))
+                .thenReturn(new PageImpl<>(recent, PageRequest.of(0, 4), 3));
+
+        // Act
+        Page<ExpenseListItem> result = store.findExpensesWithFilters(user.getId(), null, null, null, null,
+                null, null, pageable);
+
+        // Assert
+        assertThat(result.getTotalElements()).isEqualTo(6);
+        assertThat(result.getContent()).extracting(ExpenseListItem::title).containsExactly("Bus", "Old dinner");
+        assertThat(result.getContent().get(1).categoryName()).isEqualTo("Food");
+        assertThat(result.getContent().get(1).userEmail()).isEqualTo("john@example.com");
+    }
+
+    @Test
+    void findExpensesWithFilters_ShouldOnlyCountArchivedExpenses_WhenTheDatabaseFillsANewestFirstPage() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("expenseDate").descending());
+        List<ExpenseListItem> recent = List.of(
+                item("Lunch", LocalDate.of(2024, 5, 2), "12.00"),
+                item("Bus", LocalDate.of(2024, 2, 1), "2.00"));
+        when(database.findExpensesWithFilters(user.getId(), null, null, null, null, null, null, pageable))
+                .thenReturn(new PageImpl<>(recent, pageable, 10));
+
+        // Act
+        Page<ExpenseListItem> result = store.findExpensesWithFilters(user.getId(), null, null, null, null,
+                null, null, pageable);
+
+        // Assert
+        assertThat(result.getTotalElements()).isEqualTo(13);
+        assertThat(result.getContent()).containsExactlyElementsOf(recent);
+        verifyNoInteractions(userRepository, categoryRepository);
+    }
+
+    @Test
+    void findExpensesWithFilters_ShouldMergeByTitleInCodePointOrder_WithTheIdAsTieBreaker() throws Exception {
+        // Arrange
+        UUID archivedBus = new UUID(1, 0);
+        UUID databaseBus = new UUID(-1, 0);
+        archive.append(YearMonth.of(2023, 5), Map.of(archive.bucketFor(user.getId()), List.of(new ArchivedExpense(archivedBus,
+                user.getId(), food.getId(), "Bus", null, LocalDate.of(2023, 5, 1), new BigDecimal("2.00"),
+                null, null))));
+        Pageable pageable = PageRequest.of(0, 3, Sort.by("title"));
+        // The database's first rows in the same order: upper case before lower case
+        List<ExpenseListItem> head = List.of(
+                item(databaseBus, "Bus", LocalDate.of(2024, 5, 2), "2.50"),
+                item("Zoo", LocalDate.of(2024, 5, 3), "9.00"),
+                item("apple", LocalDate.of(2024, 5, 4), "1.00"));
+        when(database.findExpensesWithFilters(user.getId(), null, null, null, null, null, null, pageable))
+                .thenReturn(new PageImpl<>(head, pageable, 3));
+
+        // Act
+        Page<ExpenseListItem> result = store.findExpensesWithFilters(user.getId(), null, null, null, null,
+                null, null, pageable);
+
+        // Assert
+        assertThat(result.getTotalElements()).isEqualTo(7);
+        assertThat(result.getContent()).extracting(ExpenseListItem::title).containsExactly("Bus", "Bus", "Old dinner");
+        assertThat(result.getContent()).extracting(ExpenseListItem::id).startsWith(archivedBus, databaseBus);
+    }
+
+    @Test
+    void findChangesByUserId_ShouldMergeArchivedExpensesByLastUpdate() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 3);
+        LocalDateTime upTo = LocalDateTime.of(2024, 6, 1, 0, 0);
+        Expense groceries = new Expense();
+        groceries.setId(UUID.randomUUID());
+        groceries.setTitle("Groceries");
+        groceries.setUpdatedAt(LocalDateTime.of(2023, 3, 15, 9, 30));
+        LocalDateTime since = LocalDateTime.of(2023, 1, 1, 0, 0);
+        UUID afterId = new UUID(0, 0);
+        when(database.findChangesByUserId(user.getId(), since, afterId, upTo, pageable))
+                .thenReturn(List.of(groceries));
+
+        // Act
+        List<Expense> changes = store.findChangesByUserId(user.getId(), since, afterId, upTo, pageable);
+
+        // Assert
+        assertThat(changes).extracting(Expense::getTitle).containsExactly("Old lunch", "Groceries", "Old dinner");
+        assertThat(changes.get(0).getUser()).isSameAs(user);
+        assertThat(changes.get(0).getCategory()).isSameAs(food);
+        assertThat(changes.get(0).getAmount()).isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    void findChangesByUserId_ShouldResumeAfterTheCursor() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10);
+        LocalDateTime since = LocalDateTime.of(2023, 3, 20, 0, 0);
+        UUID afterId = new UUID(-1, -1);
+        LocalDateTime upTo = LocalDateTime.of(2024, 6, 1, 0, 0);
+        when(database.findChangesByUserId(user.getId(), since, afterId, upTo, pageable)).thenReturn(List.of());
+
+        // Act
+        List<Expense> changes = store.findChangesByUserId(user.getId(), since, afterId, upTo, pageable);
+
+        // Assert
+        assertThat(changes).extracting(Expense::getTitle).containsExactly("Old taxi");
+    }
+
+    @Test
+    void getTotalsByUserId_ShouldAddArchivedAmounts() {
+        // Arrange
+        when(database.getTotalsByUserId(user.getId())).thenReturn(new ExpenseTotals(
+                new BigDecimal("54.50"), 2L, 27.25, new BigDecimal("50.00"), new BigDecimal("4.50")));
+
+        // Act
+        ExpenseTotals totals = store.getTotalsByUserId(user.getId());
+
+        // Assert
+        assertThat(totals.totalAmount()).isEqualByComparingTo("100.00");
+        assertThat(totals.count()).isEqualTo(5);
+        assertThat(totals.averageAmount()).isEqualTo(20.0);
+        assertThat(totals.maxAmount()).isEqualByComparingTo("50.00");
+        assertThat(totals.minAmount()).isEqualByComparingTo("4.50");
+    }
+
+    @Test
+    void getTotals_ShouldUseArchivedAmounts_WhenTheDatabaseHasNone() {
+        // Arrange
+        when(database.getTotals()).thenReturn(new ExpenseTotals(null, 0L, null, null, null));
+
+        // Act
+        ExpenseTotals totals = store.getTotals();
+
+        // Assert
+        assertThat(totals.totalAmount()).isEqualByComparingTo("45.50");
+        assertThat(totals.count()).isEqualTo(3);
+        assertThat(totals.minAmount()).isEqualByComparingTo("5.50");
+    }
+
+    @Test
+    void breakdowns_ShouldMergeArchivedGroupsWithTheDatabaseGroups() {
+        // Arrange
+        when(database.getCategoryTotals()).thenReturn(List.of(new CategoryTotal("Food", new BigDecimal("4.50"), 1L)));
+        when(database.getMonthlyTotals()).thenReturn(List.of(new MonthlyTotal(2023, 3, new BigDecimal("1.00"), 1L)));
+        when(database.getUserTotals()).thenReturn(List.of());
+
+        // Act
+        List<CategoryTotal> categories = store.getCategoryTotals();
+        List<MonthlyTotal> months = store.getMonthlyTotals();
+        List<UserTotal> users = store.getUserTotals();
+
+        // Assert
+        assertThat(categories).containsExactly(new CategoryTotal("Food", new BigDecimal("50.00"), 4L));
+        assertThat(months).containsExactlyInAnyOrder(
+                new MonthlyTotal(2023, 3, new BigDecimal("41.00"), 3L),
+                new MonthlyTotal(2023, 11, new BigDecimal("5.50"), 1L));
+        assertThat(users).containsExactly(new UserTotal("John", "Doe", "john@example.com", new BigDecimal("45.50"), 3L));
+    }
+
+    @Test
+    void save_ShouldGoToTheDatabase() {
+        // Arrange
+        Expense expense = new Expense();
+
+        // Act
+        store.save(expense);
+
+        // Assert
+        verify(database).save(expense);
+    }
+
+    private ArchivedExpense archived(String title, LocalDate date, String amount) {
+        LocalDateTime createdAt = date.atStartOfDay();
+        return new ArchivedExpense(UUID.randomUUID(), user.getId(), food.getId(), title, null, date,
+                new BigDecimal(amount), createdAt, createdAt);
+    }
+
+    private ExpenseListItem item(String title, LocalDate date, String amount) {
+        return item(UUID.randomUUID(), title, date, amount);
+    }
+
+    private ExpenseListItem item(UUID id, String title, LocalDate date, String amount) {
+        return new ExpenseListItem(id, date, title, null, new BigDecimal(amount), "Food",
+                user.getId(), user.getEmail(), user.getFirstName(), user.getLastName(), null, null);
+    }
+}
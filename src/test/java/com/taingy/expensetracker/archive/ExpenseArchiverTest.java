@@ -0,0 +1,231 @@
+package com.taingy.expensetracker.archive;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExpenseArchiverTest {
+
+    private static final LocalDate CUTOFF = LocalDate.of(2024, 3, 1);
+
+    @TempDir
+    Path directory;
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private final UUID food = UUID.randomUUID();
+    private final UUID transport = UUID.randomUUID();
+
+    private JdbcTemplate jdbcTemplate;
+    private ExpenseArchive archive;
+    private ExpenseArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:archive-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE expenses (id uuid PRIMARY KEY, user_id uuid NOT NULL, "
+                + "category_id uuid NOT NULL, title varchar(150) NOT NULL, description varchar(255), "
+                + "expense_date date NOT NULL, amount numeric(10, 2) NOT NULL, created_at timestamp, "
+                + "updated_at timestamp)");
+        archive = new ExpenseArchive(directory, 4);
+        archiver = new ExpenseArchiver(archive, jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), 730, 3, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void archiveBefore_ShouldMoveOldExpensesIntoMonthFiles_AndKeepNewerOnesInTheDatabase() throws Exception {
+        // Arrange
+        List<ArchivedExpense> old = List.of(
+                insert(alice, food, "Lunch", LocalDate.of(2022, 5, 3), "12.50"),
+                insert(bob, transport, "Taxi", LocalDate.of(2022, 11, 30), "30.00"),
+                insert(alice, transport, "Train", LocalDate.of(2023, 7, 14), "8.20"),
+                insert(bob, food, "Dinner", LocalDate.of(2024, 2, 29), "41.99"));
+        insert(alice, food, "Breakfast", CUTOFF, "6.00");
+
+        // Act
+        int archived = archiver.archiveBefore(CUTOFF);
+
+        // Assert
+        assertThat(archived).isEqualTo(old.size());
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses", Long.class)).isEqualTo(1);
+        assertThat(archive.horizon()).isEqualTo(CUTOFF);
+        assertThat(archive.find(null, null, null, null, null, null, null))
+                .containsExactlyInAnyOrderElementsOf(old);
+        try (Stream<Path> files = Files.walk(directory)) {
+            assertThat(files.map(file -> file.getFileName().toString()).filter(name -> name.endsWith(".exparc")))
+                    .allMatch(name -> name.matches("202[234]-(05|11|07|02)\\.exparc"));
+        }
+    }
+
+    @Test
+    void archiveBefore_ShouldAddToExistingMonth_WhenRunAgain() {
+        // Arrange
+        insert(alice, food, "Lunch", LocalDate.of(2022, 5, 3), "12.50");
+        archiver.archiveBefore(LocalDate.of(2022, 5, 10));
+        insert(alice, food, "Lunch", LocalDate.of(2022, 5, 24), "14.00");
+
+        // Act
+        archiver.archiveBefore(CUTOFF);
+
+        // Assert
+        ExpenseArchive.Totals totals = archive.totals(alice);
+        assertThat(totals.count()).isEqualTo(2);
+        assertThat(totals.sum()).isEqualTo(2650);
+        assertThat(archive.totals(bob).count()).isZero();
+    }
+
+    @Test
+    void archiveBefore_ShouldSplitAMonthIntoChunks_AndMergeThemIntoOneFile() throws Exception {
+        // Arrange
+        for (int day = 1; day <= 7; day++) {
+            insert(alice, food, "Lunch", LocalDate.of(2022, 5, day), "10.00");
+        }
+
+        // Act
+        int archived = archiver.archiveBefore(CUTOFF);
+
+        // Assert
+        assertThat(archived).isEqualTo(7);
+        assertThat(archive.totals(alice).count()).isEqualTo(7);
+        try (Stream<Path> files = Files.walk(directory)) {
+            assertThat(files.map(file -> file.getFileName().toString()).filter(name -> name.endsWith(".exparc")))
+                    .containsExactly("2022-05.exparc");
+        }
+    }
+
+    @Test
+    void archiveBefore_ShouldKeepEarlierChunks_WhenALaterOneFails() throws Exception {
+        // Arrange
+        UUID carol = UUID.randomUUID();
+        while (archive.bucketFor(carol) == archive.bucketFor(alice)) {
+            carol = UUID.randomUUID();
+        }
+        insert(alice, food, "Lunch", LocalDate.of(2022, 5, 3), "12.50");
+        insert(carol, food, "Dinner", LocalDate.of(2022, 11, 30), "30.00");
+        // A file where carol's bucket directory would go
+        Files.createFile(directory.resolve(String.format("bucket-%03d", archive.bucketFor(carol))));
+
+        // Act & Assert
+        assertThatThrownBy(() -> archiver.archiveBefore(CUTOFF)).isInstanceOf(UncheckedIOException.class);
+        assertThat(archive.horizon()).isEqualTo(LocalDate.of(2022, 6, 1));
+        assertThat(archive.totals(alice).count()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses", Long.class)).isEqualTo(1);
+    }
+
+    @Test
+    void archiveBefore_ShouldDropRowsLeftPastTheHorizon_ByARunThatFailed() throws Exception {
+        // Arrange
+        insert(alice, food, "Lunch", LocalDate.of(2022, 5, 3), "12.50");
+        archiver.archiveBefore(LocalDate.of(2022, 6, 1));
+        ArchivedExpense deleted = insert(alice, food, "Dinner", LocalDate.of(2022, 8, 9), "20.00");
+        archive.append(YearMonth.of(2022, 8), Map.of(archive.bucketFor(alice), List.of(deleted)));
+        jdbcTemplate.update("DELETE FROM expenses WHERE id = ?", deleted.id());
+        insert(alice, food, "Breakfast", LocalDate.of(2023, 1, 10), "6.00");
+
+        // Act
+        archiver.archiveBefore(CUTOFF);
+
+        // Assert
+        assertThat(archive.horizon()).isEqualTo(LocalDate.of(2023, 2, 1));
+        assertThat(archive.find(alice, null, null, null, null, null, null)).extracting(ArchivedExpense::title)
+                .containsExactlyInAnyOrder("Lunch", "Breakfast");
+    }
+
+    @Test
+    void find_ShouldApplyTheSearchFilters() {
+        // Arrange
+        insert(alice, food, "Team lunch", LocalDate.of(2022, 5, 3), "12.50");
+        insert(alice, food, "Groceries", LocalDate.of(2022, 6, 3), "80.00");
+        insert(alice, transport, "Lunch taxi", LocalDate.of(2023, 1, 9), "19.99");
+        insert(bob, food, "Lunch", LocalDate.of(2022, 5, 4), "10.00");
+        archiver.archiveBefore(CUTOFF);
+
+        // Act
+        List<ArchivedExpense> lunches = archive.find(alice, null, "LUNCH", null, null, null, null);
+        List<ArchivedExpense> foodIn2022 = archive.find(alice, food, null, LocalDate.of(2022, 1, 1),
+                LocalDate.of(2022, 12, 31), new BigDecimal("12.50"), new BigDecimal("50"));
+
+        // Assert
+        assertThat(lunches).extracting(ArchivedExpense::title).containsExactlyInAnyOrder("Team lunch", "Lunch taxi");
+        assertThat(foodIn2022).extracting(ArchivedExpense::title).containsExactly("Team lunch");
+    }
+
+    @Test
+    void find_ShouldIgnoreRowsPastTheHorizon_WhenARunStoppedBeforeMovingIt() throws Exception {
+        // Arrange
+        ArchivedExpense archived = insert(alice, food, "Lunch", LocalDate.of(2022, 5, 3), "12.50");
+        archiver.archiveBefore(LocalDate.of(2022, 6, 1));
+        ArchivedExpense pending = insert(alice, food, "Dinner", LocalDate.of(2022, 8, 9), "20.00");
+
+        // Act
+        archive.append(YearMonth.of(2022, 8), Map.of(archive.bucketFor(alice), List.of(pending)));
+
+        // Assert
+        assertThat(archive.find(alice, null, null, null, null, null, null)).containsExactly(archived);
+        assertThat(archive.sumByMonth(alice)).containsOnlyKeys(2022 * 12 + 4);
+    }
+
+    @Test
+    void horizon_ShouldFollowTheManifest_WhenAnotherInstanceMovesIt() throws Exception {
+        // Arrange
+        ExpenseArchive other = new ExpenseArchive(directory, 4);
+        insert(alice, food, "Lunch", LocalDate.of(2022, 5, 3), "12.50");
+
+        // Act
+        archiver.archiveBefore(LocalDate.of(2023, 1, 1));
+        LocalDate first = other.horizon();
+        archive.advanceHorizon(CUTOFF);
+
+        // Assert
+        assertThat(first).isEqualTo(LocalDate.of(2023, 1, 1));
+        assertThat(other.horizon()).isEqualTo(CUTOFF);
+        assertThat(other.find(alice, null, null, null, null, null, null)).extracting(ArchivedExpense::title)
+                .containsExactly("Lunch");
+    }
+
+    @Test
+    void constructor_ShouldRejectNonPositiveMinimumAge() {
+        // Act & Assert
+        assertThatThrownBy(() -> new ExpenseArchiver(archive, jdbcTemplate, null, 0, 20000, 500))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ExpenseArchiver(archive, jdbcTemplate, null, 730, 0, 500))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ArchivedExpense insert(UUID userId, UUID categoryId, String title, LocalDate date, String amount) {
+        LocalDateTime now = LocalDateTime.of(2024, 4, 1, 12, 30, 15, 123_456_000);
+        ArchivedExpense expense = new ArchivedExpense(UUID.randomUUID(), userId, categoryId, title, null, date,
+                new BigDecimal(amount), now, now);
+        jdbcTemplate.update("INSERT INTO expenses (id, user_id, category_id, title, expense_date, amount, "
+                + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                expense.id(), userId, categoryId, title, date, expense.amount(), now, now);
+        return expense;
+    }
+}
@@ -0,0 +1,202 @@
+package com.taingy.expensetracker.cache;
+
+import com.taingy.expensetracker.dto.ExpenseSummary;
+import com.taingy.expensetracker.event.ExpenseChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExpenseSummaryCacheTest {
+
+    private Queue<Runnable> refreshTasks;
+    private ExpenseSummaryCache cache;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        refreshTasks = new ArrayDeque<>();
+        cache = new ExpenseSummaryCache(refreshTasks::add, 100, 10);
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    void getUserSummary_ShouldComputeOnce_WhenCalledRepeatedly() {
+        // Arrange
+        AtomicInteger computations = new AtomicInteger();
+
+        // Act
+        ExpenseSummary first = cache.getUserSummary(userId, () -> summary(computations.incrementAndGet()));
+        ExpenseSummary second = cache.getUserSummary(userId, () -> summary(computations.incrementAndGet()));
+
+        // Assert
+        assertThat(computations).hasValue(1);
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void getUserSummary_ShouldCoalesceConcurrentMisses() throws Exception {
+        // Arrange
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch computing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+
+        try {
+            // Act
+            Future<ExpenseSummary> leader = callers.submit(() -> cache.getUserSummary(userId, () -> {
+                computations.incrementAndGet();
+                computing.countDown();
+                await(release);
+                return summary(1);
+            }));
+            assertThat(computing.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<ExpenseSummary> follower1 = callers.submit(() -> cache.getUserSummary(userId, () -> summary(computations.incrementAndGet())));
+            Future<ExpenseSummary> follower2 = callers.submit(() -> cache.getUserSummary(userId, () -> summary(computations.incrementAndGet())));
+            release.countDown();
+
+            // Assert
+            ExpenseSummary result = leader.get(5, TimeUnit.SECONDS);
+            assertThat(follower1.get(5, TimeUnit.SECONDS)).isSameAs(result);
+            assertThat(follower2.get(5, TimeUnit.SECONDS)).isSameAs(result);
+            assertThat(computations).hasValue(1);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void getUserSummary_ShouldRecompute_AfterExpenseChanged() {
+        // Arrange
+        AtomicInteger computations = new AtomicInteger();
+        cache.getUserSummary(userId, () -> summary(computations.incrementAndGet()));
+
+        // Act
+        cache.onExpenseChanged(new ExpenseChangedEvent(userId));
+        ExpenseSummary result = cache.getUserSummary(userId, () -> summary(computations.incrementAndGet()));
+
+        // Assert
+        assertThat(computations).hasValue(2);
+        assertThat(result.getTotalCount()).isEqualTo(2L);
+    }
+
+    @Test
+    void getUserSummary_ShouldNotCacheFailures() {
+        // Act & Assert
+        assertThatThrownBy(() -> cache.getUserSummary(userId, () -> {
+            throw new IllegalStateException("database unavailable");
+        })).isInstanceOf(IllegalStateException.class);
+
+        ExpenseSummary result = cache.getUserSummary(userId, () -> summary(1));
+        assertThat(result.getTotalCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void getGlobalSummary_ShouldServeStaleValueAndRefreshInBackground() {
+        // Arrange
+        AtomicInteger computations = new AtomicInteger();
+        ExpenseSummary initial = cache.getGlobalSummary(() -> summary(computations.incrementAndGet()));
+
+        // Act
+        cache.onExpenseChanged(new ExpenseChangedEvent(userId));
+        ExpenseSummary stale = cache.getGlobalSummary(() -> summary(computations.incrementAndGet()));
+        cache.getGlobalSummary(() -> summary(computations.incrementAndGet()));
+
+        // Assert
+        assertThat(stale).isSameAs(initial);
+        assertThat(refreshTasks).hasSize(1);
+        assertThat(computations).hasValue(1);
+
+        refreshTasks.poll().run();
+        ExpenseSummary refreshed = cache.getGlobalSummary(() -> summary(computations.incrementAndGet()));
+        assertThat(refreshed.getTotalCount()).isEqualTo(2L);
+        assertThat(refreshTasks).isEmpty();
+    }
+
+    @Test
+    void getGlobalSummary_ShouldNotRefresh_WhenNothingChanged() {
+        // Arrange
+        cache.getGlobalSummary(() -> summary(1));
+
+        // Act
+        cache.getGlobalSummary(() -> summary(2));
+
+        // Assert
+        assertThat(refreshTasks).isEmpty();
+    }
+
+    @Test
+    void getUserSummary_ShouldNotCachePartialSummary() {
+        // Arrange
+        AtomicInteger computations = new AtomicInteger();
+
+        // Act
+        ExpenseSummary partial = cache.getUserSummary(userId, () -> {
+            computations.incrementAndGet();
+            return ExpenseSummary.builder().partial(true).build();
+        });
+        ExpenseSummary complete = cache.getUserSummary(userId, () -> summary(computations.incrementAndGet()));
+
+        // Assert
+        assertThat(partial.isPartial()).isTrue();
+        assertThat(complete.isPartial()).isFalse();
+        assertThat(computations).hasValue(2);
+    }
+
+    @Test
+    void getGlobalSummary_ShouldKeepCompleteValue_WhenRefreshIsPartial() {
+        // Arrange
+        ExpenseSummary initial = cache.getGlobalSummary(() -> summary(1));
+        cache.onExpenseChanged(new ExpenseChangedEvent(userId));
+
+        // Act
+        cache.getGlobalSummary(() -> ExpenseSummary.builder().partial(true).build());
+        refreshTasks.poll().run();
+        ExpenseSummary afterRefresh = cache.getGlobalSummary(() -> summary(3));
+
+        // Assert
+        assertThat(afterRefresh).isSameAs(initial);
+        assertThat(cache.globalVersionOf(afterRefresh)).isPresent();
+    }
+
+    @Test
+    void bindTo_ShouldExposeHitAndMissCounts() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        // Act
+        cache.getUserSummary(userId, () -> summary(1));
+        cache.getUserSummary(userId, () -> summary(2));
+
+        // Assert
+        assertThat(registry.get("cache.gets").tag("cache", "expenseSummaries").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("cache.gets").tag("cache", "expenseSummaries").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    private static ExpenseSummary summary(long count) {
+        return ExpenseSummary.builder().totalCount(count).build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
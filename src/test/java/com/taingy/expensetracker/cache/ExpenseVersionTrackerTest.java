@@ -0,0 +1,71 @@
+package com.taingy.expensetracker.cache;
+
+import com.taingy.expensetracker.event.CategoryChangedEvent;
+import com.taingy.expensetracker.event.ExpenseChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpenseVersionTrackerTest {
+
+    private ExpenseVersionTracker tracker;
+    private UUID userId;
+    private UUID otherUserId;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new ExpenseVersionTracker();
+        userId = UUID.randomUUID();
+        otherUserId = UUID.randomUUID();
+    }
+
+    @Test
+    void onExpenseChanged_ShouldChangeTagsOfOwnerAndAllUsersScope() {
+        // Arrange
+        String userTag = tracker.userExpensesTag(userId);
+        String otherUserTag = tracker.userExpensesTag(otherUserId);
+        String allTag = tracker.allExpensesTag();
+
+        // Act
+        tracker.onExpenseChanged(new ExpenseChangedEvent(userId));
+
+        // Assert
+        assertThat(tracker.userExpensesTag(userId)).isNotEqualTo(userTag);
+        assertThat(tracker.allExpensesTag()).isNotEqualTo(allTag);
+        assertThat(tracker.userExpensesTag(otherUserId)).isEqualTo(otherUserTag);
+    }
+
+    @Test
+    void onCategoryChanged_ShouldChangeEveryTag() {
+        // Arrange
+        LocalDateTime lastModified = LocalDateTime.of(2024, 1, 15, 10, 30);
+        String userTag = tracker.userExpensesTag(userId);
+        String allTag = tracker.allExpensesTag();
+        String categoriesTag = tracker.categoriesTag();
+        String expenseTag = tracker.expenseTag(lastModified);
+
+        // Act
+        tracker.onCategoryChanged(new CategoryChangedEvent(UUID.randomUUID()));
+
+        // Assert
+        assertThat(tracker.userExpensesTag(userId)).isNotEqualTo(userTag);
+        assertThat(tracker.allExpensesTag()).isNotEqualTo(allTag);
+        assertThat(tracker.categoriesTag()).isNotEqualTo(categoriesTag);
+        assertThat(tracker.expenseTag(lastModified)).isNotEqualTo(expenseTag);
+    }
+
+    @Test
+    void expenseTag_ShouldDifferForSubSecondChanges() {
+        // Arrange
+        LocalDateTime first = LocalDateTime.of(2024, 1, 15, 10, 30, 0, 100_000_000);
+        LocalDateTime second = first.plusNanos(1_000);
+
+        // Act & Assert
+        assertThat(tracker.expenseTag(first)).isNotEqualTo(tracker.expenseTag(second));
+        assertThat(tracker.expenseTag(first)).isEqualTo(tracker.expenseTag(first));
+    }
+}
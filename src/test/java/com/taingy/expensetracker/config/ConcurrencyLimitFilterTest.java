@@ -0,0 +1,60 @@
+package com.taingy.expensetracker.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+
+    @Test
+    void doFilter_ShouldRejectWith503_WhenNoPermitBecomesAvailable() throws Exception {
+        // Arrange
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, 4, 10, 10);
+        MockHttpServletResponse nestedResponse = new MockHttpServletResponse();
+        MockHttpServletResponse outerResponse = new MockHttpServletResponse();
+
+        // Act: the second request arrives while the first still holds the only permit
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/expenses"), outerResponse,
+                (request, response) -> filter.doFilter(new MockHttpServletRequest("GET", "/api/expenses"),
+                        nestedResponse, new MockFilterChain()));
+
+        // Assert
+        assertThat(outerResponse.getStatus()).isEqualTo(200);
+        assertThat(nestedResponse.getStatus()).isEqualTo(503);
+        assertThat(nestedResponse.getHeader("Retry-After")).isEqualTo("1");
+    }
+
+    @Test
+    void doFilter_ShouldReleasePermit_WhenRequestCompletes() throws Exception {
+        // Arrange
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, 4, 10, 10);
+
+        // Act
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/expenses"), first, new MockFilterChain());
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/expenses"), second, new MockFilterChain());
+
+        // Assert
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(second.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void doFilter_ShouldNotLimitNonApiRequests() throws Exception {
+        // Arrange
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, 4, 10, 10);
+        MockHttpServletResponse nestedResponse = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/expenses"), new MockHttpServletResponse(),
+                (request, response) -> filter.doFilter(new MockHttpServletRequest("GET", "/swagger-ui/index.html"),
+                        nestedResponse, new MockFilterChain()));
+
+        // Assert
+        assertThat(nestedResponse.getStatus()).isEqualTo(200);
+    }
+}
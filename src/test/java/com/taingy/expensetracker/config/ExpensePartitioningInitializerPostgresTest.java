@@ -0,0 +1,105 @@
+package com.taingy.expensetracker.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Testcontainers(disabledWithoutDocker = true)
+class ExpensePartitioningInitializerPostgresTest {
+
+    @Container
+    private static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:16-alpine");
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS expenses, categories, users CASCADE");
+        // The shape Hibernate creates for the entities
+        jdbcTemplate.execute("CREATE TABLE users (id uuid PRIMARY KEY, email varchar(255) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE categories (id uuid PRIMARY KEY, name varchar(255) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE expenses (id uuid PRIMARY KEY, "
+                + "user_id uuid NOT NULL CONSTRAINT fk_expenses_user REFERENCES users (id), "
+                + "category_id uuid NOT NULL CONSTRAINT fk_expenses_category REFERENCES categories (id), "
+                + "title varchar(150) NOT NULL, expense_date date NOT NULL, amount numeric(10, 2) NOT NULL, "
+                + "updated_at timestamp(6))");
+        jdbcTemplate.execute("CREATE INDEX idx_expenses_user_updated_at ON expenses (user_id, updated_at)");
+    }
+
+    @Test
+    void run_ShouldConvertAPopulatedTable_KeepingRowsIndexesAndForeignKeys() {
+        // Arrange
+        UUID category = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO categories (id, name) VALUES (?, 'Food')", category);
+        for (int i = 0; i < 20; i++) {
+            UUID user = UUID.randomUUID();
+            jdbcTemplate.update("INSERT INTO users (id, email) VALUES (?, ?)", user, "user" + i + "@example.com");
+            for (int j = 0; j < 5; j++) {
+                jdbcTemplate.update("INSERT INTO expenses (id, user_id, category_id, title, expense_date, amount, "
+                        + "updated_at) VALUES (?, ?, ?, 'Lunch', current_date, 12.50, now())",
+                        UUID.randomUUID(), user, category);
+            }
+        }
+
+        // Act
+        initializer(4).run(new DefaultApplicationArguments());
+
+        // Assert
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT relkind::text FROM pg_class WHERE oid = to_regclass('expenses')", String.class)).isEqualTo("p");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses", Long.class)).isEqualTo(100);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_inherits WHERE inhparent = 'expenses'::regclass", Integer.class)).isEqualTo(4);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses_p0", Long.class)).isPositive();
+        assertThat(jdbcTemplate.queryForObject("SELECT to_regclass('expenses_unpartitioned')::text", String.class))
+                .isNull();
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE tablename = 'expenses'", String.class))
+                .contains("idx_expenses_user_updated_at");
+        assertThat(jdbcTemplate.queryForObject("SELECT pg_get_constraintdef(oid) FROM pg_constraint "
+                + "WHERE conrelid = 'expenses'::regclass AND contype = 'p'", String.class))
+                .isEqualTo("PRIMARY KEY (id, user_id)");
+        assertThat(jdbcTemplate.queryForList("SELECT conname FROM pg_constraint "
+                + "WHERE conrelid = 'expenses'::regclass AND contype = 'f'", String.class))
+                .containsExactlyInAnyOrder("fk_expenses_user", "fk_expenses_category");
+        assertThatThrownBy(() -> jdbcTemplate.update("INSERT INTO expenses (id, user_id, category_id, title, "
+                + "expense_date, amount) VALUES (?, ?, ?, 'Orphan', current_date, 1)",
+                UUID.randomUUID(), UUID.randomUUID(), category))
+                .hasMessageContaining("fk_expenses_user");
+    }
+
+    @Test
+    void run_ShouldLeaveAnAlreadyPartitionedTableAlone() {
+        // Arrange
+        initializer(4).run(new DefaultApplicationArguments());
+        jdbcTemplate.execute("CREATE INDEX idx_expenses_title ON expenses (title)");
+
+        // Act
+        initializer(4).run(new DefaultApplicationArguments());
+
+        // Assert
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_inherits WHERE inhparent = 'expenses'::regclass", Integer.class)).isEqualTo(4);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE tablename = 'expenses'", String.class))
+                .contains("idx_expenses_title");
+    }
+
+    private ExpensePartitioningInitializer initializer(int partitions) {
+        return new ExpensePartitioningInitializer(jdbcTemplate, new DataSourceTransactionManager(dataSource), partitions);
+    }
+}
@@ -0,0 +1,114 @@
+package com.taingy.expensetracker.config;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class ExpensePartitioningInitializerTest {
+
+    @Test
+    void partitionStatements_ShouldCreateOneHashPartitionPerRemainder() {
+        // Act
+        List<String> statements = ExpensePartitioningInitializer.partitionStatements(4);
+
+        // Assert
+        assertThat(statements).hasSize(5);
+        assertThat(statements.getFirst()).endsWith("PARTITION BY HASH (user_id)");
+        assertThat(statements.get(4))
+                .isEqualTo("CREATE TABLE expenses_p3 PARTITION OF expenses FOR VALUES WITH (MODULUS 4, REMAINDER 3)");
+    }
+
+    @Test
+    void constructor_ShouldRejectFewerThanTwoPartitions() {
+        assertThatThrownBy(() -> new ExpensePartitioningInitializer(mock(JdbcTemplate.class),
+                mock(PlatformTransactionManager.class), 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_ShouldSkipDatabasesOtherThanPostgres() {
+        // Arrange
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+        ExpensePartitioningInitializer initializer =
+                new ExpensePartitioningInitializer(jdbcTemplate, transactionManager, 16);
+
+        // Act
+        initializer.run(new DefaultApplicationArguments());
+
+        // Assert
+        verify(jdbcTemplate).execute(any(ConnectionCallback.class));
+        verifyNoMoreInteractions(jdbcTemplate);
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_ShouldCopyIntoPartitionsAndRecreateIndexesAndForeignKeys_InOneTransaction() throws Exception {
+        // Arrange
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("PostgreSQL");
+        when(jdbcTemplate.queryForObject(startsWith("SELECT relkind"), eq(String.class))).thenReturn("r");
+        when(jdbcTemplate.queryForList(startsWith("SELECT pg_get_indexdef"), eq(String.class))).thenReturn(List.of(
+                "CREATE INDEX idx_expenses_user_updated_at ON public.expenses USING btree (user_id, updated_at)"));
+        ResultSet foreignKey = mock(ResultSet.class);
+        when(foreignKey.getString(1)).thenReturn("fk_expenses_user");
+        when(foreignKey.getString(2)).thenReturn("FOREIGN KEY (user_id) REFERENCES users(id)");
+        when(jdbcTemplate.query(startsWith("SELECT conname"), any(RowMapper.class))).thenAnswer(invocation ->
+                List.of(invocation.<RowMapper<String>>getArgument(1).mapRow(foreignKey, 0)));
+        when(jdbcTemplate.update(anyString())).thenReturn(3);
+        ExpensePartitioningInitializer initializer =
+                new ExpensePartitioningInitializer(jdbcTemplate, transactionManager, 2);
+
+        // Act
+        initializer.run(new DefaultApplicationArguments());
+
+        // Assert
+        ArgumentCaptor<String> executed = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(executed.capture());
+        List<String> expected = new ArrayList<>();
+        expected.add("LOCK TABLE expenses IN ACCESS EXCLUSIVE MODE");
+        expected.add("ALTER TABLE expenses RENAME TO expenses_unpartitioned");
+        expected.addAll(ExpensePartitioningInitializer.partitionStatements(2));
+        expected.add("DROP TABLE expenses_unpartitioned");
+        expected.add("ALTER TABLE expenses ADD PRIMARY KEY (id, user_id)");
+        expected.add("CREATE INDEX idx_expenses_user_updated_at ON public.expenses USING btree (user_id, updated_at)");
+        expected.add("ALTER TABLE expenses ADD CONSTRAINT fk_expenses_user FOREIGN KEY (user_id) REFERENCES users(id)");
+        expected.add("ANALYZE expenses");
+        assertThat(executed.getAllValues()).containsExactlyElementsOf(expected);
+        InOrder copy = inOrder(jdbcTemplate, transactionManager);
+        copy.verify(jdbcTemplate).execute(expected.get(expected.indexOf("DROP TABLE expenses_unpartitioned") - 1));
+        copy.verify(jdbcTemplate).update("INSERT INTO expenses SELECT * FROM expenses_unpartitioned");
+        copy.verify(jdbcTemplate).execute("DROP TABLE expenses_unpartitioned");
+        copy.verify(transactionManager).commit(any());
+        copy.verify(jdbcTemplate).execute("ANALYZE expenses");
+    }
+}
@@ -1,6 +1,7 @@
 package com.taingy.expensetracker.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taingy.expensetracker.cache.ExpenseVersionTracker;
 import com.taingy.expensetracker.dto.CategoryRequest;
 import com.taingy.expensetracker.dto.CategoryResponse;
 import com.taingy.expensetracker.service.CategoryService;
@@ -36,6 +37,9 @@ class CategoryControllerTest {
     @MockBean
     private CategoryService categoryService;
 
+    @MockBean
+    private ExpenseVersionTracker versionTracker;
+
     private CategoryResponse categoryResponse;
     private CategoryRequest categoryRequest;
     private UUID categoryId;
@@ -55,6 +59,8 @@ class CategoryControllerTest {
         categoryRequest = new CategoryRequest();
         categoryRequest.setName("Food");
         categoryRequest.setDescription("Food and dining expenses");
+
+        when(versionTracker.categoriesTag()).thenReturn("epoch-c1");
     }
 
     @Test
@@ -74,6 +80,19 @@ class CategoryControllerTest {
         verify(categoryService).findAll();
     }
 
+    @Test
+    @WithMockUser
+    void getCategories_ShouldReturnNotModified_WhenETagMatches() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/categories")
+                        .header("If-None-Match", "\"epoch-c1\"")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"epoch-c1\""));
+
+        verify(categoryService, never()).findAll();
+    }
+
     @Test
     @WithMockUser
     void getCategories_ShouldReturnEmptyList_WhenNoCategoriesExist() throws Exception {
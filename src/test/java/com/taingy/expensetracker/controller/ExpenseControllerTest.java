@@ -1,6 +1,8 @@
 package com.taingy.expensetracker.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taingy.expensetracker.cache.ExpenseSummaryCache;
+import com.taingy.expensetracker.cache.ExpenseVersionTracker;
 import com.taingy.expensetracker.dto.ExpenseRequest;
 import com.taingy.expensetracker.dto.ExpenseResponse;
 import com.taingy.expensetracker.service.ExpenseService;
@@ -41,6 +43,12 @@ class ExpenseControllerTest {
     @MockBean
     private ExpenseService expenseService;
 
+    @MockBean
+    private ExpenseVersionTracker versionTracker;
+
+    @MockBean
+    private ExpenseSummaryCache summaryCache;
+
     private ExpenseResponse expenseResponse;
     private ExpenseRequest expenseRequest;
     private UUID expenseId;
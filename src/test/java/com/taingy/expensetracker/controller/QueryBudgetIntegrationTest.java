@@ -0,0 +1,137 @@
+package com.taingy.expensetracker.controller;
+
+import com.taingy.expensetracker.model.AuditLog;
+import com.taingy.expensetracker.model.Category;
+import com.taingy.expensetracker.model.Expense;
+import com.taingy.expensetracker.model.Role;
+import com.taingy.expensetracker.model.User;
+import com.taingy.expensetracker.support.QueryCounter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement budgets for list endpoints, run through the full stack so that a missing fetch join
+ * anywhere between controller and mapper fails the build.
+ * <p>
+ * Every budget includes two statements for resolving the current user: the user itself and its
+ * EAGER role, which the second-level cache does not hold yet because the fixture is never
+ * committed.
+ */
+@SpringBootTest(properties = {
+        "FRONTEND_URLS=http://localhost:3000",
+        "app.name=Expense Tracker",
+        "app.jwt.secret=query-budget-test-secret-key-that-is-long-enough",
+        "app.jwt.expiration-ms=3600000"
+})
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@Transactional
+class QueryBudgetIntegrationTest {
+
+    private static final int ROWS = 8;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        Role userRole = role(1, "USER");
+        Role adminRole = role(2, "ADMIN");
+        User john = user("john.doe@example.com", userRole);
+        User admin = user("admin@example.com", adminRole);
+
+        Category food = new Category();
+        food.setName("Food");
+        entityManager.persist(food);
+
+        for (int i = 0; i < ROWS; i++) {
+            Expense expense = new Expense();
+            expense.setTitle("Lunch " + i);
+            expense.setAmount(new BigDecimal("10.00"));
+            expense.setExpenseDate(LocalDate.now().minusDays(i));
+            expense.setUser(john);
+            expense.setCategory(food);
+            entityManager.persist(expense);
+
+            entityManager.persist(AuditLog.builder()
+                    .action("CREATE")
+                    .entityType("EXPENSE")
+                    .entityId(String.valueOf(i))
+                    .user(i % 2 == 0 ? john : admin)
+                    .userEmail((i % 2 == 0 ? john : admin).getEmail())
+                    .build());
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @WithMockUser(username = "john.doe@example.com")
+    void getExpenses_ShouldStayWithinStatementBudget() throws Exception {
+        // Act
+        QueryCounter queries = QueryCounter.start(entityManagerFactory);
+        mockMvc.perform(get("/api/expenses").param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(ROWS));
+
+        // Assert: current user + role, page query, count query
+        queries.assertAtMost(4);
+    }
+
+    @Test
+    @WithMockUser(username = "admin@example.com")
+    void getAuditLogs_ShouldStayWithinStatementBudget() throws Exception {
+        // Act
+        QueryCounter queries = QueryCounter.start(entityManagerFactory);
+        mockMvc.perform(get("/api/audit-logs"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(ROWS));
+
+        // Assert: current user + role, page query, count query
+        queries.assertAtMost(4);
+    }
+
+    private Role role(int id, String name) {
+        Role role = new Role();
+        role.setId(id);
+        role.setName(name);
+        entityManager.persist(role);
+        return role;
+    }
+
+    private User user(String email, Role role) {
+        User user = new User();
+        user.setFirstName("Test");
+        user.setLastName(role.getName());
+        user.setEmail(email);
+        user.setPassword("password");
+        user.setRole(role);
+        user.setIsActive(true);
+        user.setIsVerified(true);
+        entityManager.persist(user);
+        return user;
+    }
+}
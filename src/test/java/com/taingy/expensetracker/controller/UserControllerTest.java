@@ -85,7 +85,7 @@ class UserControllerTest {
     void getAllUsers_ShouldReturnPagedUsers() throws Exception {
         // Arrange
         Page<UserResponse> userPage = new PageImpl<>(Arrays.asList(userResponse));
-        when(userService.findUsersWithFilters(any(), any(), any(), any(), any()))
+        when(userService.findUsersWithFilters(any(), any(), any(), any(), any(), any()))
                 .thenReturn(userPage);
 
         // Act & Assert
@@ -97,7 +97,7 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.content[0].email").value("john.doe@example.com"))
                 .andExpect(jsonPath("$.content[0].firstName").value("John"));
 
-        verify(userService).findUsersWithFilters(null, null, null, null, PageRequest.of(0, 10));
+        verify(userService).findUsersWithFilters(null, null, null, null, null, PageRequest.of(0, 10));
     }
 
     @Test
@@ -105,7 +105,7 @@ class UserControllerTest {
     void getAllUsers_WithSearchTerm_ShouldReturnFilteredUsers() throws Exception {
         // Arrange
         Page<UserResponse> userPage = new PageImpl<>(Arrays.asList(userResponse));
-        when(userService.findUsersWithFilters(anyString(), any(), any(), any(), any()))
+        when(userService.findUsersWithFilters(anyString(), any(), any(), any(), any(), any()))
                 .thenReturn(userPage);
 
         // Act & Assert
@@ -117,7 +117,7 @@ class UserControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content[0].email").value("john.doe@example.com"));
 
-        verify(userService).findUsersWithFilters(eq("john"), any(), any(), any(), any());
+        verify(userService).findUsersWithFilters(eq("john"), any(), any(), any(), any(), any());
     }
 
     @Test
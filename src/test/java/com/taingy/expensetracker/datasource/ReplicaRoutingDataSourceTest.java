@@ -0,0 +1,179 @@
+package com.taingy.expensetracker.datasource;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes between two in-memory H2 databases, each holding a marker row naming itself, through
+ * plain JDBC and through JPA.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private LazyConnectionDataSourceProxy dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate readWriteTransaction;
+    private ReadYourWritesTracker tracker;
+    private DataSource primary;
+    private DataSource replica;
+    private LocalContainerEntityManagerFactoryBean entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        primary = createDatabase("primary");
+        replica = createDatabase("replica");
+        tracker = new ReadYourWritesTracker(Duration.ofSeconds(5));
+        useLagMonitor(new ReplicaLagMonitor(Map.of("replica-0", replica), "SELECT 0", Duration.ofSeconds(5)));
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "john.doe@example.com", null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        if (entityManagerFactory != null) {
+            entityManagerFactory.destroy();
+        }
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldUseReplica() {
+        assertThat(readOnlyTransaction.execute(status -> currentDatabase())).isEqualTo("replica");
+    }
+
+    @Test
+    void readWriteTransaction_ShouldUsePrimary() {
+        assertThat(readWriteTransaction.execute(status -> currentDatabase())).isEqualTo("primary");
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldStickToPrimary_AfterUsersOwnWrite() {
+        // Arrange
+        readWriteTransaction.executeWithoutResult(status ->
+                jdbcTemplate.update("UPDATE marker SET touched = touched + 1"));
+
+        // Act & Assert
+        assertThat(readOnlyTransaction.execute(status -> currentDatabase())).isEqualTo("primary");
+
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "someone.else@example.com", null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        assertThat(readOnlyTransaction.execute(status -> currentDatabase())).isEqualTo("replica");
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldFallBackToPrimary_WhenReplicaLags() {
+        // Arrange
+        ReplicaLagMonitor laggingMonitor = new ReplicaLagMonitor(Map.of("replica-0", replica), "SELECT 60", Duration.ofSeconds(5));
+        laggingMonitor.checkReplicas();
+        useLagMonitor(laggingMonitor);
+
+        // Act & Assert
+        assertThat(readOnlyTransaction.execute(status -> currentDatabase())).isEqualTo("primary");
+    }
+
+    @Test
+    void jpaWrite_ShouldUsePrimary_AfterReadOnlyTransactionInTheSameOpenInViewRequest() {
+        // Arrange
+        entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactory.setDataSource(dataSource);
+        entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactory.setPackagesToScan(ReplicaRoutingDataSourceTest.class.getPackageName());
+        ReadReplicaDataSourceConfig.replicaConnectionHandling()
+                .postProcessBeforeInitialization(entityManagerFactory, "entityManagerFactory");
+        entityManagerFactory.afterPropertiesSet();
+        EntityManagerFactory factory = entityManagerFactory.getObject();
+        JpaTransactionManager transactionManager = new JpaTransactionManager(factory);
+        transactionManager.addListener(tracker);
+        TransactionTemplate jpaReadOnly = new TransactionTemplate(transactionManager);
+        jpaReadOnly.setReadOnly(true);
+        TransactionTemplate jpaReadWrite = new TransactionTemplate(transactionManager);
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(factory);
+
+        OpenEntityManagerInViewInterceptor openInView = new OpenEntityManagerInViewInterceptor();
+        openInView.setEntityManagerFactory(factory);
+        ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest());
+
+        // Act
+        openInView.preHandle(request);
+        Object read;
+        try {
+            read = jpaReadOnly.execute(status ->
+                    entityManager.createNativeQuery("SELECT name FROM marker").getSingleResult());
+            jpaReadWrite.executeWithoutResult(status ->
+                    entityManager.createNativeQuery("UPDATE marker SET touched = touched + 1").executeUpdate());
+        } finally {
+            openInView.afterCompletion(request, null);
+        }
+
+        // Assert
+        assertThat(read).isEqualTo("replica");
+        assertThat(touched(primary)).isEqualTo(1);
+        assertThat(touched(replica)).isZero();
+    }
+
+    /**
+     * Routes the datasource and templates through a fresh routing datasource using {@code lagMonitor}.
+     */
+    private void useLagMonitor(ReplicaLagMonitor lagMonitor) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReplicaRoutingDataSource.PRIMARY, primary);
+        targets.put("replica-0", replica);
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(lagMonitor, tracker);
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(primary);
+        routingDataSource.afterPropertiesSet();
+
+        dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionManager.addListener(tracker);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("SELECT name FROM marker", String.class);
+    }
+
+    private static int touched(DataSource database) {
+        return new JdbcTemplate(database).queryForObject("SELECT touched FROM marker", Integer.class);
+    }
+
+    private static DataSource createDatabase(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE marker (name VARCHAR(20), touched INT)");
+        jdbcTemplate.update("INSERT INTO marker (name, touched) VALUES (?, 0)", name);
+        return dataSource;
+    }
+}
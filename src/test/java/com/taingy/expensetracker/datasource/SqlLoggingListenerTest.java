@@ -0,0 +1,112 @@
+package com.taingy.expensetracker.datasource;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlLoggingListenerTest {
+
+    private final Logger slowLogger = (Logger) LoggerFactory.getLogger("sql.slow");
+    private final Logger sampleLogger = (Logger) LoggerFactory.getLogger("sql.sample");
+    private final ListAppender<ILoggingEvent> slowEntries = attach(slowLogger);
+    private final ListAppender<ILoggingEvent> sampleEntries = attach(sampleLogger);
+
+    @AfterEach
+    void tearDown() {
+        slowLogger.detachAppender(slowEntries);
+        sampleLogger.detachAppender(sampleEntries);
+    }
+
+    @Test
+    void slowQuery_ShouldBeLoggedWithParametersCallerAndRowCount() {
+        // Arrange
+        JdbcTemplate jdbcTemplate = jdbcTemplate(new SqlLoggingListener(0, 0.0), "slow");
+        jdbcTemplate.execute("CREATE TABLE items (id INT, name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO items VALUES (1, 'a'), (2, 'b'), (3, 'c')");
+        slowEntries.list.clear();
+
+        ProxyFactory proxyFactory = new ProxyFactory((ItemQueries) minId -> jdbcTemplate.queryForList(
+                "SELECT name FROM items WHERE id >= ?", String.class, minId));
+        proxyFactory.addAdvice(RepositoryMethodContext.interceptor(ItemQueries.class));
+        ItemQueries queries = (ItemQueries) proxyFactory.getProxy();
+
+        // Act
+        List<String> names = queries.findNamesFrom(2);
+
+        // Assert
+        assertThat(names).hasSize(2);
+        assertThat(slowEntries.list).hasSize(1);
+        String entry = slowEntries.list.get(0).getFormattedMessage();
+        assertThat(entry)
+                .contains("Caller:ItemQueries.findNamesFrom")
+                .contains("Rows:2")
+                .contains("SELECT name FROM items WHERE id >= ?")
+                .contains("Params:[(2)]");
+    }
+
+    @Test
+    void updateCount_ShouldBeReportedAsRows() {
+        // Arrange
+        JdbcTemplate jdbcTemplate = jdbcTemplate(new SqlLoggingListener(0, 0.0), "update");
+        jdbcTemplate.execute("CREATE TABLE items (id INT)");
+        jdbcTemplate.update("INSERT INTO items VALUES (1), (2), (3)");
+        slowEntries.list.clear();
+
+        // Act
+        jdbcTemplate.update("DELETE FROM items WHERE id < ?", 3);
+
+        // Assert
+        assertThat(slowEntries.list).singleElement()
+                .satisfies(event -> assertThat(event.getFormattedMessage()).contains("Rows:2"));
+    }
+
+    @Test
+    void fastQueries_ShouldOnlyBeSampled() {
+        // Arrange
+        JdbcTemplate unsampled = jdbcTemplate(new SqlLoggingListener(60_000, 0.0), "unsampled");
+        JdbcTemplate sampled = jdbcTemplate(new SqlLoggingListener(60_000, 1.0), "sampled");
+
+        // Act
+        unsampled.queryForObject("SELECT 1", Integer.class);
+        sampled.queryForObject("SELECT 1", Integer.class);
+
+        // Assert
+        assertThat(slowEntries.list).isEmpty();
+        assertThat(sampleEntries.list).singleElement()
+                .satisfies(event -> assertThat(event.getFormattedMessage()).contains("Rows:1"));
+    }
+
+    interface ItemQueries {
+        List<String> findNamesFrom(int minId);
+    }
+
+    private static JdbcTemplate jdbcTemplate(SqlLoggingListener listener, String database) {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:sql-logging-" + database + ";DB_CLOSE_DELAY=-1");
+        DataSource dataSource = ProxyDataSourceBuilder.create(h2)
+                .listener(listener)
+                .methodListener(listener)
+                .proxyResultSet()
+                .build();
+        return new JdbcTemplate(dataSource);
+    }
+
+    private static ListAppender<ILoggingEvent> attach(Logger logger) {
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        return appender;
+    }
+}
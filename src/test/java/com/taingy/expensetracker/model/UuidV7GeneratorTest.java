@@ -0,0 +1,125 @@
+package com.taingy.expensetracker.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7GeneratorTest {
+
+    @Test
+    void next_ShouldSetVersionVariantAndTimestamp() {
+        // Arrange
+        long before = System.currentTimeMillis();
+
+        // Act
+        UUID id = UuidV7Generator.next();
+
+        // Assert
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(id.getMostSignificantBits() >>> 16).isBetween(before, System.currentTimeMillis() + 1);
+    }
+
+    @Test
+    void next_ShouldIncreaseWithinTheSameMillisecond() {
+        // Arrange
+        UuidV7Generator.Sequence sequence = new UuidV7Generator.Sequence(() -> 1_700_000_000_000L);
+
+        // Act
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            ids.add(sequence.next());
+        }
+
+        // Assert
+        assertIncreasing(ids);
+        assertThat(ids.getFirst().getMostSignificantBits() >>> 16).isEqualTo(1_700_000_000_000L);
+    }
+
+    @Test
+    void next_ShouldCarryIntoTimestampWhenCounterOverflows() {
+        // Arrange
+        UuidV7Generator.Sequence sequence = new UuidV7Generator.Sequence(() -> 1_700_000_000_000L);
+
+        // Act
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 2 << UuidV7Generator.Sequence.COUNTER_BITS; i++) {
+            ids.add(sequence.next());
+        }
+
+        // Assert
+        assertIncreasing(ids);
+        assertThat(ids.getLast().getMostSignificantBits() >>> 16).isGreaterThan(1_700_000_000_000L);
+    }
+
+    @Test
+    void next_ShouldStayIncreasingWhenClockStepsBack() {
+        // Arrange
+        AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+        UuidV7Generator.Sequence sequence = new UuidV7Generator.Sequence(clock::get);
+        UUID first = sequence.next();
+        clock.addAndGet(-5_000);
+
+        // Act
+        UUID second = sequence.next();
+
+        // Assert
+        assertIncreasing(List.of(first, second));
+    }
+
+    @Test
+    void next_ShouldBeUniqueAcrossThreads() throws Exception {
+        // Arrange
+        UuidV7Generator.Sequence sequence = new UuidV7Generator.Sequence(() -> 1_700_000_000_000L);
+        Set<Long> timestampsAndCounters = ConcurrentHashMap.newKeySet();
+        List<Future<?>> workers = new ArrayList<>();
+
+        // Act
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                workers.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        timestampsAndCounters.add(sequence.next().getMostSignificantBits());
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+
+        // Assert: the random half alone would not prove anything, so check the ordered half
+        assertThat(timestampsAndCounters).hasSize(80_000);
+    }
+
+    @Test
+    void next_ShouldHaveRandomLowerHalf() {
+        // Act
+        Set<Long> leastSigBits = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            leastSigBits.add(UuidV7Generator.next().getLeastSignificantBits());
+        }
+
+        // Assert
+        assertThat(leastSigBits).hasSize(1000);
+    }
+
+    private static void assertIncreasing(List<UUID> ids) {
+        for (int i = 1; i < ids.size(); i++) {
+            // PostgreSQL compares uuid values as unsigned bytes
+            assertThat(Long.compareUnsigned(ids.get(i - 1).getMostSignificantBits(), ids.get(i).getMostSignificantBits()))
+                    .isNegative();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.taingy.expensetracker.repository;
+
+import com.taingy.expensetracker.dto.AuditLogResponse;
+import com.taingy.expensetracker.mapper.AuditLogMapper;
+import com.taingy.expensetracker.model.AuditLog;
+import com.taingy.expensetracker.model.Role;
+import com.taingy.expensetracker.model.User;
+import com.taingy.expensetracker.support.QueryCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class AuditLogRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final AuditLogMapper auditLogMapper = new AuditLogMapper();
+
+    private User firstUser;
+
+    @BeforeEach
+    void setUp() {
+        Role userRole = new Role();
+        userRole.setId(1);
+        userRole.setName("USER");
+        entityManager.persist(userRole);
+
+        for (int i = 0; i < 3; i++) {
+            User user = new User();
+            user.setFirstName("User");
+            user.setLastName(String.valueOf(i));
+            user.setEmail("user" + i + "@example.com");
+            user.setPassword("password");
+            user.setRole(userRole);
+            user.setIsActive(true);
+            user.setIsVerified(true);
+            entityManager.persist(user);
+            if (i == 0) {
+                firstUser = user;
+            }
+
+            for (int j = 0; j < 2; j++) {
+                entityManager.persist(AuditLog.builder()
+                        .action("CREATE")
+                        .entityType("EXPENSE")
+                        .entityId(String.valueOf(j))
+                        .user(user)
+                        .userEmail(user.getEmail())
+                        .build());
+            }
+        }
+        // A system entry without a user
+        entityManager.persist(AuditLog.builder()
+                .action("PURGE")
+                .entityType("TOMBSTONE")
+                .userEmail("system")
+                .build());
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findAllByOrderByCreatedAtDesc_ShouldLoadUsersWithoutNPlusOne() {
+        // Act
+        QueryCounter queries = QueryCounter.start(entityManagerFactory);
+        Page<AuditLogResponse> result = auditLogRepository.findAllByOrderByCreatedAtDesc(PageRequest.of(0, 20))
+                .map(auditLogMapper::toDto);
+
+        // Assert
+        assertThat(result.getContent()).hasSize(7);
+        assertThat(result.getContent()).filteredOn(log -> log.getUserName() == null).hasSize(1);
+        // Page query with users fetched, plus the count query
+        queries.assertAtMost(2);
+    }
+
+    @Test
+    void findTop10ByUserIdOrderByCreatedAtDesc_ShouldLoadUserInSameQuery() {
+        // Act
+        QueryCounter queries = QueryCounter.start(entityManagerFactory);
+        List<AuditLogResponse> result = auditLogRepository.findTop10ByUserIdOrderByCreatedAtDesc(firstUser.getId())
+                .stream()
+                .map(auditLogMapper::toDto)
+                .toList();
+
+        // Assert
+        assertThat(result).hasSize(2).allMatch(log -> "User 0".equals(log.getUserName()));
+        queries.assertAtMost(1);
+    }
+}
@@ -3,7 +3,17 @@ package com.taingy.expensetracker.repository;
 import com.taingy.expensetracker.model.Category;
 import com.taingy.expensetracker.model.Expense;
 import com.taingy.expensetracker.model.Role;
+import com.taingy.expensetracker.dto.ExpenseResponse;
+import com.taingy.expensetracker.mapper.ExpenseMapper;
 import com.taingy.expensetracker.model.User;
+import com.taingy.expensetracker.repository.projection.CategoryTotal;
+import com.taingy.expensetracker.repository.projection.ExpenseListItem;
+import com.taingy.expensetracker.repository.projection.ExpenseTotals;
+import com.taingy.expensetracker.repository.projection.MonthlyTotal;
+import com.taingy.expensetracker.repository.projection.UserTotal;
+import com.taingy.expensetracker.support.QueryCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,9 +21,13 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -26,6 +40,9 @@ class ExpenseRepositoryTest {
     @Autowired
     private ExpenseRepository expenseRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private User testUser;
     private Category testCategory;
     private Expense testExpense;
@@ -71,34 +88,34 @@ class ExpenseRepositoryTest {
     @Test
     void findExpensesWithFilters_WithSearchTerm_ShouldReturnMatchingExpenses() {
         // Act
-        Page<Expense> result = expenseRepository.findExpensesWithFilters(
+        Page<ExpenseListItem> result = expenseRepository.findExpensesWithFilters(
                 null, null, "lunch", null, null, null, null, PageRequest.of(0, 10));
 
         // Assert
         assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0).getTitle()).isEqualTo("Lunch");
+        assertThat(result.getContent().get(0).title()).isEqualTo("Lunch");
     }
 
     @Test
     void findExpensesWithFilters_WithUserId_ShouldReturnUserExpenses() {
         // Act
-        Page<Expense> result = expenseRepository.findExpensesWithFilters(
+        Page<ExpenseListItem> result = expenseRepository.findExpensesWithFilters(
                 testUser.getId(), null, null, null, null, null, null, PageRequest.of(0, 10));
 
         // Assert
         assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0).getUser().getId()).isEqualTo(testUser.getId());
+        assertThat(result.getContent().get(0).userId()).isEqualTo(testUser.getId());
     }
 
     @Test
     void findExpensesWithFilters_WithCategoryId_ShouldReturnCategoryExpenses() {
         // Act
-        Page<Expense> result = expenseRepository.findExpensesWithFilters(
+        Page<ExpenseListItem> result = expenseRepository.findExpensesWithFilters(
                 null, testCategory.getId(), null, null, null, null, null, PageRequest.of(0, 10));
 
         // Assert
         assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0).getCategory().getId()).isEqualTo(testCategory.getId());
+        assertThat(result.getContent().get(0).categoryName()).isEqualTo(testCategory.getName());
     }
 
     @Test
@@ -108,12 +125,12 @@ class ExpenseRepositoryTest {
         LocalDate endDate = LocalDate.now().plusDays(1);
 
         // Act
-        Page<Expense> result = expenseRepository.findExpensesWithFilters(
+        Page<ExpenseListItem> result = expenseRepository.findExpensesWithFilters(
                 null, null, null, startDate, endDate, null, null, PageRequest.of(0, 10));
 
         // Assert
         assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0).getExpenseDate()).isBetween(startDate, endDate);
+        assertThat(result.getContent().get(0).expenseDate()).isBetween(startDate, endDate);
     }
 
     @Test
@@ -123,12 +140,12 @@ class ExpenseRepositoryTest {
         BigDecimal maxAmount = new BigDecimal("100.00");
 
         // Act
-        Page<Expense> result = expenseRepository.findExpensesWithFilters(
+        Page<ExpenseListItem> result = expenseRepository.findExpensesWithFilters(
                 null, null, null, null, null, minAmount, maxAmount, PageRequest.of(0, 10));
 
         // Assert
         assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0).getAmount()).isBetween(minAmount, maxAmount);
+        assertThat(result.getContent().get(0).amount()).isBetween(minAmount, maxAmount);
     }
 
     @Test
@@ -140,29 +157,49 @@ class ExpenseRepositoryTest {
         BigDecimal maxAmount = new BigDecimal("100.00");
 
         // Act
-        Page<Expense> result = expenseRepository.findExpensesWithFilters(
+        Page<ExpenseListItem> result = expenseRepository.findExpensesWithFilters(
                 testUser.getId(), testCategory.getId(), "lunch",
                 startDate, endDate, minAmount, maxAmount, PageRequest.of(0, 10));
 
         // Assert
         assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0).getTitle()).isEqualTo("Lunch");
+        assertThat(result.getContent().get(0).title()).isEqualTo("Lunch");
     }
 
     @Test
     void findExpensesWithFilters_WithNoFilters_ShouldReturnAllExpenses() {
         // Act
-        Page<Expense> result = expenseRepository.findExpensesWithFilters(
+        Page<ExpenseListItem> result = expenseRepository.findExpensesWithFilters(
                 null, null, null, null, null, null, null, PageRequest.of(0, 10));
 
         // Assert
         assertThat(result.getContent()).hasSize(1);
     }
 
+    @Test
+    void findExpensesWithFilters_ShouldSortLikeExpenseOrder_WithNullsLastAndIdTieBreaker() {
+        // Arrange
+        persistExpense("apple", "1.00", LocalDate.now());
+        persistExpense("Bus", "2.00", LocalDate.now());
+        persistExpense("Bus", "3.00", LocalDate.now());
+
+        // Act
+        List<ExpenseListItem> byTitle = expenseRepository.findExpensesWithFilters(
+                null, null, null, null, null, null, null, PageRequest.of(0, 10, Sort.by("title"))).getContent();
+        List<ExpenseListItem> byDescription = expenseRepository.findExpensesWithFilters(
+                null, null, null, null, null, null, null, PageRequest.of(0, 10, Sort.by("description"))).getContent();
+
+        // Assert
+        assertThat(byTitle).extracting(ExpenseListItem::title).containsExactly("Bus", "Bus", "Lunch", "apple");
+        assertThat(ExpenseOrder.UUIDS.compare(byTitle.get(0).id(), byTitle.get(1).id())).isNegative();
+        assertThat(byDescription.get(0).description()).isEqualTo("Team lunch at restaurant");
+        assertThat(byDescription).extracting(ExpenseListItem::description).endsWith(null, null, null);
+    }
+
     @Test
     void findExpensesWithFilters_WithNonMatchingSearch_ShouldReturnEmpty() {
         // Act
-        Page<Expense> result = expenseRepository.findExpensesWithFilters(
+        Page<ExpenseListItem> result = expenseRepository.findExpensesWithFilters(
                 null, null, "nonexistent", null, null, null, null, PageRequest.of(0, 10));
 
         // Assert
@@ -176,7 +213,7 @@ class ExpenseRepositoryTest {
         LocalDate endDate = LocalDate.now().minusDays(5);
 
         // Act
-        Page<Expense> result = expenseRepository.findExpensesWithFilters(
+        Page<ExpenseListItem> result = expenseRepository.findExpensesWithFilters(
                 null, null, null, startDate, endDate, null, null, PageRequest.of(0, 10));
 
         // Assert
@@ -190,10 +227,178 @@ class ExpenseRepositoryTest {
         BigDecimal maxAmount = new BigDecimal("200.00");
 
         // Act
-        Page<Expense> result = expenseRepository.findExpensesWithFilters(
+        Page<ExpenseListItem> result = expenseRepository.findExpensesWithFilters(
                 null, null, null, null, null, minAmount, maxAmount, PageRequest.of(0, 10));
 
         // Assert
         assertThat(result.getContent()).isEmpty();
     }
+
+    @Test
+    void findChangesByUserId_ShouldReturnExpensesAfterCursorInOrder() {
+        // Arrange
+        Expense dinner = new Expense();
+        dinner.setTitle("Dinner");
+        dinner.setAmount(new BigDecimal("30.00"));
+        dinner.setExpenseDate(LocalDate.now());
+        dinner.setUser(testUser);
+        dinner.setCategory(testCategory);
+        entityManager.persist(dinner);
+        entityManager.flush();
+        entityManager.clear();
+        LocalDateTime origin = LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime upTo = LocalDateTime.now().plusMinutes(1);
+
+        // Act
+        List<Expense> firstPage = expenseRepository.findChangesByUserId(
+                testUser.getId(), origin, new UUID(0L, 0L), upTo, PageRequest.of(0, 1));
+        Expense cursor = firstPage.get(0);
+        List<Expense> secondPage = expenseRepository.findChangesByUserId(
+                testUser.getId(), cursor.getUpdatedAt(), cursor.getId(), upTo, PageRequest.of(0, 10));
+
+        // Assert
+        assertThat(firstPage).hasSize(1);
+        assertThat(secondPage).hasSize(1);
+        assertThat(secondPage.get(0).getId()).isNotEqualTo(cursor.getId());
+        assertThat(List.of(cursor.getTitle(), secondPage.get(0).getTitle()))
+                .containsExactlyInAnyOrder("Lunch", "Dinner");
+    }
+
+    @Test
+    void findChangesByUserId_ShouldExcludeRowsNewerThanUpperBound() {
+        // Act
+        List<Expense> result = expenseRepository.findChangesByUserId(
+                testUser.getId(), LocalDateTime.of(1970, 1, 1, 0, 0), new UUID(0L, 0L),
+                LocalDateTime.now().minusMinutes(1), PageRequest.of(0, 10));
+
+        // Assert
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void getTotalsByUserId_ShouldAggregateInSingleQuery() {
+        // Arrange
+        persistExpense("Dinner", "30.00", LocalDate.of(2024, 2, 10));
+
+        // Act
+        ExpenseTotals totals = expenseRepository.getTotalsByUserId(testUser.getId());
+
+        // Assert
+        assertThat(totals.totalAmount()).isEqualByComparingTo("80.00");
+        assertThat(totals.count()).isEqualTo(2L);
+        assertThat(totals.averageAmount()).isEqualTo(40.0);
+        assertThat(totals.maxAmount()).isEqualByComparingTo("50.00");
+        assertThat(totals.minAmount()).isEqualByComparingTo("30.00");
+    }
+
+    @Test
+    void getCategoryTotalsByUserId_ShouldGroupByCategory() {
+        // Arrange
+        persistExpense("Dinner", "30.00", LocalDate.now());
+
+        // Act
+        List<CategoryTotal> totals = expenseRepository.getCategoryTotalsByUserId(testUser.getId());
+
+        // Assert
+        assertThat(totals).containsExactly(new CategoryTotal("Food", new BigDecimal("80.00"), 2L));
+    }
+
+    @Test
+    void getMonthlyTotalsByUserId_ShouldGroupByMonth() {
+        // Arrange
+        persistExpense("Dinner", "30.00", LocalDate.of(2024, 2, 10));
+        persistExpense("Breakfast", "10.00", LocalDate.of(2024, 2, 20));
+
+        // Act
+        List<MonthlyTotal> totals = expenseRepository.getMonthlyTotalsByUserId(testUser.getId());
+
+        // Assert
+        assertThat(totals).contains(new MonthlyTotal(2024, 2, new BigDecimal("40.00"), 2L));
+        assertThat(totals).hasSize(2);
+    }
+
+    @Test
+    void getUserTotals_ShouldGroupByUser() {
+        // Act
+        List<UserTotal> totals = expenseRepository.getUserTotals();
+
+        // Assert
+        assertThat(totals).containsExactly(
+                new UserTotal("John", "Doe", "john.doe@example.com", new BigDecimal("50.00"), 1L));
+    }
+
+    @Test
+    void findExpensesWithFilters_ShouldLoadPageAndAssociationsWithoutNPlusOne() {
+        // Arrange
+        User otherUser = new User();
+        otherUser.setFirstName("Jane");
+        otherUser.setLastName("Smith");
+        otherUser.setEmail("jane.smith@example.com");
+        otherUser.setPassword("password");
+        otherUser.setRole(testUser.getRole());
+        otherUser.setIsActive(true);
+        otherUser.setIsVerified(true);
+        entityManager.persist(otherUser);
+
+        Category transport = new Category();
+        transport.setName("Transport");
+        entityManager.persist(transport);
+
+        for (int i = 0; i < 3; i++) {
+            Expense expense = new Expense();
+            expense.setTitle("Taxi " + i);
+            expense.setAmount(new BigDecimal("12.00"));
+            expense.setExpenseDate(LocalDate.now().minusDays(i));
+            expense.setUser(otherUser);
+            expense.setCategory(transport);
+            entityManager.persist(expense);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        ExpenseMapper expenseMapper = new ExpenseMapper();
+
+        // Act
+        QueryCounter queries = QueryCounter.start(entityManagerFactory);
+        Page<ExpenseResponse> result = expenseRepository.findExpensesWithFilters(
+                null, null, null, null, null, null, null, PageRequest.of(0, 10))
+                .map(expenseMapper::toDto);
+
+        // Assert
+        assertThat(result.getContent()).hasSize(4);
+        // Page query with user and category joined, plus the count query
+        queries.assertAtMost(2);
+    }
+
+    @Test
+    void findExpensesWithFilters_ShouldSelectListColumnsWithoutManagingEntities() {
+        // Arrange
+        entityManager.clear();
+
+        // Act
+        Page<ExpenseListItem> result = expenseRepository.findExpensesWithFilters(
+                testUser.getId(), null, null, null, null, null, null, PageRequest.of(0, 10));
+
+        // Assert
+        assertThat(result.getContent()).singleElement().satisfies(item -> {
+            assertThat(item.id()).isEqualTo(testExpense.getId());
+            assertThat(item.description()).isEqualTo("Team lunch at restaurant");
+            assertThat(item.userEmail()).isEqualTo("john.doe@example.com");
+            assertThat(item.userFirstName()).isEqualTo("John");
+            assertThat(item.userLastName()).isEqualTo("Doe");
+            assertThat(item.categoryName()).isEqualTo("Food");
+        });
+        Session session = entityManager.getEntityManager().unwrap(Session.class);
+        assertThat(session.getStatistics().getEntityCount()).isZero();
+    }
+
+    private void persistExpense(String title, String amount, LocalDate expenseDate) {
+        Expense expense = new Expense();
+        expense.setTitle(title);
+        expense.setAmount(new BigDecimal(amount));
+        expense.setExpenseDate(expenseDate);
+        expense.setUser(testUser);
+        expense.setCategory(testCategory);
+        entityManager.persist(expense);
+        entityManager.flush();
+    }
 }
@@ -0,0 +1,138 @@
+package com.taingy.expensetracker.repository;
+
+import com.taingy.expensetracker.model.Category;
+import com.taingy.expensetracker.model.Role;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the JDBC statements issued for reference-data lookups. Each repository call runs in
+ * its own transaction, as it does in the services, so only the second-level and query caches
+ * can save a round trip.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReferenceDataCacheTest {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Category food;
+
+    @BeforeEach
+    void setUp() {
+        Role userRole = new Role();
+        userRole.setId(1);
+        userRole.setName("USER");
+        userRole.setDescription("Regular user");
+        roleRepository.save(userRole);
+
+        food = new Category();
+        food.setName("Food");
+        food.setDescription("Food expenses");
+        food = categoryRepository.save(food);
+
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        categoryRepository.deleteAll();
+        roleRepository.deleteAll();
+    }
+
+    @Test
+    void findById_ShouldHitDatabaseOnlyOnce_ForRepeatedCategoryLookups() {
+        // Act
+        categoryRepository.findById(food.getId());
+        long statementsAfterFirstLookup = statistics.getPrepareStatementCount();
+        categoryRepository.findById(food.getId());
+        categoryRepository.findById(food.getId());
+
+        // Assert
+        assertThat(statementsAfterFirstLookup).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    void findByName_ShouldServeRepeatedRoleLookupsFromQueryCache() {
+        // Act
+        Optional<Role> first = roleRepository.findByName("USER");
+        long statementsAfterFirstLookup = statistics.getPrepareStatementCount();
+        Optional<Role> second = roleRepository.findByName("USER");
+
+        // Assert
+        assertThat(first).isPresent();
+        assertThat(second).isPresent();
+        assertThat(statementsAfterFirstLookup).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findAll_ShouldServeRepeatedCategoryListingsFromQueryCache() {
+        // Act
+        categoryRepository.findAll();
+        categoryRepository.findAll();
+
+        // Assert
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void save_ShouldRefreshCachedCategoryAndInvalidateCachedListing() {
+        // Arrange
+        categoryRepository.findAll();
+        Category loaded = categoryRepository.findById(food.getId()).orElseThrow();
+
+        // Act
+        loaded.setName("Groceries");
+        categoryRepository.save(loaded);
+        statistics.clear();
+        Category reloaded = categoryRepository.findById(food.getId()).orElseThrow();
+        List<Category> listing = categoryRepository.findAll();
+
+        // Assert
+        assertThat(reloaded.getName()).isEqualTo("Groceries");
+        assertThat(listing).extracting(Category::getName).containsExactly("Groceries");
+        assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThanOrEqualTo(1);
+        assertThat(statistics.getQueryCacheHitCount()).isZero();
+    }
+
+    @Test
+    void delete_ShouldEvictCategoryFromCache() {
+        // Arrange
+        categoryRepository.findById(food.getId());
+
+        // Act
+        categoryRepository.deleteById(food.getId());
+
+        // Assert
+        assertThat(categoryRepository.findById(food.getId())).isEmpty();
+        assertThat(categoryRepository.findAll()).isEmpty();
+    }
+}
@@ -0,0 +1,60 @@
+package com.taingy.expensetracker.repository;
+
+import com.taingy.expensetracker.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenceLookupTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void usersById_ShouldLookUpInBatches_AndSkipNullIds() {
+        // Arrange
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        ids.add(null);
+        User user = new User();
+        user.setId(ids.get(0));
+        when(userRepository.findAllById(anyIterable())).thenReturn(List.of(user), List.of(), List.of());
+        ReferenceLookup references = new ReferenceLookup(userRepository, categoryRepository);
+
+        // Act
+        Map<UUID, User> users = references.usersById(ids);
+
+        // Assert
+        assertThat(users).containsOnlyKeys(user.getId());
+        verify(userRepository, times(3)).findAllById(anyIterable());
+        verifyNoInteractions(categoryRepository);
+    }
+
+    @Test
+    void compareNullsLast_ShouldOrderLikeTheDatabase() {
+        // Assert
+        assertThat(ExpenseOrder.compareNullsLast(null, "a")).isPositive();
+        assertThat(ExpenseOrder.compareNullsLast("B", "a")).isNegative();
+        assertThat(ExpenseOrder.compareNullsLast(new UUID(1, 0), new UUID(-1, 0))).isNegative();
+        assertThat(ExpenseOrder.UUIDS.compare(new UUID(0, -1), new UUID(0, 1))).isPositive();
+    }
+}
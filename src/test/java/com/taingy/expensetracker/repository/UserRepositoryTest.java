@@ -1,18 +1,30 @@
 package com.taingy.expensetracker.repository;
 
 import com.taingy.expensetracker.model.Role;
+import com.taingy.expensetracker.dto.UserResponse;
+import com.taingy.expensetracker.mapper.UserMapper;
 import com.taingy.expensetracker.model.User;
+import com.taingy.expensetracker.repository.projection.UserListItem;
+import com.taingy.expensetracker.support.QueryCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DataJpaTest
 class UserRepositoryTest {
@@ -26,6 +38,9 @@ class UserRepositoryTest {
     @Autowired
     private RoleRepository roleRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private Role userRole;
     private User testUser;
 
@@ -71,6 +86,34 @@ class UserRepositoryTest {
         assertThat(found).isEmpty();
     }
 
+    @Test
+    void findByEmail_ShouldIgnoreCase() {
+        // Act
+        Optional<User> found = userRepository.findByEmail("John.Doe@Example.COM");
+
+        // Assert
+        assertThat(found).map(User::getId).contains(testUser.getId());
+    }
+
+    @Test
+    void saveAndFlush_ShouldFailOnNamedEmailConstraint_WhenEmailIsTaken() {
+        // Arrange
+        User duplicate = new User();
+        duplicate.setFirstName("Johnny");
+        duplicate.setLastName("Doe");
+        duplicate.setEmail("john.doe@example.com");
+        duplicate.setPassword("password");
+        duplicate.setRole(userRole);
+
+        // Act & Assert
+        assertThatThrownBy(() -> userRepository.saveAndFlush(duplicate))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasCauseInstanceOf(ConstraintViolationException.class)
+                .cause()
+                .satisfies(cause -> assertThat(((ConstraintViolationException) cause).getConstraintName())
+                        .containsIgnoringCase("uk_users_email"));
+    }
+
     @Test
     void existsByEmail_ShouldReturnTrue_WhenEmailExists() {
         // Act
@@ -92,12 +135,12 @@ class UserRepositoryTest {
     @Test
     void findUsersWithFilters_WithSearchTerm_ShouldReturnMatchingUsers() {
         // Act
-        Page<User> result = userRepository.findUsersWithFilters(
-                "john", null, null, null, PageRequest.of(0, 10));
+        Page<UserListItem> result = userRepository.findUsersWithFilters(
+                "john", null, null, null, null, PageRequest.of(0, 10));
 
         // Assert
         assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0).getFirstName()).isEqualTo("John");
+        assertThat(result.getContent().get(0).firstName()).isEqualTo("John");
     }
 
     @Test
@@ -115,19 +158,19 @@ class UserRepositoryTest {
         entityManager.flush();
 
         // Act
-        Page<User> result = userRepository.findUsersWithFilters(
-                null, null, true, null, PageRequest.of(0, 10));
+        Page<UserListItem> result = userRepository.findUsersWithFilters(
+                null, null, null, true, null, PageRequest.of(0, 10));
 
         // Assert
         assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0).getIsActive()).isTrue();
+        assertThat(result.getContent().get(0).isActive()).isTrue();
     }
 
     @Test
     void findUsersWithFilters_WithNoFilters_ShouldReturnAllUsers() {
         // Act
-        Page<User> result = userRepository.findUsersWithFilters(
-                null, null, null, null, PageRequest.of(0, 10));
+        Page<UserListItem> result = userRepository.findUsersWithFilters(
+                null, null, null, null, null, PageRequest.of(0, 10));
 
         // Assert
         assertThat(result.getContent()).hasSize(1);
@@ -136,11 +179,137 @@ class UserRepositoryTest {
     @Test
     void findUsersWithFilters_WithEmailSearch_ShouldReturnMatchingUsers() {
         // Act
-        Page<User> result = userRepository.findUsersWithFilters(
-                "doe", null, null, null, PageRequest.of(0, 10));
+        Page<UserListItem> result = userRepository.findUsersWithFilters(
+                "doe", null, null, null, null, PageRequest.of(0, 10));
 
         // Assert
         assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0).getEmail()).contains("doe");
+        assertThat(result.getContent().get(0).email()).contains("doe");
+    }
+
+    @Test
+    void findUsersWithFilters_WithSearchTerm_ShouldMatchWithinSingleFieldOnly() {
+        // Arrange
+        User user = new User();
+        user.setFirstName("Mary Ann");
+        user.setLastName("Lee");
+        user.setEmail("mlee@example.com");
+        user.setPassword("password");
+        user.setRole(userRole);
+        entityManager.persist(user);
+        entityManager.flush();
+
+        // Act
+        Page<UserListItem> withinFirstName = userRepository.findUsersWithFilters(
+                "ARY A", null, null, null, null, PageRequest.of(0, 10));
+        Page<UserListItem> acrossFields = userRepository.findUsersWithFilters(
+                "ann lee", null, null, null, null, PageRequest.of(0, 10));
+        Page<UserListItem> byEmail = userRepository.findUsersWithFilters(
+                "LEE@EXAMPLE", null, null, null, null, PageRequest.of(0, 10));
+
+        // Assert
+        assertThat(withinFirstName.getContent()).extracting(UserListItem::email).containsExactly("mlee@example.com");
+        assertThat(acrossFields.getContent()).isEmpty();
+        assertThat(byEmail.getContent()).extracting(UserListItem::email).containsExactly("mlee@example.com");
+    }
+
+    @Test
+    void findUsersWithFilters_WithEmailPrefix_ShouldMatchLiteralPrefixOnly() {
+        // Arrange
+        User user = new User();
+        user.setFirstName("Jo");
+        user.setLastName("Underscore");
+        user.setEmail("jo_doe@example.com");
+        user.setPassword("password");
+        user.setRole(userRole);
+        entityManager.persist(user);
+        entityManager.flush();
+
+        // Act
+        Page<UserListItem> byPrefix = userRepository.findUsersWithFilters(
+                null, "JOHN.", null, null, null, PageRequest.of(0, 10));
+        Page<UserListItem> byWildcardPrefix = userRepository.findUsersWithFilters(
+                null, "jo_", null, null, null, PageRequest.of(0, 10));
+        Page<UserListItem> notAPrefix = userRepository.findUsersWithFilters(
+                null, "doe", null, null, null, PageRequest.of(0, 10));
+
+        // Assert
+        assertThat(byPrefix.getContent()).extracting(UserListItem::email).containsExactly("john.doe@example.com");
+        assertThat(byWildcardPrefix.getContent()).extracting(UserListItem::email).containsExactly("jo_doe@example.com");
+        assertThat(notAPrefix.getContent()).isEmpty();
+        assertThat(byPrefix.getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    void findUsersWithFilters_ShouldLoadUsersAndRolesWithoutNPlusOne() {
+        // Arrange
+        Role adminRole = new Role();
+        adminRole.setId(2);
+        adminRole.setName("ADMIN");
+        entityManager.persist(adminRole);
+        for (int i = 0; i < 3; i++) {
+            User user = new User();
+            user.setFirstName("User");
+            user.setLastName(String.valueOf(i));
+            user.setEmail("user" + i + "@example.com");
+            user.setPassword("password");
+            user.setRole(i % 2 == 0 ? adminRole : userRole);
+            user.setIsActive(true);
+            user.setIsVerified(true);
+            entityManager.persist(user);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        UserMapper userMapper = new UserMapper();
+
+        // Act
+        QueryCounter queries = QueryCounter.start(entityManagerFactory);
+        Page<UserResponse> result = userRepository.findUsersWithFilters(null, null, null, null, null, PageRequest.of(0, 10))
+                .map(userMapper::toDto);
+
+        // Assert
+        assertThat(result.getContent()).hasSize(4);
+        // Page query with the role name joined, plus the count query
+        queries.assertAtMost(2);
+    }
+
+    @Test
+    void scrollUsersWithFilters_ShouldWalkAllUsersNewestFirstWithoutRepeats() {
+        // Arrange
+        for (int i = 0; i < 4; i++) {
+            User user = new User();
+            user.setFirstName("User");
+            user.setLastName(String.valueOf(i));
+            user.setEmail("user" + i + "@example.com");
+            user.setPassword("password");
+            user.setRole(userRole);
+            entityManager.persist(user);
+        }
+        entityManager.flush();
+
+        // Act
+        List<UserListItem> seen = new ArrayList<>();
+        List<UserListItem> window = userRepository.scrollUsersWithFilters(null, null, null, null, null, null, null, 2);
+        while (!window.isEmpty()) {
+            seen.addAll(window);
+            UserListItem last = window.get(window.size() - 1);
+            window = userRepository.scrollUsersWithFilters(null, null, null, null, null, last.createdAt(), last.id(), 2);
+        }
+
+        // Assert
+        assertThat(seen).hasSize(5);
+        assertThat(seen).extracting(UserListItem::id).doesNotHaveDuplicates();
+        assertThat(seen).extracting(UserListItem::createdAt)
+                .isSortedAccordingTo(Comparator.<LocalDateTime>reverseOrder());
+        assertThat(seen).allSatisfy(user -> assertThat(user.roleName()).isEqualTo("USER"));
+    }
+
+    @Test
+    void scrollUsersWithFilters_ShouldApplyFilters() {
+        // Act
+        List<UserListItem> result = userRepository.scrollUsersWithFilters("doe", null, null, true, null, null, null, 10);
+
+        // Assert
+        assertThat(result).extracting(UserListItem::email).containsExactly("john.doe@example.com");
     }
 }
@@ -0,0 +1,334 @@
+package com.taingy.expensetracker.repository.shard;
+
+import com.taingy.expensetracker.model.Category;
+import com.taingy.expensetracker.model.Expense;
+import com.taingy.expensetracker.model.User;
+import com.taingy.expensetracker.repository.CategoryRepository;
+import com.taingy.expensetracker.repository.ExpenseOrder;
+import com.taingy.expensetracker.repository.UserRepository;
+import com.taingy.expensetracker.repository.projection.CategoryTotal;
+import com.taingy.expensetracker.repository.projection.ExpenseListItem;
+import com.taingy.expensetracker.repository.projection.ExpenseTotals;
+import com.taingy.expensetracker.repository.projection.MonthlyTotal;
+import com.taingy.expensetracker.repository.projection.UserTotal;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ShardedExpenseStoreTest {
+
+    private static final int SHARDS = 3;
+
+    private final Map<UUID, User> users = new HashMap<>();
+    private List<DataSource> dataSources;
+    private ShardedExpenseStore store;
+    private Category food;
+    private Category transport;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        dataSources = new ArrayList<>();
+        for (int i = 0; i < SHARDS; i++) {
+            JdbcDataSource dataSource = new JdbcDataSource();
+            dataSource.setURL("jdbc:h2:mem:shard-" + i + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+            dataSources.add(dataSource);
+        }
+
+        food = category("Food");
+        transport = category("Transport");
+        Map<UUID, Category> categories = Map.of(food.getId(), food, transport.getId(), transport);
+        for (int i = 0; i < 6; i++) {
+            User user = new User();
+            user.setId(UUID.randomUUID());
+            user.setFirstName("User");
+            user.setLastName(String.valueOf(i));
+            user.setEmail("user" + i + "@example.com");
+            users.put(user.getId(), user);
+        }
+
+        UserRepository userRepository = mock(UserRepository.class);
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(userRepository.findAllById(any())).thenAnswer(invocation ->
+                StreamSupport.stream(((Iterable<UUID>) invocation.getArgument(0)).spliterator(), false)
+                        .map(users::get).filter(Objects::nonNull).toList());
+        when(categoryRepository.findAllById(any())).thenAnswer(invocation ->
+                StreamSupport.stream(((Iterable<UUID>) invocation.getArgument(0)).spliterator(), false)
+                        .map(categories::get).filter(Objects::nonNull).toList());
+
+        store = new ShardedExpenseStore(dataSources, userRepository, categoryRepository);
+        store.createSchema();
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (DataSource dataSource : dataSources) {
+            new JdbcTemplate(dataSource).execute("SHUTDOWN");
+        }
+        store.close();
+    }
+
+    @Test
+    void save_ShouldKeepEachUsersExpensesOnTheirShard() {
+        // Arrange
+        ShardRouter router = new ShardRouter(SHARDS);
+
+        // Act
+        List<Expense> saved = seed();
+
+        // Assert
+        for (int shard = 0; shard < SHARDS; shard++) {
+            List<UUID> owners = new JdbcTemplate(dataSources.get(shard))
+                    .queryForList("SELECT DISTINCT user_id FROM expenses", UUID.class);
+            int expectedShard = shard;
+            assertThat(owners).allSatisfy(owner -> assertThat(router.shardFor(owner)).isEqualTo(expectedShard));
+        }
+        long stored = dataSources.stream()
+                .mapToLong(dataSource -> new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM expenses", Long.class))
+                .sum();
+        assertThat(stored).isEqualTo(saved.size());
+    }
+
+    @Test
+    void findById_ShouldFindExpenseOnAnyShard_AndSeeUpdatesAndDeletes() {
+        // Arrange
+        Expense expense = seed().get(7);
+
+        // Act
+        expense.setTitle("Updated");
+        store.save(expense);
+        Optional<Expense> updated = store.findById(expense.getId());
+        store.delete(expense);
+
+        // Assert
+        assertThat(updated).hasValueSatisfying(found -> {
+            assertThat(found.getTitle()).isEqualTo("Updated");
+            assertThat(found.getUser()).isSameAs(expense.getUser());
+            assertThat(found.getCategory().getName()).isEqualTo(expense.getCategory().getName());
+        });
+        assertThat(store.findById(expense.getId())).isEmpty();
+        assertThat(store.findVersionById(expense.getId())).isEmpty();
+    }
+
+    @Test
+    void save_ShouldNotInsertAgain_WhenTheExpenseWasDeletedSinceItWasRead() {
+        // Arrange
+        Expense expense = seed().get(3);
+        store.delete(expense);
+
+        // Act & Assert
+        expense.setTitle("Updated");
+        assertThatThrownBy(() -> store.save(expense)).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(store.findById(expense.getId())).isEmpty();
+    }
+
+    @Test
+    void exists_ShouldFindUsersAndCategoriesThatStillHaveExpenses() {
+        // Arrange
+        Expense expense = seed().getFirst();
+        Category unused = category("Unused");
+
+        // Act & Assert
+        assertThat(store.existsByUserId(expense.getUser().getId())).isTrue();
+        assertThat(store.existsByUserId(UUID.randomUUID())).isFalse();
+        assertThat(store.existsByCategoryId(transport.getId())).isTrue();
+        assertThat(store.existsByCategoryId(unused.getId())).isFalse();
+    }
+
+    @Test
+    void findById_ShouldKeepTheUserId_WhenTheUserIsGone() {
+        // Arrange
+        Expense expense = seed().get(2);
+        users.remove(expense.getUser().getId());
+
+        // Act
+        Optional<Expense> found = store.findById(expense.getId());
+
+        // Assert
+        assertThat(found).hasValueSatisfying(orphan -> {
+            assertThat(orphan.getUser().getId()).isEqualTo(expense.getUser().getId());
+            assertThat(orphan.getUser().getEmail()).isNull();
+        });
+    }
+
+    @Test
+    void findExpensesWithFilters_ShouldMergeShardsInSortOrder_WhenNotFilteredByUser() {
+        // Arrange
+        List<Expense> saved = seed();
+        List<UUID> expected = saved.stream()
+                .sorted(Comparator.comparing(Expense::getAmount).reversed())
+                .map(Expense::getId)
+                .toList();
+
+        // Act
+        Page<ExpenseListItem> page = store.findExpensesWithFilters(null, null, null, null, null, null, null,
+                PageRequest.of(2, 5, Sort.by("amount").descending()));
+
+        // Assert
+        assertThat(page.getTotalElements()).isEqualTo(saved.size());
+        assertThat(page.getContent()).extracting(ExpenseListItem::id).containsExactlyElementsOf(expected.subList(10, 15));
+        assertThat(page.getContent().getFirst().userEmail()).isNotNull();
+        assertThat(page.getContent().getFirst().categoryName()).isNotNull();
+    }
+
+    @Test
+    void findExpensesWithFilters_ShouldApplyFilters_WhenFilteredByUser() {
+        // Arrange
+        List<Expense> saved = seed();
+        User user = saved.get(1).getUser();
+        long expected = saved.stream()
+                .filter(expense -> expense.getUser() == user && expense.getCategory() == food
+                        && expense.getTitle().equals("Lunch"))
+                .count();
+
+        // Act
+        Page<ExpenseListItem> page = store.findExpensesWithFilters(user.getId(), food.getId(), "LUNCH", null, null,
+                null, null, PageRequest.of(0, 50, Sort.by("expenseDate")));
+
+        // Assert
+        assertThat(expected).isPositive();
+        assertThat(page.getTotalElements()).isEqualTo(expected);
+        assertThat(page.getContent()).hasSize((int) expected).allSatisfy(item -> {
+            assertThat(item.userId()).isEqualTo(user.getId());
+            assertThat(item.categoryName()).isEqualTo("Food");
+        });
+    }
+
+    @Test
+    void getTotals_ShouldCombineAllShards() {
+        // Arrange
+        List<Expense> saved = seed();
+        BigDecimal sum = saved.stream().map(Expense::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        // Act
+        ExpenseTotals totals = store.getTotals();
+
+        // Assert
+        assertThat(totals.totalAmount()).isEqualByComparingTo(sum);
+        assertThat(totals.count()).isEqualTo(saved.size());
+        assertThat(totals.averageAmount()).isEqualTo(sum.doubleValue() / saved.size());
+        assertThat(totals.maxAmount()).isEqualByComparingTo(saved.stream().map(Expense::getAmount).max(Comparator.naturalOrder()).orElseThrow());
+        assertThat(totals.minAmount()).isEqualByComparingTo(saved.stream().map(Expense::getAmount).min(Comparator.naturalOrder()).orElseThrow());
+    }
+
+    @Test
+    void getTotalsByUserId_ShouldReturnZeroCount_WhenUserHasNoExpenses() {
+        // Act
+        ExpenseTotals totals = store.getTotalsByUserId(UUID.randomUUID());
+
+        // Assert
+        assertThat(totals.count()).isZero();
+        assertThat(totals.totalAmount()).isNull();
+    }
+
+    @Test
+    void breakdowns_ShouldMergeGroupsAcrossShards() {
+        // Arrange
+        List<Expense> saved = seed();
+
+        // Act
+        List<MonthlyTotal> months = store.getMonthlyTotals();
+        List<UserTotal> userTotals = store.getUserTotals();
+
+        // Assert
+        assertThat(months).hasSize(2);
+        assertThat(months.stream().mapToLong(MonthlyTotal::count).sum()).isEqualTo(saved.size());
+        assertThat(userTotals).hasSize(users.size());
+        assertThat(store.getCategoryTotals()).extracting(CategoryTotal::categoryName)
+                .containsExactlyInAnyOrder("Food", "Transport");
+    }
+
+    @Test
+    void findChangesByUserId_ShouldReturnUsersExpensesInCursorOrder() {
+        // Arrange
+        List<Expense> saved = seed();
+        User user = saved.getFirst().getUser();
+
+        // Act
+        List<Expense> changes = store.findChangesByUserId(user.getId(), LocalDateTime.now().minusDays(1),
+                new UUID(0, 0), LocalDateTime.now().plusDays(1), PageRequest.of(0, 100));
+
+        // Assert
+        assertThat(changes).isNotEmpty();
+        assertThat(changes).allSatisfy(expense -> assertThat(expense.getUser()).isSameAs(user));
+        assertThat(changes).isSortedAccordingTo(Comparator.comparing(Expense::getUpdatedAt));
+    }
+
+    @Test
+    void orderBy_ShouldOrderTextByCodePoint_LikeTheMerge() {
+        // Arrange
+        Sort sort = Sort.by("title").and(Sort.by("amount").descending());
+
+        // Act
+        String orderBy = ShardedExpenseStore.orderBy(sort, " COLLATE \"C\"");
+
+        // Assert
+        assertThat(orderBy).isEqualTo(" ORDER BY title COLLATE \"C\" ASC NULLS LAST, amount DESC NULLS FIRST, id");
+        assertThat(ExpenseOrder.compareText("\uFF21", "\uD83D\uDE00")).isNegative();
+        assertThat(ExpenseOrder.compareText("Taxi", "Taxis")).isNegative();
+        assertThat(ExpenseOrder.compareText("b", "a")).isPositive();
+    }
+
+    @Test
+    void shardFor_ShouldSpreadUsersOverAllShards() {
+        // Arrange
+        ShardRouter router = new ShardRouter(4);
+        int[] counts = new int[4];
+
+        // Act
+        for (int i = 0; i < 4000; i++) {
+            counts[router.shardFor(UUID.randomUUID())]++;
+        }
+
+        // Assert
+        assertThat(counts).allSatisfy(count -> assertThat(count).isBetween(800, 1200));
+    }
+
+    private List<Expense> seed() {
+        List<User> owners = new ArrayList<>(users.values());
+        List<Expense> saved = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Expense expense = new Expense();
+            expense.setUser(owners.get(i % owners.size()));
+            expense.setCategory(i % 5 == 0 ? transport : food);
+            expense.setTitle(i % 4 < 2 ? "Lunch" : "Taxi");
+            expense.setAmount(BigDecimal.valueOf(1000 + i * 37L, 2));
+            expense.setExpenseDate(LocalDate.of(2024, 1 + i % 2, 1 + i % 28));
+            saved.add(store.save(expense));
+        }
+        return saved;
+    }
+
+    private static Category category(String name) {
+        Category category = new Category();
+        category.setId(UUID.randomUUID());
+        category.setName(name);
+        return category;
+    }
+}
@@ -0,0 +1,37 @@
+package com.taingy.expensetracker.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimedPasswordEncoderTest {
+
+    private SimpleMeterRegistry registry;
+    private TimedPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        encoder = new TimedPasswordEncoder(new BCryptPasswordEncoder(4), registry);
+    }
+
+    @Test
+    void matches_ShouldRecordOutcome() {
+        // Arrange
+        String hash = encoder.encode("password");
+
+        // Act
+        boolean match = encoder.matches("password", hash);
+        boolean mismatch = encoder.matches("wrong", hash);
+
+        // Assert
+        assertThat(match).isTrue();
+        assertThat(mismatch).isFalse();
+        assertThat(registry.get("security.password.encode").timer().count()).isEqualTo(1);
+        assertThat(registry.get("security.password.matches").tag("outcome", "match").timer().count()).isEqualTo(1);
+        assertThat(registry.get("security.password.matches").tag("outcome", "mismatch").timer().count()).isEqualTo(1);
+    }
+}
@@ -8,14 +8,17 @@ import com.taingy.expensetracker.repository.RoleRepository;
 import com.taingy.expensetracker.repository.UserRepository;
 import com.taingy.expensetracker.security.JwtUtil;
 import com.taingy.expensetracker.service.impl.AuthServiceImpl;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
@@ -168,11 +171,10 @@ class AuthServiceImplTest {
     @Test
     void register_ShouldRegisterUserSuccessfully() {
         // Arrange
-        when(userRepository.existsByEmail(anyString())).thenReturn(false);
         when(userMapper.toEntity(any(UserRequest.class))).thenReturn(testUser);
         when(passwordEncoder.encode(anyString())).thenReturn("$2a$10$encodedPassword");
         when(roleRepository.findByName("USER")).thenReturn(Optional.of(userRole));
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(testUser);
 
         // Act
         ResponseMessage result = authService.register(userRequest);
@@ -180,41 +182,44 @@ class AuthServiceImplTest {
         // Assert
         assertThat(result).isNotNull();
         assertThat(result.message()).contains("Registration successful");
-        verify(userRepository).existsByEmail("john.doe@example.com");
         verify(passwordEncoder).encode("password123");
         verify(roleRepository).findByName("USER");
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).saveAndFlush(any(User.class));
+        verify(userRepository, never()).existsByEmail(anyString());
     }
 
     @Test
     void register_ShouldThrowException_WhenEmailAlreadyExists() {
         // Arrange
-        when(userRepository.existsByEmail(anyString())).thenReturn(true);
+        when(userMapper.toEntity(any(UserRequest.class))).thenReturn(testUser);
+        when(passwordEncoder.encode(anyString())).thenReturn("$2a$10$encodedPassword");
+        when(roleRepository.findByName("USER")).thenReturn(Optional.of(userRole));
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(new DataIntegrityViolationException(
+                "duplicate key", new ConstraintViolationException("duplicate key",
+                new SQLException("duplicate key", "23505"), "uk_users_email_lower")));
 
         // Act & Assert
         assertThatThrownBy(() -> authService.register(userRequest))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("Email is already in use");
 
-        verify(userRepository).existsByEmail("john.doe@example.com");
-        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository, never()).existsByEmail(anyString());
     }
 
     @Test
     void register_ShouldEncodePassword() {
         // Arrange
-        when(userRepository.existsByEmail(anyString())).thenReturn(false);
         when(userMapper.toEntity(any(UserRequest.class))).thenReturn(testUser);
         when(passwordEncoder.encode(anyString())).thenReturn("$2a$10$encodedPassword");
         when(roleRepository.findByName("USER")).thenReturn(Optional.of(userRole));
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(testUser);
 
         // Act
         authService.register(userRequest);
 
         // Assert
         verify(passwordEncoder).encode("password123");
-        verify(userRepository).save(argThat(user ->
+        verify(userRepository).saveAndFlush(argThat(user ->
                 user.getPassword().equals("$2a$10$encodedPassword")
         ));
     }
@@ -222,18 +227,17 @@ class AuthServiceImplTest {
     @Test
     void register_ShouldSetUserRoleToUSER() {
         // Arrange
-        when(userRepository.existsByEmail(anyString())).thenReturn(false);
         when(userMapper.toEntity(any(UserRequest.class))).thenReturn(testUser);
         when(passwordEncoder.encode(anyString())).thenReturn("$2a$10$encodedPassword");
         when(roleRepository.findByName("USER")).thenReturn(Optional.of(userRole));
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(testUser);
 
         // Act
         authService.register(userRequest);
 
         // Assert
         verify(roleRepository).findByName("USER");
-        verify(userRepository).save(argThat(user ->
+        verify(userRepository).saveAndFlush(argThat(user ->
                 user.getRole() != null && user.getRole().getName().equals("USER")
         ));
     }
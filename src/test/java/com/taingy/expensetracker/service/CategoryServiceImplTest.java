@@ -2,9 +2,11 @@ package com.taingy.expensetracker.service;
 
 import com.taingy.expensetracker.dto.CategoryRequest;
 import com.taingy.expensetracker.dto.CategoryResponse;
+import com.taingy.expensetracker.event.CategoryChangedEvent;
 import com.taingy.expensetracker.mapper.CategoryMapper;
 import com.taingy.expensetracker.model.Category;
 import com.taingy.expensetracker.repository.CategoryRepository;
+import com.taingy.expensetracker.repository.ExpenseStore;
 import com.taingy.expensetracker.service.impl.CategoryServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +14,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -33,6 +36,12 @@ class CategoryServiceImplTest {
     @Mock
     private CategoryMapper categoryMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ExpenseStore expenseStore;
+
     @InjectMocks
     private CategoryServiceImpl categoryService;
 
@@ -142,6 +151,7 @@ class CategoryServiceImplTest {
         assertThat(result).isNotNull();
         assertThat(result.getName()).isEqualTo("Food");
         verify(categoryRepository).save(any(Category.class));
+        verify(eventPublisher).publishEvent(new CategoryChangedEvent(categoryId));
     }
 
     @Test
@@ -158,6 +168,7 @@ class CategoryServiceImplTest {
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(categoryId);
         verify(categoryRepository).save(any(Category.class));
+        verify(eventPublisher).publishEvent(new CategoryChangedEvent(categoryId));
     }
 
     @Test
@@ -171,6 +182,22 @@ class CategoryServiceImplTest {
         // Assert
         verify(categoryRepository).findById(categoryId);
         verify(categoryRepository).delete(testCategory);
+        verify(eventPublisher).publishEvent(new CategoryChangedEvent(categoryId));
+    }
+
+    @Test
+    void delete_ShouldThrowException_WhenCategoryStillHasExpenses() {
+        // Arrange
+        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(testCategory));
+        when(expenseStore.existsByCategoryId(categoryId)).thenReturn(true);
+
+        // Act & Assert
+        assertThatThrownBy(() -> categoryService.delete(categoryId))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("still has expenses");
+
+        verify(categoryRepository, never()).delete(any(Category.class));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
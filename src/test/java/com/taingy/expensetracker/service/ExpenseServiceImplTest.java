@@ -1,42 +1,58 @@
 package com.taingy.expensetracker.service;
 
+import com.taingy.expensetracker.cache.ExpenseSummaryCache;
+import com.taingy.expensetracker.dto.ExpenseChanges;
 import com.taingy.expensetracker.dto.ExpenseRequest;
 import com.taingy.expensetracker.dto.ExpenseResponse;
+import com.taingy.expensetracker.dto.ExpenseSummary;
+import com.taingy.expensetracker.event.ExpenseChangedEvent;
+import com.taingy.expensetracker.event.ExpenseWrittenEvent;
 import com.taingy.expensetracker.mapper.ExpenseMapper;
 import com.taingy.expensetracker.model.Category;
 import com.taingy.expensetracker.model.Expense;
+import com.taingy.expensetracker.model.ExpenseTombstone;
+import com.taingy.expensetracker.model.Role;
 import com.taingy.expensetracker.model.User;
-import com.taingy.expensetracker.repository.ExpenseRepository;
+import com.taingy.expensetracker.repository.ExpenseStore;
+import com.taingy.expensetracker.repository.ExpenseTombstoneRepository;
 import com.taingy.expensetracker.repository.UserRepository;
+import com.taingy.expensetracker.repository.projection.ExpenseListItem;
 import com.taingy.expensetracker.service.impl.ExpenseServiceImpl;
+import com.taingy.expensetracker.service.impl.ExpenseSummaryCalculator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class ExpenseServiceImplTest {
 
     @Mock
-    private ExpenseRepository expenseRepository;
+    private ExpenseStore expenseStore;
 
     @Mock
     private ExpenseMapper expenseMapper;
@@ -44,6 +60,18 @@ class ExpenseServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ExpenseSummaryCalculator summaryCalculator;
+
+    @Mock
+    private ExpenseSummaryCache summaryCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ExpenseTombstoneRepository tombstoneRepository;
+
     @InjectMocks
     private ExpenseServiceImpl expenseService;
 
@@ -95,12 +123,17 @@ class ExpenseServiceImplTest {
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .build();
+
+        ReflectionTestUtils.setField(expenseService, "syncSettleSeconds", 5);
+        ReflectionTestUtils.setField(expenseService, "syncMaxLimit", 1000);
+        ReflectionTestUtils.setField(expenseService, "tombstoneRetentionDays", 30);
+        ReflectionTestUtils.setField(expenseService, "tombstonePurgeBatchSize", 2);
     }
 
     @Test
     void findById_ShouldReturnExpenseResponse_WhenExpenseExists() {
         // Arrange
-        when(expenseRepository.findById(expenseId)).thenReturn(Optional.of(testExpense));
+        when(expenseStore.findById(expenseId)).thenReturn(Optional.of(testExpense));
         when(expenseMapper.toDto(any(Expense.class))).thenReturn(expenseResponse);
 
         // Act
@@ -110,13 +143,13 @@ class ExpenseServiceImplTest {
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(expenseId);
         assertThat(result.getAmount()).isEqualByComparingTo(new BigDecimal("50.00"));
-        verify(expenseRepository).findById(expenseId);
+        verify(expenseStore).findById(expenseId);
     }
 
     @Test
     void findById_ShouldReturnNull_WhenExpenseDoesNotExist() {
         // Arrange
-        when(expenseRepository.findById(expenseId)).thenReturn(Optional.empty());
+        when(expenseStore.findById(expenseId)).thenReturn(Optional.empty());
         when(expenseMapper.toDto(null)).thenReturn(null);
 
         // Act
@@ -124,19 +157,19 @@ class ExpenseServiceImplTest {
 
         // Assert
         assertThat(result).isNull();
-        verify(expenseRepository).findById(expenseId);
+        verify(expenseStore).findById(expenseId);
     }
 
     @Test
     void findExpensesWithFilters_ShouldReturnPagedExpenses() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Expense> expensePage = new PageImpl<>(Arrays.asList(testExpense));
+        Page<ExpenseListItem> expensePage = new PageImpl<>(Arrays.asList(listItem()));
 
-        when(expenseRepository.findExpensesWithFilters(
+        when(expenseStore.findExpensesWithFilters(
                 any(), any(), anyString(), any(), any(), any(), any(), any(Pageable.class)))
                 .thenReturn(expensePage);
-        when(expenseMapper.toDto(any(Expense.class))).thenReturn(expenseResponse);
+        when(expenseMapper.toDto(any(ExpenseListItem.class))).thenReturn(expenseResponse);
 
         // Act
         Page<ExpenseResponse> result = expenseService.findExpensesWithFilters(
@@ -146,7 +179,7 @@ class ExpenseServiceImplTest {
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
         assertThat(result.getContent().get(0).getId()).isEqualTo(expenseId);
-        verify(expenseRepository).findExpensesWithFilters(
+        verify(expenseStore).findExpensesWithFilters(
                 userId, categoryId, "lunch", null, null, null, null, pageable);
     }
 
@@ -156,12 +189,12 @@ class ExpenseServiceImplTest {
         Pageable pageable = PageRequest.of(0, 10);
         LocalDate startDate = LocalDate.now().minusDays(7);
         LocalDate endDate = LocalDate.now();
-        Page<Expense> expensePage = new PageImpl<>(Arrays.asList(testExpense));
+        Page<ExpenseListItem> expensePage = new PageImpl<>(Arrays.asList(listItem()));
 
-        when(expenseRepository.findExpensesWithFilters(
+        when(expenseStore.findExpensesWithFilters(
                 any(), any(), any(), eq(startDate), eq(endDate), any(), any(), any(Pageable.class)))
                 .thenReturn(expensePage);
-        when(expenseMapper.toDto(any(Expense.class))).thenReturn(expenseResponse);
+        when(expenseMapper.toDto(any(ExpenseListItem.class))).thenReturn(expenseResponse);
 
         // Act
         Page<ExpenseResponse> result = expenseService.findExpensesWithFilters(
@@ -170,7 +203,7 @@ class ExpenseServiceImplTest {
         // Assert
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
-        verify(expenseRepository).findExpensesWithFilters(
+        verify(expenseStore).findExpensesWithFilters(
                 userId, null, null, startDate, endDate, null, null, pageable);
     }
 
@@ -180,12 +213,12 @@ class ExpenseServiceImplTest {
         Pageable pageable = PageRequest.of(0, 10);
         BigDecimal minAmount = new BigDecimal("10.00");
         BigDecimal maxAmount = new BigDecimal("100.00");
-        Page<Expense> expensePage = new PageImpl<>(Arrays.asList(testExpense));
+        Page<ExpenseListItem> expensePage = new PageImpl<>(Arrays.asList(listItem()));
 
-        when(expenseRepository.findExpensesWithFilters(
+        when(expenseStore.findExpensesWithFilters(
                 any(), any(), any(), any(), any(), eq(minAmount), eq(maxAmount), any(Pageable.class)))
                 .thenReturn(expensePage);
-        when(expenseMapper.toDto(any(Expense.class))).thenReturn(expenseResponse);
+        when(expenseMapper.toDto(any(ExpenseListItem.class))).thenReturn(expenseResponse);
 
         // Act
         Page<ExpenseResponse> result = expenseService.findExpensesWithFilters(
@@ -194,7 +227,7 @@ class ExpenseServiceImplTest {
         // Assert
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
-        verify(expenseRepository).findExpensesWithFilters(
+        verify(expenseStore).findExpensesWithFilters(
                 userId, null, null, null, null, minAmount, maxAmount, pageable);
     }
 
@@ -204,7 +237,7 @@ class ExpenseServiceImplTest {
         String userEmail = "test@example.com";
         when(userRepository.findByEmail(userEmail)).thenReturn(Optional.of(testUser));
         when(expenseMapper.toEntity(any(ExpenseRequest.class))).thenReturn(testExpense);
-        when(expenseRepository.save(any(Expense.class))).thenReturn(testExpense);
+        when(expenseStore.save(any(Expense.class))).thenReturn(testExpense);
         when(expenseMapper.toDto(any(Expense.class))).thenReturn(expenseResponse);
 
         // Act
@@ -215,7 +248,9 @@ class ExpenseServiceImplTest {
         assertThat(result.getId()).isEqualTo(expenseId);
         assertThat(result.getAmount()).isEqualByComparingTo(new BigDecimal("50.00"));
         verify(userRepository).findByEmail(userEmail);
-        verify(expenseRepository).save(any(Expense.class));
+        verify(expenseStore).save(any(Expense.class));
+        verify(eventPublisher).publishEvent(new ExpenseChangedEvent(userId));
+        verify(eventPublisher).publishEvent(ExpenseWrittenEvent.saved(testExpense));
     }
 
     @Test
@@ -230,14 +265,15 @@ class ExpenseServiceImplTest {
                 .hasMessage("User not found with email: " + userEmail);
 
         verify(userRepository).findByEmail(userEmail);
-        verify(expenseRepository, never()).save(any(Expense.class));
+        verify(expenseStore, never()).save(any(Expense.class));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void update_ShouldUpdateExpenseSuccessfully() {
         // Arrange
         when(expenseMapper.toEntity(any(ExpenseRequest.class))).thenReturn(testExpense);
-        when(expenseRepository.save(any(Expense.class))).thenReturn(testExpense);
+        when(expenseStore.save(any(Expense.class))).thenReturn(testExpense);
         when(expenseMapper.toDto(any(Expense.class))).thenReturn(expenseResponse);
 
         // Act
@@ -246,33 +282,157 @@ class ExpenseServiceImplTest {
         // Assert
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(expenseId);
-        verify(expenseRepository).save(any(Expense.class));
+        verify(expenseStore).save(any(Expense.class));
     }
 
     @Test
     void delete_ShouldDeleteExpense_WhenExpenseExists() {
         // Arrange
-        when(expenseRepository.findById(expenseId)).thenReturn(Optional.of(testExpense));
+        when(expenseStore.findById(expenseId)).thenReturn(Optional.of(testExpense));
 
         // Act
         expenseService.delete(expenseId);
 
         // Assert
-        verify(expenseRepository).findById(expenseId);
-        verify(expenseRepository).delete(testExpense);
+        verify(expenseStore).findById(expenseId);
+        verify(expenseStore).delete(testExpense);
+        verify(tombstoneRepository).save(argThat(tombstone ->
+                expenseId.equals(tombstone.getExpenseId()) && userId.equals(tombstone.getUserId())));
+        verify(eventPublisher).publishEvent(new ExpenseChangedEvent(userId));
+        verify(eventPublisher).publishEvent(ExpenseWrittenEvent.deleted(testExpense));
     }
 
     @Test
     void delete_ShouldThrowException_WhenExpenseDoesNotExist() {
         // Arrange
-        when(expenseRepository.findById(expenseId)).thenReturn(Optional.empty());
+        when(expenseStore.findById(expenseId)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThatThrownBy(() -> expenseService.delete(expenseId))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("Expense not found");
 
-        verify(expenseRepository).findById(expenseId);
-        verify(expenseRepository, never()).delete(any(Expense.class));
+        verify(expenseStore).findById(expenseId);
+        verify(expenseStore, never()).delete(any(Expense.class));
+        verify(tombstoneRepository, never()).save(any(ExpenseTombstone.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getSummary_ShouldUsePerUserCache_ForRegularUser() {
+        // Arrange
+        Role userRole = new Role();
+        userRole.setName("USER");
+        testUser.setRole(userRole);
+        ExpenseSummary summary = ExpenseSummary.builder().totalCount(1L).build();
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(summaryCalculator.calculateForUser(userId)).thenReturn(summary);
+        when(summaryCache.getUserSummary(eq(userId), any(Supplier.class)))
+                .thenAnswer(invocation -> ((Supplier<ExpenseSummary>) invocation.getArgument(1)).get());
+
+        // Act
+        ExpenseSummary result = expenseService.getSummary("test@example.com");
+
+        // Assert
+        assertThat(result).isSameAs(summary);
+        verify(summaryCalculator).calculateForUser(userId);
+        verify(summaryCache, never()).getGlobalSummary(any());
+    }
+
+    @Test
+    void getSummary_ShouldUseGlobalCache_ForAdmin() {
+        // Arrange
+        Role adminRole = new Role();
+        adminRole.setName("ADMIN");
+        testUser.setRole(adminRole);
+        ExpenseSummary summary = ExpenseSummary.builder().totalCount(10L).build();
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(summaryCache.getGlobalSummary(any())).thenReturn(summary);
+
+        // Act
+        ExpenseSummary result = expenseService.getSummary("test@example.com");
+
+        // Assert
+        assertThat(result).isSameAs(summary);
+        verify(summaryCache, never()).getUserSummary(any(), any());
+    }
+
+    @Test
+    void findChanges_ShouldReturnAllExpenses_WhenNoTokenGiven() {
+        // Arrange
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(expenseStore.findChangesByUserId(eq(userId), any(), any(), any(), any()))
+                .thenReturn(List.of(testExpense));
+        when(tombstoneRepository.findChangesByUserId(eq(userId), any(), any(), any(), any()))
+                .thenReturn(List.of());
+        when(expenseMapper.toDto(testExpense)).thenReturn(expenseResponse);
+
+        // Act
+        ExpenseChanges result = expenseService.findChanges("test@example.com", null, 100);
+
+        // Assert
+        assertThat(result.getChanged()).containsExactly(expenseResponse);
+        assertThat(result.getDeletedIds()).isEmpty();
+        assertThat(result.getNextToken()).isNotBlank();
+        assertThat(result.isHasMore()).isFalse();
+        assertThat(result.isFullResync()).isFalse();
+        verify(expenseStore).findChangesByUserId(eq(userId), eq(LocalDateTime.of(1970, 1, 1, 0, 0)),
+                eq(new UUID(0L, 0L)), any(), eq(PageRequest.of(0, 100)));
+    }
+
+    @Test
+    void findChanges_ShouldResumeAfterLastRow_WhenPageIsFull() {
+        // Arrange
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 15, 10, 30, 0, 123_456_000);
+        testExpense.setUpdatedAt(updatedAt);
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(expenseStore.findChangesByUserId(eq(userId), any(), any(), any(), any()))
+                .thenReturn(List.of(testExpense));
+        when(tombstoneRepository.findChangesByUserId(eq(userId), any(), any(), any(), any()))
+                .thenReturn(List.of());
+        ExpenseChanges first = expenseService.findChanges("test@example.com", null, 1);
+
+        // Act
+        ExpenseChanges second = expenseService.findChanges("test@example.com", first.getNextToken(), 1);
+
+        // Assert
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(second.isFullResync()).isFalse();
+        verify(expenseStore).findChangesByUserId(eq(userId), eq(updatedAt), eq(expenseId), any(), any());
+    }
+
+    @Test
+    void findChanges_ShouldRequestFullResync_WhenTokenIsMalformed() {
+        // Arrange
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(expenseStore.findChangesByUserId(eq(userId), any(), any(), any(), any())).thenReturn(List.of());
+        when(tombstoneRepository.findChangesByUserId(eq(userId), any(), any(), any(), any())).thenReturn(List.of());
+
+        // Act
+        ExpenseChanges result = expenseService.findChanges("test@example.com", "not-a-token", 100);
+
+        // Assert
+        assertThat(result.isFullResync()).isTrue();
+        verify(expenseStore).findChangesByUserId(eq(userId), eq(LocalDateTime.of(1970, 1, 1, 0, 0)),
+                any(), any(), any());
+    }
+
+    @Test
+    void purgeExpiredTombstones_ShouldDeleteInBatchesUntilExhausted() {
+        // Arrange
+        when(tombstoneRepository.deleteExpiredBatch(any(LocalDateTime.class), eq(2))).thenReturn(2, 2, 1);
+
+        // Act
+        int purged = expenseService.purgeExpiredTombstones();
+
+        // Assert
+        assertThat(purged).isEqualTo(5);
+        verify(tombstoneRepository, times(3)).deleteExpiredBatch(any(LocalDateTime.class), eq(2));
+    }
+
+    private ExpenseListItem listItem() {
+        return new ExpenseListItem(expenseId, testExpense.getExpenseDate(), "Lunch", "Team lunch",
+                new BigDecimal("50.00"), "Food", userId, "test@example.com", "Test", "User",
+                testExpense.getCreatedAt(), testExpense.getUpdatedAt());
     }
 }
@@ -0,0 +1,142 @@
+package com.taingy.expensetracker.service;
+
+import com.taingy.expensetracker.dto.ExpenseSummary;
+import com.taingy.expensetracker.repository.ExpenseStore;
+import com.taingy.expensetracker.repository.projection.CategoryTotal;
+import com.taingy.expensetracker.repository.projection.ExpenseTotals;
+import com.taingy.expensetracker.repository.projection.MonthlyTotal;
+import com.taingy.expensetracker.repository.projection.UserTotal;
+import com.taingy.expensetracker.service.impl.ExpenseSummaryCalculator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExpenseSummaryCalculatorTest {
+
+    @Mock
+    private ExpenseStore expenseStore;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ExpenseSummaryCalculator calculator;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        calculator = new ExpenseSummaryCalculator(expenseStore, Runnable::run, transactionManager, 2000);
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    void calculateForUser_ShouldBuildSummaryFromAggregates() {
+        // Arrange
+        when(expenseStore.getTotalsByUserId(userId)).thenReturn(new ExpenseTotals(
+                new BigDecimal("100.00"), 4L, 25.0, new BigDecimal("60.00"), new BigDecimal("5.00")));
+        when(expenseStore.getCategoryTotalsByUserId(userId)).thenReturn(List.of(
+                new CategoryTotal("Transport", new BigDecimal("25.00"), 1L),
+                new CategoryTotal("Food", new BigDecimal("75.00"), 3L)));
+        when(expenseStore.getMonthlyTotalsByUserId(userId)).thenReturn(List.of(
+                new MonthlyTotal(2024, 1, new BigDecimal("40.00"), 2L),
+                new MonthlyTotal(2024, 2, new BigDecimal("60.00"), 2L)));
+
+        // Act
+        ExpenseSummary summary = calculator.calculateForUser(userId);
+
+        // Assert
+        assertThat(summary.isPartial()).isFalse();
+        assertThat(summary.getTotalAmount()).isEqualByComparingTo("100.00");
+        assertThat(summary.getTotalCount()).isEqualTo(4L);
+        assertThat(summary.getAverageAmount()).isEqualByComparingTo("25");
+        assertThat(summary.getCategoryBreakdown()).extracting(ExpenseSummary.CategorySummary::getCategoryName)
+                .containsExactly("Food", "Transport");
+        assertThat(summary.getCategoryBreakdown().get(0).getPercentage()).isEqualTo(75.0);
+        assertThat(summary.getMonthlyBreakdown()).extracting(ExpenseSummary.MonthlySummary::getMonth)
+                .containsExactly("2024-02", "2024-01");
+        assertThat(summary.getUserBreakdown()).isNull();
+    }
+
+    @Test
+    void calculateForUser_ShouldReturnZeros_WhenUserHasNoExpenses() {
+        // Arrange
+        when(expenseStore.getTotalsByUserId(userId)).thenReturn(new ExpenseTotals(null, 0L, null, null, null));
+        when(expenseStore.getCategoryTotalsByUserId(userId)).thenReturn(List.of());
+        when(expenseStore.getMonthlyTotalsByUserId(userId)).thenReturn(List.of());
+
+        // Act
+        ExpenseSummary summary = calculator.calculateForUser(userId);
+
+        // Assert
+        assertThat(summary.getTotalAmount()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(summary.getAverageAmount()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(summary.getCategoryBreakdown()).isEmpty();
+        assertThat(summary.getMonthlyBreakdown()).isEmpty();
+    }
+
+    @Test
+    void calculateForAllUsers_ShouldIncludeUserBreakdown() {
+        // Arrange
+        when(expenseStore.getTotals()).thenReturn(new ExpenseTotals(
+                new BigDecimal("80.00"), 2L, 40.0, new BigDecimal("60.00"), new BigDecimal("20.00")));
+        when(expenseStore.getCategoryTotals()).thenReturn(List.of());
+        when(expenseStore.getMonthlyTotals()).thenReturn(List.of());
+        when(expenseStore.getUserTotals()).thenReturn(List.of(
+                new UserTotal("Jane", "Doe", "jane@example.com", new BigDecimal("20.00"), 1L),
+                new UserTotal("John", "Doe", "john@example.com", new BigDecimal("60.00"), 1L)));
+
+        // Act
+        ExpenseSummary summary = calculator.calculateForAllUsers();
+
+        // Assert
+        assertThat(summary.getUserBreakdown()).extracting(ExpenseSummary.UserSummary::getUserName)
+                .containsExactly("John Doe", "Jane Doe");
+        assertThat(summary.getUserBreakdown().get(0).getPercentage()).isEqualTo(75.0);
+    }
+
+    @Test
+    void calculateForUser_ShouldReturnPartialSummary_WhenSubQueryMissesDeadline() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        CountDownLatch release = new CountDownLatch(1);
+        calculator = new ExpenseSummaryCalculator(expenseStore, executor::execute, transactionManager, 200);
+        when(expenseStore.getTotalsByUserId(userId)).thenReturn(new ExpenseTotals(
+                new BigDecimal("10.00"), 1L, 10.0, new BigDecimal("10.00"), new BigDecimal("10.00")));
+        when(expenseStore.getCategoryTotalsByUserId(userId)).thenReturn(List.of());
+        when(expenseStore.getMonthlyTotalsByUserId(userId)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+
+        try {
+            // Act
+            long start = System.nanoTime();
+            ExpenseSummary summary = calculator.calculateForUser(userId);
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // Assert
+            assertThat(summary.isPartial()).isTrue();
+            assertThat(summary.getTotalAmount()).isEqualByComparingTo("10.00");
+            assertThat(summary.getCategoryBreakdown()).isEmpty();
+            assertThat(summary.getMonthlyBreakdown()).isNull();
+            assertThat(elapsedMs).isLessThan(2000);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.taingy.expensetracker.service;
+
+import com.taingy.expensetracker.service.impl.InMemoryOtpStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryOtpStoreTest {
+
+    private InMemoryOtpStore otpStore;
+
+    @BeforeEach
+    void setUp() {
+        otpStore = new InMemoryOtpStore();
+        ReflectionTestUtils.setField(otpStore, "maxAttempts", 3);
+    }
+
+    @Test
+    void consume_ShouldAcceptLiveCodeOnlyOnce() {
+        // Arrange
+        otpStore.store("john.doe@example.com", "123456", LocalDateTime.now().plusMinutes(3));
+
+        // Act & Assert
+        assertThat(otpStore.consume("john.doe@example.com", "123456")).isTrue();
+        assertThat(otpStore.consume("john.doe@example.com", "123456")).isFalse();
+    }
+
+    @Test
+    void store_ShouldReplacePreviousCode() {
+        // Arrange
+        otpStore.store("john.doe@example.com", "111111", LocalDateTime.now().plusMinutes(3));
+        otpStore.store("john.doe@example.com", "222222", LocalDateTime.now().plusMinutes(3));
+
+        // Act & Assert
+        assertThat(otpStore.consume("john.doe@example.com", "111111")).isFalse();
+        assertThat(otpStore.consume("john.doe@example.com", "222222")).isTrue();
+    }
+
+    @Test
+    void consume_ShouldRejectExpiredCode() {
+        // Arrange
+        otpStore.store("john.doe@example.com", "123456", LocalDateTime.now().minusSeconds(1));
+
+        // Act & Assert
+        assertThat(otpStore.consume("john.doe@example.com", "123456")).isFalse();
+    }
+
+    @Test
+    void consume_ShouldInvalidateCodeAfterMaxAttempts() {
+        // Arrange
+        otpStore.store("john.doe@example.com", "123456", LocalDateTime.now().plusMinutes(3));
+
+        // Act
+        otpStore.consume("john.doe@example.com", "000000");
+        otpStore.consume("john.doe@example.com", "000001");
+        otpStore.consume("john.doe@example.com", "000002");
+
+        // Assert
+        assertThat(otpStore.consume("john.doe@example.com", "123456")).isFalse();
+    }
+
+    @Test
+    void purgeExpired_ShouldEvictOnlyExpiredCodes() {
+        // Arrange
+        otpStore.store("expired@example.com", "123456", LocalDateTime.now().minusMinutes(1));
+        otpStore.store("live@example.com", "654321", LocalDateTime.now().plusMinutes(3));
+
+        // Act
+        int purged = otpStore.purgeExpired();
+
+        // Assert
+        assertThat(purged).isEqualTo(1);
+        assertThat(otpStore.consume("live@example.com", "654321")).isTrue();
+    }
+}
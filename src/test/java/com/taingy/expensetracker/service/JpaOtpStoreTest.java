@@ -0,0 +1,105 @@
+package com.taingy.expensetracker.service;
+
+import com.taingy.expensetracker.model.EmailOtp;
+import com.taingy.expensetracker.repository.EmailOtpRepository;
+import com.taingy.expensetracker.service.impl.JpaOtpStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JpaOtpStoreTest {
+
+    @Mock
+    private EmailOtpRepository emailOtpRepository;
+
+    @InjectMocks
+    private JpaOtpStore otpStore;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(otpStore, "purgeBatchSize", 100);
+    }
+
+    @Test
+    void store_ShouldInvalidatePreviousCodesWithBulkUpdate() {
+        // Arrange
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(3);
+        when(emailOtpRepository.invalidateActiveOtps(eq("john.doe@example.com"), any(LocalDateTime.class)))
+                .thenReturn(2);
+
+        // Act
+        otpStore.store("john.doe@example.com", "123456", expiresAt);
+
+        // Assert
+        verify(emailOtpRepository).invalidateActiveOtps(eq("john.doe@example.com"), any(LocalDateTime.class));
+        verify(emailOtpRepository).save(argThat(otp ->
+                otp.getEmail().equals("john.doe@example.com")
+                        && otp.getOtpCode().equals("123456")
+                        && otp.getExpiresAt().equals(expiresAt)
+                        && !otp.isVerified()
+        ));
+    }
+
+    @Test
+    void consume_ShouldMarkCodeVerified_WhenCodeMatches() {
+        // Arrange
+        EmailOtp emailOtp = new EmailOtp();
+        emailOtp.setEmail("john.doe@example.com");
+        emailOtp.setOtpCode("123456");
+        when(emailOtpRepository.findByEmailAndOtpCodeAndVerifiedFalseAndExpiresAtAfter(
+                eq("john.doe@example.com"), eq("123456"), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(emailOtp));
+
+        // Act
+        boolean result = otpStore.consume("john.doe@example.com", "123456");
+
+        // Assert
+        assertThat(result).isTrue();
+        assertThat(emailOtp.isVerified()).isTrue();
+        assertThat(emailOtp.getVerifiedAt()).isNotNull();
+        verify(emailOtpRepository).save(emailOtp);
+    }
+
+    @Test
+    void consume_ShouldReturnFalse_WhenCodeDoesNotMatch() {
+        // Arrange
+        when(emailOtpRepository.findByEmailAndOtpCodeAndVerifiedFalseAndExpiresAtAfter(
+                anyString(), anyString(), any(LocalDateTime.class)))
+                .thenReturn(Optional.empty());
+
+        // Act
+        boolean result = otpStore.consume("john.doe@example.com", "000000");
+
+        // Assert
+        assertThat(result).isFalse();
+        verify(emailOtpRepository, never()).save(any(EmailOtp.class));
+    }
+
+    @Test
+    void purgeExpired_ShouldDeleteInBatchesUntilExhausted() {
+        // Arrange
+        when(emailOtpRepository.deleteExpiredBatch(any(LocalDateTime.class), eq(100)))
+                .thenReturn(100, 100, 42);
+
+        // Act
+        int purged = otpStore.purgeExpired();
+
+        // Assert
+        assertThat(purged).isEqualTo(242);
+        verify(emailOtpRepository, times(3)).deleteExpiredBatch(any(LocalDateTime.class), eq(100));
+    }
+}
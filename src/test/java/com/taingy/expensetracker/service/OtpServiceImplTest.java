@@ -0,0 +1,96 @@
+package com.taingy.expensetracker.service;
+
+import com.taingy.expensetracker.service.impl.OtpServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OtpServiceImplTest {
+
+    @Mock
+    private OtpStore otpStore;
+
+    @InjectMocks
+    private OtpServiceImpl otpService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(otpService, "OTP_EXPIRY_MINUTES", 3);
+    }
+
+    @Test
+    void generateOtp_ShouldStoreSixDigitCodeWithExpiry() {
+        // Act
+        String otpCode = otpService.generateOtp("john.doe@example.com");
+
+        // Assert
+        assertThat(otpCode).hasSize(6).containsOnlyDigits();
+        verify(otpStore).store(eq("john.doe@example.com"), eq(otpCode),
+                argThat(expiresAt -> expiresAt.isAfter(LocalDateTime.now().plusMinutes(2))));
+    }
+
+    @Test
+    void verifyOtp_ShouldReturnTrue_WhenStoreAcceptsCode() {
+        // Arrange
+        when(otpStore.consume("john.doe@example.com", "123456")).thenReturn(true);
+
+        // Act
+        boolean result = otpService.verifyOtp("john.doe@example.com", "123456");
+
+        // Assert
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    void generateAndVerifyOtp_ShouldKeyCodesByLowerCaseEmail() {
+        // Arrange
+        when(otpStore.consume("john.doe@example.com", "123456")).thenReturn(true);
+
+        // Act
+        otpService.generateOtp("John.Doe@Example.com");
+        boolean result = otpService.verifyOtp("JOHN.DOE@example.com", "123456");
+
+        // Assert
+        assertThat(result).isTrue();
+        verify(otpStore).store(eq("john.doe@example.com"), anyString(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void verifyOtp_ShouldReturnFalse_WhenStoreRejectsCode() {
+        // Arrange
+        when(otpStore.consume(anyString(), anyString())).thenReturn(false);
+
+        // Act
+        boolean result = otpService.verifyOtp("john.doe@example.com", "000000");
+
+        // Assert
+        assertThat(result).isFalse();
+    }
+
+    @Test
+    void purgeExpiredOtps_ShouldDelegateToStore() {
+        // Arrange
+        when(otpStore.purgeExpired()).thenReturn(7);
+
+        // Act
+        int purged = otpService.purgeExpiredOtps();
+
+        // Assert
+        assertThat(purged).isEqualTo(7);
+        verify(otpStore).purgeExpired();
+        verify(otpStore, never()).store(anyString(), anyString(), any(LocalDateTime.class));
+    }
+}
@@ -2,26 +2,33 @@ package com.taingy.expensetracker.service;
 
 import com.taingy.expensetracker.dto.UserRequest;
 import com.taingy.expensetracker.dto.UserResponse;
+import com.taingy.expensetracker.dto.UserScroll;
 import com.taingy.expensetracker.mapper.UserMapper;
 import com.taingy.expensetracker.model.Role;
 import com.taingy.expensetracker.model.User;
+import com.taingy.expensetracker.repository.ExpenseStore;
 import com.taingy.expensetracker.repository.RoleRepository;
 import com.taingy.expensetracker.repository.UserRepository;
+import com.taingy.expensetracker.repository.projection.UserListItem;
 import com.taingy.expensetracker.service.impl.UserServiceImpl;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -29,6 +36,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -46,6 +55,9 @@ class UserServiceImplTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private ExpenseStore expenseStore;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -99,11 +111,10 @@ class UserServiceImplTest {
     @Test
     void createUser_ShouldCreateUserSuccessfully() {
         // Arrange
-        when(userRepository.existsByEmail(anyString())).thenReturn(false);
         when(userMapper.toEntity(any(UserRequest.class))).thenReturn(testUser);
         when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
         when(roleRepository.findByName(anyString())).thenReturn(Optional.of(testRole));
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(testUser);
         when(userMapper.toDto(any(User.class))).thenReturn(userResponse);
 
         // Act
@@ -113,22 +124,40 @@ class UserServiceImplTest {
         assertThat(result).isNotNull();
         assertThat(result.getEmail()).isEqualTo("john.doe@example.com");
         assertThat(result.getFirstName()).isEqualTo("John");
-        verify(userRepository).existsByEmail("john.doe@example.com");
         verify(passwordEncoder).encode("password123");
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).saveAndFlush(any(User.class));
+        verify(userRepository, never()).existsByEmail(anyString());
     }
 
     @Test
     void createUser_ShouldThrowException_WhenEmailAlreadyExists() {
         // Arrange
-        when(userRepository.existsByEmail(anyString())).thenReturn(true);
+        when(userMapper.toEntity(any(UserRequest.class))).thenReturn(testUser);
+        when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
+        when(roleRepository.findByName(anyString())).thenReturn(Optional.of(testRole));
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(new DataIntegrityViolationException(
+                "duplicate key", new ConstraintViolationException("duplicate key",
+                new SQLException("duplicate key", "23505"), "uk_users_email")));
 
         // Act & Assert
         assertThatThrownBy(() -> userService.createUser(userRequest))
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessage("Email is already in use");
+    }
+
+    @Test
+    void createUser_ShouldRethrow_WhenAnotherConstraintIsViolated() {
+        // Arrange
+        DataIntegrityViolationException violation = new DataIntegrityViolationException(
+                "fk violation", new ConstraintViolationException("fk violation",
+                new SQLException("fk violation", "23503"), "fk_users_role"));
+        when(userMapper.toEntity(any(UserRequest.class))).thenReturn(testUser);
+        when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
+        when(roleRepository.findByName(anyString())).thenReturn(Optional.of(testRole));
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(violation);
 
-        verify(userRepository, never()).save(any(User.class));
+        // Act & Assert
+        assertThatThrownBy(() -> userService.createUser(userRequest)).isSameAs(violation);
     }
 
     @Test
@@ -178,20 +207,20 @@ class UserServiceImplTest {
     void findUsersWithFilters_ShouldReturnPagedUsers() {
         // Arrange
         Pageable pageable = PageRequest.of(0, 10);
-        Page<User> userPage = new PageImpl<>(Arrays.asList(testUser));
+        Page<UserListItem> userPage = new PageImpl<>(Arrays.asList(listItem(testUser.getCreatedAt(), userId)));
 
-        when(userRepository.findUsersWithFilters(anyString(), any(), any(), any(), any(Pageable.class)))
+        when(userRepository.findUsersWithFilters(anyString(), any(), any(), any(), any(), any(Pageable.class)))
                 .thenReturn(userPage);
-        when(userMapper.toDto(any(User.class))).thenReturn(userResponse);
+        when(userMapper.toDto(any(UserListItem.class))).thenReturn(userResponse);
 
         // Act
-        Page<UserResponse> result = userService.findUsersWithFilters("john", null, true, true, pageable);
+        Page<UserResponse> result = userService.findUsersWithFilters("john", null, null, true, true, pageable);
 
         // Assert
         assertThat(result).isNotNull();
         assertThat(result.getContent()).hasSize(1);
         assertThat(result.getContent().get(0).getEmail()).isEqualTo("john.doe@example.com");
-        verify(userRepository).findUsersWithFilters("john", null, true, true, pageable);
+        verify(userRepository).findUsersWithFilters("john", null, null, true, true, pageable);
     }
 
     @Test
@@ -222,6 +251,19 @@ class UserServiceImplTest {
         verify(userRepository).delete(testUser);
     }
 
+    @Test
+    void deleteUser_ShouldThrowException_WhenUserStillHasExpenses() {
+        // Arrange
+        when(expenseStore.existsByUserId(userId)).thenReturn(true);
+
+        // Act & Assert
+        assertThatThrownBy(() -> userService.deleteUser(userId))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("still has expenses");
+
+        verify(userRepository, never()).delete(any(User.class));
+    }
+
     @Test
     void deleteUser_ShouldDoNothing_WhenUserDoesNotExist() {
         // Arrange
@@ -234,4 +276,57 @@ class UserServiceImplTest {
         verify(userRepository).findById(userId);
         verify(userRepository, never()).delete(any(User.class));
     }
+
+    @Test
+    void scrollUsers_ShouldReturnCursorForNextWindow_WhenMoreUsersExist() {
+        // Arrange
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000);
+        UUID secondId = UUID.randomUUID();
+        when(userRepository.scrollUsersWithFilters(isNull(), isNull(), isNull(), eq(true), isNull(), isNull(), isNull(), eq(3)))
+                .thenReturn(List.of(listItem(createdAt.plusSeconds(1), userId), listItem(createdAt, secondId),
+                        listItem(createdAt.minusSeconds(1), UUID.randomUUID())));
+        when(userRepository.scrollUsersWithFilters(null, null, null, true, null, createdAt, secondId, 3))
+                .thenReturn(List.of());
+        when(userMapper.toDto(any(UserListItem.class))).thenReturn(userResponse);
+
+        // Act
+        UserScroll first = userService.scrollUsers(null, null, null, true, null, null, 2);
+        UserScroll second = userService.scrollUsers(null, null, null, true, null, first.getNextCursor(), 2);
+
+        // Assert
+        assertThat(first.getContent()).hasSize(2);
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(second.getContent()).isEmpty();
+        assertThat(second.isHasMore()).isFalse();
+    }
+
+    @Test
+    void scrollUsers_ShouldEndWithoutCursor_OnLastWindow() {
+        // Arrange
+        when(userRepository.scrollUsersWithFilters(any(), any(), any(), any(), any(), any(), any(), eq(101)))
+                .thenReturn(List.of(listItem(LocalDateTime.now(), userId)));
+        when(userMapper.toDto(any(UserListItem.class))).thenReturn(userResponse);
+
+        // Act
+        UserScroll result = userService.scrollUsers(null, null, null, null, null, "", 500);
+
+        // Assert
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.isHasMore()).isFalse();
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    void scrollUsers_ShouldRejectMalformedCursor() {
+        // Act & Assert
+        assertThatThrownBy(() -> userService.scrollUsers(null, null, null, null, null, "not-a-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Malformed cursor");
+        verifyNoInteractions(userRepository);
+    }
+
+    private UserListItem listItem(LocalDateTime createdAt, UUID id) {
+        return new UserListItem(id, "John", "Doe", "john.doe@example.com", "USER", true, true,
+                createdAt, createdAt);
+    }
 }
@@ -0,0 +1,51 @@
+package com.taingy.expensetracker.support;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the SQL statements Hibernate prepares, so tests can pin a statement budget for a code
+ * path and fail when it starts loading associations one row at a time (N+1).
+ * <p>
+ * Flush and clear the persistence context before {@link #start}. Otherwise pending inserts are
+ * counted, and associations that are already loaded hide the lazy loads the test is looking for.
+ * <pre>
+ * entityManager.flush();
+ * entityManager.clear();
+ * QueryCounter queries = QueryCounter.start(entityManagerFactory);
+ * page.map(expenseMapper::toDto);
+ * queries.assertAtMost(2);
+ * </pre>
+ */
+public final class QueryCounter {
+
+    private final Statistics statistics;
+
+    private QueryCounter(Statistics statistics) {
+        this.statistics = statistics;
+    }
+
+    public static QueryCounter start(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        return new QueryCounter(statistics);
+    }
+
+    public long statementCount() {
+        return statistics.getPrepareStatementCount();
+    }
+
+    public void assertAtMost(long budget) {
+        assertThat(statementCount())
+                .as("SQL statements prepared (queries: %s, entity fetches: %d, collection fetches: %d)",
+                        Arrays.toString(statistics.getQueries()), statistics.getEntityFetchCount(),
+                        statistics.getCollectionFetchCount())
+                .isLessThanOrEqualTo(budget);
+    }
+}
@@ -0,0 +1,113 @@
+package com.taingy.expensetracker.timing;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestTimingFilterTest {
+
+    @Test
+    void doFilter_ShouldReturnPhasesInServerTimingHeader_WhenEnabled() throws Exception {
+        // Arrange
+        RequestTimingFilter filter = new RequestTimingFilter(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/expenses"), response, (req, res) -> {
+            try (RequestTiming.Phase ignored = RequestTiming.start("criteria-query")) {
+                // timed work
+            }
+            try (RequestTiming.Phase ignored = RequestTiming.start("user-lookup")) {
+                // timed work
+            }
+            try (RequestTiming.Phase ignored = RequestTiming.start("user-lookup")) {
+                // a second lookup is added to the first
+            }
+            RequestTiming.startTrailing("serialization");
+            res.getWriter().write("{}");
+        });
+
+        // Assert
+        assertThat(response.getHeader(RequestTimingFilter.SERVER_TIMING))
+                .matches("criteria-query;dur=\\d+\\.\\d{2}, user-lookup;dur=\\d+\\.\\d{2}, "
+                        + "serialization;dur=\\d+\\.\\d{2}, total;dur=\\d+\\.\\d{2}");
+        assertThat(response.getContentAsString()).isEqualTo("{}");
+    }
+
+    @Test
+    void doFilter_ShouldNotAddHeader_WhenDisabled() throws Exception {
+        // Arrange
+        RequestTimingFilter filter = new RequestTimingFilter(false);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/expenses"), response, (req, res) -> {
+            try (RequestTiming.Phase ignored = RequestTiming.start("criteria-query")) {
+                res.getWriter().write("{}");
+            }
+        });
+
+        // Assert
+        assertThat(response.getHeader(RequestTimingFilter.SERVER_TIMING)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo("{}");
+    }
+
+    @Test
+    void doFilter_ShouldNotTimeNonApiRequests() throws Exception {
+        // Arrange
+        RequestTimingFilter filter = new RequestTimingFilter(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/swagger-ui/index.html"), response, (req, res) -> {
+        });
+
+        // Assert
+        assertThat(response.getHeader(RequestTimingFilter.SERVER_TIMING)).isNull();
+    }
+
+    @Test
+    void doFilter_ShouldPublishJfrEvents_WhenRecording() throws Exception {
+        // Arrange
+        RequestTimingFilter filter = new RequestTimingFilter(false);
+        Path dump = Files.createTempFile("request-timing", ".jfr");
+
+        // Act
+        try (Recording recording = new Recording()) {
+            recording.enable("com.taingy.expensetracker.Request");
+            recording.enable("com.taingy.expensetracker.RequestPhase");
+            recording.start();
+            filter.doFilter(new MockHttpServletRequest("GET", "/api/expenses"), new MockHttpServletResponse(),
+                    (req, res) -> {
+                        try (RequestTiming.Phase ignored = RequestTiming.start("count-query")) {
+                            // timed work
+                        }
+                    });
+            recording.stop();
+            recording.dump(dump);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        Files.deleteIfExists(dump);
+
+        // Assert
+        assertThat(events).anySatisfy(event -> {
+            assertThat(event.getEventType().getName()).isEqualTo("com.taingy.expensetracker.RequestPhase");
+            assertThat(event.getString("phase")).isEqualTo("count-query");
+            assertThat(event.getString("path")).isEqualTo("/api/expenses");
+        });
+        assertThat(events).anySatisfy(event -> {
+            assertThat(event.getEventType().getName()).isEqualTo("com.taingy.expensetracker.Request");
+            assertThat(event.getInt("status")).isEqualTo(200);
+            assertThat(event.getString("phases")).startsWith("count-query;dur=");
+        });
+    }
+}